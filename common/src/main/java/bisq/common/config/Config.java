@@ -121,6 +121,13 @@ public class Config {
     public static final String API_PORT = "apiPort";
     public static final String PREVENT_PERIODIC_SHUTDOWN_AT_SEED_NODE = "preventPeriodicShutdownAtSeedNode";
     public static final String REPUBLISH_MAILBOX_ENTRIES = "republishMailboxEntries";
+    public static final String USE_PERSISTENCE_JOURNAL = "usePersistenceJournal";
+    public static final String INCREMENTAL_DAO_STATE_HASH = "incrementalDaoStateHash";
+    public static final String VERIFY_DAO_STATE_HASH = "verifyDaoStateHash";
+    public static final String INCREMENTAL_BLOCKCHAIN_DATA_DUMP = "incrementalBlockchainDataDump";
+    public static final String API_QUERY_THREADS = "apiQueryThreads";
+    public static final String RPC_MAX_PARALLEL_BLOCK_REQUESTS = "rpcMaxParallelBlockRequests";
+    public static final String METRICS_PORT = "metricsPort";
 
     // Default values for certain options
     public static final int UNSPECIFIED_PORT = -1;
@@ -209,6 +216,13 @@ public class Config {
     public final int apiPort;
     public final boolean preventPeriodicShutdownAtSeedNode;
     public final boolean republishMailboxEntries;
+    public final boolean usePersistenceJournal;
+    public final boolean incrementalDaoStateHash;
+    public final boolean verifyDaoStateHash;
+    public final boolean incrementalBlockchainDataDump;
+    public final int apiQueryThreads;
+    public final int rpcMaxParallelBlockRequests;
+    public final int metricsPort;
 
     // Properties derived from options but not exposed as options themselves
     public final File torDir;
@@ -498,16 +512,18 @@ public class Config {
                         .defaultsTo(1000);
 
         ArgumentAcceptingOptionSpec<Integer> sendMsgThrottleTriggerOpt =
-                parser.accepts(SEND_MSG_THROTTLE_TRIGGER, "Time in ms when we trigger a sleep if 2 messages are sent")
+                parser.accepts(SEND_MSG_THROTTLE_TRIGGER, "Not used anymore, outbound messages are throttled " +
+                        "with a token bucket (see " + SEND_MSG_THROTTLE_SLEEP + ")")
                         .withRequiredArg()
                         .ofType(int.class)
-                        .defaultsTo(20); // Time in ms when we trigger a sleep if 2 messages are sent
+                        .defaultsTo(20); // Kept to not break existing configurations
 
         ArgumentAcceptingOptionSpec<Integer> sendMsgThrottleSleepOpt =
-                parser.accepts(SEND_MSG_THROTTLE_SLEEP, "Pause in ms to sleep if we get too many messages to send")
+                parser.accepts(SEND_MSG_THROTTLE_SLEEP, "Interval in ms at which a connection can send another " +
+                        "message once it has used up its burst. Throttled messages get queued by priority")
                         .withRequiredArg()
                         .ofType(int.class)
-                        .defaultsTo(50); // Pause in ms to sleep if we get too many messages to send
+                        .defaultsTo(50); // Interval in ms at which we send throttled messages
 
         ArgumentAcceptingOptionSpec<String> btcNodesOpt =
                 parser.accepts(BTC_NODES, "Custom nodes used for BitcoinJ as comma separated IP addresses.")
@@ -657,6 +673,56 @@ public class Config {
                         .ofType(boolean.class)
                         .defaultsTo(false);
 
+        ArgumentAcceptingOptionSpec<Boolean> usePersistenceJournalOpt =
+                parser.accepts(USE_PERSISTENCE_JOURNAL,
+                        "If set to true, large data stores append their changes to a journal file which " +
+                                "gets compacted in the background instead of rewriting the whole file at each write")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
+        ArgumentAcceptingOptionSpec<Boolean> incrementalDaoStateHashOpt =
+                parser.accepts(INCREMENTAL_DAO_STATE_HASH,
+                        "Only serialize the changed parts of the DAO state when creating the DAO state hash for a new block")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
+        ArgumentAcceptingOptionSpec<Boolean> verifyDaoStateHashOpt =
+                parser.accepts(VERIFY_DAO_STATE_HASH,
+                        "Cross-check the incrementally created DAO state hash against the full serialization of the DAO state")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
+        ArgumentAcceptingOptionSpec<Boolean> incrementalBlockchainDataDumpOpt =
+                parser.accepts(INCREMENTAL_BLOCKCHAIN_DATA_DUMP,
+                        "If set to true together with dumpBlockchainData only the data changed by new blocks is written, the blocks are appended to json/all/blocks.ndjson and the dump resumes from its checkpoint after a restart")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
+        ArgumentAcceptingOptionSpec<Integer> apiQueryThreadsOpt =
+                parser.accepts(API_QUERY_THREADS,
+                        "Number of threads serving read-only gRPC API queries")
+                        .withRequiredArg()
+                        .ofType(int.class)
+                        .defaultsTo(4);
+
+        ArgumentAcceptingOptionSpec<Integer> rpcMaxParallelBlockRequestsOpt =
+                parser.accepts(RPC_MAX_PARALLEL_BLOCK_REQUESTS,
+                        "Max. number of blocks requested in parallel from Bitcoin Core while syncing a DAO full node")
+                        .withRequiredArg()
+                        .ofType(int.class)
+                        .defaultsTo(4);
+
+        ArgumentAcceptingOptionSpec<Integer> metricsPortOpt =
+                parser.accepts(METRICS_PORT,
+                        "Port on localhost to serve network metrics in Prometheus text format at /metrics (disabled if not set)")
+                        .withRequiredArg()
+                        .ofType(int.class)
+                        .defaultsTo(UNSPECIFIED_PORT);
+
         try {
             CompositeOptionSet options = new CompositeOptionSet();
 
@@ -774,6 +840,13 @@ public class Config {
             this.apiPort = options.valueOf(apiPortOpt);
             this.preventPeriodicShutdownAtSeedNode = options.valueOf(preventPeriodicShutdownAtSeedNodeOpt);
             this.republishMailboxEntries = options.valueOf(republishMailboxEntriesOpt);
+            this.usePersistenceJournal = options.valueOf(usePersistenceJournalOpt);
+            this.incrementalDaoStateHash = options.valueOf(incrementalDaoStateHashOpt);
+            this.verifyDaoStateHash = options.valueOf(verifyDaoStateHashOpt);
+            this.incrementalBlockchainDataDump = options.valueOf(incrementalBlockchainDataDumpOpt);
+            this.apiQueryThreads = options.valueOf(apiQueryThreadsOpt);
+            this.rpcMaxParallelBlockRequests = options.valueOf(rpcMaxParallelBlockRequestsOpt);
+            this.metricsPort = options.valueOf(metricsPortOpt);
         } catch (OptionException ex) {
             throw new ConfigException("problem parsing option '%s': %s",
                     ex.options().get(0),
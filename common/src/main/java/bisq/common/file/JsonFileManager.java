@@ -19,9 +19,15 @@ package bisq.common.file;
 
 import bisq.common.util.Utilities;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintWriter;
 
 import java.util.ArrayList;
@@ -112,4 +118,48 @@ public class JsonFileManager {
                 printWriter.close();
         }
     }
+
+    @Nullable
+    public String readFromDisc(String fileName) {
+        File jsonFile = new File(Paths.get(dir.getAbsolutePath(), fileName + ".json").toString());
+        if (!jsonFile.exists()) {
+            return null;
+        }
+
+        try {
+            return new String(Files.readAllBytes(jsonFile.toPath()), StandardCharsets.UTF_8);
+        } catch (Throwable t) {
+            log.error("Reading {} failed", jsonFile, t);
+            return null;
+        }
+    }
+
+    /**
+     * Appends each json as a single line to the file with the given name and the ndjson extension. Any data behind
+     * validSize gets removed before, so a client can drop the lines of an incomplete former write by passing the
+     * size it got returned from the last successful call.
+     *
+     * @param jsons         The json strings, must not contain line breaks
+     * @param fileName      The file name without extension
+     * @param validSize     The size of the file which is known to contain complete data
+     * @return The size of the file after the write
+     */
+    public long appendToNdjsonFile(List<String> jsons, String fileName, long validSize) throws IOException {
+        File ndjsonFile = new File(Paths.get(dir.getAbsolutePath(), fileName + ".ndjson").toString());
+        try (FileChannel channel = FileChannel.open(ndjsonFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (channel.size() > validSize) {
+                channel.truncate(validSize);
+            }
+            channel.position(channel.size());
+            for (String json : jsons) {
+                ByteBuffer buffer = ByteBuffer.wrap((json + "\n").getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            channel.force(false);
+            return channel.size();
+        }
+    }
 }
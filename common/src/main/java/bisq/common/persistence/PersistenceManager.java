@@ -32,20 +32,32 @@ import com.google.inject.Inject;
 
 import javax.inject.Named;
 
+import com.google.protobuf.CodedInputStream;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import lombok.Getter;
@@ -70,6 +82,13 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * the write operations got triggered way too often specially for the very frequent changes at SequenceNumberMap and
  * the very large DaoState (at dao blockchain sync that slowed down sync).
  *
+ * Large data stores which only grow by small deltas can opt in to a journal mode (see {@link #enableJournal}). If the
+ * {@link Config#USE_PERSISTENCE_JOURNAL} option is set, deltas passed to {@link #appendToJournal} are appended to a
+ * journal file next to the storage file instead of rewriting the whole file. Deltas passed while an append is pending
+ * on the write thread are appended together with a single sync. Once the journal has grown large enough
+ * it gets compacted into the storage file on the write thread. At reading we replay the journal on top of the
+ * persisted data.
+ *
  *
  * @param <T>   The type of the {@link PersistableEnvelope} to be written or read from disk
  */
@@ -83,6 +102,10 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     public static final Map<String, PersistenceManager<?>> ALL_PERSISTENCE_MANAGERS = new HashMap<>();
     public static boolean FLUSH_ALL_DATA_TO_DISK_CALLED = false;
 
+    public static final String JOURNAL_POST_FIX = ".journal";
+    // We compact the journal once it reached that size or a quarter of the size of the storage file, whatever is larger.
+    private static final long MIN_JOURNAL_SIZE_FOR_COMPACTION = 1024 * 1024;
+
 
     // We require being called only once from the global shutdown routine. As the shutdown routine has a timeout
     // and error condition where we call the method as well beside the standard path and it could be that those
@@ -178,6 +201,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     private final File dir;
     private final PersistenceProtoResolver persistenceProtoResolver;
     private final CorruptedStorageFileHandler corruptedStorageFileHandler;
+    private final boolean usePersistenceJournal;
     private File storageFile;
     private T persistable;
     private String fileName;
@@ -189,19 +213,38 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     private ExecutorService writeToDiskExecutor;
     public final AtomicBoolean initCalled = new AtomicBoolean(false);
     public final AtomicBoolean readCalled = new AtomicBoolean(false);
+    // Merges a delta into the base data. Only set if journal mode was enabled by the client and by the config option.
+    @Nullable
+    private BiConsumer<T, T> journalMerger;
+    // Only accessed from the write thread
+    private long journalSize;
+    // Only accessed from the write thread. Set once we have removed a potential incomplete tail left by a crash.
+    private boolean journalTailChecked;
+    // Deltas waiting for their append on the write thread. Only accessed from the user thread.
+    @Nullable
+    private JournalBatch pendingJournalBatch;
+    private boolean serializeOnWriteThread;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    public PersistenceManager(File dir,
+                              PersistenceProtoResolver persistenceProtoResolver,
+                              CorruptedStorageFileHandler corruptedStorageFileHandler) {
+        this(dir, persistenceProtoResolver, corruptedStorageFileHandler, false);
+    }
+
     @Inject
     public PersistenceManager(@Named(Config.STORAGE_DIR) File dir,
                               PersistenceProtoResolver persistenceProtoResolver,
-                              CorruptedStorageFileHandler corruptedStorageFileHandler) {
+                              CorruptedStorageFileHandler corruptedStorageFileHandler,
+                              @Named(Config.USE_PERSISTENCE_JOURNAL) boolean usePersistenceJournal) {
         this.dir = checkDir(dir);
         this.persistenceProtoResolver = persistenceProtoResolver;
         this.corruptedStorageFileHandler = corruptedStorageFileHandler;
+        this.usePersistenceJournal = usePersistenceJournal;
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -243,6 +286,33 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         ALL_PERSISTENCE_MANAGERS.put(fileName, this);
     }
 
+    /**
+     * Enables the journal mode if the {@link Config#USE_PERSISTENCE_JOURNAL} option is set. Need to be called before
+     * the data is read so that the journal gets replayed.
+     *
+     * @param journalMerger     Merges a delta into the base data. Replaying a delta which is already contained in the
+     *                          base data must not change the result, as we might replay a journal a second time if we
+     *                          got interrupted after compaction but before the journal was deleted.
+     */
+    public void enableJournal(BiConsumer<T, T> journalMerger) {
+        if (usePersistenceJournal) {
+            this.journalMerger = journalMerger;
+        }
+    }
+
+    public boolean isJournalEnabled() {
+        return journalMerger != null;
+    }
+
+    /**
+     * By default we serialize on the user thread to avoid threading issues with mutations of the persistable object.
+     * Clients which never mutate the data held by the persistable but only replace it can move the serialisation to
+     * the write thread to not block the user thread with serialisation of large data.
+     */
+    public void enableSerializationOnWriteThread() {
+        serializeOnWriteThread = true;
+    }
+
     public void shutdown() {
         ALL_PERSISTENCE_MANAGERS.remove(fileName);
 
@@ -320,6 +390,9 @@ public class PersistenceManager<T extends PersistableEnvelope> {
             protobuf.PersistableEnvelope proto = protobuf.PersistableEnvelope.parseDelimitedFrom(fileInputStream);
             //noinspection unchecked
             T persistableEnvelope = (T) persistenceProtoResolver.fromProto(proto);
+            if (journalMerger != null) {
+                replayJournal(fileName, persistableEnvelope, journalMerger, true);
+            }
             log.info("Reading {} completed in {} ms", fileName, System.currentTimeMillis() - ts);
             return persistableEnvelope;
         } catch (Throwable t) {
@@ -363,7 +436,51 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
     }
 
+    /**
+     * If the journal mode is enabled we append the delta to the journal, otherwise we fall back to
+     * {@link #requestPersistence()}. The delta is an instance of the persisted type containing only the changed data.
+     * Serialisation happens on the user thread, so the delta must not be mutated after it was passed.
+     *
+     * @param delta     Data which will be merged into the persisted data at replay or compaction.
+     */
+    public void appendToJournal(T delta) {
+        if (FLUSH_ALL_DATA_TO_DISK_CALLED) {
+            log.warn("We have started the shut down routine already. We ignore that appendToJournal call.");
+            return;
+        }
+
+        // As long we have not written the storage file we cannot replay a journal, so we do a full write.
+        if (journalMerger == null || storageFile == null || !storageFile.exists()) {
+            requestPersistence();
+            return;
+        }
+
+        protobuf.PersistableEnvelope serialized = (protobuf.PersistableEnvelope) delta.toPersistableMessage();
+        // If the append task of the pending batch has not started yet, the delta gets appended with the others.
+        if (pendingJournalBatch != null && pendingJournalBatch.add(serialized)) {
+            return;
+        }
+
+        JournalBatch batch = new JournalBatch();
+        batch.add(serialized);
+        pendingJournalBatch = batch;
+        BiConsumer<T, T> merger = journalMerger;
+        getWriteToDiskExecutor().execute(() -> {
+            appendToJournalFile(batch.close());
+            maybeCompactJournal(merger);
+        });
+    }
+
     public void persistNow(@Nullable Runnable completeHandler) {
+        // A full write deletes the journal. Deltas passed after this call might not be contained in the written data,
+        // so they must be appended after our write task and not with a batch queued before it.
+        pendingJournalBatch = null;
+
+        if (serializeOnWriteThread) {
+            getWriteToDiskExecutor().execute(() -> serializeAndWriteToDisk(completeHandler));
+            return;
+        }
+
         long ts = System.currentTimeMillis();
         try {
             // The serialisation is done on the user thread to avoid threading issue with potential mutations of the
@@ -387,6 +504,40 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     }
 
     public void writeToDisk(protobuf.PersistableEnvelope serialized, @Nullable Runnable completeHandler) {
+        try {
+            writeStorageFile(serialized);
+        } finally {
+            persistenceRequested = false;
+            if (completeHandler != null) {
+                UserThread.execute(completeHandler);
+            }
+        }
+    }
+
+    // Called on the write thread
+    private void serializeAndWriteToDisk(@Nullable Runnable completeHandler) {
+        long ts = System.currentTimeMillis();
+        protobuf.PersistableEnvelope serialized;
+        try {
+            serialized = (protobuf.PersistableEnvelope) persistable.toPersistableMessage();
+        } catch (Throwable e) {
+            log.error("Error in saveToFile toProtoMessage: {}, {}", persistable.getClass().getSimpleName(), fileName, e);
+            // Like after a failed write we do not keep the request, so a later requestPersistence will try again.
+            persistenceRequested = false;
+            if (completeHandler != null) {
+                UserThread.execute(completeHandler);
+            }
+            return;
+        }
+
+        long duration = System.currentTimeMillis() - ts;
+        if (duration > 100) {
+            log.info("Serializing {} on write thread took {} msec", fileName, duration);
+        }
+        writeToDisk(serialized, completeHandler);
+    }
+
+    private void writeStorageFile(protobuf.PersistableEnvelope serialized) {
         long ts = System.currentTimeMillis();
         File tempFile = null;
         FileOutputStream fileOutputStream = null;
@@ -419,6 +570,12 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
             FileUtil.renameFile(tempFile, storageFile);
             usedTempFilePath = tempFile.toPath();
+
+            // The storage file contains now all data of the journal. Any delta appended after the serialisation was
+            // done got queued after our write task, so it will be appended to a new journal.
+            if (journalMerger != null) {
+                deleteJournal();
+            }
         } catch (Throwable t) {
             // If an error occurred, don't attempt to reuse this path again, in case temp file cleanup fails.
             usedTempFilePath = null;
@@ -444,11 +601,208 @@ public class PersistenceManager<T extends PersistableEnvelope> {
             if (duration > 100) {
                 log.info("Writing the serialized {} completed in {} msec", fileName, duration);
             }
-            persistenceRequested = false;
-            if (completeHandler != null) {
-                UserThread.execute(completeHandler);
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Journal
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private File getJournalFile(String fileName) {
+        return new File(dir, fileName + JOURNAL_POST_FIX);
+    }
+
+    /**
+     * Merges all complete entries of the journal into the persisted data.
+     *
+     * @param backupIfCorrupted If the journal cannot be read or merged we move it to the backup folder. Otherwise we
+     *                          leave it untouched.
+     * @return False if the journal could not be replayed, in which case the persisted data might contain only a part
+     * of the journal entries.
+     */
+    private boolean replayJournal(String fileName, T persisted, BiConsumer<T, T> merger, boolean backupIfCorrupted) {
+        File journalFile = getJournalFile(fileName);
+        if (!journalFile.exists()) {
+            return true;
+        }
+
+        long ts = System.currentTimeMillis();
+        try {
+            //noinspection unchecked
+            int numEntries = readJournal(journalFile,
+                    proto -> merger.accept(persisted, (T) persistenceProtoResolver.fromProto(proto))).numEntries;
+            log.info("Replaying {} entries from journal {} completed in {} ms",
+                    numEntries, journalFile.getName(), System.currentTimeMillis() - ts);
+            return true;
+        } catch (Throwable t) {
+            log.error("Replaying journal {} failed with {}.", journalFile.getName(), t.getMessage());
+            if (backupIfCorrupted) {
+                try {
+                    FileUtil.removeAndBackupFile(dir, journalFile, journalFile.getName(), "backup_of_corrupted_data");
+                } catch (IOException e) {
+                    log.error(e.getMessage());
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class JournalBatch {
+        private final List<protobuf.PersistableEnvelope> entries = new ArrayList<>();
+        private boolean closed;
+
+        // Returns false if the batch is already being appended.
+        private synchronized boolean add(protobuf.PersistableEnvelope entry) {
+            if (closed) {
+                return false;
+            }
+            entries.add(entry);
+            return true;
+        }
+
+        private synchronized List<protobuf.PersistableEnvelope> close() {
+            closed = true;
+            return entries;
+        }
+    }
+
+    private static class JournalReadResult {
+        private final int numEntries;
+        // Byte offset after the last complete entry
+        private final long validLength;
+
+        private JournalReadResult(int numEntries, long validLength) {
+            this.numEntries = numEntries;
+            this.validLength = validLength;
+        }
+    }
+
+    // Passes all complete entries to the consumer. A crash in the middle of an append leaves incomplete last entries.
+    // All entries before are complete as we sync after each append, so we stop at the first entry we cannot read.
+    private static JournalReadResult readJournal(File journalFile,
+                                                 Consumer<protobuf.PersistableEnvelope> consumer) throws IOException {
+        int numEntries = 0;
+        long validLength = 0;
+        try (CountingInputStream inputStream = new CountingInputStream(new FileInputStream(journalFile))) {
+            while (true) {
+                int firstByte = inputStream.read();
+                if (firstByte == -1) {
+                    break;
+                }
+
+                // We read the entry with its exact size, as the parser would accept an entry cut off at a field
+                // boundary as complete.
+                protobuf.PersistableEnvelope proto;
+                try {
+                    int size = CodedInputStream.readRawVarint32(firstByte, inputStream);
+                    if (size < 0 || size > journalFile.length() - inputStream.getCount()) {
+                        throw new EOFException();
+                    }
+                    byte[] entry = new byte[size];
+                    ByteStreams.readFully(inputStream, entry);
+                    proto = protobuf.PersistableEnvelope.parseFrom(entry);
+                } catch (IOException e) {
+                    log.warn("Journal {} has an incomplete entry after {} entries. We ignore the rest of the file.",
+                            journalFile.getName(), numEntries);
+                    break;
+                }
+
+                consumer.accept(proto);
+                numEntries++;
+                validLength = inputStream.getCount();
             }
         }
+        return new JournalReadResult(numEntries, validLength);
+    }
+
+    // Called on the write thread. Appending behind an incomplete entry would make all later entries unreadable, so we
+    // cut off such a tail before our first append.
+    private void truncateIncompleteJournalTail(File journalFile) throws IOException {
+        if (!journalFile.exists()) {
+            return;
+        }
+
+        long validLength = readJournal(journalFile, proto -> {
+        }).validLength;
+        if (validLength < journalFile.length()) {
+            log.warn("We truncate journal {} from {} to {} bytes to remove an incomplete entry.",
+                    journalFile.getName(), journalFile.length(), validLength);
+            try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+                channel.force(true);
+            }
+        }
+    }
+
+    // Called on the write thread. We sync only once for all entries.
+    void appendToJournalFile(List<protobuf.PersistableEnvelope> entries) {
+        File journalFile = getJournalFile(fileName);
+        try {
+            if (!journalTailChecked) {
+                truncateIncompleteJournalTail(journalFile);
+                journalTailChecked = true;
+            }
+
+            try (FileOutputStream fileOutputStream = new FileOutputStream(journalFile, true)) {
+                for (protobuf.PersistableEnvelope entry : entries) {
+                    entry.writeDelimitedTo(fileOutputStream);
+                }
+                fileOutputStream.flush();
+                fileOutputStream.getFD().sync();
+                journalSize = journalFile.length();
+            }
+        } catch (Throwable t) {
+            // The deltas are contained in the live data, so a full write brings the storage file up to date and removes
+            // the journal.
+            log.error("Error at appending to journal {}. We persist the full data instead.", journalFile.getName(), t);
+            UserThread.execute(this::requestPersistence);
+        }
+    }
+
+    // Called on the write thread
+    private void maybeCompactJournal(BiConsumer<T, T> merger) {
+        long threshold = Math.max(MIN_JOURNAL_SIZE_FOR_COMPACTION, storageFile.length() / 4);
+        if (journalSize >= threshold) {
+            compactJournal(merger);
+        }
+    }
+
+    // Called on the write thread. We read the storage file, replay the journal on top and write the result back. As
+    // that does not touch the live data we do not need to serialize anything on the user thread.
+    void compactJournal(BiConsumer<T, T> merger) {
+        long ts = System.currentTimeMillis();
+        T compacted;
+        try (FileInputStream fileInputStream = new FileInputStream(storageFile)) {
+            protobuf.PersistableEnvelope proto = protobuf.PersistableEnvelope.parseDelimitedFrom(fileInputStream);
+            //noinspection unchecked
+            compacted = (T) persistenceProtoResolver.fromProto(proto);
+        } catch (Throwable t) {
+            // We keep the journal and try again at the next append.
+            log.error("Reading {} for journal compaction failed with {}.", fileName, t.getMessage());
+            return;
+        }
+
+        if (!replayJournal(fileName, compacted, merger, false)) {
+            // We must not write a partly merged state. The live data contains all deltas, so we persist it instead,
+            // which removes the journal as well.
+            log.error("Compaction of journal for {} aborted. We persist the full data instead.", fileName);
+            UserThread.execute(this::requestPersistence);
+            return;
+        }
+
+        // We do not use writeToDisk as that would reset the persistenceRequested flag.
+        writeStorageFile((protobuf.PersistableEnvelope) compacted.toPersistableMessage());
+        log.info("Compaction of journal for {} completed in {} ms", fileName, System.currentTimeMillis() - ts);
+    }
+
+    private void deleteJournal() {
+        try {
+            FileUtil.deleteFileIfExists(getJournalFile(fileName));
+            journalSize = 0;
+        } catch (IOException e) {
+            log.error("Could not delete journal for {}", fileName, e);
+        }
     }
 
     private ExecutorService getWriteToDiskExecutor() {
@@ -470,6 +824,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
                 ",\n     source=" + source +
                 ",\n     usedTempFilePath=" + usedTempFilePath +
                 ",\n     persistenceRequested=" + persistenceRequested +
+                ",\n     journalEnabled=" + isJournalEnabled() +
                 "\n}";
     }
 }
@@ -37,6 +37,15 @@ public abstract class Task<T extends Model> {
 
     protected abstract void run();
 
+    /**
+     * Tasks doing blocking I/O can return true to get run on a worker thread instead of the UserThread. Such tasks
+     * must not change state which is observed from the UI. The following task and the error handler are called on
+     * the UserThread again.
+     */
+    protected boolean isAsync() {
+        return false;
+    }
+
     protected void runInterceptHook() {
         if (getClass() == taskToIntercept)
             throw new InterceptTaskException("Task intercepted for testing purpose. Task = " + getClass().getSimpleName());
@@ -0,0 +1,83 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.taskrunner;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulated run durations of a task class over all task runners. The duration is measured from the start of the
+ * task until it called complete or failed, so it includes waiting for asynchronous callbacks.
+ */
+public final class TaskMetrics {
+    private static final Map<String, TaskMetrics> METRICS_BY_TASK_NAME = new ConcurrentHashMap<>();
+
+    private final LongAdder numRuns = new LongAdder();
+    private final LongAdder numFailures = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    static void record(Class<?> taskClass, long durationNanos, boolean failed) {
+        METRICS_BY_TASK_NAME.computeIfAbsent(taskClass.getSimpleName(), key -> new TaskMetrics())
+                .add(durationNanos, failed);
+    }
+
+    public static Map<String, TaskMetrics> getMetricsByTaskName() {
+        return Map.copyOf(METRICS_BY_TASK_NAME);
+    }
+
+    private TaskMetrics() {
+    }
+
+    private void add(long durationNanos, boolean failed) {
+        numRuns.increment();
+        if (failed)
+            numFailures.increment();
+        totalNanos.add(durationNanos);
+        maxNanos.accumulate(durationNanos);
+    }
+
+    public long getNumRuns() {
+        return numRuns.sum();
+    }
+
+    public long getNumFailures() {
+        return numFailures.sum();
+    }
+
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+    }
+
+    public long getMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "TaskMetrics{" +
+                "\n     numRuns=" + getNumRuns() +
+                ",\n     numFailures=" + getNumFailures() +
+                ",\n     totalMillis=" + getTotalMillis() +
+                ",\n     maxMillis=" + getMaxMillis() +
+                "\n}";
+    }
+}
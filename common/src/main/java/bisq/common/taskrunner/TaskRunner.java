@@ -17,17 +17,33 @@
 
 package bisq.common.taskrunner;
 
+import bisq.common.UserThread;
 import bisq.common.handlers.ErrorMessageHandler;
 import bisq.common.handlers.ResultHandler;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.lang.reflect.Constructor;
+
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class TaskRunner<T extends Model> {
+    // Looking up the constructor at each task is costly as trade protocols run dozens of tasks, so we keep them per
+    // task class.
+    private static final Map<Class<?>, Constructor<?>> CONSTRUCTOR_BY_TASK_CLASS = new ConcurrentHashMap<>();
+
     private final Queue<Class<? extends Task<T>>> tasks = new LinkedBlockingQueue<>();
     private final T sharedModel;
     private final Class<T> sharedModelClass;
@@ -37,6 +53,9 @@ public class TaskRunner<T extends Model> {
     private boolean isCanceled;
 
     private Class<? extends Task<T>> currentTask;
+    private volatile boolean isCurrentTaskAsync;
+    private long currentTaskStartTs;
+    private final List<String> completedTasks = new ArrayList<>();
 
 
     public TaskRunner(T sharedModel, ResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
@@ -65,29 +84,89 @@ public class TaskRunner<T extends Model> {
             if (tasks.size() > 0) {
                 try {
                     currentTask = tasks.poll();
-                    log.info("Run task: " + currentTask.getSimpleName());
-                    currentTask.getDeclaredConstructor(TaskRunner.class, sharedModelClass).newInstance(this, sharedModel).run();
+                    log.debug("Run task: " + currentTask.getSimpleName());
+                    isCurrentTaskAsync = false;
+                    currentTaskStartTs = System.nanoTime();
+                    Task<T> task = newTask(currentTask);
+                    isCurrentTaskAsync = task.isAsync();
+                    if (isCurrentTaskAsync) {
+                        AsyncExecutorHolder.EXECUTOR.execute(() -> runTask(task));
+                    } else {
+                        task.run();
+                    }
                 } catch (Throwable throwable) {
                     throwable.printStackTrace();
                     handleErrorMessage("Error at taskRunner: " + throwable.getMessage());
                 }
             } else {
+                log.info("Completed tasks for {}: {}", sharedModelClass.getSimpleName(), completedTasks);
                 resultHandler.handleResult();
             }
         }
     }
 
+    private void runTask(Task<T> task) {
+        try {
+            task.run();
+        } catch (Throwable throwable) {
+            throwable.printStackTrace();
+            handleErrorMessage("Error at taskRunner: " + throwable.getMessage());
+        }
+    }
+
+    private Task<T> newTask(Class<? extends Task<T>> taskClass) throws ReflectiveOperationException {
+        Constructor<?> constructor = CONSTRUCTOR_BY_TASK_CLASS.get(taskClass);
+        // A task class could be used with different model classes, so we only use the cached constructor if it
+        // matches our model class.
+        if (constructor == null || constructor.getParameterTypes()[1] != sharedModelClass) {
+            constructor = taskClass.getDeclaredConstructor(TaskRunner.class, sharedModelClass);
+            CONSTRUCTOR_BY_TASK_CLASS.put(taskClass, constructor);
+        }
+        //noinspection unchecked
+        return (Task<T>) constructor.newInstance(this, sharedModel);
+    }
+
     public void cancel() {
         isCanceled = true;
     }
 
     void handleComplete() {
-        next();
+        long duration = System.nanoTime() - currentTaskStartTs;
+        if (isCurrentTaskAsync) {
+            UserThread.execute(() -> onComplete(duration));
+        } else {
+            onComplete(duration);
+        }
     }
 
     void handleErrorMessage(String errorMessage) {
-        log.error("Task failed: " + currentTask.getSimpleName() + " / errorMessage: " + errorMessage);
+        long duration = System.nanoTime() - currentTaskStartTs;
+        if (isCurrentTaskAsync) {
+            UserThread.execute(() -> onError(errorMessage, duration));
+        } else {
+            onError(errorMessage, duration);
+        }
+    }
+
+    private void onComplete(long duration) {
+        TaskMetrics.record(currentTask, duration, false);
+        completedTasks.add(currentTask.getSimpleName() + " (" + TimeUnit.NANOSECONDS.toMillis(duration) + " ms)");
+        next();
+    }
+
+    private void onError(String errorMessage, long duration) {
+        TaskMetrics.record(currentTask, duration, true);
+        log.error("Task failed: " + currentTask.getSimpleName() + " / errorMessage: " + errorMessage +
+                " / completed tasks: " + completedTasks);
         failed = true;
         errorMessageHandler.handleErrorMessage(errorMessage);
     }
+
+    // Only created if a task runs asynchronously
+    private static class AsyncExecutorHolder {
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("TaskRunner-async-%d")
+                .setDaemon(true)
+                .build());
+    }
 }
@@ -90,6 +90,14 @@ public class Utilities {
         return gson.toJson(object);
     }
 
+    // Delivers the json in a single line as required for line delimited formats like NDJSON
+    public static String objectToCompactJson(Object object) {
+        Gson gson = new GsonBuilder()
+                .setExclusionStrategies(new AnnotationExclusionStrategy())
+                .create();
+        return gson.toJson(object);
+    }
+
     public static ExecutorService getSingleThreadExecutor(String name) {
         final ThreadFactory threadFactory = new ThreadFactoryBuilder()
                 .setNameFormat(name)
@@ -0,0 +1,77 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.file;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import java.io.File;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JsonFileManagerTest {
+    private File dir;
+    private JsonFileManager jsonFileManager;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("JsonFileManagerTest").toFile();
+        jsonFileManager = new JsonFileManager(dir);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        jsonFileManager.shutDown();
+        FileUtil.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testAppendToNdjsonFile() throws Exception {
+        long size = jsonFileManager.appendToNdjsonFile(Arrays.asList("{\"a\":1}", "{\"b\":2}"), "blocks", 0);
+        assertEquals(Arrays.asList("{\"a\":1}", "{\"b\":2}"), readLines());
+        assertEquals(new File(dir, "blocks.ndjson").length(), size);
+
+        // Data behind the valid size, e.g. from an interrupted write, gets dropped
+        jsonFileManager.appendToNdjsonFile(Collections.singletonList("{\"incomplete\":3}"), "blocks", size);
+        size = jsonFileManager.appendToNdjsonFile(Collections.singletonList("{\"c\":3}"), "blocks", size);
+        assertEquals(Arrays.asList("{\"a\":1}", "{\"b\":2}", "{\"c\":3}"), readLines());
+
+        jsonFileManager.appendToNdjsonFile(Collections.singletonList("{\"d\":4}"), "blocks", 0);
+        assertEquals(Collections.singletonList("{\"d\":4}"), readLines());
+    }
+
+    @Test
+    public void testReadFromDisc() {
+        assertNull(jsonFileManager.readFromDisc("checkpoint"));
+        jsonFileManager.writeToDisc("{\"height\":1}", "checkpoint");
+        assertEquals("{\"height\":1}", jsonFileManager.readFromDisc("checkpoint").trim());
+    }
+
+    private List<String> readLines() throws Exception {
+        return Files.readAllLines(new File(dir, "blocks.ndjson").toPath(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.persistence;
+
+import bisq.common.Payload;
+import bisq.common.file.CorruptedStorageFileHandler;
+import bisq.common.file.FileUtil;
+import bisq.common.proto.persistable.PersistableEnvelope;
+import bisq.common.proto.persistable.PersistablePayload;
+import bisq.common.proto.persistable.PersistenceProtoResolver;
+
+import com.google.protobuf.ByteString;
+
+import java.nio.file.Files;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class PersistenceManagerTest {
+    private static final String FILE_NAME = "PersistenceManagerTestStore";
+    private static final BiConsumer<TestStore, TestStore> MERGER = (base, delta) -> base.map.putAll(delta.map);
+
+    private File dir;
+    private File journalFile;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("PersistenceManagerTest").toFile();
+        journalFile = new File(dir, FILE_NAME + PersistenceManager.JOURNAL_POST_FIX);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        PersistenceManager.ALL_PERSISTENCE_MANAGERS.remove(FILE_NAME);
+        FileUtil.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testReplayJournal() {
+        PersistenceManager<TestStore> persistenceManager = createPersistenceManager();
+        persistenceManager.writeToDisk(TestStore.of("a", 1).toProtoMessage(), null);
+        persistenceManager.appendToJournalFile(List.of(TestStore.of("b", 2).toProtoMessage()));
+        persistenceManager.appendToJournalFile(List.of(TestStore.of("a", 3).toProtoMessage()));
+
+        assertEquals(Map.of("a", 3, "b", 2), read().map);
+    }
+
+    @Test
+    public void testAppendBatch() {
+        PersistenceManager<TestStore> persistenceManager = createPersistenceManager();
+        persistenceManager.writeToDisk(TestStore.of("a", 1).toProtoMessage(), null);
+        persistenceManager.appendToJournalFile(List.of(TestStore.of("b", 2).toProtoMessage(),
+                TestStore.of("c", 3).toProtoMessage(),
+                TestStore.of("b", 4).toProtoMessage()));
+
+        assertEquals(Map.of("a", 1, "b", 4, "c", 3), read().map);
+    }
+
+    @Test
+    public void testAppendAfterIncompleteTail() throws Exception {
+        PersistenceManager<TestStore> persistenceManager = createPersistenceManager();
+        persistenceManager.writeToDisk(TestStore.of("a", 1).toProtoMessage(), null);
+        persistenceManager.appendToJournalFile(List.of(TestStore.of("b", 2).toProtoMessage()));
+
+        // Simulate a crash in the middle of an append
+        long validLength = journalFile.length();
+        try (FileOutputStream outputStream = new FileOutputStream(journalFile, true)) {
+            byte[] entry = TestStore.of("c", 3).toProtoMessage().toByteArray();
+            outputStream.write(entry.length + 10);
+            outputStream.write(entry);
+        }
+
+        // The incomplete entry gets ignored at reading
+        assertEquals(Map.of("a", 1, "b", 2), read().map);
+
+        // After a restart the incomplete entry gets removed before the next append, so later entries are not lost
+        persistenceManager = createPersistenceManager();
+        persistenceManager.appendToJournalFile(List.of(TestStore.of("d", 4).toProtoMessage()));
+        assertTrue(journalFile.length() > validLength);
+        persistenceManager.appendToJournalFile(List.of(TestStore.of("e", 5).toProtoMessage()));
+
+        assertEquals(Map.of("a", 1, "b", 2, "d", 4, "e", 5), read().map);
+    }
+
+    @Test
+    public void testCompactJournal() {
+        PersistenceManager<TestStore> persistenceManager = createPersistenceManager();
+        persistenceManager.writeToDisk(TestStore.of("a", 1).toProtoMessage(), null);
+        persistenceManager.appendToJournalFile(List.of(TestStore.of("b", 2).toProtoMessage()));
+        persistenceManager.appendToJournalFile(List.of(TestStore.of("c", 3).toProtoMessage()));
+
+        persistenceManager.compactJournal(MERGER);
+
+        assertFalse(journalFile.exists());
+        assertEquals(Map.of("a", 1, "b", 2, "c", 3), read().map);
+
+        // New deltas go to a new journal
+        persistenceManager.appendToJournalFile(List.of(TestStore.of("d", 4).toProtoMessage()));
+        assertEquals(Map.of("a", 1, "b", 2, "c", 3, "d", 4), read().map);
+    }
+
+    @Test
+    public void testReplayIsIdempotent() throws Exception {
+        PersistenceManager<TestStore> persistenceManager = createPersistenceManager();
+        persistenceManager.writeToDisk(TestStore.of("a", 1).toProtoMessage(), null);
+        persistenceManager.appendToJournalFile(List.of(TestStore.of("b", 2).toProtoMessage()));
+        persistenceManager.appendToJournalFile(List.of(TestStore.of("c", 3).toProtoMessage()));
+        byte[] journal = Files.readAllBytes(journalFile.toPath());
+
+        // Simulate an interruption after the compaction was written but before the journal was deleted
+        persistenceManager.compactJournal(MERGER);
+        Files.write(journalFile.toPath(), journal);
+
+        TestStore first = read();
+        TestStore second = read();
+        assertEquals(Map.of("a", 1, "b", 2, "c", 3), first.map);
+        assertArrayEquals(first.toProtoMessage().toByteArray(), second.toProtoMessage().toByteArray());
+    }
+
+    @Test
+    public void testFailedSerializationResetsPersistenceRequested() throws Exception {
+        PersistenceManager.ALL_PERSISTENCE_MANAGERS.remove(FILE_NAME);
+        PersistenceManager<TestStore> persistenceManager = new PersistenceManager<>(dir,
+                new TestStoreResolver(),
+                new CorruptedStorageFileHandler(),
+                true);
+        persistenceManager.initialize(new TestStore() {
+            @Override
+            public protobuf.PersistableEnvelope toProtoMessage() {
+                throw new IllegalStateException("Serialization failed");
+            }
+        }, FILE_NAME, PersistenceManager.Source.PRIVATE);
+        persistenceManager.enableSerializationOnWriteThread();
+        persistenceManager.requestPersistence();
+
+        CountDownLatch completed = new CountDownLatch(1);
+        persistenceManager.persistNow(completed::countDown);
+
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+        assertTrue(persistenceManager.toString().contains("persistenceRequested=false"));
+        persistenceManager.shutdown();
+    }
+
+    private PersistenceManager<TestStore> createPersistenceManager() {
+        PersistenceManager.ALL_PERSISTENCE_MANAGERS.remove(FILE_NAME);
+        PersistenceManager<TestStore> persistenceManager = new PersistenceManager<>(dir,
+                new TestStoreResolver(),
+                new CorruptedStorageFileHandler(),
+                true);
+        persistenceManager.initialize(new TestStore(), FILE_NAME, PersistenceManager.Source.PRIVATE);
+        persistenceManager.enableJournal(MERGER);
+        return persistenceManager;
+    }
+
+    private TestStore read() {
+        TestStore persisted = createPersistenceManager().getPersisted();
+        assertNotNull(persisted);
+        return persisted;
+    }
+
+    private static class TestStore implements PersistableEnvelope {
+        private final Map<String, Integer> map = new TreeMap<>();
+
+        static TestStore of(String key, int value) {
+            TestStore store = new TestStore();
+            store.map.put(key, value);
+            return store;
+        }
+
+        @Override
+        public protobuf.PersistableEnvelope toProtoMessage() {
+            protobuf.SequenceNumberMap.Builder builder = protobuf.SequenceNumberMap.newBuilder();
+            map.forEach((key, value) -> builder.addSequenceNumberEntries(protobuf.SequenceNumberEntry.newBuilder()
+                    .setBytes(protobuf.ByteArray.newBuilder().setBytes(ByteString.copyFromUtf8(key)))
+                    .setMapValue(protobuf.MapValue.newBuilder().setSequenceNr(value))));
+            return protobuf.PersistableEnvelope.newBuilder().setSequenceNumberMap(builder).build();
+        }
+
+        static TestStore fromProto(protobuf.SequenceNumberMap proto) {
+            TestStore store = new TestStore();
+            proto.getSequenceNumberEntriesList().forEach(entry ->
+                    store.map.put(entry.getBytes().getBytes().toStringUtf8(), entry.getMapValue().getSequenceNr()));
+            return store;
+        }
+    }
+
+    private static class TestStoreResolver implements PersistenceProtoResolver {
+        @Override
+        public PersistableEnvelope fromProto(protobuf.PersistableEnvelope proto) {
+            return TestStore.fromProto(proto.getSequenceNumberMap());
+        }
+
+        @Override
+        public Payload fromProto(protobuf.PaymentAccountPayload proto) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PersistablePayload fromProto(protobuf.PersistableNetworkPayload proto) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
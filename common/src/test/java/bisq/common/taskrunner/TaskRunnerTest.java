@@ -0,0 +1,140 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.taskrunner;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TaskRunnerTest {
+
+    public static class TestModel implements Model {
+        final List<String> executedTasks = new CopyOnWriteArrayList<>();
+        volatile Thread asyncTaskThread;
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    public static class FirstTask extends Task<TestModel> {
+        public FirstTask(TaskRunner taskHandler, TestModel model) {
+            super(taskHandler, model);
+        }
+
+        @Override
+        protected void run() {
+            model.executedTasks.add("first");
+            complete();
+        }
+    }
+
+    public static class SecondTask extends Task<TestModel> {
+        public SecondTask(TaskRunner taskHandler, TestModel model) {
+            super(taskHandler, model);
+        }
+
+        @Override
+        protected void run() {
+            model.executedTasks.add("second");
+            complete();
+        }
+    }
+
+    public static class AsyncTask extends Task<TestModel> {
+        public AsyncTask(TaskRunner taskHandler, TestModel model) {
+            super(taskHandler, model);
+        }
+
+        @Override
+        protected void run() {
+            model.asyncTaskThread = Thread.currentThread();
+            model.executedTasks.add("async");
+            complete();
+        }
+
+        @Override
+        protected boolean isAsync() {
+            return true;
+        }
+    }
+
+    public static class FailingTask extends Task<TestModel> {
+        public FailingTask(TaskRunner taskHandler, TestModel model) {
+            super(taskHandler, model);
+        }
+
+        @Override
+        protected void run() {
+            failed("Test failure");
+        }
+    }
+
+    @Test
+    public void testRunTasksInOrder() {
+        TestModel model = new TestModel();
+        AtomicReference<String> error = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        TaskRunner<TestModel> taskRunner = new TaskRunner<>(model, latch::countDown, error::set);
+        taskRunner.addTasks(FirstTask.class, SecondTask.class, FirstTask.class);
+        taskRunner.run();
+
+        assertEquals(0, latch.getCount());
+        assertNull(error.get());
+        assertEquals(List.of("first", "second", "first"), model.executedTasks);
+        assertTrue(TaskMetrics.getMetricsByTaskName().get("FirstTask").getNumRuns() >= 2);
+    }
+
+    @Test
+    public void testStopAtFailedTask() {
+        TestModel model = new TestModel();
+        AtomicReference<String> error = new AtomicReference<>();
+        TaskRunner<TestModel> taskRunner = new TaskRunner<>(model, () -> {
+        }, error::set);
+        taskRunner.addTasks(FirstTask.class, FailingTask.class, SecondTask.class);
+        taskRunner.run();
+
+        assertTrue(error.get().contains("Test failure"));
+        assertEquals(List.of("first"), model.executedTasks);
+        assertTrue(TaskMetrics.getMetricsByTaskName().get("FailingTask").getNumFailures() >= 1);
+    }
+
+    @Test
+    public void testRunAsyncTask() throws InterruptedException {
+        TestModel model = new TestModel();
+        AtomicReference<String> error = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        TaskRunner<TestModel> taskRunner = new TaskRunner<>(model, latch::countDown, error::set);
+        taskRunner.addTasks(FirstTask.class, AsyncTask.class, SecondTask.class);
+        taskRunner.run();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertNull(error.get());
+        assertEquals(List.of("first", "async", "second"), model.executedTasks);
+        assertNotEquals(Thread.currentThread(), model.asyncTaskThread);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.state;
+
+import bisq.core.dao.state.model.DaoState;
+import bisq.core.dao.state.model.blockchain.Block;
+import bisq.core.dao.state.model.blockchain.TxOutput;
+import bisq.core.dao.state.model.blockchain.TxOutputType;
+import bisq.core.util.coin.BsqFormatter;
+
+import org.bitcoinj.core.Coin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the hot DaoStateService queries with the linear scans they used before the lookups got indexed.
+ * Run with ./gradlew :core:jmh.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoStateServiceBenchmark {
+    private static final int GENESIS_HEIGHT = 100;
+    // About 4 years of blocks
+    private static final int NUM_BLOCKS = 200_000;
+    private static final int NUM_TXS_PER_100_BLOCKS = 30;
+
+    private static final TxOutputType[] TX_OUTPUT_TYPES = {
+            TxOutputType.BSQ_OUTPUT,
+            TxOutputType.BSQ_OUTPUT,
+            TxOutputType.BTC_OUTPUT,
+            TxOutputType.LOCKUP_OUTPUT,
+            TxOutputType.UNLOCK_OUTPUT,
+            TxOutputType.ISSUANCE_CANDIDATE_OUTPUT,
+            TxOutputType.BLIND_VOTE_LOCK_STAKE_OUTPUT
+    };
+
+    private final Random random = new Random(1);
+    private DaoState daoState;
+    private DaoStateService daoStateService;
+
+    @Setup
+    public void setUp() {
+        daoState = new DaoState();
+        daoStateService = new DaoStateService(daoState,
+                new GenesisTxInfo("genesisTxId", GENESIS_HEIGHT, Coin.parseCoin("2.5").value),
+                new BsqFormatter());
+
+        for (int height = GENESIS_HEIGHT; height < GENESIS_HEIGHT + NUM_BLOCKS; height++) {
+            daoStateService.onNewBlockHeight(height);
+            Block block = new Block(height, height * 600_000L, "hash" + height, "hash" + (height - 1));
+            daoStateService.onNewBlockWithEmptyTxs(block);
+            if (random.nextInt(100) < NUM_TXS_PER_100_BLOCKS) {
+                TxOutputType[] txOutputTypes = {
+                        TX_OUTPUT_TYPES[random.nextInt(TX_OUTPUT_TYPES.length)],
+                        TX_OUTPUT_TYPES[random.nextInt(TX_OUTPUT_TYPES.length)],
+                        TxOutputType.BTC_OUTPUT
+                };
+                daoStateService.onNewTxForLastBlock(block,
+                        DaoStateServiceTest.createTx("tx" + height, height, txOutputTypes));
+            }
+        }
+    }
+
+    @Benchmark
+    public Optional<Block> getBlockAtHeight_linearScan() {
+        int height = randomHeight();
+        return daoState.getBlocks().stream()
+                .filter(block -> block.getHeight() == height)
+                .findAny();
+    }
+
+    @Benchmark
+    public Optional<Block> getBlockAtHeight_indexed() {
+        return daoStateService.getBlockAtHeight(randomHeight());
+    }
+
+    @Benchmark
+    public boolean isBlockHashKnown_linearScan() {
+        String hash = "hash" + randomHeight();
+        return daoState.getBlocks().stream().anyMatch(block -> block.getHash().equals(hash));
+    }
+
+    @Benchmark
+    public boolean isBlockHashKnown_indexed() {
+        return daoStateService.isBlockHashKnown("hash" + randomHeight());
+    }
+
+    @Benchmark
+    public Set<TxOutput> getLockupTxOutputs_linearScan() {
+        return getTxOutputsByTxOutputTypeByScan(TxOutputType.LOCKUP_OUTPUT);
+    }
+
+    @Benchmark
+    public Set<TxOutput> getLockupTxOutputs_indexed() {
+        return daoStateService.getLockupTxOutputs();
+    }
+
+    @Benchmark
+    public Set<TxOutput> getIssuanceCandidateTxOutputs_linearScan() {
+        return getTxOutputsByTxOutputTypeByScan(TxOutputType.ISSUANCE_CANDIDATE_OUTPUT);
+    }
+
+    @Benchmark
+    public Set<TxOutput> getIssuanceCandidateTxOutputs_indexed() {
+        return daoStateService.getIssuanceCandidateTxOutputs();
+    }
+
+    private int randomHeight() {
+        return GENESIS_HEIGHT + random.nextInt(NUM_BLOCKS);
+    }
+
+    private Set<TxOutput> getTxOutputsByTxOutputTypeByScan(TxOutputType txOutputType) {
+        return daoStateService.getUnorderedTxStream()
+                .flatMap(tx -> tx.getTxOutputs().stream())
+                .filter(txOutput -> txOutput.getTxOutputType() == txOutputType)
+                .collect(Collectors.toSet());
+    }
+}
@@ -19,6 +19,7 @@ package bisq.core.account.witness;
 
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.network.p2p.storage.persistence.HistoricalDataStoreService;
+import bisq.network.p2p.storage.persistence.MappedHistoricalDataStore;
 
 import bisq.common.config.Config;
 import bisq.common.persistence.PersistenceManager;
@@ -70,6 +71,16 @@ public class AccountAgeWitnessStorageService extends HistoricalDataStoreService<
     // Protected
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    @Override
+    protected MappedHistoricalDataStore.PayloadDecoder getPayloadDecoder() {
+        return serializedItem -> AccountAgeWitness.fromProto(protobuf.AccountAgeWitness.parseFrom(serializedItem));
+    }
+
+    @Override
+    protected int getPayloadHashFieldNumber() {
+        return protobuf.AccountAgeWitness.HASH_FIELD_NUMBER;
+    }
+
     @Override
     protected AccountAgeWitnessStore createStore() {
         return new AccountAgeWitnessStore();
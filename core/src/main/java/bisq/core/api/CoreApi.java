@@ -23,6 +23,7 @@ import bisq.core.api.model.TxFeeRateInfo;
 import bisq.core.btc.wallet.TxBroadcaster;
 import bisq.core.monetary.Price;
 import bisq.core.offer.Offer;
+import bisq.core.offer.OfferBookService.OfferBookChangedListener;
 import bisq.core.offer.OfferPayload;
 import bisq.core.offer.OpenOffer;
 import bisq.core.payment.PaymentAccount;
@@ -68,6 +69,7 @@ public class CoreApi {
     private final CorePriceService corePriceService;
     private final CoreTradesService coreTradesService;
     private final CoreWalletsService walletsService;
+    private final CoreTradeStatisticsService coreTradeStatisticsService;
     private final TradeStatisticsManager tradeStatisticsManager;
 
     @Inject
@@ -79,6 +81,7 @@ public class CoreApi {
                    CorePriceService corePriceService,
                    CoreTradesService coreTradesService,
                    CoreWalletsService walletsService,
+                   CoreTradeStatisticsService coreTradeStatisticsService,
                    TradeStatisticsManager tradeStatisticsManager) {
         this.config = config;
         this.coreDisputeAgentsService = coreDisputeAgentsService;
@@ -88,6 +91,7 @@ public class CoreApi {
         this.coreTradesService = coreTradesService;
         this.corePriceService = corePriceService;
         this.walletsService = walletsService;
+        this.coreTradeStatisticsService = coreTradeStatisticsService;
         this.tradeStatisticsManager = tradeStatisticsManager;
     }
 
@@ -137,6 +141,22 @@ public class CoreApi {
         return coreOffersService.getMyOpenOffer(id);
     }
 
+    public void addOfferBookChangedListener(OfferBookChangedListener listener) {
+        coreOffersService.addOfferBookChangedListener(listener);
+    }
+
+    public void removeOfferBookChangedListener(OfferBookChangedListener listener) {
+        coreOffersService.removeOfferBookChangedListener(listener);
+    }
+
+    public boolean isSubscribedOffer(Offer offer, String direction, String currencyCode) {
+        return coreOffersService.isSubscribedOffer(offer, direction, currencyCode);
+    }
+
+    public boolean canTakeOffer(Offer offer) {
+        return coreOffersService.canTakeOffer(offer);
+    }
+
     public void createAnPlaceOffer(String currencyCode,
                                    String directionAsString,
                                    String priceAsString,
@@ -336,6 +356,26 @@ public class CoreApi {
         return new ArrayList<>(tradeStatisticsManager.getObservableTradeStatisticsSet());
     }
 
+    public List<TradeStatistics3> getTradeStatistics(String currencyCode,
+                                                     long fromDate,
+                                                     long toDate,
+                                                     String cursor,
+                                                     int limit) {
+        return coreTradeStatisticsService.getTradeStatistics(currencyCode, fromDate, toDate, cursor, limit);
+    }
+
+    public String getTradeStatisticsCursor(TradeStatistics3 tradeStatistics) {
+        return CoreTradeStatisticsService.getCursor(tradeStatistics);
+    }
+
+    public void addTradeStatisticsListener(Consumer<TradeStatistics3> listener) {
+        coreTradeStatisticsService.addListener(listener);
+    }
+
+    public void removeTradeStatisticsListener(Consumer<TradeStatistics3> listener) {
+        coreTradeStatisticsService.removeListener(listener);
+    }
+
     public int getNumConfirmationsForMostRecentTransaction(String addressString) {
         return walletsService.getNumConfirmationsForMostRecentTransaction(addressString);
     }
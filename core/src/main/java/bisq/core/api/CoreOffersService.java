@@ -22,11 +22,13 @@ import bisq.core.monetary.Price;
 import bisq.core.offer.CreateOfferService;
 import bisq.core.offer.Offer;
 import bisq.core.offer.OfferBookService;
+import bisq.core.offer.OfferBookService.OfferBookChangedListener;
 import bisq.core.offer.OfferFilter;
 import bisq.core.offer.OfferUtil;
 import bisq.core.offer.OpenOffer;
 import bisq.core.offer.OpenOfferManager;
 import bisq.core.payment.PaymentAccount;
+import bisq.core.provider.price.PriceFeedService;
 import bisq.core.user.User;
 
 import bisq.common.crypto.KeyRing;
@@ -40,6 +42,7 @@ import javax.inject.Singleton;
 
 import java.math.BigDecimal;
 
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.function.Consumer;
@@ -48,6 +51,8 @@ import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 import static bisq.common.util.MathUtils.exactMultiply;
 import static bisq.common.util.MathUtils.roundDoubleToLong;
 import static bisq.common.util.MathUtils.scaleUpByPowerOf10;
@@ -74,9 +79,15 @@ class CoreOffersService {
     private final OfferFilter offerFilter;
     private final OpenOfferManager openOfferManager;
     private final OfferUtil offerUtil;
+    private final PriceFeedService priceFeedService;
     private final User user;
     private final boolean isApiUser;
 
+    // The offers are only rebuilt from the offer book after it changed, and the same
+    // immutable list is shared by the api queries. All of them run on the user thread.
+    @Nullable
+    private List<Offer> offerBookOffers;
+
     @Inject
     public CoreOffersService(CoreContext coreContext,
                              KeyRing keyRing,
@@ -86,6 +97,7 @@ class CoreOffersService {
                              OfferFilter offerFilter,
                              OpenOfferManager openOfferManager,
                              OfferUtil offerUtil,
+                             PriceFeedService priceFeedService,
                              User user) {
         this.keyRing = keyRing;
         this.coreWalletsService = coreWalletsService;
@@ -94,28 +106,45 @@ class CoreOffersService {
         this.offerFilter = offerFilter;
         this.openOfferManager = openOfferManager;
         this.offerUtil = offerUtil;
+        this.priceFeedService = priceFeedService;
         this.user = user;
         this.isApiUser = coreContext.isApiUser();
+
+        offerBookService.addOfferBookChangedListener(new OfferBookChangedListener() {
+            @Override
+            public void onAdded(Offer offer) {
+                offerBookOffers = null;
+            }
+
+            @Override
+            public void onRemoved(Offer offer) {
+                offerBookOffers = null;
+            }
+        });
     }
 
     Offer getOffer(String id) {
-        return offerBookService.getOffers().stream()
+        return getOfferBookOffers().stream()
                 .filter(o -> o.getId().equals(id))
                 .filter(o -> offerFilter.canTakeOffer(o, isApiUser).isValid())
-                .findAny().orElseThrow(() ->
+                .findAny()
+                .map(this::copyOf)
+                .orElseThrow(() ->
                         new IllegalStateException(format("offer with id '%s' not found", id)));
     }
 
     Offer getMyOffer(String id) {
-        return offerBookService.getOffers().stream()
+        return getOfferBookOffers().stream()
                 .filter(o -> o.getId().equals(id))
                 .filter(o -> o.isMyOffer(keyRing))
-                .findAny().orElseThrow(() ->
+                .findAny()
+                .map(this::copyOf)
+                .orElseThrow(() ->
                         new IllegalStateException(format("offer with id '%s' not found", id)));
     }
 
     List<Offer> getOffers(String direction, String currencyCode) {
-        return offerBookService.getOffers().stream()
+        return getOfferBookOffers().stream()
                 .filter(o -> offerMatchesDirectionAndCurrency(o, direction, currencyCode))
                 .filter(o -> offerFilter.canTakeOffer(o, isApiUser).isValid())
                 .sorted(priceComparator(direction))
@@ -123,7 +152,7 @@ class CoreOffersService {
     }
 
     List<Offer> getMyOffers(String direction, String currencyCode) {
-        return offerBookService.getOffers().stream()
+        return getOfferBookOffers().stream()
                 .filter(o -> o.isMyOffer(keyRing))
                 .filter(o -> offerMatchesDirectionAndCurrency(o, direction, currencyCode))
                 .sorted(priceComparator(direction))
@@ -137,6 +166,25 @@ class CoreOffersService {
                         new IllegalStateException(format("openoffer with id '%s' not found", id)));
     }
 
+    void addOfferBookChangedListener(OfferBookChangedListener listener) {
+        offerBookService.addOfferBookChangedListener(listener);
+    }
+
+    void removeOfferBookChangedListener(OfferBookChangedListener listener) {
+        offerBookService.removeOfferBookChangedListener(listener);
+    }
+
+    // Like the getOffers filter, except an empty direction or currency code matches any.
+    boolean isSubscribedOffer(Offer offer, String direction, String currencyCode) {
+        return (direction.isEmpty() || offer.getDirection().name().equalsIgnoreCase(direction))
+                && (currencyCode.isEmpty() || offer.getOfferPayload().getCounterCurrencyCode()
+                .equalsIgnoreCase(currencyCode));
+    }
+
+    boolean canTakeOffer(Offer offer) {
+        return offerFilter.canTakeOffer(offer, isApiUser).isValid();
+    }
+
     // Create and place new offer.
     void createAndPlaceOffer(String currencyCode,
                              String directionAsString,
@@ -235,6 +283,20 @@ class CoreOffersService {
             throw new IllegalStateException(offer.getErrorMessage());
     }
 
+    private List<Offer> getOfferBookOffers() {
+        if (offerBookOffers == null)
+            offerBookOffers = Collections.unmodifiableList(offerBookService.getOffers());
+        return offerBookOffers;
+    }
+
+    // The cached offers are shared, so single offers which might be taken or
+    // cancelled get their own instance.
+    private Offer copyOf(Offer offer) {
+        Offer copy = new Offer(offer.getOfferPayload());
+        copy.setPriceFeedService(priceFeedService);
+        return copy;
+    }
+
     private boolean offerMatchesDirectionAndCurrency(Offer offer,
                                                      String direction,
                                                      String currencyCode) {
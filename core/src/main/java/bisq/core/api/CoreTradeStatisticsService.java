@@ -0,0 +1,174 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api;
+
+import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.trade.statistics.TradeStatisticsManager;
+
+import bisq.common.util.Utilities;
+
+import com.google.common.primitives.UnsignedBytes;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import javafx.collections.SetChangeListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import static java.lang.String.format;
+
+/**
+ * Keeps the trade statistics sorted by (date, hash) so api clients can page through
+ * them with a stable cursor, or ask for a date range or a single currency, without the
+ * whole set being copied and sorted for every call.
+ */
+@Singleton
+@Slf4j
+class CoreTradeStatisticsService {
+
+    private static final byte[] EMPTY_HASH = new byte[0];
+    private static final Comparator<byte[]> HASH_COMPARATOR = UnsignedBytes.lexicographicalComparator();
+
+    // The indexes are updated on the user thread and read from the gRPC threads.
+    private final NavigableMap<Key, TradeStatistics3> index = new ConcurrentSkipListMap<>();
+    private final Map<String, NavigableMap<Key, TradeStatistics3>> indexByCurrency = new ConcurrentHashMap<>();
+    private final List<Consumer<TradeStatistics3>> listeners = new CopyOnWriteArrayList<>();
+
+    @Inject
+    public CoreTradeStatisticsService(TradeStatisticsManager tradeStatisticsManager) {
+        tradeStatisticsManager.getObservableTradeStatisticsSet().addListener(
+                (SetChangeListener<TradeStatistics3>) change -> {
+                    if (change.wasAdded()) {
+                        TradeStatistics3 tradeStatistics = change.getElementAdded();
+                        add(tradeStatistics);
+                        listeners.forEach(listener -> listener.accept(tradeStatistics));
+                    }
+                    if (change.wasRemoved())
+                        remove(change.getElementRemoved());
+                });
+        tradeStatisticsManager.getObservableTradeStatisticsSet().forEach(this::add);
+    }
+
+    /**
+     * Returns the trade statistics in ascending (date, hash) order.
+     *
+     * @param currencyCode  the currency code to filter by, or empty for all currencies
+     * @param fromDate      inclusive lower bound in ms since epoch, or 0
+     * @param toDate        exclusive upper bound in ms since epoch, or 0
+     * @param cursor        a cursor from {@link #getCursor(TradeStatistics3)} to continue
+     *                      after, or empty; takes precedence over fromDate
+     * @param limit         the max number of items to return, or 0 for no limit
+     */
+    List<TradeStatistics3> getTradeStatistics(String currencyCode,
+                                              long fromDate,
+                                              long toDate,
+                                              String cursor,
+                                              int limit) {
+        NavigableMap<Key, TradeStatistics3> view = currencyCode.isEmpty()
+                ? index
+                : indexByCurrency.getOrDefault(currencyCode.toUpperCase(), new ConcurrentSkipListMap<>());
+        view = cursor.isEmpty()
+                ? view.tailMap(new Key(fromDate, EMPTY_HASH), true)
+                : view.tailMap(Key.fromCursor(cursor), false);
+        if (toDate > 0)
+            view = view.headMap(new Key(toDate, EMPTY_HASH), false);
+
+        return view.values().stream()
+                .limit(limit > 0 ? limit : Long.MAX_VALUE)
+                .collect(Collectors.toList());
+    }
+
+    static String getCursor(TradeStatistics3 tradeStatistics) {
+        return Key.of(tradeStatistics).toCursor();
+    }
+
+    /**
+     * The listener is called on the user thread for every trade statistics item
+     * added after it was registered.
+     */
+    void addListener(Consumer<TradeStatistics3> listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(Consumer<TradeStatistics3> listener) {
+        listeners.remove(listener);
+    }
+
+    private void add(TradeStatistics3 tradeStatistics) {
+        Key key = Key.of(tradeStatistics);
+        index.put(key, tradeStatistics);
+        indexByCurrency.computeIfAbsent(tradeStatistics.getCurrency(), c -> new ConcurrentSkipListMap<>())
+                .put(key, tradeStatistics);
+    }
+
+    private void remove(TradeStatistics3 tradeStatistics) {
+        Key key = Key.of(tradeStatistics);
+        index.remove(key);
+        NavigableMap<Key, TradeStatistics3> currencyIndex = indexByCurrency.get(tradeStatistics.getCurrency());
+        if (currencyIndex != null)
+            currencyIndex.remove(key);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Key
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Value
+    private static class Key implements Comparable<Key> {
+        long date;
+        byte[] hash;
+
+        static Key of(TradeStatistics3 tradeStatistics) {
+            return new Key(tradeStatistics.getDateAsLong(), tradeStatistics.getHash());
+        }
+
+        static Key fromCursor(String cursor) {
+            String[] tokens = cursor.split(":");
+            try {
+                if (tokens.length != 2)
+                    throw new IllegalArgumentException();
+                return new Key(Long.parseLong(tokens[0]), Utilities.decodeFromHex(tokens[1]));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException(format("invalid trade statistics cursor '%s'", cursor));
+            }
+        }
+
+        String toCursor() {
+            return date + ":" + Utilities.encodeToHex(hash);
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = Long.compare(date, other.date);
+            return result != 0 ? result : HASH_COMPARATOR.compare(hash, other.hash);
+        }
+    }
+}
@@ -101,8 +101,9 @@ class CoreWalletsService {
     @Nullable
     private Timer lockTimer;
 
+    // Read by api queries served from other threads than the user thread.
     @Nullable
-    private KeyParameter tempAesKey;
+    private volatile KeyParameter tempAesKey;
 
     private final ListeningExecutorService executor = Utilities.getSingleThreadListeningExecutor("CoreWalletsService");
 
@@ -69,6 +69,7 @@ public class CoreModule extends AppModule {
         bind(NetworkFilter.class).to(CoreNetworkFilter.class).in(Singleton.class);
 
         bind(File.class).annotatedWith(named(STORAGE_DIR)).toInstance(config.storageDir);
+        bindConstant().annotatedWith(named(USE_PERSISTENCE_JOURNAL)).to(config.usePersistenceJournal);
 
         CoinFormatter btcFormatter = new ImmutableCoinFormatter(config.networkParameters.getMonetaryFormat());
         bind(CoinFormatter.class).annotatedWith(named(FormattingUtils.BTC_FORMATTER_KEY)).toInstance(btcFormatter);
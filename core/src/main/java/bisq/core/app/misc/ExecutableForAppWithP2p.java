@@ -28,6 +28,7 @@ import bisq.core.support.dispute.arbitration.arbitrator.ArbitratorManager;
 
 import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.P2PService;
+import bisq.network.p2p.network.NetworkMetricsServer;
 import bisq.network.p2p.seed.SeedNodeRepository;
 
 import bisq.common.UserThread;
@@ -87,6 +88,7 @@ public abstract class ExecutableForAppWithP2p extends BisqExecutable {
         try {
             if (injector != null) {
                 JsonFileManager.shutDownAllInstances();
+                injector.getInstance(NetworkMetricsServer.class).shutDown();
                 injector.getInstance(RpcService.class).shutDown();
                 injector.getInstance(DaoSetup.class).shutDown();
                 injector.getInstance(ArbitratorManager.class).shutDown();
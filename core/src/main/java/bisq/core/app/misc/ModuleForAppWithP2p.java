@@ -78,6 +78,7 @@ public class ModuleForAppWithP2p extends AppModule {
         bind(NetworkFilter.class).to(CoreNetworkFilter.class).in(Singleton.class);
 
         bind(File.class).annotatedWith(named(STORAGE_DIR)).toInstance(config.storageDir);
+        bindConstant().annotatedWith(named(USE_PERSISTENCE_JOURNAL)).to(config.usePersistenceJournal);
         bind(File.class).annotatedWith(named(KEY_STORAGE_DIR)).toInstance(config.keyStorageDir);
 
         bindConstant().annotatedWith(named(USE_DEV_PRIVILEGE_KEYS)).to(config.useDevPrivilegeKeys);
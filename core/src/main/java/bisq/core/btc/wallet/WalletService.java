@@ -27,6 +27,7 @@ import bisq.core.btc.wallet.http.MemPoolSpaceTxBroadcaster;
 import bisq.core.provider.fee.FeeService;
 import bisq.core.user.Preferences;
 
+import bisq.common.UserThread;
 import bisq.common.config.Config;
 import bisq.common.handlers.ErrorMessageHandler;
 import bisq.common.handlers.ResultHandler;
@@ -86,9 +87,12 @@ import javafx.beans.property.SimpleIntegerProperty;
 import org.bouncycastle.crypto.params.KeyParameter;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
@@ -115,8 +119,13 @@ public abstract class WalletService {
     protected final FeeService feeService;
     protected final NetworkParameters params;
     private final BisqWalletListener walletEventListener = new BisqWalletListener();
-    private final CopyOnWriteArraySet<AddressConfidenceListener> addressConfidenceListeners = new CopyOnWriteArraySet<>();
-    private final CopyOnWriteArraySet<TxConfidenceListener> txConfidenceListeners = new CopyOnWriteArraySet<>();
+    // Confidence listeners are indexed by address and tx id, so a confidence change only reaches the listeners of
+    // the addresses and the tx it concerns.
+    private final Map<Address, Set<AddressConfidenceListener>> addressConfidenceListeners = new ConcurrentHashMap<>();
+    private final Map<String, Set<TxConfidenceListener>> txConfidenceListeners = new ConcurrentHashMap<>();
+    // A new block changes the confidence of all wallet transactions. We collect the changed transactions and notify
+    // the listeners once per transaction and batch. Only accessed from the user thread.
+    private final Set<Transaction> pendingConfidenceChangedTxs = new LinkedHashSet<>();
     private final CopyOnWriteArraySet<BalanceListener> balanceListeners = new CopyOnWriteArraySet<>();
     private final WalletChangeEventListener cacheInvalidationListener;
     private final AtomicReference<Multiset<Address>> txOutputAddressCache = new AtomicReference<>();
@@ -205,19 +214,39 @@ public abstract class WalletService {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public void addAddressConfidenceListener(AddressConfidenceListener listener) {
-        addressConfidenceListeners.add(listener);
+        // A listener without address would never get notified
+        if (listener.getAddress() != null)
+            addListener(addressConfidenceListeners, listener.getAddress(), listener);
     }
 
     public void removeAddressConfidenceListener(AddressConfidenceListener listener) {
-        addressConfidenceListeners.remove(listener);
+        if (listener.getAddress() != null)
+            removeListener(addressConfidenceListeners, listener.getAddress(), listener);
     }
 
     public void addTxConfidenceListener(TxConfidenceListener listener) {
-        txConfidenceListeners.add(listener);
+        if (listener.getTxID() != null)
+            addListener(txConfidenceListeners, listener.getTxID(), listener);
     }
 
     public void removeTxConfidenceListener(TxConfidenceListener listener) {
-        txConfidenceListeners.remove(listener);
+        if (listener.getTxID() != null)
+            removeListener(txConfidenceListeners, listener.getTxID(), listener);
+    }
+
+    private static <K, L> void addListener(Map<K, Set<L>> listenersByKey, K key, L listener) {
+        listenersByKey.compute(key, (k, listeners) -> {
+            Set<L> result = listeners != null ? listeners : new CopyOnWriteArraySet<>();
+            result.add(listener);
+            return result;
+        });
+    }
+
+    private static <K, L> void removeListener(Map<K, Set<L>> listenersByKey, K key, L listener) {
+        listenersByKey.computeIfPresent(key, (k, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
     }
 
     public void addBalanceListener(BalanceListener listener) {
@@ -419,12 +448,16 @@ public abstract class WalletService {
 
     @Nullable
     public TransactionConfidence getConfidenceForTxId(String txId) {
-        if (wallet != null) {
-            Set<Transaction> transactions = wallet.getTransactions(false);
-            for (Transaction tx : transactions) {
-                if (tx.getTxId().toString().equals(txId))
-                    return tx.getConfidence();
+        if (wallet != null && txId != null) {
+            Transaction tx;
+            try {
+                tx = wallet.getTransaction(Sha256Hash.wrap(txId));
+            } catch (IllegalArgumentException e) {
+                return null;
             }
+            // Dead transactions are not included in wallet.getTransactions(false) we used to iterate
+            if (tx != null && tx.getConfidence().getConfidenceType() != TransactionConfidence.ConfidenceType.DEAD)
+                return tx.getConfidence();
         }
         return null;
     }
@@ -840,17 +873,41 @@ public abstract class WalletService {
 
         @Override
         public void onTransactionConfidenceChanged(Wallet wallet, Transaction tx) {
-            for (AddressConfidenceListener addressConfidenceListener : addressConfidenceListeners) {
-                TransactionConfidence confidence = getTransactionConfidence(tx, addressConfidenceListener.getAddress());
-                addressConfidenceListener.onTransactionConfidenceChanged(confidence);
+            if (tx == null)
+                return;
+
+            // The events of a new block are all queued on the user thread, so the batch gets delivered after them.
+            // We add the tx before we schedule the delivery, as the user thread executor might run it directly.
+            boolean deliveryScheduled = !pendingConfidenceChangedTxs.isEmpty();
+            pendingConfidenceChangedTxs.add(tx);
+            if (!deliveryScheduled)
+                UserThread.execute(this::notifyPendingConfidenceListeners);
+        }
+
+        private void notifyPendingConfidenceListeners() {
+            List<Transaction> txs = new ArrayList<>(pendingConfidenceChangedTxs);
+            pendingConfidenceChangedTxs.clear();
+            txs.forEach(this::notifyConfidenceListeners);
+        }
+
+        private void notifyConfidenceListeners(Transaction tx) {
+            if (!addressConfidenceListeners.isEmpty()) {
+                getOutputsWithConnectedOutputs(tx).stream()
+                        .map(WalletService::getAddressFromOutput)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .forEach(address -> {
+                            Set<AddressConfidenceListener> listeners = addressConfidenceListeners.get(address);
+                            if (listeners != null) {
+                                TransactionConfidence confidence = getTransactionConfidence(tx, address);
+                                listeners.forEach(listener -> listener.onTransactionConfidenceChanged(confidence));
+                            }
+                        });
             }
-            txConfidenceListeners.stream()
-                    .filter(txConfidenceListener -> tx != null &&
-                            tx.getTxId().toString() != null &&
-                            txConfidenceListener != null &&
-                            tx.getTxId().toString().equals(txConfidenceListener.getTxID()))
-                    .forEach(txConfidenceListener ->
-                            txConfidenceListener.onTransactionConfidenceChanged(tx.getConfidence()));
+
+            Set<TxConfidenceListener> listeners = txConfidenceListeners.get(tx.getTxId().toString());
+            if (listeners != null)
+                listeners.forEach(listener -> listener.onTransactionConfidenceChanged(tx.getConfidence()));
         }
 
         void notifyBalanceListeners(Transaction tx) {
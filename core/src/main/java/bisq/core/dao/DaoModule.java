@@ -221,9 +221,13 @@ public class DaoModule extends AppModule {
         bindConstant().annotatedWith(named(Config.RPC_PORT)).to(config.rpcPort);
         bindConstant().annotatedWith(named(Config.RPC_BLOCK_NOTIFICATION_PORT)).to(config.rpcBlockNotificationPort);
         bindConstant().annotatedWith(named(Config.RPC_BLOCK_NOTIFICATION_HOST)).to(config.rpcBlockNotificationHost);
+        bindConstant().annotatedWith(named(Config.RPC_MAX_PARALLEL_BLOCK_REQUESTS)).to(config.rpcMaxParallelBlockRequests);
         bindConstant().annotatedWith(named(Config.DUMP_BLOCKCHAIN_DATA)).to(config.dumpBlockchainData);
+        bindConstant().annotatedWith(named(Config.INCREMENTAL_BLOCKCHAIN_DATA_DUMP)).to(config.incrementalBlockchainDataDump);
         bindConstant().annotatedWith(named(Config.FULL_DAO_NODE)).to(config.fullDaoNode);
         bindConstant().annotatedWith(named(Config.DAO_ACTIVATED)).to(config.daoActivated);
+        bindConstant().annotatedWith(named(Config.INCREMENTAL_DAO_STATE_HASH)).to(config.incrementalDaoStateHash);
+        bindConstant().annotatedWith(named(Config.VERIFY_DAO_STATE_HASH)).to(config.verifyDaoStateHash);
     }
 }
 
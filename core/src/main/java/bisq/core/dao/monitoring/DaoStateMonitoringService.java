@@ -116,6 +116,8 @@ public class DaoStateMonitoringService implements DaoSetupService, DaoStateListe
     );
     private boolean checkpointFailed;
     private final boolean ignoreDevMsg;
+    private final boolean incrementalDaoStateHash;
+    private final boolean verifyDaoStateHash;
     private int numCalls;
     private long accumulatedDuration;
 
@@ -131,12 +133,16 @@ public class DaoStateMonitoringService implements DaoSetupService, DaoStateListe
                                      GenesisTxInfo genesisTxInfo,
                                      SeedNodeRepository seedNodeRepository,
                                      @Named(Config.STORAGE_DIR) File storageDir,
-                                     @Named(Config.IGNORE_DEV_MSG) boolean ignoreDevMsg) {
+                                     @Named(Config.IGNORE_DEV_MSG) boolean ignoreDevMsg,
+                                     @Named(Config.INCREMENTAL_DAO_STATE_HASH) boolean incrementalDaoStateHash,
+                                     @Named(Config.VERIFY_DAO_STATE_HASH) boolean verifyDaoStateHash) {
         this.daoStateService = daoStateService;
         this.daoStateNetworkService = daoStateNetworkService;
         this.genesisTxInfo = genesisTxInfo;
         this.storageDir = storageDir;
         this.ignoreDevMsg = ignoreDevMsg;
+        this.incrementalDaoStateHash = incrementalDaoStateHash;
+        this.verifyDaoStateHash = verifyDaoStateHash;
         seedNodeAddresses = seedNodeRepository.getSeedNodeAddresses().stream()
                 .map(NodeAddress::getFullAddress)
                 .collect(Collectors.toSet());
@@ -178,6 +184,9 @@ public class DaoStateMonitoringService implements DaoSetupService, DaoStateListe
             verifyCheckpoints();
         }
 
+        // We skipped the check during batch processing, so we do it once for the last block.
+        daoStateService.getLastBlock().ifPresent(block -> checkUtxoSupply(block.getHeight()));
+
         log.info("ParseBlockChainComplete: Accumulated updateHashChain() calls for {} block took {} ms " +
                         "({} ms in average / block)",
                 numCalls,
@@ -187,16 +196,11 @@ public class DaoStateMonitoringService implements DaoSetupService, DaoStateListe
 
     @Override
     public void onDaoStateChanged(Block block) {
-        long genesisTotalSupply = daoStateService.getGenesisTotalSupply().value;
-        long compensationIssuance = daoStateService.getTotalIssuedAmount(IssuanceType.COMPENSATION);
-        long reimbursementIssuance = daoStateService.getTotalIssuedAmount(IssuanceType.REIMBURSEMENT);
-        long totalAmountOfBurntBsq = daoStateService.getTotalAmountOfBurntBsq();
-        // confiscated funds are still in the utxo set
-        long sumUtxo = daoStateService.getUnspentTxOutputMap().values().stream().mapToLong(BaseTxOutput::getValue).sum();
-        long sumBsq = genesisTotalSupply + compensationIssuance + reimbursementIssuance - totalAmountOfBurntBsq;
-
-        if (sumBsq != sumUtxo) {
-            utxoMismatches.add(new UtxoMismatch(block.getHeight(), sumUtxo, sumBsq));
+        // The check iterates over all txs and utxos. At batch processing of thousands of blocks that would slow down
+        // the parsing a lot, so we only check once batch processing is completed. As the supply of any later block
+        // would not match either we still detect a mismatch, just not the exact block where it happened.
+        if (parseBlockChainComplete) {
+            checkUtxoSupply(block.getHeight());
         }
     }
 
@@ -283,6 +287,21 @@ public class DaoStateMonitoringService implements DaoSetupService, DaoStateListe
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    private void checkUtxoSupply(int height) {
+        long genesisTotalSupply = daoStateService.getGenesisTotalSupply().value;
+        long compensationIssuance = daoStateService.getTotalIssuedAmount(IssuanceType.COMPENSATION);
+        long reimbursementIssuance = daoStateService.getTotalIssuedAmount(IssuanceType.REIMBURSEMENT);
+        long totalAmountOfBurntBsq = daoStateService.getTotalAmountOfBurntBsq();
+        // confiscated funds are still in the utxo set
+        long sumUtxo = daoStateService.getUnspentTxOutputMap().values().stream().mapToLong(BaseTxOutput::getValue).sum();
+        long sumBsq = genesisTotalSupply + compensationIssuance + reimbursementIssuance - totalAmountOfBurntBsq;
+
+        // onParseBlockChainComplete might get called repeatedly for the same height
+        if (sumBsq != sumUtxo && utxoMismatches.stream().noneMatch(e -> e.getHeight() == height)) {
+            utxoMismatches.add(new UtxoMismatch(height, sumUtxo, sumBsq));
+        }
+    }
+
     private void updateHashChain(Block block) {
         long ts = System.currentTimeMillis();
         byte[] prevHash;
@@ -303,7 +322,7 @@ public class DaoStateMonitoringService implements DaoSetupService, DaoStateListe
                     height, daoStateBlockChain.getLast().getHeight());
             prevHash = daoStateBlockChain.getLast().getHash();
         }
-        byte[] stateHash = daoStateService.getSerializedStateForHashChain();
+        byte[] stateHash = getSerializedStateForHashChain(height);
         // We include the prev. hash in our new hash so we can be sure that if one hash is matching all the past would
         // match as well.
         byte[] combined = ArrayUtils.addAll(prevHash, stateHash);
@@ -333,6 +352,25 @@ public class DaoStateMonitoringService implements DaoSetupService, DaoStateListe
         numCalls++;
     }
 
+    // The serialized state is part of the consensus, so the incremental mode must deliver the same bytes as the full
+    // serialization. In verify mode we compare both and fall back to the full serialization in case of a mismatch.
+    private byte[] getSerializedStateForHashChain(int height) {
+        if (!incrementalDaoStateHash) {
+            return daoStateService.getSerializedStateForHashChain();
+        }
+
+        byte[] serializedState = daoStateService.getSerializedStateForHashChainIncrementally();
+        if (verifyDaoStateHash) {
+            byte[] fullySerializedState = daoStateService.getSerializedStateForHashChain();
+            if (!Arrays.equals(serializedState, fullySerializedState)) {
+                log.error("Incrementally serialized DAO state does not match the full serialization at block {}. " +
+                        "We use the full serialization.", height);
+                return fullySerializedState;
+            }
+        }
+        return serializedState;
+    }
+
     private boolean processPeersDaoStateHash(DaoStateHash daoStateHash, Optional<NodeAddress> peersNodeAddress,
                                              boolean notifyListeners) {
         AtomicBoolean changed = new AtomicBoolean(false);
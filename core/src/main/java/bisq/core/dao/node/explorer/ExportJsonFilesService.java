@@ -18,14 +18,15 @@
 package bisq.core.dao.node.explorer;
 
 import bisq.core.dao.DaoSetupService;
+import bisq.core.dao.state.DaoStateListener;
 import bisq.core.dao.state.DaoStateService;
-import bisq.core.dao.state.model.DaoState;
 import bisq.core.dao.state.model.blockchain.Block;
 import bisq.core.dao.state.model.blockchain.PubKeyScript;
 import bisq.core.dao.state.model.blockchain.Tx;
 import bisq.core.dao.state.model.blockchain.TxOutput;
 import bisq.core.dao.state.model.blockchain.TxType;
 
+import bisq.common.UserThread;
 import bisq.common.config.Config;
 import bisq.common.file.FileUtil;
 import bisq.common.file.JsonFileManager;
@@ -37,44 +38,83 @@ import com.google.inject.Inject;
 
 import javax.inject.Named;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 
+import com.google.gson.Gson;
+
 import java.nio.file.Paths;
 
 import java.io.File;
 import java.io.IOException;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.jetbrains.annotations.NotNull;
 
+import javax.annotation.Nullable;
+
+/**
+ * Dumps the blockchain data as json files for the block explorer.
+ *
+ * By default all txs, tx outputs and blocks get written after each block. In the incremental mode only the txs of the
+ * new blocks and the txs whose state changed (e.g. an output got spent or a compensation request got issued) get
+ * written and the new blocks get appended to json/all/blocks.ndjson (one block per line). After each write we persist
+ * a checkpoint, so after a restart we continue from there. If the block of the checkpoint is not in our chain anymore
+ * (e.g. after a reorg) we do a full dump.
+ */
 @Slf4j
-public class ExportJsonFilesService implements DaoSetupService {
+public class ExportJsonFilesService implements DaoSetupService, DaoStateListener {
+    private static final String BLOCKS_FILE_NAME = "blocks";
+    private static final String CHECKPOINT_FILE_NAME = "checkpoint";
+
     private final DaoStateService daoStateService;
     private final File storageDir;
     private final boolean dumpBlockchainData;
+    private final boolean incrementalDump;
+
+    private final ListeningExecutorService executor;
+    private File txDir, txOutputDir;
+    private JsonFileManager txFileManager, txOutputFileManager, bsqStateFileManager, checkpointFileManager;
 
-    private final ListeningExecutorService executor = Utilities.getListeningExecutorService("JsonExporter",
-            1, 1, 1200);
-    private JsonFileManager txFileManager, txOutputFileManager, bsqStateFileManager;
+    // Last block we have passed to the executor for the incremental dump. Only accessed from the user thread.
+    @Nullable
+    private JsonExportCheckpoint requestedCheckpoint;
+    // Txs of earlier blocks whose state changed since the last incremental dump. Only accessed from the user thread.
+    private final Set<String> changedTxIds = new HashSet<>();
+    // Size of the blocks file after the last completed write. Only accessed from the executor thread after start.
+    private long blocksFileSize;
 
     @Inject
     public ExportJsonFilesService(DaoStateService daoStateService,
                                   @Named(Config.STORAGE_DIR) File storageDir,
-                                  @Named(Config.DUMP_BLOCKCHAIN_DATA) boolean dumpBlockchainData) {
+                                  @Named(Config.DUMP_BLOCKCHAIN_DATA) boolean dumpBlockchainData,
+                                  @Named(Config.INCREMENTAL_BLOCKCHAIN_DATA_DUMP) boolean incrementalDump) {
         this.daoStateService = daoStateService;
         this.storageDir = storageDir;
         this.dumpBlockchainData = dumpBlockchainData;
+        this.incrementalDump = incrementalDump;
+
+        // A full dump can be skipped if the executor is busy as the next one contains all data. The incremental
+        // writes depend on each other, so we must not drop any of those.
+        executor = incrementalDump ?
+                Utilities.getSingleThreadListeningExecutor("JsonExporter") :
+                Utilities.getListeningExecutorService("JsonExporter", 1, 1, 1200);
     }
 
 
@@ -84,15 +124,26 @@ public class ExportJsonFilesService implements DaoSetupService {
 
     @Override
     public void addListeners() {
+        if (dumpBlockchainData && incrementalDump) {
+            daoStateService.addDaoStateListener(this);
+        }
     }
 
     @Override
     public void start() {
         if (dumpBlockchainData) {
             File jsonDir = new File(Paths.get(storageDir.getAbsolutePath(), "json").toString());
-            File txDir = new File(Paths.get(storageDir.getAbsolutePath(), "json", "tx").toString());
-            File txOutputDir = new File(Paths.get(storageDir.getAbsolutePath(), "json", "txo").toString());
+            txDir = new File(Paths.get(storageDir.getAbsolutePath(), "json", "tx").toString());
+            txOutputDir = new File(Paths.get(storageDir.getAbsolutePath(), "json", "txo").toString());
             File bsqStateDir = new File(Paths.get(storageDir.getAbsolutePath(), "json", "all").toString());
+            checkpointFileManager = new JsonFileManager(jsonDir);
+            if (incrementalDump && readCheckpoint()) {
+                txFileManager = new JsonFileManager(txDir);
+                txOutputFileManager = new JsonFileManager(txOutputDir);
+                bsqStateFileManager = new JsonFileManager(bsqStateDir);
+                return;
+            }
+
             try {
                 if (txDir.exists())
                     FileUtil.deleteDirectory(txDir);
@@ -125,33 +176,58 @@ public class ExportJsonFilesService implements DaoSetupService {
         }
     }
 
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // DaoStateListener
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void onTxStateChanged(String txId) {
+        // The next full dump contains all txs anyway
+        if (requestedCheckpoint != null) {
+            changedTxIds.add(txId);
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
     public void shutDown() {
         if (dumpBlockchainData && txFileManager != null) {
             txFileManager.shutDown();
             txOutputFileManager.shutDown();
             bsqStateFileManager.shutDown();
+            checkpointFileManager.shutDown();
         }
     }
 
     public void maybeExportToJson() {
         if (dumpBlockchainData &&
                 daoStateService.isParseBlockChainComplete()) {
+            if (incrementalDump) {
+                exportIncrementally();
+                return;
+            }
+
             // We store the data we need once we write the data to disk (in the thread) locally.
             // Access to daoStateService is single threaded, we must not access daoStateService from the thread.
             List<JsonTxOutput> allJsonTxOutputs = new ArrayList<>();
 
-            List<JsonTx> jsonTxs = daoStateService.getUnorderedTxStream()
-                    .map(tx -> {
-                        JsonTx jsonTx = getJsonTx(tx);
-                        allJsonTxOutputs.addAll(jsonTx.getOutputs());
-                        return jsonTx;
-                    }).collect(Collectors.toList());
+            Map<String, JsonTx> jsonTxsById = new LinkedHashMap<>();
+            daoStateService.getUnorderedTxStream().forEach(tx -> {
+                JsonTx jsonTx = getJsonTx(tx);
+                allJsonTxOutputs.addAll(jsonTx.getOutputs());
+                jsonTxsById.put(jsonTx.getId(), jsonTx);
+            });
+            List<JsonTx> jsonTxs = new ArrayList<>(jsonTxsById.values());
 
-            DaoState daoState = daoStateService.getClone();
-            List<JsonBlock> jsonBlockList = daoState.getBlocks().stream()
-                    .map(this::getJsonBlock)
+            // The json objects are created here on the user thread, so we do not need to clone the daoState.
+            List<JsonBlock> jsonBlockList = daoStateService.getBlocks().stream()
+                    .map(block -> getJsonBlock(block, jsonTxsById))
                     .collect(Collectors.toList());
-            JsonBlocks jsonBlocks = new JsonBlocks(daoState.getChainHeight(), jsonBlockList);
+            JsonBlocks jsonBlocks = new JsonBlocks(daoStateService.getChainHeight(), jsonBlockList);
 
             ListenableFuture<Void> future = executor.submit(() -> {
                 bsqStateFileManager.writeToDisc(Utilities.objectToJson(jsonBlocks), "blocks");
@@ -172,9 +248,122 @@ public class ExportJsonFilesService implements DaoSetupService {
         }
     }
 
-    private JsonBlock getJsonBlock(Block block) {
+    private void exportIncrementally() {
+        Optional<Block> optionalLastBlock = daoStateService.getLastBlock();
+        if (!optionalLastBlock.isPresent()) {
+            return;
+        }
+
+        Block lastBlock = optionalLastBlock.get();
+        boolean fullDump = requestedCheckpoint == null || !isInChain(requestedCheckpoint);
+        if (!fullDump && requestedCheckpoint.getHeight() == lastBlock.getHeight()) {
+            return;
+        }
+
+        // We store the data we need once we write the data to disk (in the thread) locally.
+        // Access to daoStateService is single threaded, we must not access daoStateService from the thread.
+        int fromHeight = fullDump ? daoStateService.getGenesisBlockHeight() : requestedCheckpoint.getHeight() + 1;
+        List<Block> blocks = daoStateService.getBlocksFromBlockHeight(fromHeight, Integer.MAX_VALUE);
+
+        // Besides the txs of the new blocks we need to update the txs of earlier blocks whose state changed, like the
+        // txs with outputs which got spent or the compensation requests which got issued.
+        Map<String, JsonTx> jsonTxsById = new LinkedHashMap<>();
+        blocks.forEach(block -> block.getTxs().forEach(tx -> jsonTxsById.put(tx.getId(), getJsonTx(tx))));
+        if (!fullDump) {
+            changedTxIds.stream()
+                    .filter(txId -> !jsonTxsById.containsKey(txId))
+                    .forEach(txId -> daoStateService.getTx(txId).ifPresent(tx -> jsonTxsById.put(txId, getJsonTx(tx))));
+        }
+        changedTxIds.clear();
+        List<JsonTx> jsonTxs = new ArrayList<>(jsonTxsById.values());
+        List<String> jsonBlocks = blocks.stream()
+                .map(block -> Utilities.objectToCompactJson(getJsonBlock(block, jsonTxsById)))
+                .collect(Collectors.toList());
+        int height = lastBlock.getHeight();
+        String blockHash = lastBlock.getHash();
+        // The size of the blocks file is only known at the executor thread
+        requestedCheckpoint = new JsonExportCheckpoint(height, blockHash, 0);
+
+        ListenableFuture<Void> future = executor.submit(() -> {
+            if (fullDump) {
+                // Files of txs which are not in our chain anymore (e.g. after a reorg) would remain otherwise
+                clearDirectory(txDir);
+                clearDirectory(txOutputDir);
+            }
+
+            // At a full dump we start with an empty file, otherwise we drop any data behind the last checkpoint
+            long validSize = fullDump ? 0 : blocksFileSize;
+            blocksFileSize = bsqStateFileManager.appendToNdjsonFile(jsonBlocks, BLOCKS_FILE_NAME, validSize);
+            jsonTxs.forEach(jsonTx -> {
+                jsonTx.getOutputs().forEach(jsonTxOutput ->
+                        txOutputFileManager.writeToDisc(Utilities.objectToJson(jsonTxOutput), jsonTxOutput.getId()));
+                txFileManager.writeToDisc(Utilities.objectToJson(jsonTx), jsonTx.getId());
+            });
+            JsonExportCheckpoint checkpoint = new JsonExportCheckpoint(height, blockHash, blocksFileSize);
+            checkpointFileManager.writeToDisc(Utilities.objectToJson(checkpoint), CHECKPOINT_FILE_NAME);
+            return null;
+        });
+
+        Futures.addCallback(future, new FutureCallback<>() {
+            public void onSuccess(Void ignore) {
+            }
+
+            public void onFailure(@NotNull Throwable throwable) {
+                log.error(throwable.toString());
+                throwable.printStackTrace();
+                // We do not know which data got written, so we do a full dump at the next block
+                UserThread.execute(() -> requestedCheckpoint = null);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    // Called at start before we submit any task to the executor
+    private boolean readCheckpoint() {
+        String json = checkpointFileManager.readFromDisc(CHECKPOINT_FILE_NAME);
+        if (json == null) {
+            return false;
+        }
+
+        try {
+            JsonExportCheckpoint checkpoint = new Gson().fromJson(json, JsonExportCheckpoint.class);
+            if (checkpoint == null || checkpoint.getBlockHash() == null) {
+                return false;
+            }
+            requestedCheckpoint = checkpoint;
+            blocksFileSize = checkpoint.getBlocksFileSize();
+            log.info("We continue the blockchain data dump from block {}", checkpoint.getHeight());
+            return true;
+        } catch (Throwable t) {
+            log.warn("Reading the checkpoint of the blockchain data dump failed. We do a full dump.", t);
+            return false;
+        }
+    }
+
+    // Blocks until the tasks submitted so far are completed
+    @VisibleForTesting
+    void awaitPendingWrites() throws InterruptedException, ExecutionException {
+        executor.submit(() -> null).get();
+    }
+
+    // Called on the executor thread
+    private static void clearDirectory(File dir) throws IOException {
+        if (dir.exists()) {
+            FileUtil.deleteDirectory(dir);
+        }
+        if (!dir.mkdir()) {
+            log.warn("make dir failed.\ndir=" + dir.getAbsolutePath());
+        }
+    }
+
+    private boolean isInChain(JsonExportCheckpoint checkpoint) {
+        return daoStateService.getBlockAtHeight(checkpoint.getHeight())
+                .map(block -> block.getHash().equals(checkpoint.getBlockHash()))
+                .orElse(false);
+    }
+
+    private JsonBlock getJsonBlock(Block block, Map<String, JsonTx> jsonTxsById) {
         List<JsonTx> jsonTxs = block.getTxs().stream()
-                .map(this::getJsonTx)
+                .map(tx -> jsonTxsById.computeIfAbsent(tx.getId(), txId -> getJsonTx(tx)))
                 .collect(Collectors.toList());
         return new JsonBlock(block.getHeight(),
                 block.getTime(),
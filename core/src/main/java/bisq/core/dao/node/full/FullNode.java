@@ -39,10 +39,19 @@ import com.neemre.btcdcli4j.daemon.NotificationHandlerException;
 
 import javax.inject.Inject;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.jetbrains.annotations.NotNull;
+
 /**
  * Main class for a full node which have Bitcoin Core with rpc running and does the blockchain lookup itself.
  * It also provides the BSQ transactions to lite nodes on request and broadcasts new BSQ blocks.
@@ -58,6 +67,9 @@ public class FullNode extends BsqNode {
     private boolean addBlockHandlerAdded;
     private int blocksToParseInBatch;
     private long parseInBatchStartTime;
+    // We request the blocks ahead of parsing to not wait for the RPC round trip at each block. The results are
+    // parsed strictly in the order of the block height.
+    private final Map<Integer, ListenableFuture<RawBlock>> requestedBlocksByHeight = new HashMap<>();
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -98,6 +110,7 @@ public class FullNode extends BsqNode {
 
     public void shutDown() {
         super.shutDown();
+        cancelRequestedBlocks();
         fullNodeNetworkService.shutDown();
     }
 
@@ -230,6 +243,8 @@ public class FullNode extends BsqNode {
                              Consumer<Block> newBlockHandler,
                              ResultHandler resultHandler,
                              Consumer<Throwable> errorHandler) {
+        // In case a previous run got interrupted we might have requested blocks which are outdated
+        cancelRequestedBlocks();
         parseBlockRecursively(startBlockHeight, chainHeight, newBlockHandler, resultHandler, errorHandler);
     }
 
@@ -238,8 +253,16 @@ public class FullNode extends BsqNode {
                                        Consumer<Block> newBlockHandler,
                                        ResultHandler resultHandler,
                                        Consumer<Throwable> errorHandler) {
-        rpcService.requestBtcBlock(blockHeight,
-                rawBlock -> {
+        int lastRequestedBlockHeight = Math.min(chainHeight, blockHeight + rpcService.getMaxParallelBlockRequests() - 1);
+        for (int height = blockHeight; height <= lastRequestedBlockHeight; height++) {
+            requestedBlocksByHeight.computeIfAbsent(height, rpcService::requestBtcBlock);
+        }
+
+        ListenableFuture<RawBlock> future = requestedBlocksByHeight.remove(blockHeight);
+        Futures.addCallback(future, new FutureCallback<>() {
+            @Override
+            public void onSuccess(RawBlock rawBlock) {
+                UserThread.execute(() -> {
                     try {
                         doParseBlock(rawBlock).ifPresent(newBlockHandler);
 
@@ -253,9 +276,30 @@ public class FullNode extends BsqNode {
                         }
                     } catch (RequiredReorgFromSnapshotException ignore) {
                         // If we get a reorg we don't continue to call parseBlockRecursively
+                        cancelRequestedBlocks();
+                    } catch (Throwable t) {
+                        cancelRequestedBlocks();
+                        throw t;
                     }
-                },
-                errorHandler);
+                });
+            }
+
+            @Override
+            public void onFailure(@NotNull Throwable throwable) {
+                if (future.isCancelled())
+                    return;
+
+                UserThread.execute(() -> {
+                    cancelRequestedBlocks();
+                    errorHandler.accept(throwable);
+                });
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private void cancelRequestedBlocks() {
+        requestedBlocksByHeight.values().forEach(future -> future.cancel(true));
+        requestedBlocksByHeight.clear();
     }
 
     private void handleError(Throwable throwable) {
@@ -27,9 +27,13 @@ import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
 import java.util.stream.Collectors;
 
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.Value;
+import lombok.experimental.NonFinal;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
 /**
@@ -54,6 +58,11 @@ public final class RawBlock extends BaseBlock implements NetworkPayload {
     }
 
     private final ImmutableList<RawTx> rawTxs;
+    // Full nodes send the same blocks to many lite nodes, so we keep the proto message once it got created.
+    @Getter(AccessLevel.NONE)
+    @NonFinal
+    @Nullable
+    private transient volatile protobuf.BaseBlock proto;
 
     RawBlock(int height,
              long time,
@@ -74,11 +83,14 @@ public final class RawBlock extends BaseBlock implements NetworkPayload {
 
     @Override
     public protobuf.BaseBlock toProtoMessage() {
-        protobuf.RawBlock.Builder builder = protobuf.RawBlock.newBuilder()
-                .addAllRawTxs(rawTxs.stream()
-                        .map(RawTx::toProtoMessage)
-                        .collect(Collectors.toList()));
-        return getBaseBlockBuilder().setRawBlock(builder).build();
+        if (proto == null) {
+            protobuf.RawBlock.Builder builder = protobuf.RawBlock.newBuilder()
+                    .addAllRawTxs(rawTxs.stream()
+                            .map(RawTx::toProtoMessage)
+                            .collect(Collectors.toList()));
+            proto = getBaseBlockBuilder().setRawBlock(builder).build();
+        }
+        return proto;
     }
 
     public static RawBlock fromProto(protobuf.BaseBlock proto) {
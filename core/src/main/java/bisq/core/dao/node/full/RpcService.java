@@ -53,12 +53,15 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.jetbrains.annotations.NotNull;
@@ -76,13 +79,16 @@ public class RpcService {
     private final int rpcPort;
     private final int rpcBlockPort;
     private final String rpcBlockHost;
+    @Getter
+    private final int maxParallelBlockRequests;
 
     private BtcdClient client;
     private BtcdDaemon daemon;
 
-    // We could use multiple threads but then we need to support ordering of results in a queue
-    // Keep that for optimization after measuring performance differences
     private final ListeningExecutorService executor = Utilities.getSingleThreadListeningExecutor("RpcService");
+    // Block requests run in parallel. The caller is responsible for processing the results in the order of the
+    // block height.
+    private final ListeningExecutorService blockRequestExecutor;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -95,7 +101,8 @@ public class RpcService {
                       @Named(Config.RPC_HOST) String rpcHost,
                       @Named(Config.RPC_PORT) int rpcPort,
                       @Named(Config.RPC_BLOCK_NOTIFICATION_PORT) int rpcBlockPort,
-                      @Named(Config.RPC_BLOCK_NOTIFICATION_HOST) String rpcBlockHost) {
+                      @Named(Config.RPC_BLOCK_NOTIFICATION_HOST) String rpcBlockHost,
+                      @Named(Config.RPC_MAX_PARALLEL_BLOCK_REQUESTS) int maxParallelBlockRequests) {
         this.rpcUser = preferences.getRpcUser();
         this.rpcPassword = preferences.getRpcPw();
 
@@ -114,6 +121,13 @@ public class RpcService {
         boolean isBlockHostSet = !rpcBlockHost.isEmpty();
         this.rpcBlockPort = isBlockPortSet ? rpcBlockPort : 5125;
         this.rpcBlockHost = isBlockHostSet ? rpcBlockHost : "127.0.0.1";
+
+        this.maxParallelBlockRequests = Math.max(1, maxParallelBlockRequests);
+        this.blockRequestExecutor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(this.maxParallelBlockRequests,
+                new ThreadFactoryBuilder()
+                        .setNameFormat("RpcService-BlockRequest-%d")
+                        .setDaemon(true)
+                        .build()));
     }
 
 
@@ -133,6 +147,7 @@ public class RpcService {
         }
 
         executor.shutdown();
+        blockRequestExecutor.shutdownNow();
     }
 
     void setup(ResultHandler resultHandler, Consumer<Throwable> errorHandler) {
@@ -145,6 +160,9 @@ public class RpcService {
 
                 long startTs = System.currentTimeMillis();
                 PoolingHttpClientConnectionManager cm = new PoolingHttpClientConnectionManager();
+                // The default of 2 connections per route would limit our parallel block requests
+                cm.setDefaultMaxPerRoute(maxParallelBlockRequests + 1);
+                cm.setMaxTotal(Math.max(cm.getMaxTotal(), maxParallelBlockRequests + 1));
                 CloseableHttpClient httpProvider = HttpClients.custom().setConnectionManager(cm).build();
                 Properties nodeConfig = new Properties();
                 nodeConfig.setProperty("node.bitcoind.rpc.protocol", "http");
@@ -235,37 +253,32 @@ public class RpcService {
         }, MoreExecutors.directExecutor());
     }
 
-    void requestBtcBlock(int blockHeight,
-                         Consumer<RawBlock> resultHandler,
-                         Consumer<Throwable> errorHandler) {
-        ListenableFuture<RawBlock> future = executor.submit(() -> {
-            long startTs = System.currentTimeMillis();
-            String blockHash = client.getBlockHash(blockHeight);
-            com.neemre.btcdcli4j.core.domain.RawBlock rawBtcBlock = client.getBlock(blockHash, 2);
-            List<RawTx> txList = rawBtcBlock.getTx().stream()
-                    .map(e -> getTxFromRawTransaction(e, rawBtcBlock))
-                    .collect(Collectors.toList());
-            log.info("requestBtcBlock from bitcoind at blockHeight {} with {} txs took {} ms",
-                    blockHeight, txList.size(), System.currentTimeMillis() - startTs);
-            return new RawBlock(rawBtcBlock.getHeight(),
-                    rawBtcBlock.getTime() * 1000, // rawBtcBlock.getTime() is in sec but we want ms
-                    rawBtcBlock.getHash(),
-                    rawBtcBlock.getPreviousBlockHash(),
-                    ImmutableList.copyOf(txList));
-        });
-
-        Futures.addCallback(future, new FutureCallback<>() {
-            @Override
-            public void onSuccess(RawBlock block) {
-                UserThread.execute(() -> resultHandler.accept(block));
-            }
-
-            @Override
-            public void onFailure(@NotNull Throwable throwable) {
+    /**
+     * Requests the block at the given height. Up to maxParallelBlockRequests requests are executed in parallel, so
+     * the returned futures might complete in a different order as they got requested.
+     * The future completes on the request thread.
+     */
+    ListenableFuture<RawBlock> requestBtcBlock(int blockHeight) {
+        return blockRequestExecutor.submit(() -> {
+            try {
+                long startTs = System.currentTimeMillis();
+                String blockHash = client.getBlockHash(blockHeight);
+                com.neemre.btcdcli4j.core.domain.RawBlock rawBtcBlock = client.getBlock(blockHash, 2);
+                List<RawTx> txList = rawBtcBlock.getTx().stream()
+                        .map(e -> getTxFromRawTransaction(e, rawBtcBlock))
+                        .collect(Collectors.toList());
+                log.info("requestBtcBlock from bitcoind at blockHeight {} with {} txs took {} ms",
+                        blockHeight, txList.size(), System.currentTimeMillis() - startTs);
+                return new RawBlock(rawBtcBlock.getHeight(),
+                        rawBtcBlock.getTime() * 1000, // rawBtcBlock.getTime() is in sec but we want ms
+                        rawBtcBlock.getHash(),
+                        rawBtcBlock.getPreviousBlockHash(),
+                        ImmutableList.copyOf(txList));
+            } catch (Throwable t) {
                 log.error("Error at requestBtcBlock: blockHeight={}", blockHeight);
-                UserThread.execute(() -> errorHandler.accept(throwable));
+                throw t;
             }
-        }, MoreExecutors.directExecutor());
+        });
     }
 
 
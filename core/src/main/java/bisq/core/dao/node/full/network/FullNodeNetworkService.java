@@ -60,7 +60,7 @@ public class FullNodeNetworkService implements MessageListener, PeerManager.List
     private final PeerManager peerManager;
     private final Broadcaster broadcaster;
     private final MissingDataRequestService missingDataRequestService;
-    private final DaoStateService daoStateService;
+    private final RawBlockCache rawBlockCache;
 
     // Key is connection UID
     private final Map<String, GetBlocksRequestHandler> getBlocksRequestHandlers = new HashMap<>();
@@ -81,7 +81,7 @@ public class FullNodeNetworkService implements MessageListener, PeerManager.List
         this.peerManager = peerManager;
         this.broadcaster = broadcaster;
         this.missingDataRequestService = missingDataRequestService;
-        this.daoStateService = daoStateService;
+        this.rawBlockCache = new RawBlockCache(daoStateService);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -163,7 +163,7 @@ public class FullNodeNetworkService implements MessageListener, PeerManager.List
         }
 
         GetBlocksRequestHandler requestHandler = new GetBlocksRequestHandler(networkNode,
-                daoStateService,
+                rawBlockCache,
                 new GetBlocksRequestHandler.Listener() {
                     @Override
                     public void onComplete() {
@@ -0,0 +1,102 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.node.full.network;
+
+import bisq.core.dao.node.full.RawBlock;
+import bisq.core.dao.state.DaoStateService;
+import bisq.core.dao.state.model.blockchain.Block;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+/**
+ * Caches the RawBlocks we send to lite nodes in chunks of CHUNK_SIZE blocks. Lite nodes mostly request the same recent
+ * blocks, so we avoid to convert the blocks and to create their proto messages again at each request.
+ * Only complete chunks get cached. A reorg or an applied snapshot replaces the blocks from some height on, so a chunk
+ * is valid as long as its last block has the same hash as our block at that height.
+ * Not thread safe, must be used from the UserThread.
+ */
+class RawBlockCache {
+    static final int CHUNK_SIZE = 100;
+    // 200 chunks cover the blocks of about 4 months
+    private static final int MAX_CHUNKS = 200;
+
+    private final DaoStateService daoStateService;
+    private final Map<Integer, List<RawBlock>> chunksByFirstHeight = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<RawBlock>> eldest) {
+            return size() > MAX_CHUNKS;
+        }
+    };
+
+    RawBlockCache(DaoStateService daoStateService) {
+        this.daoStateService = daoStateService;
+    }
+
+    List<RawBlock> getRawBlocksFromBlockHeight(int fromBlockHeight, int numMaxBlocks) {
+        List<RawBlock> result = new ArrayList<>();
+        int toBlockHeight = daoStateService.getBlockHeightOfLastBlock();
+        int height = Math.max(fromBlockHeight, daoStateService.getGenesisBlockHeight());
+        while (height <= toBlockHeight && result.size() < numMaxBlocks) {
+            int firstHeightOfChunk = height - height % CHUNK_SIZE;
+            List<RawBlock> chunk = getChunk(firstHeightOfChunk, toBlockHeight);
+            if (chunk != null) {
+                for (RawBlock rawBlock : chunk) {
+                    if (rawBlock.getHeight() >= height && result.size() < numMaxBlocks) {
+                        result.add(rawBlock);
+                    }
+                }
+                height = firstHeightOfChunk + CHUNK_SIZE;
+            } else {
+                daoStateService.getBlockAtHeight(height).map(RawBlock::fromBlock).ifPresent(result::add);
+                height++;
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    private List<RawBlock> getChunk(int firstHeight, int toBlockHeight) {
+        int lastHeight = firstHeight + CHUNK_SIZE - 1;
+        if (lastHeight > toBlockHeight) {
+            return null;
+        }
+
+        Optional<Block> lastBlock = daoStateService.getBlockAtHeight(lastHeight);
+        if (!lastBlock.isPresent()) {
+            return null;
+        }
+
+        List<RawBlock> chunk = chunksByFirstHeight.get(firstHeight);
+        if (chunk != null && chunk.get(chunk.size() - 1).getHash().equals(lastBlock.get().getHash())) {
+            return chunk;
+        }
+
+        chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int height = firstHeight; height <= lastHeight; height++) {
+            daoStateService.getBlockAtHeight(height).map(RawBlock::fromBlock).ifPresent(chunk::add);
+        }
+        chunksByFirstHeight.put(firstHeight, chunk);
+        return chunk;
+    }
+}
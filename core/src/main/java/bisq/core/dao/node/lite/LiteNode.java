@@ -54,6 +54,7 @@ import org.jetbrains.annotations.Nullable;
 @Slf4j
 public class LiteNode extends BsqNode {
     private static final int CHECK_FOR_BLOCK_RECEIVED_DELAY_SEC = 10;
+    private static final long MAX_BATCH_PARSING_DURATION_MS = 50;
 
     private final LiteNodeNetworkService liteNodeNetworkService;
     private final BsqWalletService bsqWalletService;
@@ -237,17 +238,28 @@ public class LiteNode extends BsqNode {
     }
 
     private void runDelayedBatchProcessing(List<RawBlock> blocks, Runnable resultHandler) {
+        runDelayedBatchProcessing(blocks, 0, resultHandler);
+    }
+
+    // We parse as many blocks as fit into MAX_BATCH_PARSING_DURATION_MS at each UserThread call. That keeps the UI
+    // responsive without paying a UserThread round trip for each block.
+    private void runDelayedBatchProcessing(List<RawBlock> blocks, int startIndex, Runnable resultHandler) {
         UserThread.execute(() -> {
-            if (blocks.isEmpty()) {
+            long ts = System.currentTimeMillis();
+            int index = startIndex;
+            try {
+                while (index < blocks.size() && System.currentTimeMillis() - ts < MAX_BATCH_PARSING_DURATION_MS) {
+                    doParseBlock(blocks.get(index));
+                    index++;
+                }
+            } catch (RequiredReorgFromSnapshotException e) {
                 resultHandler.run();
                 return;
             }
 
-            RawBlock block = blocks.remove(0);
-            try {
-                doParseBlock(block);
-                runDelayedBatchProcessing(blocks, resultHandler);
-            } catch (RequiredReorgFromSnapshotException e) {
+            if (index < blocks.size()) {
+                runDelayedBatchProcessing(blocks, index, resultHandler);
+            } else {
                 resultHandler.run();
             }
         });
@@ -37,4 +37,9 @@ public interface DaoStateListener {
     // block arrives.
     default void onDaoStateChanged(Block block) {
     }
+
+    // Called if the issuance of a tx or the unspent state or spent info of one of its outputs changed. That can
+    // happen to txs of earlier blocks as well.
+    default void onTxStateChanged(String txId) {
+    }
 }
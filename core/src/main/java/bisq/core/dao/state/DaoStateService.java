@@ -117,11 +117,9 @@ public class DaoStateService implements DaoSetupService {
 
         daoState.setTxCache(snapshot.getTxCache());
 
-        daoState.getBlocks().clear();
-        daoState.getBlocks().addAll(snapshot.getBlocks());
+        daoState.setBlocks(snapshot.getBlocks());
 
-        daoState.getCycles().clear();
-        daoState.getCycles().addAll(snapshot.getCycles());
+        daoState.setCycles(snapshot.getCycles());
 
         daoState.getUnspentTxOutputMap().clear();
         daoState.getUnspentTxOutputMap().putAll(snapshot.getUnspentTxOutputMap());
@@ -143,16 +141,26 @@ public class DaoStateService implements DaoSetupService {
 
         daoState.getDecryptedBallotsWithMeritsList().clear();
         daoState.getDecryptedBallotsWithMeritsList().addAll(snapshot.getDecryptedBallotsWithMeritsList());
+
+        daoState.invalidateSerializedFields();
     }
 
     public DaoState getClone() {
         return DaoState.getClone(daoState);
     }
 
+    public DaoState getSnapshot() {
+        return DaoState.getSnapshot(daoState);
+    }
+
     public byte[] getSerializedStateForHashChain() {
         return daoState.getSerializedStateForHashChain();
     }
 
+    public byte[] getSerializedStateForHashChainIncrementally() {
+        return daoState.getSerializedStateForHashChainIncrementally();
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // ChainHeight
@@ -173,7 +181,7 @@ public class DaoStateService implements DaoSetupService {
 
     public void addCycle(Cycle cycle) {
         assertDaoStateChange();
-        getCycles().add(cycle);
+        daoState.addCycle(cycle);
     }
 
     @Nullable
@@ -182,10 +190,7 @@ public class DaoStateService implements DaoSetupService {
     }
 
     public Optional<Cycle> getCycle(int height) {
-        return getCycles().stream()
-                .filter(cycle -> cycle.getHeightOfFirstBlock() <= height)
-                .filter(cycle -> cycle.getHeightOfLastBlock() >= height)
-                .findAny();
+        return daoState.getCycle(height);
     }
 
     public Optional<Integer> getStartHeightOfNextCycle(int blockHeight) {
@@ -217,7 +222,7 @@ public class DaoStateService implements DaoSetupService {
                     "We ignore that block as the first block need to be the genesis block. " +
                     "That might happen in edge cases at reorgs. Received block={}", block);
         } else {
-            daoState.getBlocks().add(block);
+            daoState.addBlock(block);
 
             if (parseBlockChainComplete)
                 log.info("New Block added at blockHeight {}", block.getHeight());
@@ -291,7 +296,7 @@ public class DaoStateService implements DaoSetupService {
      * {@code false}.
      */
     public boolean isBlockHashKnown(String blockHash) {
-        return getBlocks().stream().anyMatch(block -> block.getHash().equals(blockHash));
+        return daoState.containsBlockHash(blockHash);
     }
 
     public Optional<Block> getLastBlock() {
@@ -306,9 +311,7 @@ public class DaoStateService implements DaoSetupService {
     }
 
     public Optional<Block> getBlockAtHeight(int height) {
-        return getBlocks().stream()
-                .filter(block -> block.getHeight() == height)
-                .findAny();
+        return daoState.getBlockAtHeight(height);
     }
 
     public boolean containsBlock(Block block) {
@@ -316,7 +319,7 @@ public class DaoStateService implements DaoSetupService {
     }
 
     public boolean containsBlockHash(String blockHash) {
-        return getBlocks().stream().anyMatch(block -> block.getHash().equals(blockHash));
+        return daoState.containsBlockHash(blockHash);
     }
 
     public long getBlockTime(int height) {
@@ -326,11 +329,14 @@ public class DaoStateService implements DaoSetupService {
     public List<Block> getBlocksFromBlockHeight(int fromBlockHeight, int numMaxBlocks) {
         // We limit requests to numMaxBlocks blocks, to avoid performance issues and too
         // large network data in case a node requests too far back in history.
-        return getBlocks().stream()
-                .filter(block -> block.getHeight() >= fromBlockHeight)
-                .sorted(Comparator.comparing(Block::getHeight))
-                .limit(numMaxBlocks)
-                .collect(Collectors.toList());
+        List<Block> result = new ArrayList<>();
+        int toBlockHeight = getBlockHeightOfLastBlock();
+        for (int height = Math.max(fromBlockHeight, getGenesisBlockHeight());
+             height <= toBlockHeight && result.size() < numMaxBlocks;
+             height++) {
+            getBlockAtHeight(height).ifPresent(result::add);
+        }
+        return result;
     }
 
 
@@ -429,19 +435,17 @@ public class DaoStateService implements DaoSetupService {
     // TxOutput
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private Stream<TxOutput> getUnorderedTxOutputStream() {
-        return getUnorderedTxStream()
-                .flatMap(tx -> tx.getTxOutputs().stream());
-    }
-
     public boolean existsTxOutput(TxOutputKey key) {
-        return getUnorderedTxOutputStream().anyMatch(txOutput -> txOutput.getKey().equals(key));
+        return getTxOutput(key).isPresent();
     }
 
     public Optional<TxOutput> getTxOutput(TxOutputKey txOutputKey) {
-        return getUnorderedTxOutputStream()
-                .filter(txOutput -> txOutput.getKey().equals(txOutputKey))
-                .findAny();
+        // The key contains the txId, so we can use the txCache instead of iterating all outputs
+        return getTx(txOutputKey.getTxId())
+                .map(Tx::getTxOutputs)
+                .filter(txOutputs -> txOutputKey.getIndex() >= 0 && txOutputKey.getIndex() < txOutputs.size())
+                .map(txOutputs -> txOutputs.get(txOutputKey.getIndex()))
+                .filter(txOutput -> txOutput.getKey().equals(txOutputKey));
     }
 
 
@@ -456,11 +460,15 @@ public class DaoStateService implements DaoSetupService {
     public void addUnspentTxOutput(TxOutput txOutput) {
         assertDaoStateChange();
         getUnspentTxOutputMap().put(txOutput.getKey(), txOutput);
+        daoState.invalidateSerializedField(protobuf.DaoState.UNSPENT_TX_OUTPUT_MAP_FIELD_NUMBER);
+        daoStateListeners.forEach(listener -> listener.onTxStateChanged(txOutput.getTxId()));
     }
 
     public void removeUnspentTxOutput(TxOutput txOutput) {
         assertDaoStateChange();
         getUnspentTxOutputMap().remove(txOutput.getKey());
+        daoState.invalidateSerializedField(protobuf.DaoState.UNSPENT_TX_OUTPUT_MAP_FIELD_NUMBER);
+        daoStateListeners.forEach(listener -> listener.onTxStateChanged(txOutput.getTxId()));
     }
 
     public boolean isUnspent(TxOutputKey key) {
@@ -525,9 +533,7 @@ public class DaoStateService implements DaoSetupService {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private Set<TxOutput> getTxOutputsByTxOutputType(TxOutputType txOutputType) {
-        return getUnorderedTxOutputStream()
-                .filter(txOutput -> txOutput.getTxOutputType() == txOutputType)
-                .collect(Collectors.toSet());
+        return daoState.getTxOutputsByTxOutputType(txOutputType);
     }
 
     public boolean isBsqTxOutputType(TxOutput txOutput) {
@@ -595,6 +601,8 @@ public class DaoStateService implements DaoSetupService {
     public void addIssuance(Issuance issuance) {
         assertDaoStateChange();
         daoState.getIssuanceMap().put(issuance.getTxId(), issuance);
+        daoState.invalidateSerializedField(protobuf.DaoState.ISSUANCE_MAP_FIELD_NUMBER);
+        daoStateListeners.forEach(listener -> listener.onTxStateChanged(issuance.getTxId()));
     }
 
     public Set<Issuance> getIssuanceSetForType(IssuanceType issuanceType) {
@@ -640,10 +648,11 @@ public class DaoStateService implements DaoSetupService {
     public boolean isRejectedIssuanceOutput(TxOutputKey txOutputKey) {
         Cycle currentCycle = getCurrentCycle();
         return currentCycle != null &&
-                getIssuanceCandidateTxOutputs().stream()
-                        .filter(txOutput -> txOutput.getKey().equals(txOutputKey))
+                getTxOutput(txOutputKey)
+                        .filter(txOutput -> txOutput.getTxOutputType() == TxOutputType.ISSUANCE_CANDIDATE_OUTPUT)
                         .filter(txOutput -> !currentCycle.isInCycle(txOutput.getBlockHeight()))
-                        .anyMatch(txOutput -> !isIssuanceTx(txOutput.getTxId()));
+                        .filter(txOutput -> !isIssuanceTx(txOutput.getTxId()))
+                        .isPresent();
 
     }
 
@@ -871,6 +880,7 @@ public class DaoStateService implements DaoSetupService {
         assertDaoStateChange();
         log.warn("TxId {} added to confiscatedLockupTxIdList.", lockupTxId);
         daoState.getConfiscatedLockupTxList().add(lockupTxId);
+        daoState.invalidateSerializedField(protobuf.DaoState.CONFISCATED_LOCKUP_TX_LIST_FIELD_NUMBER);
     }
 
     public boolean isConfiscatedOutput(TxOutputKey txOutputKey) {
@@ -905,6 +915,7 @@ public class DaoStateService implements DaoSetupService {
                     paramChangeList.add(paramChange);
                     // Addition with older height should not be possible but to ensure correct sorting lets run a sort.
                     paramChangeList.sort(Comparator.comparingInt(ParamChange::getActivationHeight));
+                    daoState.invalidateSerializedField(protobuf.DaoState.PARAM_CHANGE_LIST_FIELD_NUMBER);
                 });
     }
 
@@ -957,6 +968,8 @@ public class DaoStateService implements DaoSetupService {
     public void setSpentInfo(TxOutputKey txOutputKey, SpentInfo spentInfo) {
         assertDaoStateChange();
         daoState.getSpentInfoMap().put(txOutputKey, spentInfo);
+        daoState.invalidateSerializedField(protobuf.DaoState.SPENT_INFO_MAP_FIELD_NUMBER);
+        daoStateListeners.forEach(listener -> listener.onTxStateChanged(txOutputKey.getTxId()));
     }
 
     public Optional<SpentInfo> getSpentInfo(TxOutput txOutput) {
@@ -981,6 +994,7 @@ public class DaoStateService implements DaoSetupService {
 
         // We need deterministic order for the hash chain
         daoState.getEvaluatedProposalList().sort(Comparator.comparing(EvaluatedProposal::getProposalTxId));
+        daoState.invalidateSerializedField(protobuf.DaoState.EVALUATED_PROPOSAL_LIST_FIELD_NUMBER);
     }
 
     public List<DecryptedBallotsWithMerits> getDecryptedBallotsWithMeritsList() {
@@ -996,6 +1010,7 @@ public class DaoStateService implements DaoSetupService {
 
         // We need deterministic order for the hash chain
         daoState.getDecryptedBallotsWithMeritsList().sort(Comparator.comparing(DecryptedBallotsWithMerits::getBlindVoteTxId));
+        daoState.invalidateSerializedField(protobuf.DaoState.DECRYPTED_BALLOTS_WITH_MERITS_LIST_FIELD_NUMBER);
     }
 
 
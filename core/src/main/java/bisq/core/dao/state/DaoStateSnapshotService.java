@@ -104,21 +104,21 @@ public class DaoStateSnapshotService {
             // At trigger event we store the latest snapshotCandidate to disc
             long ts = System.currentTimeMillis();
             if (daoStateSnapshotCandidate != null) {
-                // Serialisation happens on the userThread so we do not need to clone the data. Write to disk happens
-                // in a thread but does not interfere with our objects as they got already serialized when passed to the
-                // write thread. We use requestPersistence so we do not write immediately but at next scheduled interval.
-                // This avoids frequent write at dao sync and better performance.
+                // The snapshotCandidate does not get mutated anymore, so serialisation and write to disk happen on
+                // the write thread. We use requestPersistence so we do not write immediately but at next scheduled
+                // interval. This avoids frequent write at dao sync and better performance.
                 daoStateStorageService.requestPersistence(daoStateSnapshotCandidate, daoStateHashChainSnapshotCandidate);
-                log.info("Serializing snapshotCandidate for writing to Disc with height {} at height {} took {} ms",
+                log.info("Requesting persistence of snapshotCandidate with height {} at height {} took {} ms",
                         daoStateSnapshotCandidate.getChainHeight(), chainHeight, System.currentTimeMillis() - ts);
             }
 
             ts = System.currentTimeMillis();
-            // Now we clone and keep it in memory for the next trigger event
-            daoStateSnapshotCandidate = daoStateService.getClone();
+            // Now we take a snapshot and keep it in memory for the next trigger event. The snapshot shares the
+            // immutable data with the daoState, so we only copy the collections.
+            daoStateSnapshotCandidate = daoStateService.getSnapshot();
             daoStateHashChainSnapshotCandidate = new LinkedList<>(daoStateMonitoringService.getDaoStateHashChain());
 
-            log.debug("Cloned new snapshotCandidate at height {} took {} ms", chainHeight, System.currentTimeMillis() - ts);
+            log.debug("Created new snapshotCandidate at height {} took {} ms", chainHeight, System.currentTimeMillis() - ts);
         }
     }
 
@@ -22,6 +22,7 @@ import bisq.core.dao.state.model.blockchain.SpentInfo;
 import bisq.core.dao.state.model.blockchain.Tx;
 import bisq.core.dao.state.model.blockchain.TxOutput;
 import bisq.core.dao.state.model.blockchain.TxOutputKey;
+import bisq.core.dao.state.model.blockchain.TxOutputType;
 import bisq.core.dao.state.model.governance.Cycle;
 import bisq.core.dao.state.model.governance.DecryptedBallotsWithMerits;
 import bisq.core.dao.state.model.governance.EvaluatedProposal;
@@ -31,16 +32,22 @@ import bisq.core.dao.state.model.governance.ParamChange;
 import bisq.common.proto.persistable.PersistablePayload;
 import bisq.common.util.JsonExclude;
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.Message;
 
 import javax.inject.Inject;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -68,6 +75,16 @@ public class DaoState implements PersistablePayload {
         return DaoState.fromProto(daoState.getBsqStateBuilder().build());
     }
 
+    /**
+     * Creates a copy which only copies the collections but shares the immutable blocks, txs, outputs and governance
+     * data with the given daoState. That avoids the serialisation round trip of getClone. Blocks are only mutated
+     * while they get parsed, so the snapshot must only be created after the last block has been completely parsed.
+     * The snapshot must not be mutated if it is passed to another thread.
+     */
+    public static DaoState getSnapshot(DaoState daoState) {
+        return new DaoState(daoState);
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Fields
@@ -107,6 +124,26 @@ public class DaoState implements PersistablePayload {
     // Transient data used only as an index - must be kept in sync with the block list
     @JsonExclude
     private transient final Map<String, Tx> txCache; // key is txId
+    @JsonExclude
+    private transient final Map<TxOutputType, Set<TxOutput>> txOutputsByTxOutputType = new EnumMap<>(TxOutputType.class);
+    @JsonExclude
+    private transient final Map<Integer, Block> blocksByHeight = new HashMap<>();
+    @JsonExclude
+    private transient final Map<String, Block> blocksByHash = new HashMap<>();
+    // Must be kept in sync with the cycles list. Key is height of first block of the cycle.
+    @JsonExclude
+    private transient final TreeMap<Integer, Cycle> cyclesByFirstBlockHeight = new TreeMap<>();
+
+    // Transient data used for the incremental serialization for the hash chain. Key is the proto field number, value
+    // is the serialized field. Entries get removed when the field has changed.
+    @JsonExclude
+    private transient final Map<Integer, ByteString> serializedFieldCache = new HashMap<>();
+    // The entries of the big maps are immutable, so we can reuse their proto messages as long as the instance is
+    // still in the map.
+    @JsonExclude
+    private transient Map<TxOutput, protobuf.BaseTxOutput> unspentTxOutputProtoCache = new IdentityHashMap<>();
+    @JsonExclude
+    private transient Map<SpentInfo, protobuf.SpentInfo> spentInfoProtoCache = new IdentityHashMap<>();
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -129,6 +166,31 @@ public class DaoState implements PersistablePayload {
     }
 
 
+    private DaoState(DaoState daoState) {
+        chainHeight = daoState.chainHeight;
+        blocks = new LinkedList<>(daoState.blocks);
+        cycles = new LinkedList<>(daoState.cycles);
+
+        // Copying a SortedMap into a TreeMap is done in linear time without any comparisons
+        unspentTxOutputMap = new TreeMap<>(daoState.unspentTxOutputMap);
+        spentInfoMap = new TreeMap<>(daoState.spentInfoMap);
+
+        confiscatedLockupTxList = new ArrayList<>(daoState.confiscatedLockupTxList);
+        issuanceMap = new TreeMap<>(daoState.issuanceMap);
+        paramChangeList = new ArrayList<>(daoState.paramChangeList);
+        evaluatedProposalList = new ArrayList<>(daoState.evaluatedProposalList);
+        decryptedBallotsWithMeritsList = new ArrayList<>(daoState.decryptedBallotsWithMeritsList);
+
+        // We copy the indexes instead of rebuilding them from all txs of all blocks
+        txCache = new HashMap<>(daoState.txCache);
+        daoState.txOutputsByTxOutputType.forEach((txOutputType, txOutputs) ->
+                txOutputsByTxOutputType.put(txOutputType, new HashSet<>(txOutputs)));
+        blocksByHeight.putAll(daoState.blocksByHeight);
+        blocksByHash.putAll(daoState.blocksByHash);
+        cyclesByFirstBlockHeight.putAll(daoState.cyclesByFirstBlockHeight);
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // PROTO BUFFER
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -159,6 +221,9 @@ public class DaoState implements PersistablePayload {
         txCache = blocks.stream()
                 .flatMap(block -> block.getTxs().stream())
                 .collect(Collectors.toMap(Tx::getId, Function.identity(), (x, y) -> x, HashMap::new));
+        txCache.values().forEach(this::addToTxOutputIndex);
+        blocks.forEach(this::addToBlockIndex);
+        cycles.forEach(this::addToCycleIndex);
     }
 
     @Override
@@ -238,21 +303,178 @@ public class DaoState implements PersistablePayload {
         return getBsqStateBuilderExcludingBlocks().addBlocks(getBlocks().getLast().toProtoMessage()).build().toByteArray();
     }
 
+    /**
+     * Delivers the same bytes as getSerializedStateForHashChain but only serializes the fields which have been
+     * marked as changed by invalidateSerializedField since the last call. Chain height and last block are always
+     * serialized. As proto3 writes the fields ordered by field number and a message with a single field set
+     * serializes to exactly that field, the concatenation of the per field serializations is equal to the
+     * serialization of the whole message.
+     */
+    public byte[] getSerializedStateForHashChainIncrementally() {
+        ByteString serialized = protobuf.DaoState.newBuilder()
+                .setChainHeight(chainHeight)
+                .addBlocks(getBlocks().getLast().toProtoMessage())
+                .build()
+                .toByteString();
+        for (int fieldNumber = protobuf.DaoState.CYCLES_FIELD_NUMBER;
+             fieldNumber <= protobuf.DaoState.DECRYPTED_BALLOTS_WITH_MERITS_LIST_FIELD_NUMBER;
+             fieldNumber++) {
+            serialized = serialized.concat(serializedFieldCache.computeIfAbsent(fieldNumber, this::serializeField));
+        }
+        return serialized.toByteArray();
+    }
+
+    /**
+     * Needs to be called after a field used for the hash chain has been changed from outside of that class.
+     *
+     * @param fieldNumber   The proto field number of the changed field (e.g. protobuf.DaoState.ISSUANCE_MAP_FIELD_NUMBER)
+     */
+    public void invalidateSerializedField(int fieldNumber) {
+        serializedFieldCache.remove(fieldNumber);
+    }
+
+    public void invalidateSerializedFields() {
+        serializedFieldCache.clear();
+        unspentTxOutputProtoCache = new IdentityHashMap<>();
+        spentInfoProtoCache = new IdentityHashMap<>();
+    }
+
     public void addToTxCache(Tx tx) {
         // We shouldn't get duplicate txIds, but use putIfAbsent instead of put for consistency with the map merge
         // function used in the constructor to initialise txCache (and to exactly match the pre-caching behaviour).
-        txCache.putIfAbsent(tx.getId(), tx);
+        if (txCache.putIfAbsent(tx.getId(), tx) == null) {
+            addToTxOutputIndex(tx);
+        }
     }
 
     public void setTxCache(Map<String, Tx> txCache) {
         this.txCache.clear();
         this.txCache.putAll(txCache);
+
+        txOutputsByTxOutputType.clear();
+        this.txCache.values().forEach(this::addToTxOutputIndex);
     }
 
     public Map<String, Tx> getTxCache() {
         return Collections.unmodifiableMap(txCache);
     }
 
+    public Set<TxOutput> getTxOutputsByTxOutputType(TxOutputType txOutputType) {
+        return Collections.unmodifiableSet(txOutputsByTxOutputType.getOrDefault(txOutputType, Collections.emptySet()));
+    }
+
+    public void addBlock(Block block) {
+        blocks.add(block);
+        addToBlockIndex(block);
+    }
+
+    public void setBlocks(List<Block> blocks) {
+        this.blocks.clear();
+        this.blocks.addAll(blocks);
+
+        blocksByHeight.clear();
+        blocksByHash.clear();
+        this.blocks.forEach(this::addToBlockIndex);
+    }
+
+    public Optional<Block> getBlockAtHeight(int height) {
+        return Optional.ofNullable(blocksByHeight.get(height));
+    }
+
+    public boolean containsBlockHash(String blockHash) {
+        return blocksByHash.containsKey(blockHash);
+    }
+
+    public void addCycle(Cycle cycle) {
+        cycles.add(cycle);
+        addToCycleIndex(cycle);
+        invalidateSerializedField(protobuf.DaoState.CYCLES_FIELD_NUMBER);
+    }
+
+    public void setCycles(List<Cycle> cycles) {
+        this.cycles.clear();
+        this.cycles.addAll(cycles);
+        invalidateSerializedField(protobuf.DaoState.CYCLES_FIELD_NUMBER);
+
+        cyclesByFirstBlockHeight.clear();
+        this.cycles.forEach(this::addToCycleIndex);
+    }
+
+    public Optional<Cycle> getCycle(int height) {
+        Map.Entry<Integer, Cycle> entry = cyclesByFirstBlockHeight.floorEntry(height);
+        return Optional.ofNullable(entry)
+                .map(Map.Entry::getValue)
+                .filter(cycle -> cycle.getHeightOfLastBlock() >= height);
+    }
+
+    // Must produce the same data as getBsqStateBuilderExcludingBlocks for the given field
+    private ByteString serializeField(int fieldNumber) {
+        protobuf.DaoState.Builder builder = protobuf.DaoState.newBuilder();
+        switch (fieldNumber) {
+            case protobuf.DaoState.CYCLES_FIELD_NUMBER:
+                builder.addAllCycles(cycles.stream().map(Cycle::toProtoMessage).collect(Collectors.toList()));
+                break;
+            case protobuf.DaoState.UNSPENT_TX_OUTPUT_MAP_FIELD_NUMBER:
+                Map<TxOutput, protobuf.BaseTxOutput> txOutputProtos = new IdentityHashMap<>(unspentTxOutputMap.size());
+                builder.putAllUnspentTxOutputMap(unspentTxOutputMap.entrySet().stream()
+                        .collect(Collectors.toMap(e -> e.getKey().toString(),
+                                e -> getProto(e.getValue(), TxOutput::toProtoMessage, unspentTxOutputProtoCache, txOutputProtos))));
+                unspentTxOutputProtoCache = txOutputProtos;
+                break;
+            case protobuf.DaoState.ISSUANCE_MAP_FIELD_NUMBER:
+                builder.putAllIssuanceMap(issuanceMap.entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().toProtoMessage())));
+                break;
+            case protobuf.DaoState.CONFISCATED_LOCKUP_TX_LIST_FIELD_NUMBER:
+                builder.addAllConfiscatedLockupTxList(confiscatedLockupTxList);
+                break;
+            case protobuf.DaoState.SPENT_INFO_MAP_FIELD_NUMBER:
+                Map<SpentInfo, protobuf.SpentInfo> spentInfoProtos = new IdentityHashMap<>(spentInfoMap.size());
+                builder.putAllSpentInfoMap(spentInfoMap.entrySet().stream()
+                        .collect(Collectors.toMap(e -> e.getKey().toString(),
+                                e -> getProto(e.getValue(), SpentInfo::toProtoMessage, spentInfoProtoCache, spentInfoProtos))));
+                spentInfoProtoCache = spentInfoProtos;
+                break;
+            case protobuf.DaoState.PARAM_CHANGE_LIST_FIELD_NUMBER:
+                builder.addAllParamChangeList(paramChangeList.stream().map(ParamChange::toProtoMessage).collect(Collectors.toList()));
+                break;
+            case protobuf.DaoState.EVALUATED_PROPOSAL_LIST_FIELD_NUMBER:
+                builder.addAllEvaluatedProposalList(evaluatedProposalList.stream().map(EvaluatedProposal::toProtoMessage).collect(Collectors.toList()));
+                break;
+            case protobuf.DaoState.DECRYPTED_BALLOTS_WITH_MERITS_LIST_FIELD_NUMBER:
+                builder.addAllDecryptedBallotsWithMeritsList(decryptedBallotsWithMeritsList.stream().map(DecryptedBallotsWithMerits::toProtoMessage).collect(Collectors.toList()));
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported field number " + fieldNumber);
+        }
+        return builder.build().toByteString();
+    }
+
+    private static <T, P> P getProto(T value, Function<T, P> toProto, Map<T, P> previousProtos, Map<T, P> protos) {
+        P proto = previousProtos.get(value);
+        if (proto == null) {
+            proto = toProto.apply(value);
+        }
+        protos.put(value, proto);
+        return proto;
+    }
+
+    private void addToTxOutputIndex(Tx tx) {
+        tx.getTxOutputs().forEach(txOutput -> txOutputsByTxOutputType
+                .computeIfAbsent(txOutput.getTxOutputType(), txOutputType -> new HashSet<>())
+                .add(txOutput));
+    }
+
+    private void addToBlockIndex(Block block) {
+        // Matches the behaviour of the former lookups by stream().findAny() in case of duplicates
+        blocksByHeight.putIfAbsent(block.getHeight(), block);
+        blocksByHash.putIfAbsent(block.getHash(), block);
+    }
+
+    private void addToCycleIndex(Cycle cycle) {
+        cyclesByFirstBlockHeight.putIfAbsent(cycle.getHeightOfFirstBlock(), cycle);
+    }
+
     @Override
     public String toString() {
         return "DaoState{" +
@@ -77,8 +77,7 @@ public class DaoStateStorageService extends StoreService<DaoStateStore> {
     }
 
     public void requestPersistence(DaoState daoState, LinkedList<DaoStateHash> daoStateHashChain) {
-        store.setDaoState(daoState);
-        store.setDaoStateHashChain(daoStateHashChain);
+        store.set(daoState, daoStateHashChain);
         persistenceManager.requestPersistence();
     }
 
@@ -91,8 +90,7 @@ public class DaoStateStorageService extends StoreService<DaoStateStore> {
     }
 
     public void resyncDaoStateFromGenesis(Runnable resultHandler) {
-        store.setDaoState(new DaoState());
-        store.setDaoStateHashChain(new LinkedList<>());
+        store.set(new DaoState(), new LinkedList<>());
         persistenceManager.persistNow(resultHandler);
     }
 
@@ -131,5 +129,7 @@ public class DaoStateStorageService extends StoreService<DaoStateStore> {
     @Override
     protected void initializePersistenceManager() {
         persistenceManager.initialize(store, PersistenceManager.Source.NETWORK);
+        // We only pass snapshots to the store which do not get mutated anymore
+        persistenceManager.enableSerializationOnWriteThread();
     }
 }
@@ -28,7 +28,6 @@ import java.util.LinkedList;
 import java.util.stream.Collectors;
 
 import lombok.Getter;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -38,12 +37,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public class DaoStateStore implements PersistableEnvelope {
     // DaoState is always a clone and must not be used for read access beside initial read from disc when we apply
     // the snapshot!
+    // Serialisation happens on the write thread, so we only replace the data but never mutate it.
     @Getter
-    @Setter
-    private DaoState daoState;
+    private volatile DaoState daoState;
     @Getter
-    @Setter
-    private LinkedList<DaoStateHash> daoStateHashChain;
+    private volatile LinkedList<DaoStateHash> daoStateHashChain;
 
     DaoStateStore(DaoState daoState, LinkedList<DaoStateHash> daoStateHashChain) {
         this.daoState = daoState;
@@ -56,6 +54,12 @@ public class DaoStateStore implements PersistableEnvelope {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public Message toProtoMessage() {
+        DaoState daoState;
+        LinkedList<DaoStateHash> daoStateHashChain;
+        synchronized (this) {
+            daoState = this.daoState;
+            daoStateHashChain = this.daoStateHashChain;
+        }
         checkNotNull(daoState, "daoState must not be null when toProtoMessage is invoked");
         protobuf.DaoStateStore.Builder builder = protobuf.DaoStateStore.newBuilder()
                 .setDaoState(daoState.getBsqStateBuilder())
@@ -75,4 +79,15 @@ public class DaoStateStore implements PersistableEnvelope {
                         .collect(Collectors.toList()));
         return new DaoStateStore(DaoState.fromProto(proto.getDaoState()), daoStateHashList);
     }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // We set both together, so that the write thread never serializes a daoState with the hash chain of another one.
+    public synchronized void set(DaoState daoState, LinkedList<DaoStateHash> daoStateHashChain) {
+        this.daoState = daoState;
+        this.daoStateHashChain = daoStateHashChain;
+    }
 }
@@ -39,9 +39,9 @@ import javax.inject.Named;
 import java.io.File;
 
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -64,7 +64,8 @@ public class OfferBookService {
 
     private final P2PService p2PService;
     private final PriceFeedService priceFeedService;
-    private final List<OfferBookChangedListener> offerBookChangedListeners = new LinkedList<>();
+    // Api clients add and remove listeners from the gRPC threads.
+    private final List<OfferBookChangedListener> offerBookChangedListeners = new CopyOnWriteArrayList<>();
     private final FilterManager filterManager;
     private final JsonFileManager jsonFileManager;
 
@@ -214,6 +215,10 @@ public class OfferBookService {
         offerBookChangedListeners.add(offerBookChangedListener);
     }
 
+    public void removeOfferBookChangedListener(OfferBookChangedListener offerBookChangedListener) {
+        offerBookChangedListeners.remove(offerBookChangedListener);
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Private
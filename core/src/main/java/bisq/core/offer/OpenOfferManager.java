@@ -579,7 +579,7 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
     }
 
     public Optional<OpenOffer> getOpenOfferById(String offerId) {
-        return openOffers.stream().filter(e -> e.getId().equals(offerId)).findFirst();
+        return openOffers.getTradableById(offerId);
     }
 
 
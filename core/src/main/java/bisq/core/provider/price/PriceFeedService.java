@@ -49,11 +49,9 @@ import javafx.beans.property.StringProperty;
 
 import java.time.Instant;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
@@ -77,6 +75,8 @@ public class PriceFeedService {
     private static final long PERIOD_SEC = 60;
 
     private final Map<String, MarketPrice> cache = new HashMap<>();
+    // Latest trade statistics by currency code, used for the Bisq market price
+    private final Map<String, TradeStatistics3> latestTradeStatisticsByCurrency = new HashMap<>();
     private PriceProvider priceProvider;
     @Nullable
     private Consumer<Double> priceConsumer;
@@ -302,27 +302,21 @@ public class PriceFeedService {
     }
 
     public void applyLatestBisqMarketPrice(Set<TradeStatistics3> tradeStatisticsSet) {
-        // takes about 10 ms for 5000 items
-        Map<String, List<TradeStatistics3>> mapByCurrencyCode = new HashMap<>();
-        tradeStatisticsSet.forEach(e -> {
-            List<TradeStatistics3> list;
-            String currencyCode = e.getCurrency();
-            if (mapByCurrencyCode.containsKey(currencyCode)) {
-                list = mapByCurrencyCode.get(currencyCode);
-            } else {
-                list = new ArrayList<>();
-                mapByCurrencyCode.put(currencyCode, list);
+        // We only update the index and apply the price once per currency
+        Set<String> changedCurrencyCodes = new HashSet<>();
+        tradeStatisticsSet.forEach(tradeStatistics -> {
+            if (updateLatestTradeStatistics(tradeStatistics)) {
+                changedCurrencyCodes.add(tradeStatistics.getCurrency());
             }
-            list.add(e);
         });
+        changedCurrencyCodes.forEach(currencyCode -> setBisqMarketPrice(currencyCode,
+                latestTradeStatisticsByCurrency.get(currencyCode).getTradePrice()));
+    }
 
-        mapByCurrencyCode.values().stream()
-                .filter(list -> !list.isEmpty())
-                .forEach(list -> {
-                    list.sort(Comparator.comparing(TradeStatistics3::getDate));
-                    TradeStatistics3 tradeStatistics = list.get(list.size() - 1);
-                    setBisqMarketPrice(tradeStatistics.getCurrency(), tradeStatistics.getTradePrice());
-                });
+    public void applyLatestBisqMarketPrice(TradeStatistics3 tradeStatistics) {
+        if (updateLatestTradeStatistics(tradeStatistics)) {
+            setBisqMarketPrice(tradeStatistics.getCurrency(), tradeStatistics.getTradePrice());
+        }
     }
 
     public Optional<Price> getBsqPrice() {
@@ -339,6 +333,17 @@ public class PriceFeedService {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    // Returns true if the tradeStatistics is the new latest trade of its currency
+    private boolean updateLatestTradeStatistics(TradeStatistics3 tradeStatistics) {
+        TradeStatistics3 latest = latestTradeStatisticsByCurrency.get(tradeStatistics.getCurrency());
+        if (latest != null && latest.getDateAsLong() >= tradeStatistics.getDateAsLong()) {
+            return false;
+        }
+
+        latestTradeStatisticsByCurrency.put(tradeStatistics.getCurrency(), tradeStatistics);
+        return true;
+    }
+
     private boolean applyPriceToConsumer() {
         boolean result = false;
         String errorMessage = null;
@@ -25,22 +25,38 @@ import bisq.common.proto.ProtoUtil;
 import bisq.common.proto.ProtobufferRuntimeException;
 import bisq.common.proto.persistable.PersistableListAsObservable;
 
+import bisq.network.p2p.NodeAddress;
+
 import com.google.protobuf.Message;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 @Slf4j
 public final class TradableList<T extends Tradable> extends PersistableListAsObservable<T> {
+    // The id is the offer id for all tradables. If there are several tradables with the same id we map the first one
+    // in the list, like the linear search we replaced did.
+    private final Map<String, T> tradablesById = new HashMap<>();
+    // Built on demand and dropped at any change of the list. The trading peer of a trade is only set at its start, so
+    // we do not track changes of it.
+    @Nullable
+    private Map<String, List<T>> tradablesByTradingPeer;
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public TradableList() {
+        addIndexListener();
     }
 
 
@@ -50,6 +66,7 @@ public final class TradableList<T extends Tradable> extends PersistableListAsObs
 
     protected TradableList(Collection<T> collection) {
         super(collection);
+        addIndexListener();
     }
 
     @Override
@@ -87,6 +104,58 @@ public final class TradableList<T extends Tradable> extends PersistableListAsObs
         return new TradableList<>(list);
     }
 
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public Optional<T> getTradableById(String id) {
+        return Optional.ofNullable(tradablesById.get(id));
+    }
+
+    public List<T> getTradablesByTradingPeer(NodeAddress tradingPeerNodeAddress) {
+        if (tradablesByTradingPeer == null) {
+            Map<String, List<T>> map = new HashMap<>();
+            forEach(tradable -> {
+                if (tradable instanceof Trade && ((Trade) tradable).getTradingPeerNodeAddress() != null) {
+                    String fullAddress = ((Trade) tradable).getTradingPeerNodeAddress().getFullAddress();
+                    map.computeIfAbsent(fullAddress, key -> new ArrayList<>()).add(tradable);
+                }
+            });
+            tradablesByTradingPeer = map;
+        }
+        return tradablesByTradingPeer.getOrDefault(tradingPeerNodeAddress.getFullAddress(), List.of());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // The list is exposed as ObservableList and might be changed directly, so we update the indexes from its changes.
+    private void addIndexListener() {
+        rebuildIdIndex();
+        addListener(change -> {
+            tradablesByTradingPeer = null;
+            boolean requiresRebuild = false;
+            while (change.next()) {
+                if (change.wasRemoved() || change.getTo() != change.getList().size()) {
+                    // Removals are rare, and an insert in the middle might change which tradable comes first.
+                    requiresRebuild = true;
+                } else if (change.wasAdded()) {
+                    change.getAddedSubList().forEach(tradable -> tradablesById.putIfAbsent(tradable.getId(), tradable));
+                }
+            }
+            if (requiresRebuild)
+                rebuildIdIndex();
+        });
+    }
+
+    private void rebuildIdIndex() {
+        tradablesById.clear();
+        forEach(tradable -> tradablesById.putIfAbsent(tradable.getId(), tradable));
+    }
+
     @Override
     public String toString() {
         return "TradableList{" +
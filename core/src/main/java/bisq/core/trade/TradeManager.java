@@ -710,7 +710,7 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
     }
 
     public Optional<Trade> getTradeById(String tradeId) {
-        return tradableList.stream().filter(e -> e.getId().equals(tradeId)).findFirst();
+        return tradableList.getTradableById(tradeId);
     }
 
     private void removeTrade(Trade trade) {
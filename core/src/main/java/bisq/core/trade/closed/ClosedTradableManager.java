@@ -28,6 +28,8 @@ import bisq.common.crypto.KeyRing;
 import bisq.common.persistence.PersistenceManager;
 import bisq.common.proto.persistable.PersistedDataHost;
 
+import bisq.network.p2p.NodeAddress;
+
 import com.google.inject.Inject;
 
 import com.google.common.collect.ImmutableList;
@@ -110,7 +112,12 @@ public class ClosedTradableManager implements PersistedDataHost {
     }
 
     public Optional<Tradable> getTradableById(String id) {
-        return closedTradables.stream().filter(e -> e.getId().equals(id)).findFirst();
+        return closedTradables.getTradableById(id);
+    }
+
+    public int getNumPastTrades(Trade trade) {
+        NodeAddress tradingPeerNodeAddress = trade.getTradingPeerNodeAddress();
+        return tradingPeerNodeAddress != null ? closedTradables.getTradablesByTradingPeer(tradingPeerNodeAddress).size() : 0;
     }
 
     public Stream<Trade> getTradesStreamWithFundsLockedIn() {
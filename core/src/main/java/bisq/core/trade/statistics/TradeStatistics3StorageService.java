@@ -19,6 +19,7 @@ package bisq.core.trade.statistics;
 
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.network.p2p.storage.persistence.HistoricalDataStoreService;
+import bisq.network.p2p.storage.persistence.MappedHistoricalDataStore;
 
 import bisq.common.config.Config;
 import bisq.common.persistence.PersistenceManager;
@@ -72,6 +73,16 @@ public class TradeStatistics3StorageService extends HistoricalDataStoreService<T
     // Protected
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    @Override
+    protected MappedHistoricalDataStore.PayloadDecoder getPayloadDecoder() {
+        return serializedItem -> TradeStatistics3.fromProto(protobuf.TradeStatistics3.parseFrom(serializedItem));
+    }
+
+    @Override
+    protected int getPayloadHashFieldNumber() {
+        return protobuf.TradeStatistics3.HASH_FIELD_NUMBER;
+    }
+
     @Override
     protected TradeStatistics3Store createStore() {
         return new TradeStatistics3Store();
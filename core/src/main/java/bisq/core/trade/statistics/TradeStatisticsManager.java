@@ -100,7 +100,7 @@ public class TradeStatisticsManager {
                     return;
                 }
                 observableTradeStatisticsSet.add(tradeStatistics);
-                priceFeedService.applyLatestBisqMarketPrice(observableTradeStatisticsSet);
+                priceFeedService.applyLatestBisqMarketPrice(tradeStatistics);
                 maybeDumpStatistics();
             }
         });
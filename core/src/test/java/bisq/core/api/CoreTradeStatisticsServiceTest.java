@@ -0,0 +1,106 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api;
+
+import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.trade.statistics.TradeStatisticsManager;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CoreTradeStatisticsServiceTest {
+    private ObservableSet<TradeStatistics3> tradeStatisticsSet;
+    private CoreTradeStatisticsService service;
+
+    @Before
+    public void setUp() {
+        tradeStatisticsSet = FXCollections.observableSet();
+        TradeStatisticsManager tradeStatisticsManager = mock(TradeStatisticsManager.class);
+        when(tradeStatisticsManager.getObservableTradeStatisticsSet()).thenReturn(tradeStatisticsSet);
+
+        tradeStatisticsSet.add(createTradeStatistics("EUR", 3000));
+        service = new CoreTradeStatisticsService(tradeStatisticsManager);
+        tradeStatisticsSet.add(createTradeStatistics("USD", 1000));
+        tradeStatisticsSet.add(createTradeStatistics("EUR", 2000));
+        tradeStatisticsSet.add(createTradeStatistics("EUR", 4000));
+    }
+
+    @Test
+    public void testGetTradeStatisticsIsSortedByDate() {
+        assertEquals(List.of(1000L, 2000L, 3000L, 4000L),
+                dates(service.getTradeStatistics("", 0, 0, "", 0)));
+    }
+
+    @Test
+    public void testGetTradeStatisticsFilters() {
+        assertEquals(List.of(2000L, 3000L, 4000L), dates(service.getTradeStatistics("eur", 0, 0, "", 0)));
+        assertEquals(List.of(2000L, 3000L), dates(service.getTradeStatistics("", 2000, 4000, "", 0)));
+        assertTrue(service.getTradeStatistics("JPY", 0, 0, "", 0).isEmpty());
+    }
+
+    @Test
+    public void testGetTradeStatisticsWithCursor() {
+        List<TradeStatistics3> firstPage = service.getTradeStatistics("", 0, 0, "", 2);
+        assertEquals(List.of(1000L, 2000L), dates(firstPage));
+
+        String cursor = CoreTradeStatisticsService.getCursor(firstPage.get(1));
+        assertEquals(List.of(3000L, 4000L), dates(service.getTradeStatistics("", 0, 0, cursor, 2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCursor() {
+        service.getTradeStatistics("", 0, 0, "not-a-cursor", 2);
+    }
+
+    @Test
+    public void testListenerAndRemoval() {
+        List<TradeStatistics3> received = new ArrayList<>();
+        Consumer<TradeStatistics3> listener = received::add;
+        service.addListener(listener);
+        TradeStatistics3 tradeStatistics = createTradeStatistics("USD", 5000);
+        tradeStatisticsSet.add(tradeStatistics);
+        service.removeListener(listener);
+        tradeStatisticsSet.add(createTradeStatistics("USD", 6000));
+        assertEquals(List.of(tradeStatistics), received);
+
+        tradeStatisticsSet.remove(tradeStatistics);
+        assertEquals(List.of(6000L), dates(service.getTradeStatistics("USD", 5000, 0, "", 0)));
+    }
+
+    private static TradeStatistics3 createTradeStatistics(String currency, long date) {
+        return new TradeStatistics3(currency, 100, 100, "SEPA", date, null, null, null, null);
+    }
+
+    private static List<Long> dates(List<TradeStatistics3> tradeStatistics) {
+        List<Long> dates = new ArrayList<>();
+        tradeStatistics.forEach(e -> dates.add(e.getDateAsLong()));
+        return dates;
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import bisq.core.btc.listeners.AddressConfidenceListener;
+import bisq.core.btc.listeners.TxConfidenceListener;
+import bisq.core.btc.setup.WalletsSetup;
+import bisq.core.provider.fee.FeeService;
+import bisq.core.user.Preferences;
+
+import bisq.common.UserThread;
+import bisq.common.config.Config;
+
+import org.bitcoinj.core.Address;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.ECKey;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionConfidence;
+import org.bitcoinj.core.TransactionOutput;
+import org.bitcoinj.core.listeners.TransactionConfidenceEventListener;
+import org.bitcoinj.script.Script;
+import org.bitcoinj.wallet.Wallet;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mockito.ArgumentCaptor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WalletServiceTest {
+    private final NetworkParameters params = Config.baseCurrencyNetworkParameters();
+    private final List<Runnable> userThreadTasks = new ArrayList<>();
+    private WalletService walletService;
+    private TransactionConfidenceEventListener walletListener;
+
+    @Before
+    public void setUp() {
+        Context.propagate(new Context(params));
+        WalletsSetup walletsSetup = mock(WalletsSetup.class);
+        when(walletsSetup.getParams()).thenReturn(params);
+        walletService = new WalletService(walletsSetup, mock(Preferences.class), mock(FeeService.class)) {
+            @Override
+            String getWalletAsString(boolean includePrivKeys) {
+                return "";
+            }
+
+            @Override
+            protected boolean isDustAttackUtxo(TransactionOutput output) {
+                return false;
+            }
+        };
+        walletService.wallet = mock(Wallet.class);
+        walletService.addListenersToWallet();
+        ArgumentCaptor<TransactionConfidenceEventListener> captor =
+                ArgumentCaptor.forClass(TransactionConfidenceEventListener.class);
+        verify(walletService.wallet).addTransactionConfidenceEventListener(captor.capture());
+        walletListener = captor.getValue();
+
+        // We run the tasks of the user thread explicitly to control when a batch gets delivered
+        UserThread.setExecutor(userThreadTasks::add);
+    }
+
+    @After
+    public void tearDown() {
+        UserThread.setExecutor(MoreExecutors.directExecutor());
+    }
+
+    @Test
+    public void testAddressListenersOnlyGetTxsOfTheirAddress() {
+        Address address = newAddress();
+        Address otherAddress = newAddress();
+        List<TransactionConfidence> confidences = new ArrayList<>();
+        List<TransactionConfidence> otherConfidences = new ArrayList<>();
+        walletService.addAddressConfidenceListener(new RecordingAddressConfidenceListener(address, confidences));
+        walletService.addAddressConfidenceListener(new RecordingAddressConfidenceListener(otherAddress, otherConfidences));
+
+        Transaction tx = newTx(address);
+        onTransactionConfidenceChanged(tx);
+
+        assertEquals(1, confidences.size());
+        assertSame(tx.getConfidence(), confidences.get(0));
+        assertTrue(otherConfidences.isEmpty());
+    }
+
+    @Test
+    public void testTxListenersOnlyGetTheirTx() {
+        Transaction tx = newTx(newAddress());
+        Transaction otherTx = newTx(newAddress());
+        List<TransactionConfidence> confidences = new ArrayList<>();
+        List<TransactionConfidence> otherConfidences = new ArrayList<>();
+        walletService.addTxConfidenceListener(new RecordingTxConfidenceListener(tx.getTxId().toString(), confidences));
+        walletService.addTxConfidenceListener(new RecordingTxConfidenceListener(otherTx.getTxId().toString(),
+                otherConfidences));
+
+        onTransactionConfidenceChanged(tx);
+
+        assertEquals(List.of(tx.getConfidence()), confidences);
+        assertTrue(otherConfidences.isEmpty());
+    }
+
+    @Test
+    public void testChangesOfABatchAreDeliveredOncePerTx() {
+        Address address = newAddress();
+        Transaction tx = newTx(address);
+        Transaction otherTx = newTx(address);
+        otherTx.addOutput(Coin.CENT, newAddress());
+        List<TransactionConfidence> addressConfidences = new ArrayList<>();
+        List<TransactionConfidence> txConfidences = new ArrayList<>();
+        walletService.addAddressConfidenceListener(new RecordingAddressConfidenceListener(address, addressConfidences));
+        walletService.addTxConfidenceListener(new RecordingTxConfidenceListener(tx.getTxId().toString(), txConfidences));
+
+        walletListener.onTransactionConfidenceChanged(walletService.wallet, tx);
+        walletListener.onTransactionConfidenceChanged(walletService.wallet, otherTx);
+        walletListener.onTransactionConfidenceChanged(walletService.wallet, tx);
+
+        // Nothing is delivered before the batch runs, and only one delivery is scheduled for the batch
+        assertTrue(addressConfidences.isEmpty());
+        assertEquals(1, userThreadTasks.size());
+        runUserThreadTasks();
+
+        assertEquals(List.of(tx.getConfidence(), otherTx.getConfidence()), addressConfidences);
+        assertEquals(List.of(tx.getConfidence()), txConfidences);
+
+        // A later change starts a new batch
+        onTransactionConfidenceChanged(tx);
+        assertEquals(2, txConfidences.size());
+    }
+
+    @Test
+    public void testChangesAreDeliveredWithDirectUserThreadExecutor() {
+        UserThread.setExecutor(MoreExecutors.directExecutor());
+        Transaction tx = newTx(newAddress());
+        List<TransactionConfidence> txConfidences = new ArrayList<>();
+        walletService.addTxConfidenceListener(new RecordingTxConfidenceListener(tx.getTxId().toString(), txConfidences));
+
+        walletListener.onTransactionConfidenceChanged(walletService.wallet, tx);
+        walletListener.onTransactionConfidenceChanged(walletService.wallet, tx);
+
+        assertEquals(List.of(tx.getConfidence(), tx.getConfidence()), txConfidences);
+    }
+
+    @Test
+    public void testRemovedListenersAreNotNotified() {
+        Address address = newAddress();
+        Transaction tx = newTx(address);
+        List<TransactionConfidence> addressConfidences = new ArrayList<>();
+        List<TransactionConfidence> txConfidences = new ArrayList<>();
+        List<TransactionConfidence> remainingConfidences = new ArrayList<>();
+        AddressConfidenceListener addressListener = new RecordingAddressConfidenceListener(address, addressConfidences);
+        TxConfidenceListener txListener = new RecordingTxConfidenceListener(tx.getTxId().toString(), txConfidences);
+        walletService.addAddressConfidenceListener(addressListener);
+        walletService.addTxConfidenceListener(txListener);
+        walletService.addTxConfidenceListener(new RecordingTxConfidenceListener(tx.getTxId().toString(),
+                remainingConfidences));
+
+        walletService.removeAddressConfidenceListener(addressListener);
+        walletService.removeTxConfidenceListener(txListener);
+        onTransactionConfidenceChanged(tx);
+
+        assertTrue(addressConfidences.isEmpty());
+        assertTrue(txConfidences.isEmpty());
+        assertEquals(List.of(tx.getConfidence()), remainingConfidences);
+    }
+
+    private void onTransactionConfidenceChanged(Transaction tx) {
+        walletListener.onTransactionConfidenceChanged(walletService.wallet, tx);
+        runUserThreadTasks();
+    }
+
+    private void runUserThreadTasks() {
+        List<Runnable> tasks = new ArrayList<>(userThreadTasks);
+        userThreadTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private Address newAddress() {
+        return Address.fromKey(params, new ECKey(), Script.ScriptType.P2WPKH);
+    }
+
+    private Transaction newTx(Address address) {
+        Transaction tx = new Transaction(params);
+        tx.addOutput(Coin.COIN, address);
+        return tx;
+    }
+
+    private static class RecordingAddressConfidenceListener extends AddressConfidenceListener {
+        private final List<TransactionConfidence> confidences;
+
+        RecordingAddressConfidenceListener(Address address, List<TransactionConfidence> confidences) {
+            super(address);
+            this.confidences = confidences;
+        }
+
+        @Override
+        public void onTransactionConfidenceChanged(TransactionConfidence confidence) {
+            confidences.add(confidence);
+        }
+    }
+
+    private static class RecordingTxConfidenceListener extends TxConfidenceListener {
+        private final List<TransactionConfidence> confidences;
+
+        RecordingTxConfidenceListener(String txId, List<TransactionConfidence> confidences) {
+            super(txId);
+            this.confidences = confidences;
+        }
+
+        @Override
+        public void onTransactionConfidenceChanged(TransactionConfidence confidence) {
+            confidences.add(confidence);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.node.explorer;
+
+import bisq.core.dao.state.DaoStateService;
+import bisq.core.dao.state.GenesisTxInfo;
+import bisq.core.dao.state.model.DaoState;
+import bisq.core.dao.state.model.blockchain.Block;
+import bisq.core.dao.state.model.blockchain.SpentInfo;
+import bisq.core.dao.state.model.blockchain.Tx;
+import bisq.core.dao.state.model.blockchain.TxOutput;
+import bisq.core.dao.state.model.blockchain.TxOutputType;
+import bisq.core.dao.state.model.blockchain.TxType;
+import bisq.core.dao.state.model.governance.Issuance;
+import bisq.core.dao.state.model.governance.IssuanceType;
+import bisq.core.util.coin.BsqFormatter;
+
+import bisq.common.file.FileUtil;
+
+import org.bitcoinj.core.Coin;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExportJsonFilesServiceTest {
+    private static final int GENESIS_HEIGHT = 100;
+
+    private File storageDir;
+    private Path blocksFile;
+    private DaoStateService daoStateService;
+
+    @Before
+    public void setUp() throws IOException {
+        storageDir = Files.createTempDirectory("ExportJsonFilesServiceTest").toFile();
+        blocksFile = Paths.get(storageDir.getAbsolutePath(), "json", "all", "blocks.ndjson");
+        daoStateService = createDaoStateService();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtil.deleteDirectory(storageDir);
+    }
+
+    @Test
+    public void exportIncrementally_resumesFromCheckpoint() throws Exception {
+        addBlocks(daoStateService, "hash", 2);
+        daoStateService.onParseBlockChainComplete();
+        export(startService());
+        Assert.assertEquals(List.of(GENESIS_HEIGHT, GENESIS_HEIGHT + 1), getBlockHeights());
+
+        // After a restart we only append the new block
+        addBlocks(daoStateService, "hash", 3);
+        export(startService());
+        Assert.assertEquals(List.of(GENESIS_HEIGHT, GENESIS_HEIGHT + 1, GENESIS_HEIGHT + 2), getBlockHeights());
+    }
+
+    @Test
+    public void exportIncrementally_truncatesIncompleteWrite() throws Exception {
+        addBlocks(daoStateService, "hash", 2);
+        daoStateService.onParseBlockChainComplete();
+        export(startService());
+
+        // Simulates a write which got interrupted before the checkpoint was written
+        Files.write(blocksFile, "{\"height\":102,\"ti".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        addBlocks(daoStateService, "hash", 3);
+        export(startService());
+        Assert.assertEquals(List.of(GENESIS_HEIGHT, GENESIS_HEIGHT + 1, GENESIS_HEIGHT + 2), getBlockHeights());
+    }
+
+    @Test
+    public void exportIncrementally_fullDumpAfterReorg() throws Exception {
+        addBlocks(daoStateService, "hash", 2);
+        Block block = daoStateService.getBlockAtHeight(GENESIS_HEIGHT + 1).orElseThrow();
+        daoStateService.onNewTxForLastBlock(block, createTx("orphanTx", GENESIS_HEIGHT + 1, null, TxOutputType.BSQ_OUTPUT));
+        daoStateService.onParseBlockChainComplete();
+        export(startService());
+        Path orphanTxFile = Paths.get(storageDir.getAbsolutePath(), "json", "tx", "orphanTx.json");
+        Assert.assertTrue(Files.exists(orphanTxFile));
+
+        // The block of the checkpoint is not in the new chain
+        daoStateService = createDaoStateService();
+        addBlocks(daoStateService, "reorgHash", 3);
+        daoStateService.onParseBlockChainComplete();
+        export(startService());
+
+        Assert.assertEquals(List.of(GENESIS_HEIGHT, GENESIS_HEIGHT + 1, GENESIS_HEIGHT + 2), getBlockHeights());
+        Assert.assertFalse(readBlocksFile().contains("\"hash101\""));
+        Assert.assertFalse(Files.exists(orphanTxFile));
+        Assert.assertFalse(Files.exists(Paths.get(storageDir.getAbsolutePath(), "json", "txo", "orphanTx:0.json")));
+    }
+
+    @Test
+    public void exportIncrementally_fullDumpAfterFailure() throws Exception {
+        addBlocks(daoStateService, "hash", 1);
+        daoStateService.onParseBlockChainComplete();
+        ExportJsonFilesService service = startService();
+        export(service);
+
+        // We let the next write fail by blocking the blocks file with a directory
+        Files.delete(blocksFile);
+        Files.createDirectory(blocksFile);
+        addBlocks(daoStateService, "hash", 2);
+        export(service);
+
+        Files.delete(blocksFile);
+        addBlocks(daoStateService, "hash", 3);
+        export(service);
+        Assert.assertEquals(List.of(GENESIS_HEIGHT, GENESIS_HEIGHT + 1, GENESIS_HEIGHT + 2), getBlockHeights());
+    }
+
+    @Test
+    public void exportIncrementally_rewritesTxsWithSpentOutputs() throws Exception {
+        addBlocks(daoStateService, "hash", 1);
+        Block genesisBlock = daoStateService.getBlockAtHeight(GENESIS_HEIGHT).orElseThrow();
+        Tx tx1 = createTx("tx1", GENESIS_HEIGHT, null, TxOutputType.BSQ_OUTPUT);
+        daoStateService.onNewTxForLastBlock(genesisBlock, tx1);
+        daoStateService.onParseBlockChainComplete();
+        ExportJsonFilesService service = startService();
+        export(service);
+        Path txOutputFile = Paths.get(storageDir.getAbsolutePath(), "json", "txo", "tx1:0.json");
+        Assert.assertFalse(readFile(txOutputFile).contains("tx2"));
+
+        addBlocks(daoStateService, "hash", 2);
+        Block block = daoStateService.getBlockAtHeight(GENESIS_HEIGHT + 1).orElseThrow();
+        daoStateService.onNewTxForLastBlock(block, createTx("tx2", GENESIS_HEIGHT + 1, "tx1", TxOutputType.BSQ_OUTPUT));
+        TxOutput spentTxOutput = tx1.getTxOutputs().get(0);
+        daoStateService.setSpentInfo(spentTxOutput.getKey(), new SpentInfo(GENESIS_HEIGHT + 1, "tx2", 0));
+        export(service);
+
+        // tx1 is not in the new block but its output got spent by tx2
+        Assert.assertTrue(readFile(txOutputFile).contains("tx2"));
+        Assert.assertTrue(Files.exists(Paths.get(storageDir.getAbsolutePath(), "json", "tx", "tx2.json")));
+    }
+
+    @Test
+    public void exportIncrementally_rewritesIssuedTxs() throws Exception {
+        addBlocks(daoStateService, "hash", 1);
+        Block genesisBlock = daoStateService.getBlockAtHeight(GENESIS_HEIGHT).orElseThrow();
+        Tx compensationRequestTx = createTx("compReqTx", GENESIS_HEIGHT, null, TxOutputType.ISSUANCE_CANDIDATE_OUTPUT);
+        daoStateService.onNewTxForLastBlock(genesisBlock, compensationRequestTx);
+        daoStateService.onParseBlockChainComplete();
+        ExportJsonFilesService service = startService();
+        export(service);
+        Path txOutputFile = Paths.get(storageDir.getAbsolutePath(), "json", "txo", "compReqTx:0.json");
+        Assert.assertTrue(readFile(txOutputFile).contains("\"isUnspent\": false"));
+
+        // The issuance happens at a later block without any tx spending the compensation request
+        addBlocks(daoStateService, "hash", 2);
+        daoStateService.addIssuance(new Issuance("compReqTx", GENESIS_HEIGHT + 1, 1000, null, IssuanceType.COMPENSATION));
+        daoStateService.addUnspentTxOutput(compensationRequestTx.getTxOutputs().get(0));
+        export(service);
+
+        Assert.assertTrue(readFile(txOutputFile).contains("\"isUnspent\": true"));
+        Assert.assertTrue(readFile(txOutputFile).contains("\"isVerified\": true"));
+    }
+
+    private ExportJsonFilesService startService() {
+        ExportJsonFilesService service = new ExportJsonFilesService(daoStateService, storageDir, true, true);
+        service.addListeners();
+        service.start();
+        return service;
+    }
+
+    private static void export(ExportJsonFilesService service) throws Exception {
+        service.maybeExportToJson();
+        service.awaitPendingWrites();
+    }
+
+    private String readBlocksFile() throws IOException {
+        return readFile(blocksFile);
+    }
+
+    private static String readFile(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+
+    private List<Integer> getBlockHeights() throws IOException {
+        String content = readBlocksFile();
+        Assert.assertTrue(content.endsWith("\n"));
+        return Arrays.stream(content.split("\n"))
+                .map(line -> {
+                    Assert.assertTrue(line.startsWith("{") && line.endsWith("}"));
+                    String height = line.substring(line.indexOf("\"height\":") + 9);
+                    return Integer.parseInt(height.substring(0, height.indexOf(',')));
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static DaoStateService createDaoStateService() {
+        return new DaoStateService(
+                new DaoState(),
+                new GenesisTxInfo("fakegenesistxid", GENESIS_HEIGHT, Coin.parseCoin("2.5").value),
+                new BsqFormatter());
+    }
+
+    // Adds the missing blocks up to GENESIS_HEIGHT + numBlocks - 1
+    private static void addBlocks(DaoStateService daoStateService, String hashPrefix, int numBlocks) {
+        int fromHeight = daoStateService.getLastBlock().map(block -> block.getHeight() + 1).orElse(GENESIS_HEIGHT);
+        for (int height = fromHeight; height < GENESIS_HEIGHT + numBlocks; height++) {
+            daoStateService.onNewBlockHeight(height);
+            daoStateService.onNewBlockWithEmptyTxs(new Block(height, 1534800000 + height - GENESIS_HEIGHT,
+                    hashPrefix + height, hashPrefix + (height - 1)));
+        }
+    }
+
+    private static Tx createTx(String txId, int blockHeight, String spentTxId, TxOutputType txOutputType) {
+        protobuf.Tx.Builder txBuilder = protobuf.Tx.newBuilder()
+                .setTxType(TxType.TRANSFER_BSQ.toProtoMessage());
+        txBuilder.addTxOutputs(protobuf.BaseTxOutput.newBuilder()
+                .setIndex(0)
+                .setValue(1000)
+                .setTxId(txId)
+                .setBlockHeight(blockHeight)
+                .setTxOutput(protobuf.TxOutput.newBuilder()
+                        .setTxOutputType(txOutputType.toProtoMessage())));
+        protobuf.BaseTx.Builder baseTxBuilder = protobuf.BaseTx.newBuilder()
+                .setTxVersion("1")
+                .setId(txId)
+                .setBlockHeight(blockHeight)
+                .setBlockHash("hash" + blockHeight)
+                .setTime(1534800000);
+        if (spentTxId != null) {
+            baseTxBuilder.addTxInputs(protobuf.TxInput.newBuilder()
+                    .setConnectedTxOutputTxId(spentTxId)
+                    .setConnectedTxOutputIndex(0));
+        }
+        return Tx.fromProto(baseTxBuilder.setTx(txBuilder).build());
+    }
+}
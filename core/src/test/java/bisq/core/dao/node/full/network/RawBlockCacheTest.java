@@ -0,0 +1,103 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.node.full.network;
+
+import bisq.core.dao.node.full.RawBlock;
+import bisq.core.dao.state.DaoStateService;
+import bisq.core.dao.state.model.blockchain.Block;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RawBlockCacheTest {
+    private static final int GENESIS_HEIGHT = 150;
+
+    private final Map<Integer, Block> blocksByHeight = new HashMap<>();
+    private RawBlockCache rawBlockCache;
+
+    @Before
+    public void setup() {
+        DaoStateService daoStateService = mock(DaoStateService.class);
+        when(daoStateService.getGenesisBlockHeight()).thenReturn(GENESIS_HEIGHT);
+        when(daoStateService.getBlockHeightOfLastBlock()).thenAnswer(invocation ->
+                blocksByHeight.keySet().stream().mapToInt(Integer::intValue).max().orElse(0));
+        when(daoStateService.getBlockAtHeight(anyInt())).thenAnswer(invocation ->
+                Optional.ofNullable(blocksByHeight.get(invocation.<Integer>getArgument(0))));
+        addBlocks(GENESIS_HEIGHT, 450, "a");
+        rawBlockCache = new RawBlockCache(daoStateService);
+    }
+
+    @Test
+    public void testGetRawBlocksFromBlockHeight() {
+        assertHeights(GENESIS_HEIGHT, 450, rawBlockCache.getRawBlocksFromBlockHeight(0, 6000));
+        assertHeights(199, 450, rawBlockCache.getRawBlocksFromBlockHeight(199, 6000));
+        assertHeights(250, 349, rawBlockCache.getRawBlocksFromBlockHeight(250, 100));
+        assertHeights(450, 450, rawBlockCache.getRawBlocksFromBlockHeight(450, 6000));
+        assertEquals(0, rawBlockCache.getRawBlocksFromBlockHeight(451, 6000).size());
+    }
+
+    @Test
+    public void testCompleteChunksAreCached() {
+        RawBlock first = rawBlockCache.getRawBlocksFromBlockHeight(300, 1).get(0);
+        assertSame(first, rawBlockCache.getRawBlocksFromBlockHeight(300, 1).get(0));
+
+        // The chunk at the tip is not complete so we do not cache it
+        RawBlock tip = rawBlockCache.getRawBlocksFromBlockHeight(450, 1).get(0);
+        assertNotSame(tip, rawBlockCache.getRawBlocksFromBlockHeight(450, 1).get(0));
+    }
+
+    @Test
+    public void testReorgInvalidatesChunk() {
+        RawBlock unchanged = rawBlockCache.getRawBlocksFromBlockHeight(250, 1).get(0);
+        RawBlock replaced = rawBlockCache.getRawBlocksFromBlockHeight(350, 1).get(0);
+
+        addBlocks(340, 450, "b");
+
+        assertSame(unchanged, rawBlockCache.getRawBlocksFromBlockHeight(250, 1).get(0));
+        RawBlock rawBlock = rawBlockCache.getRawBlocksFromBlockHeight(350, 1).get(0);
+        assertNotSame(replaced, rawBlock);
+        assertEquals("b350", rawBlock.getHash());
+    }
+
+    private void addBlocks(int fromHeight, int toHeight, String hashPrefix) {
+        for (int height = fromHeight; height <= toHeight; height++) {
+            blocksByHeight.put(height, new Block(height, height * 600_000L, hashPrefix + height, hashPrefix + (height - 1)));
+        }
+    }
+
+    private static void assertHeights(int fromHeight, int toHeight, List<RawBlock> rawBlocks) {
+        List<Integer> heights = rawBlocks.stream().map(RawBlock::getHeight).collect(Collectors.toList());
+        assertEquals(toHeight - fromHeight + 1, heights.size());
+        for (int i = 0; i < heights.size(); i++) {
+            assertEquals(fromHeight + i, (int) heights.get(i));
+        }
+    }
+}
@@ -17,16 +17,33 @@
 
 package bisq.core.dao.state;
 
+import bisq.core.dao.governance.param.Param;
 import bisq.core.dao.state.model.DaoState;
 import bisq.core.dao.state.model.blockchain.Block;
+import bisq.core.dao.state.model.blockchain.SpentInfo;
+import bisq.core.dao.state.model.blockchain.Tx;
+import bisq.core.dao.state.model.blockchain.TxOutput;
+import bisq.core.dao.state.model.blockchain.TxOutputKey;
+import bisq.core.dao.state.model.blockchain.TxOutputType;
+import bisq.core.dao.state.model.blockchain.TxType;
+import bisq.core.dao.state.model.governance.Cycle;
+import bisq.core.dao.state.model.governance.DaoPhase;
+import bisq.core.dao.state.model.governance.Issuance;
+import bisq.core.dao.state.model.governance.IssuanceType;
 import bisq.core.util.coin.BsqFormatter;
 
 import org.bitcoinj.core.Coin;
 
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
 import org.junit.Assert;
 import org.junit.Test;
 
 public class DaoStateServiceTest {
+    private static final int GENESIS_HEIGHT = 100;
+
     @Test
     public void testIsBlockHashKnown() {
         DaoStateService stateService = new DaoStateService(
@@ -69,4 +86,192 @@ public class DaoStateServiceTest {
                 stateService.isBlockHashKnown("fakeblockhash4")
         );
     }
+
+    @Test
+    public void testBlockIndexes() {
+        DaoStateService stateService = createDaoStateService();
+        addBlocks(stateService, 5);
+
+        Assert.assertEquals("hash102", stateService.getBlockAtHeight(102).map(Block::getHash).orElse(null));
+        Assert.assertFalse(stateService.getBlockAtHeight(99).isPresent());
+        Assert.assertFalse(stateService.getBlockAtHeight(105).isPresent());
+        Assert.assertTrue(stateService.containsBlockHash("hash104"));
+        Assert.assertFalse(stateService.containsBlockHash("hash105"));
+        Assert.assertEquals(1534800003, stateService.getBlockTime(103));
+
+        List<Block> blocks = stateService.getBlocksFromBlockHeight(102, 2);
+        Assert.assertEquals(2, blocks.size());
+        Assert.assertEquals(102, blocks.get(0).getHeight());
+        Assert.assertEquals(103, blocks.get(1).getHeight());
+        Assert.assertEquals(5, stateService.getBlocksFromBlockHeight(0, 10).size());
+    }
+
+    @Test
+    public void testTxOutputIndexes() {
+        DaoStateService stateService = createDaoStateService();
+        addBlocks(stateService, 1);
+        Block block = stateService.getBlockAtHeight(GENESIS_HEIGHT).orElseThrow();
+        Tx lockupTx = createTx("lockupTx", GENESIS_HEIGHT, TxOutputType.LOCKUP_OUTPUT, TxOutputType.LOCKUP_OP_RETURN_OUTPUT);
+        Tx unlockTx = createTx("unlockTx", GENESIS_HEIGHT, TxOutputType.UNLOCK_OUTPUT);
+        stateService.onNewTxForLastBlock(block, lockupTx);
+        stateService.onNewTxForLastBlock(block, unlockTx);
+
+        Assert.assertEquals(1, stateService.getLockupTxOutputs().size());
+        Assert.assertTrue(stateService.getLockupTxOutputs().contains(lockupTx.getTxOutputs().get(0)));
+        Assert.assertEquals(1, stateService.getUnlockTxOutputs().size());
+        Assert.assertTrue(stateService.getIssuanceCandidateTxOutputs().isEmpty());
+
+        TxOutput txOutput = lockupTx.getTxOutputs().get(1);
+        Assert.assertEquals(txOutput, stateService.getTxOutput(txOutput.getKey()).orElse(null));
+        Assert.assertTrue(stateService.existsTxOutput(txOutput.getKey()));
+        Assert.assertFalse(stateService.existsTxOutput(new TxOutputKey("lockupTx", 2)));
+        Assert.assertFalse(stateService.existsTxOutput(new TxOutputKey("unknownTx", 0)));
+    }
+
+    @Test
+    public void testApplySnapshotRebuildsIndexes() {
+        DaoStateService stateService = createDaoStateService();
+        addBlocks(stateService, 3);
+        Block block = stateService.getLastBlock().orElseThrow();
+        stateService.onNewTxForLastBlock(block, createTx("lockupTx", block.getHeight(), TxOutputType.LOCKUP_OUTPUT));
+        stateService.addCycle(createCycle(GENESIS_HEIGHT));
+
+        DaoStateService otherStateService = createDaoStateService();
+        addBlocks(otherStateService, 1);
+        otherStateService.applySnapshot(stateService.getClone());
+
+        Assert.assertTrue(otherStateService.containsBlockHash("hash102"));
+        Assert.assertEquals(101, otherStateService.getBlockAtHeight(101).map(Block::getHeight).orElse(0).intValue());
+        Assert.assertEquals(1, otherStateService.getLockupTxOutputs().size());
+        Assert.assertTrue(otherStateService.getCycle(GENESIS_HEIGHT).isPresent());
+    }
+
+    @Test
+    public void testGetCycle() {
+        DaoStateService stateService = createDaoStateService();
+        stateService.start();
+        Cycle firstCycle = createCycle(GENESIS_HEIGHT);
+        stateService.addCycle(firstCycle);
+        Cycle secondCycle = createCycle(firstCycle.getHeightOfLastBlock() + 1);
+        stateService.addCycle(secondCycle);
+
+        Assert.assertFalse(stateService.getCycle(GENESIS_HEIGHT - 1).isPresent());
+        Assert.assertSame(firstCycle, stateService.getCycle(GENESIS_HEIGHT).orElse(null));
+        Assert.assertSame(firstCycle, stateService.getCycle(firstCycle.getHeightOfLastBlock()).orElse(null));
+        Assert.assertSame(secondCycle, stateService.getCycle(secondCycle.getHeightOfFirstBlock()).orElse(null));
+        Assert.assertFalse(stateService.getCycle(secondCycle.getHeightOfLastBlock() + 1).isPresent());
+        Assert.assertEquals(secondCycle.getHeightOfFirstBlock(),
+                stateService.getStartHeightOfNextCycle(GENESIS_HEIGHT + 1).orElse(0).intValue());
+    }
+
+    @Test
+    public void testSerializedStateForHashChainIncrementally() {
+        DaoStateService stateService = createDaoStateService();
+        addBlocks(stateService, 2);
+        stateService.addCycle(createCycle(GENESIS_HEIGHT));
+        assertIncrementalSerializationMatches(stateService);
+
+        Tx tx = createTx("tx1", GENESIS_HEIGHT + 1, TxOutputType.BSQ_OUTPUT, TxOutputType.BSQ_OUTPUT);
+        tx.getTxOutputs().forEach(stateService::addUnspentTxOutput);
+        assertIncrementalSerializationMatches(stateService);
+
+        TxOutput spentTxOutput = tx.getTxOutputs().get(0);
+        stateService.removeUnspentTxOutput(spentTxOutput);
+        stateService.setSpentInfo(spentTxOutput.getKey(), new SpentInfo(GENESIS_HEIGHT + 1, "tx2", 0));
+        assertIncrementalSerializationMatches(stateService);
+
+        addBlocks(stateService, 3);
+        stateService.addIssuance(new Issuance("tx1", GENESIS_HEIGHT + 1, 1000, null, IssuanceType.COMPENSATION));
+        Tx lockupTx = createTx("lockupTx", GENESIS_HEIGHT + 4, TxOutputType.LOCKUP_OUTPUT);
+        stateService.onNewTxForLastBlock(stateService.getLastBlock().orElseThrow(), lockupTx);
+        stateService.addUnspentTxOutput(lockupTx.getTxOutputs().get(0));
+        stateService.confiscateBond("lockupTx");
+        Assert.assertTrue(stateService.isConfiscatedLockupTxOutput("lockupTx"));
+        stateService.setNewParam(GENESIS_HEIGHT + 1, Param.DEFAULT_MAKER_FEE_BSQ, "1.00");
+        assertIncrementalSerializationMatches(stateService);
+
+        DaoStateService otherStateService = createDaoStateService();
+        addBlocks(otherStateService, 1);
+        assertIncrementalSerializationMatches(otherStateService);
+        otherStateService.applySnapshot(stateService.getClone());
+        assertIncrementalSerializationMatches(otherStateService);
+    }
+
+    @Test
+    public void testSnapshot() {
+        DaoStateService stateService = createDaoStateService();
+        addBlocks(stateService, 3);
+        Block block = stateService.getLastBlock().orElseThrow();
+        Tx tx = createTx("lockupTx", block.getHeight(), TxOutputType.LOCKUP_OUTPUT);
+        stateService.onNewTxForLastBlock(block, tx);
+        stateService.addUnspentTxOutput(tx.getTxOutputs().get(0));
+        stateService.addCycle(createCycle(GENESIS_HEIGHT));
+
+        DaoState snapshot = stateService.getSnapshot();
+        Assert.assertEquals(stateService.getClone().toProtoMessage(), snapshot.toProtoMessage());
+        Assert.assertEquals(1, snapshot.getTxOutputsByTxOutputType(TxOutputType.LOCKUP_OUTPUT).size());
+        Assert.assertTrue(snapshot.containsBlockHash("hash102"));
+
+        // Changes of the daoState must not be reflected in the snapshot
+        protobuf.DaoState snapshotProto = (protobuf.DaoState) snapshot.toProtoMessage();
+        Block newBlock = new Block(GENESIS_HEIGHT + 3, 1534800003, "hash103", "hash102");
+        stateService.onNewBlockHeight(newBlock.getHeight());
+        stateService.onNewBlockWithEmptyTxs(newBlock);
+        Tx newTx = createTx("unlockTx", newBlock.getHeight(), TxOutputType.UNLOCK_OUTPUT);
+        stateService.onNewTxForLastBlock(newBlock, newTx);
+        stateService.removeUnspentTxOutput(tx.getTxOutputs().get(0));
+        stateService.addUnspentTxOutput(newTx.getTxOutputs().get(0));
+        stateService.addCycle(createCycle(createCycle(GENESIS_HEIGHT).getHeightOfLastBlock() + 1));
+
+        Assert.assertEquals(snapshotProto, snapshot.toProtoMessage());
+        Assert.assertFalse(snapshot.containsBlockHash("hash103"));
+        Assert.assertTrue(snapshot.getTxOutputsByTxOutputType(TxOutputType.UNLOCK_OUTPUT).isEmpty());
+    }
+
+    private static void assertIncrementalSerializationMatches(DaoStateService stateService) {
+        Assert.assertArrayEquals(stateService.getSerializedStateForHashChain(),
+                stateService.getSerializedStateForHashChainIncrementally());
+    }
+
+    private static DaoStateService createDaoStateService() {
+        return new DaoStateService(
+                new DaoState(),
+                new GenesisTxInfo("fakegenesistxid", GENESIS_HEIGHT, Coin.parseCoin("2.5").value),
+                new BsqFormatter());
+    }
+
+    private static void addBlocks(DaoStateService stateService, int numBlocks) {
+        for (int height = GENESIS_HEIGHT; height < GENESIS_HEIGHT + numBlocks; height++) {
+            stateService.onNewBlockHeight(height);
+            stateService.onNewBlockWithEmptyTxs(new Block(height, 1534800000 + height - GENESIS_HEIGHT,
+                    "hash" + height, "hash" + (height - 1)));
+        }
+    }
+
+    private static Cycle createCycle(int heightOfFirstBlock) {
+        return new Cycle(heightOfFirstBlock, ImmutableList.of(new DaoPhase(DaoPhase.Phase.PROPOSAL, 10),
+                new DaoPhase(DaoPhase.Phase.RESULT, 5)));
+    }
+
+    static Tx createTx(String txId, int blockHeight, TxOutputType... txOutputTypes) {
+        protobuf.Tx.Builder txBuilder = protobuf.Tx.newBuilder()
+                .setTxType(TxType.TRANSFER_BSQ.toProtoMessage());
+        for (int i = 0; i < txOutputTypes.length; i++) {
+            txBuilder.addTxOutputs(protobuf.BaseTxOutput.newBuilder()
+                    .setIndex(i)
+                    .setValue(1000)
+                    .setTxId(txId)
+                    .setBlockHeight(blockHeight)
+                    .setTxOutput(protobuf.TxOutput.newBuilder()
+                            .setTxOutputType(txOutputTypes[i].toProtoMessage())));
+        }
+        return Tx.fromProto(protobuf.BaseTx.newBuilder()
+                .setTxVersion("1")
+                .setId(txId)
+                .setBlockHeight(blockHeight)
+                .setBlockHash("hash" + blockHeight)
+                .setTime(1534800000)
+                .setTx(txBuilder)
+                .build());
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.provider.price;
+
+import bisq.core.provider.PriceHttpClient;
+import bisq.core.provider.ProvidersRepository;
+import bisq.core.trade.statistics.TradeStatistics3;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PriceFeedServiceTest {
+    private PriceFeedService priceFeedService;
+
+    @Before
+    public void setUp() {
+        ProvidersRepository providersRepository = mock(ProvidersRepository.class);
+        when(providersRepository.getBaseUrl()).thenReturn("http://localhost/");
+        priceFeedService = new PriceFeedService(mock(PriceHttpClient.class), providersRepository, null);
+    }
+
+    @Test
+    public void testApplyLatestBisqMarketPriceFromSet() {
+        priceFeedService.applyLatestBisqMarketPrice(ImmutableSet.of(
+                createTradeStatistics("EUR", 1000000, 2000),
+                createTradeStatistics("EUR", 3000000, 3000),
+                createTradeStatistics("EUR", 2000000, 1000),
+                createTradeStatistics("USD", 4000000, 1000)));
+
+        assertEquals(300, priceFeedService.getMarketPrice("EUR").getPrice(), 0);
+        assertEquals(400, priceFeedService.getMarketPrice("USD").getPrice(), 0);
+        assertNull(priceFeedService.getMarketPrice("CAD"));
+        assertEquals(2, priceFeedService.updateCounterProperty().get());
+    }
+
+    @Test
+    public void testApplyLatestBisqMarketPrice() {
+        priceFeedService.applyLatestBisqMarketPrice(createTradeStatistics("EUR", 1000000, 2000));
+        assertEquals(100, priceFeedService.getMarketPrice("EUR").getPrice(), 0);
+
+        // Older trades do not change the price
+        priceFeedService.applyLatestBisqMarketPrice(createTradeStatistics("EUR", 2000000, 1000));
+        assertEquals(100, priceFeedService.getMarketPrice("EUR").getPrice(), 0);
+        assertEquals(1, priceFeedService.updateCounterProperty().get());
+
+        priceFeedService.applyLatestBisqMarketPrice(createTradeStatistics("EUR", 3000000, 3000));
+        assertEquals(300, priceFeedService.getMarketPrice("EUR").getPrice(), 0);
+        assertEquals(2, priceFeedService.updateCounterProperty().get());
+    }
+
+    private static TradeStatistics3 createTradeStatistics(String currency, long price, long date) {
+        return new TradeStatistics3(currency, price, 100000, "SEPA", date, null, null, (Map<String, String>) null);
+    }
+}
@@ -21,11 +21,18 @@ import bisq.core.offer.Offer;
 import bisq.core.offer.OfferPayload;
 import bisq.core.offer.OpenOffer;
 
+import bisq.network.p2p.NodeAddress;
+
 import org.junit.Test;
 
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static protobuf.PersistableEnvelope.MessageCase.TRADABLE_LIST;
 
 public class TradableListTest {
@@ -45,4 +52,65 @@ public class TradableListTest {
         assertEquals(message.getMessageCase(), TRADABLE_LIST);
         assertEquals(1, message.getTradableList().getTradableList().size());
     }
+
+    @Test
+    public void testGetTradableById() {
+        Tradable first = mockTradable("id1");
+        Tradable second = mockTradable("id2");
+        Tradable duplicate = mockTradable("id1");
+        TradableList<Tradable> tradableList = new TradableList<>(List.of(first));
+        tradableList.add(second);
+        tradableList.add(duplicate);
+
+        assertSame(first, tradableList.getTradableById("id1").orElseThrow());
+        assertSame(second, tradableList.getTradableById("id2").orElseThrow());
+        assertFalse(tradableList.getTradableById("id3").isPresent());
+
+        // The next one with the same id takes over when the first is removed
+        tradableList.remove(first);
+        assertSame(duplicate, tradableList.getTradableById("id1").orElseThrow());
+
+        tradableList.getObservableList().add(0, first);
+        assertSame(first, tradableList.getTradableById("id1").orElseThrow());
+
+        tradableList.setAll(List.of(second));
+        assertFalse(tradableList.getTradableById("id1").isPresent());
+        assertSame(second, tradableList.getTradableById("id2").orElseThrow());
+    }
+
+    @Test
+    public void testGetTradablesByTradingPeer() {
+        NodeAddress peer = new NodeAddress("peer.onion", 9999);
+        NodeAddress otherPeer = new NodeAddress("other.onion", 9999);
+        Trade trade1 = mockTrade("id1", peer);
+        Trade trade2 = mockTrade("id2", otherPeer);
+        Trade trade3 = mockTrade("id3", null);
+        TradableList<Trade> tradableList = new TradableList<>();
+        tradableList.add(trade1);
+        tradableList.add(trade2);
+        tradableList.add(trade3);
+
+        assertEquals(List.of(trade1), tradableList.getTradablesByTradingPeer(new NodeAddress("peer.onion", 9999)));
+
+        Trade trade4 = mockTrade("id4", peer);
+        tradableList.add(trade4);
+        assertEquals(List.of(trade1, trade4), tradableList.getTradablesByTradingPeer(peer));
+
+        tradableList.remove(trade1);
+        assertEquals(List.of(trade4), tradableList.getTradablesByTradingPeer(peer));
+        assertEquals(List.of(), tradableList.getTradablesByTradingPeer(new NodeAddress("unknown.onion", 9999)));
+    }
+
+    private static Tradable mockTradable(String id) {
+        Tradable tradable = mock(Tradable.class);
+        when(tradable.getId()).thenReturn(id);
+        return tradable;
+    }
+
+    private static Trade mockTrade(String id, NodeAddress tradingPeerNodeAddress) {
+        Trade trade = mock(Trade.class);
+        when(trade.getId()).thenReturn(id);
+        when(trade.getTradingPeerNodeAddress()).thenReturn(tradingPeerNodeAddress);
+        return trade;
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc.interceptor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.System.currentTimeMillis;
+
+/**
+ * Compares the bucket based GrpcCallRateMeter with the ArrayDeque based meter it replaced, guarded by a lock as it
+ * would have to be with a multi threaded gRPC executor. Run with ./gradlew :daemon:jmh.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GrpcCallRateMeterBenchmark {
+    // A high limit as we'd like to use for market making clients, most calls are allowed.
+    private static final int ALLOWED_CALLS_PER_MINUTE = 100_000;
+
+    private DequeRateMeter dequeRateMeter;
+    private GrpcCallRateMeter rateMeter;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        dequeRateMeter = new DequeRateMeter(ALLOWED_CALLS_PER_MINUTE, TimeUnit.MINUTES);
+        rateMeter = new GrpcCallRateMeter(ALLOWED_CALLS_PER_MINUTE, TimeUnit.MINUTES);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean deque_1Thread() {
+        return dequeRateMeter.checkAndIncrement();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean buckets_1Thread() {
+        return rateMeter.checkAndIncrement();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean deque_8Threads() {
+        return dequeRateMeter.checkAndIncrement();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean buckets_8Threads() {
+        return rateMeter.checkAndIncrement();
+    }
+
+    // The previous GrpcCallRateMeter implementation, keeping the timestamp of every call within the time window.
+    private static class DequeRateMeter {
+        private final int allowedCallsPerTimeWindow;
+        private final long timeUnitIntervalInMilliseconds;
+        private final ArrayDeque<Long> callTimestamps = new ArrayDeque<>();
+
+        DequeRateMeter(int allowedCallsPerTimeWindow, TimeUnit timeUnit) {
+            this.allowedCallsPerTimeWindow = allowedCallsPerTimeWindow;
+            this.timeUnitIntervalInMilliseconds = timeUnit.toMillis(1);
+        }
+
+        synchronized boolean checkAndIncrement() {
+            long stale = currentTimeMillis() - timeUnitIntervalInMilliseconds;
+            while (!callTimestamps.isEmpty() && callTimestamps.peek() < stale) {
+                callTimestamps.remove();
+            }
+            if (callTimestamps.size() < allowedCallsPerTimeWindow) {
+                callTimestamps.add(currentTimeMillis());
+                return true;
+            } else {
+                return false;
+            }
+        }
+    }
+}
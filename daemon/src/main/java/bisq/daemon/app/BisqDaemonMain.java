@@ -21,6 +21,8 @@ import bisq.core.app.BisqHeadlessAppMain;
 import bisq.core.app.BisqSetup;
 import bisq.core.app.CoreModule;
 
+import bisq.network.p2p.network.NetworkMetricsServer;
+
 import bisq.common.UserThread;
 import bisq.common.app.AppModule;
 import bisq.common.handlers.ResultHandler;
@@ -104,6 +106,8 @@ public class BisqDaemonMain extends BisqHeadlessAppMain implements BisqSetup.Bis
 
         grpcServer = injector.getInstance(GrpcServer.class);
         grpcServer.start();
+
+        injector.getInstance(NetworkMetricsServer.class).start();
     }
 
     @Override
@@ -0,0 +1,109 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Sends the events of a server streaming subscription only while the client keeps up. Events which arrive while the
+ * transport is not ready are buffered and sent from the onReady handler. If a client falls more than maxPendingEvents
+ * behind we cancel its subscription with RESOURCE_EXHAUSTED, so a slow client cannot make us buffer an unbounded
+ * number of events in memory.
+ *
+ * Events are sent from the user thread, the onReady and onCancel handlers are called from gRPC threads, so all
+ * access is synchronized.
+ */
+@Slf4j
+class FlowControlledSubscription<T> {
+    private final ServerCallStreamObserver<T> observer;
+    private final int maxPendingEvents;
+    private final Deque<T> pendingEvents = new ArrayDeque<>();
+    @Nullable
+    private Runnable closeHandler;
+    private boolean closed;
+
+    FlowControlledSubscription(ServerCallStreamObserver<T> observer, int maxPendingEvents) {
+        this.observer = observer;
+        this.maxPendingEvents = maxPendingEvents;
+        observer.setOnReadyHandler(this::drain);
+        observer.setOnCancelHandler(this::close);
+    }
+
+    /**
+     * @param closeHandler Called once the subscription got closed, e.g. to remove the listener producing the events.
+     *                     Called immediately if the subscription is already closed.
+     */
+    synchronized void setCloseHandler(Runnable closeHandler) {
+        this.closeHandler = closeHandler;
+        if (closed) {
+            closeHandler.run();
+        }
+    }
+
+    synchronized void send(T event) {
+        if (closed) {
+            return;
+        }
+
+        pendingEvents.add(event);
+        if (pendingEvents.size() > maxPendingEvents) {
+            log.warn("Cancelling subscription as the client did not keep up with {} events", maxPendingEvents);
+            close();
+            observer.onError(Status.RESOURCE_EXHAUSTED
+                    .withDescription("subscription cancelled as the client did not keep up with the events")
+                    .asRuntimeException());
+            return;
+        }
+        drain();
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private synchronized void drain() {
+        try {
+            while (!closed && !pendingEvents.isEmpty() && observer.isReady()) {
+                observer.onNext(pendingEvents.poll());
+            }
+        } catch (Throwable t) {
+            log.warn("Closing subscription after failed send: {}", t.toString());
+            close();
+        }
+    }
+
+    private synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        pendingEvents.clear();
+        if (closeHandler != null) {
+            closeHandler.run();
+        }
+    }
+}
@@ -6,16 +6,24 @@ import bisq.core.trade.statistics.TradeStatistics3;
 import bisq.proto.grpc.GetTradeStatisticsGrpc;
 import bisq.proto.grpc.GetTradeStatisticsReply;
 import bisq.proto.grpc.GetTradeStatisticsRequest;
+import bisq.proto.grpc.SubscribeTradeStatisticsReply;
+import bisq.proto.grpc.SubscribeTradeStatisticsRequest;
 
 import io.grpc.ServerInterceptor;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 
 import javax.inject.Inject;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import lombok.extern.slf4j.Slf4j;
+
 import static bisq.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCustomRateMeteringInterceptor;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -24,8 +32,13 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 import bisq.daemon.grpc.interceptor.CallRateMeteringInterceptor;
 import bisq.daemon.grpc.interceptor.GrpcCallRateMeter;
 
+@Slf4j
 class GrpcGetTradeStatisticsService extends GetTradeStatisticsGrpc.GetTradeStatisticsImplBase {
 
+    private static final int DEFAULT_STREAM_PAGE_SIZE = 1000;
+    private static final int MAX_STREAM_PAGE_SIZE = 10000;
+    private static final int MAX_PENDING_SUBSCRIPTION_EVENTS = 1000;
+
     private final CoreApi coreApi;
     private final GrpcExceptionHandler exceptionHandler;
 
@@ -39,11 +52,7 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsGrpc.GetTradeStati
     public void getTradeStatistics(GetTradeStatisticsRequest req,
                                    StreamObserver<GetTradeStatisticsReply> responseObserver) {
         try {
-            var tradeStatistics = coreApi.getTradeStatistics().stream()
-                    .map(TradeStatistics3::toProtoTradeStatistics3)
-                    .collect(Collectors.toList());
-
-            var reply = GetTradeStatisticsReply.newBuilder().addAllTradeStatistics(tradeStatistics).build();
+            var reply = getPage(req, req.getCursor(), req.getLimit());
             responseObserver.onNext(reply);
             responseObserver.onCompleted();
         } catch (Throwable cause) {
@@ -51,6 +60,74 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsGrpc.GetTradeStati
         }
     }
 
+    @Override
+    public void streamTradeStatistics(GetTradeStatisticsRequest req,
+                                      StreamObserver<GetTradeStatisticsReply> responseObserver) {
+        // Pages are only produced while the client keeps up, so a large result is
+        // never buffered in full on the server.
+        var serverCallStreamObserver = (ServerCallStreamObserver<GetTradeStatisticsReply>) responseObserver;
+        int pageSize = req.getLimit() > 0
+                ? Math.min(req.getLimit(), MAX_STREAM_PAGE_SIZE)
+                : DEFAULT_STREAM_PAGE_SIZE;
+        AtomicReference<String> cursor = new AtomicReference<>(req.getCursor());
+        serverCallStreamObserver.setOnCancelHandler(() -> cursor.set(null));
+        serverCallStreamObserver.setOnReadyHandler(() -> {
+            try {
+                while (cursor.get() != null && serverCallStreamObserver.isReady()) {
+                    var reply = getPage(req, cursor.get(), pageSize);
+                    serverCallStreamObserver.onNext(reply);
+                    if (reply.getNextCursor().isEmpty()) {
+                        cursor.set(null);
+                        serverCallStreamObserver.onCompleted();
+                    } else {
+                        cursor.set(reply.getNextCursor());
+                    }
+                }
+            } catch (Throwable cause) {
+                cursor.set(null);
+                exceptionHandler.handleException(cause, responseObserver);
+            }
+        });
+    }
+
+    @Override
+    public void subscribeTradeStatistics(SubscribeTradeStatisticsRequest req,
+                                         StreamObserver<SubscribeTradeStatisticsReply> responseObserver) {
+        // Events are only sent while the client keeps up, a client falling too far behind gets cancelled.
+        var subscription = new FlowControlledSubscription<>(
+                (ServerCallStreamObserver<SubscribeTradeStatisticsReply>) responseObserver,
+                MAX_PENDING_SUBSCRIPTION_EVENTS);
+        String currencyCode = req.getCurrencyCode();
+        Consumer<TradeStatistics3> listener = tradeStatistics -> {
+            if (!currencyCode.isEmpty() && !currencyCode.equalsIgnoreCase(tradeStatistics.getCurrency()))
+                return;
+
+            subscription.send(SubscribeTradeStatisticsReply.newBuilder()
+                    .setTradeStatistics(tradeStatistics.toProtoTradeStatistics3())
+                    .build());
+        };
+        coreApi.addTradeStatisticsListener(listener);
+        subscription.setCloseHandler(() -> coreApi.removeTradeStatisticsListener(listener));
+    }
+
+    private GetTradeStatisticsReply getPage(GetTradeStatisticsRequest req, String cursor, int limit) {
+        // We ask for one more item than requested to know whether there is a next page.
+        List<TradeStatistics3> tradeStatistics = coreApi.getTradeStatistics(req.getCurrencyCode(),
+                req.getFromDate(),
+                req.getToDate(),
+                cursor,
+                limit > 0 ? limit + 1 : 0);
+        var builder = GetTradeStatisticsReply.newBuilder();
+        if (limit > 0 && tradeStatistics.size() > limit) {
+            tradeStatistics = tradeStatistics.subList(0, limit);
+            builder.setNextCursor(coreApi.getTradeStatisticsCursor(tradeStatistics.get(limit - 1)));
+        }
+        return builder.addAllTradeStatistics(tradeStatistics.stream()
+                        .map(TradeStatistics3::toProtoTradeStatistics3)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -62,6 +139,8 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsGrpc.GetTradeStati
                 .or(() -> Optional.of(CallRateMeteringInterceptor.valueOf(
                         new HashMap<>() {{
                             put("getTradeStatistics", new GrpcCallRateMeter(1, SECONDS));
+                            put("streamTradeStatistics", new GrpcCallRateMeter(1, SECONDS));
+                            put("subscribeTradeStatistics", new GrpcCallRateMeter(1, SECONDS));
                         }}
                 )));
     }
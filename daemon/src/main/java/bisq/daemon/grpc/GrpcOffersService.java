@@ -20,6 +20,7 @@ package bisq.daemon.grpc;
 import bisq.core.api.CoreApi;
 import bisq.core.api.model.OfferInfo;
 import bisq.core.offer.Offer;
+import bisq.core.offer.OfferBookService.OfferBookChangedListener;
 import bisq.core.offer.OpenOffer;
 
 import bisq.proto.grpc.CancelOfferReply;
@@ -35,8 +36,11 @@ import bisq.proto.grpc.GetOfferRequest;
 import bisq.proto.grpc.GetOffersReply;
 import bisq.proto.grpc.GetOffersRequest;
 import bisq.proto.grpc.OffersGrpc;
+import bisq.proto.grpc.SubscribeOffersReply;
+import bisq.proto.grpc.SubscribeOffersRequest;
 
 import io.grpc.ServerInterceptor;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 
 import javax.inject.Inject;
@@ -49,6 +53,8 @@ import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 
 import static bisq.core.api.model.OfferInfo.toOfferInfo;
+import static bisq.proto.grpc.SubscribeOffersReply.EventType.ADDED;
+import static bisq.proto.grpc.SubscribeOffersReply.EventType.REMOVED;
 import static bisq.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCustomRateMeteringInterceptor;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -61,6 +67,8 @@ import bisq.daemon.grpc.interceptor.GrpcCallRateMeter;
 @Slf4j
 class GrpcOffersService extends OffersGrpc.OffersImplBase {
 
+    private static final int MAX_PENDING_SUBSCRIPTION_EVENTS = 1000;
+
     private final CoreApi coreApi;
     private final GrpcExceptionHandler exceptionHandler;
 
@@ -183,6 +191,39 @@ class GrpcOffersService extends OffersGrpc.OffersImplBase {
         }
     }
 
+    @Override
+    public void subscribeOffers(SubscribeOffersRequest req,
+                                StreamObserver<SubscribeOffersReply> responseObserver) {
+        // Events are only sent while the client keeps up, a client falling too far behind gets cancelled.
+        var subscription = new FlowControlledSubscription<>(
+                (ServerCallStreamObserver<SubscribeOffersReply>) responseObserver,
+                MAX_PENDING_SUBSCRIPTION_EVENTS);
+        String direction = req.getDirection();
+        String currencyCode = req.getCurrencyCode();
+        OfferBookChangedListener listener = new OfferBookChangedListener() {
+            @Override
+            public void onAdded(Offer offer) {
+                if (coreApi.isSubscribedOffer(offer, direction, currencyCode) && coreApi.canTakeOffer(offer))
+                    send(ADDED, offer);
+            }
+
+            @Override
+            public void onRemoved(Offer offer) {
+                if (coreApi.isSubscribedOffer(offer, direction, currencyCode))
+                    send(REMOVED, offer);
+            }
+
+            private void send(SubscribeOffersReply.EventType eventType, Offer offer) {
+                subscription.send(SubscribeOffersReply.newBuilder()
+                        .setEventType(eventType)
+                        .setOffer(toOfferInfo(offer).toProtoMessage())
+                        .build());
+            }
+        };
+        coreApi.addOfferBookChangedListener(listener);
+        subscription.setCloseHandler(() -> coreApi.removeOfferBookChangedListener(listener));
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -199,6 +240,7 @@ class GrpcOffersService extends OffersGrpc.OffersImplBase {
                             put("getMyOffers", new GrpcCallRateMeter(1, SECONDS));
                             put("createOffer", new GrpcCallRateMeter(1, MINUTES));
                             put("cancelOffer", new GrpcCallRateMeter(1, MINUTES));
+                            put("subscribeOffers", new GrpcCallRateMeter(1, SECONDS));
                         }}
                 )));
     }
@@ -19,18 +19,28 @@ package bisq.daemon.grpc;
 
 import bisq.core.api.CoreContext;
 
-import bisq.common.UserThread;
 import bisq.common.config.Config;
 
+import bisq.proto.grpc.GetTradeStatisticsGrpc;
+import bisq.proto.grpc.GetVersionGrpc;
+import bisq.proto.grpc.HelpGrpc;
+import bisq.proto.grpc.WalletsGrpc;
+
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import java.io.IOException;
 import java.io.UncheckedIOException;
 
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import lombok.extern.slf4j.Slf4j;
 
 import static io.grpc.ServerInterceptors.interceptForward;
@@ -38,11 +48,24 @@ import static io.grpc.ServerInterceptors.interceptForward;
 
 
 import bisq.daemon.grpc.interceptor.PasswordAuthInterceptor;
+import bisq.daemon.grpc.interceptor.UserThreadInterceptor;
 
 @Singleton
 @Slf4j
 public class GrpcServer {
 
+    // These queries only read thread-safe state and are served from the query executor.
+    // All other calls are handled on the UserThread. The offer queries are not on the list as
+    // the offer filter and the price feed cache are only safe to use from the UserThread, and
+    // getTrade hands out the live Trade objects.
+    private static final Set<String> READ_ONLY_METHODS = Set.of(
+            GetVersionGrpc.getGetVersionMethod().getFullMethodName(),
+            HelpGrpc.getGetMethodHelpMethod().getFullMethodName(),
+            GetTradeStatisticsGrpc.getGetTradeStatisticsMethod().getFullMethodName(),
+            GetTradeStatisticsGrpc.getStreamTradeStatisticsMethod().getFullMethodName(),
+            WalletsGrpc.getGetBalancesMethod().getFullMethodName());
+
+    private final ExecutorService queryExecutor;
     private final Server server;
 
     @Inject
@@ -58,8 +81,12 @@ public class GrpcServer {
                       GrpcGetTradeStatisticsService tradeStatisticsService,
                       GrpcTradesService tradesService,
                       GrpcWalletsService walletsService) {
+        this.queryExecutor = Executors.newFixedThreadPool(config.apiQueryThreads, new ThreadFactoryBuilder()
+                .setNameFormat("GrpcQuery-%d")
+                .setDaemon(true)
+                .build());
         this.server = ServerBuilder.forPort(config.apiPort)
-                .executor(UserThread.getExecutor())
+                .executor(queryExecutor)
                 .addService(interceptForward(disputeAgentsService, disputeAgentsService.interceptors()))
                 .addService(interceptForward(helpService, helpService.interceptors()))
                 .addService(interceptForward(offersService, offersService.interceptors()))
@@ -69,6 +96,7 @@ public class GrpcServer {
                 .addService(interceptForward(tradesService, tradesService.interceptors()))
                 .addService(interceptForward(versionService, versionService.interceptors()))
                 .addService(interceptForward(walletsService, walletsService.interceptors()))
+                .intercept(new UserThreadInterceptor(READ_ONLY_METHODS))
                 .intercept(passwordAuthInterceptor)
                 .build();
         coreContext.setApiUser(true);
@@ -86,6 +114,7 @@ public class GrpcServer {
     public void shutdown() {
         log.info("Server shutdown started");
         server.shutdown();
+        queryExecutor.shutdown();
         log.info("Server shutdown complete");
     }
 }
@@ -17,6 +17,7 @@
 
 package bisq.daemon.grpc.interceptor;
 
+import io.grpc.Grpc;
 import io.grpc.Metadata;
 import io.grpc.ServerCall;
 import io.grpc.ServerCallHandler;
@@ -25,6 +26,9 @@ import io.grpc.StatusRuntimeException;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -65,7 +69,7 @@ public final class CallRateMeteringInterceptor implements ServerInterceptor {
     private void checkRateMeterAndMaybeCloseCall(Map.Entry<String, GrpcCallRateMeter> rateMeterKV,
                                                  ServerCall<?, ?> serverCall) {
         String methodName = rateMeterKV.getKey();
-        GrpcCallRateMeter rateMeter = rateMeterKV.getValue();
+        GrpcCallRateMeter rateMeter = rateMeterKV.getValue().forClient(getClientId(serverCall));
 
         if (!rateMeter.checkAndIncrement())
             handlePermissionDeniedWarningAndCloseCall(methodName, rateMeter, serverCall);
@@ -101,16 +105,25 @@ public final class CallRateMeteringInterceptor implements ServerInterceptor {
 
     private Optional<Map.Entry<String, GrpcCallRateMeter>> getRateMeterKV(ServerCall<?, ?> serverCall) {
         String rateMeterKey = getRateMeterKey(serverCall);
-        return serviceCallRateMeters.entrySet().stream()
-                .filter((e) -> e.getKey().equals(rateMeterKey)).findFirst();
+        GrpcCallRateMeter rateMeter = serviceCallRateMeters.get(rateMeterKey);
+        return rateMeter == null ? Optional.empty() : Optional.of(Map.entry(rateMeterKey, rateMeter));
     }
 
     private String getRateMeterKey(ServerCall<?, ?> serverCall) {
-        // Get the rate meter map key from the full rpc service name.  The key name
-        // is hard coded in the Grpc*Service interceptors() method.
-        String fullServiceName = serverCall.getMethodDescriptor().getServiceName();
-        return StringUtils.uncapitalize(Objects.requireNonNull(fullServiceName)
-                .substring("io.bisq.protobuffer.".length()));
+        // Get the rate meter map key from the rpc method name, e.g. getVersion from
+        // io.bisq.protobuffer.GetVersion/GetVersion.  The key name is hard coded in
+        // the Grpc*Service interceptors() method.
+        String fullMethodName = serverCall.getMethodDescriptor().getFullMethodName();
+        return StringUtils.uncapitalize(Objects.requireNonNull(fullMethodName)
+                .substring(fullMethodName.lastIndexOf('/') + 1));
+    }
+
+    private String getClientId(ServerCall<?, ?> serverCall) {
+        // Clients are told apart by host, a client may open several connections.
+        SocketAddress remoteAddress = serverCall.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+        if (remoteAddress instanceof InetSocketAddress)
+            return ((InetSocketAddress) remoteAddress).getHostString();
+        return String.valueOf(remoteAddress);
     }
 
     @Override
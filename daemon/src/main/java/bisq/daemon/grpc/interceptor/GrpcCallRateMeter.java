@@ -2,83 +2,164 @@ package bisq.daemon.grpc.interceptor;
 
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.ArrayDeque;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Predicate;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
 
+/**
+ * A lock-free sliding window call rate meter.
+ * <p>
+ * The time window is split into a fixed number of buckets, each holding the call count
+ * of its time slice, so memory does not depend on the allowed rate.  A bucket is
+ * packed into a single long (low 32 bits of its epoch, 32 bits count) and updated with
+ * CAS.  The sum of the older buckets only changes when a new bucket starts, so it is
+ * cached per bucket epoch and a call only reads two longs before its CAS.  Calls
+ * expire up to one bucket (1/64 of the window) early, and concurrent callers crossing
+ * a bucket boundary can overshoot the limit by at most one call each.
+ * <p>
+ * If perClient is set, each client gets its own meter with the same limit.
+ */
 @Slf4j
 public class GrpcCallRateMeter {
 
+    private static final int MAX_NUM_BUCKETS = 64;
+    private static final long LOW_BITS_MASK = 0xFFFFFFFFL;
+
     @Getter
     private final int allowedCallsPerTimeWindow;
     @Getter
     private final TimeUnit timeUnit;
     @Getter
     private final int numTimeUnits;
+    @Getter
+    private final boolean perClient;
 
     @Getter
     private transient final long timeUnitIntervalInMilliseconds;
 
-    private transient final ArrayDeque<Long> callTimestamps;
+    private transient final long bucketIntervalInMilliseconds;
+    private transient final AtomicLongArray buckets;
+    // Epoch and call count of all buckets but the current one.
+    private transient final AtomicLong olderBucketsCallsCount = new AtomicLong(-1);
+    @Nullable
+    private transient final Cache<String, GrpcCallRateMeter> clientRateMeters;
 
     public GrpcCallRateMeter(int allowedCallsPerTimeWindow, TimeUnit timeUnit) {
         this(allowedCallsPerTimeWindow, timeUnit, 1);
     }
 
     public GrpcCallRateMeter(int allowedCallsPerTimeWindow, TimeUnit timeUnit, int numTimeUnits) {
+        this(allowedCallsPerTimeWindow, timeUnit, numTimeUnits, false);
+    }
+
+    public GrpcCallRateMeter(int allowedCallsPerTimeWindow,
+                             TimeUnit timeUnit,
+                             int numTimeUnits,
+                             boolean perClient) {
         this.allowedCallsPerTimeWindow = allowedCallsPerTimeWindow;
         this.timeUnit = timeUnit;
         this.numTimeUnits = numTimeUnits;
+        this.perClient = perClient;
         this.timeUnitIntervalInMilliseconds = timeUnit.toMillis(1) * numTimeUnits;
-        this.callTimestamps = new ArrayDeque<>();
+        this.bucketIntervalInMilliseconds = Math.max(1, timeUnitIntervalInMilliseconds / MAX_NUM_BUCKETS);
+        this.buckets = new AtomicLongArray((int) (timeUnitIntervalInMilliseconds / bucketIntervalInMilliseconds));
+        // Idle clients' meters are dropped once all their calls went stale.
+        this.clientRateMeters = perClient
+                ? CacheBuilder.newBuilder()
+                .expireAfterAccess(timeUnitIntervalInMilliseconds, TimeUnit.MILLISECONDS)
+                .build()
+                : null;
+    }
+
+    /**
+     * Returns the meter to use for the given client, which is this meter unless it
+     * meters each client separately.
+     */
+    public GrpcCallRateMeter forClient(String clientId) {
+        if (clientRateMeters == null)
+            return this;
+
+        try {
+            return clientRateMeters.get(clientId, () ->
+                    new GrpcCallRateMeter(allowedCallsPerTimeWindow, timeUnit, numTimeUnits));
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex);
+        }
     }
 
     public boolean checkAndIncrement() {
-        if (getCallsCount() < allowedCallsPerTimeWindow) {
-            incrementCallsCount();
-            return true;
-        } else {
-            return false;
+        long epoch = getEpoch();
+        int index = (int) (epoch % buckets.length());
+        long olderCallsCount = getOlderBucketsCallsCount(epoch);
+        while (true) {
+            long bucket = buckets.get(index);
+            long callsCount = olderCallsCount + getCallsCount(bucket, epoch);
+            if (callsCount >= allowedCallsPerTimeWindow)
+                return false;
+
+            long updatedBucket = isOfEpoch(bucket, epoch) ? bucket + 1 : (epoch & LOW_BITS_MASK) << 32 | 1;
+            if (buckets.compareAndSet(index, bucket, updatedBucket))
+                return true;
         }
     }
 
     public int getCallsCount() {
-        removeStaleCallTimestamps();
-        return callTimestamps.size();
+        long epoch = getEpoch();
+        long bucket = buckets.get((int) (epoch % buckets.length()));
+        return (int) (getOlderBucketsCallsCount(epoch) + getCallsCount(bucket, epoch));
     }
 
     public String getCallsCountProgress(String calledMethodName) {
         String shortTimeUnitName = StringUtils.chop(timeUnit.name().toLowerCase());
+        int callsCount = getCallsCount();
         return format("%s has been called %d time%s in the last %s, rate limit is %d/%s",
                 calledMethodName,
-                callTimestamps.size(),
-                callTimestamps.size() == 1 ? "" : "s",
+                callsCount,
+                callsCount == 1 ? "" : "s",
                 shortTimeUnitName,
                 allowedCallsPerTimeWindow,
                 shortTimeUnitName);
     }
 
-    private void incrementCallsCount() {
-        callTimestamps.add(currentTimeMillis());
+    private long getEpoch() {
+        return currentTimeMillis() / bucketIntervalInMilliseconds;
     }
 
-    private void removeStaleCallTimestamps() {
-        while (!callTimestamps.isEmpty() && isStale.test(callTimestamps.peek())) {
-            callTimestamps.remove();
+    private long getOlderBucketsCallsCount(long epoch) {
+        long cached = olderBucketsCallsCount.get();
+        if (cached != -1 && isOfEpoch(cached, epoch))
+            return cached & LOW_BITS_MASK;
+
+        long callsCount = 0;
+        for (int age = 1; age < buckets.length(); age++) {
+            long bucket = buckets.get((int) ((epoch - age) % buckets.length()));
+            callsCount += getCallsCount(bucket, epoch - age);
         }
+        olderBucketsCallsCount.compareAndSet(cached, (epoch & LOW_BITS_MASK) << 32 | callsCount);
+        return callsCount;
     }
 
-    private final Predicate<Long> isStale = (t) -> {
-        long stale = currentTimeMillis() - this.getTimeUnitIntervalInMilliseconds();
-        // Is the given timestamp before the current time minus 1 timeUnit in millis?
-        return t < stale;
-    };
+    // Epochs are compared by their low 32 bits.  A bucket left untouched for 2^32
+    // bucket intervals (years, at the smallest interval) would be mistaken as current.
+    private static boolean isOfEpoch(long bucket, long epoch) {
+        return bucket >>> 32 == (epoch & LOW_BITS_MASK);
+    }
+
+    private static long getCallsCount(long bucket, long epoch) {
+        return isOfEpoch(bucket, epoch) ? bucket & LOW_BITS_MASK : 0;
+    }
 
     @Override
     public String toString() {
@@ -86,7 +167,8 @@ public class GrpcCallRateMeter {
                 "allowedCallsPerTimeWindow=" + allowedCallsPerTimeWindow +
                 ", timeUnit=" + timeUnit.name() +
                 ", timeUnitIntervalInMilliseconds=" + timeUnitIntervalInMilliseconds +
-                ", callsCount=" + callTimestamps.size() +
+                ", perClient=" + perClient +
+                ", callsCount=" + getCallsCount() +
                 '}';
     }
 }
@@ -60,6 +60,7 @@ public class GrpcServiceRateMeteringConfig {
     private static final String KEY_ALLOWED_CALL_PER_TIME_WINDOW = "allowedCallsPerTimeWindow";
     private static final String KEY_TIME_UNIT = "timeUnit";
     private static final String KEY_NUM_TIME_UNITS = "numTimeUnits";
+    private static final String KEY_PER_CLIENT = "perClient";
 
     private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
 
@@ -186,7 +187,9 @@ public class GrpcServiceRateMeteringConfig {
         int allowedCallsPerTimeWindow = ((Number) valueMap.get(KEY_ALLOWED_CALL_PER_TIME_WINDOW)).intValue();
         TimeUnit timeUnit = TimeUnit.valueOf((String) valueMap.get(KEY_TIME_UNIT));
         int numTimeUnits = ((Number) valueMap.get(KEY_NUM_TIME_UNITS)).intValue();
-        return new GrpcCallRateMeter(allowedCallsPerTimeWindow, timeUnit, numTimeUnits);
+        // Optional, older config files do not have it.
+        boolean perClient = Boolean.TRUE.equals(valueMap.get(KEY_PER_CLIENT));
+        return new GrpcCallRateMeter(allowedCallsPerTimeWindow, timeUnit, numTimeUnits, perClient);
     }
 
     private static void verifyConfigFile(File configFile) {
@@ -0,0 +1,104 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc.interceptor;
+
+import bisq.common.UserThread;
+
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the handlers of all rpc methods except the given read-only queries on the
+ * {@link UserThread}, so state-mutating calls see the same single-threaded model as
+ * the rest of the application.  Read-only queries stay on the gRPC server's executor
+ * and must only read thread-safe state, so they are not queued behind p2p message
+ * handling, dao parsing or persistence on a busy user thread.
+ */
+@Slf4j
+public final class UserThreadInterceptor implements ServerInterceptor {
+
+    private final Set<String> readOnlyMethods;
+
+    public UserThreadInterceptor(Set<String> readOnlyMethods) {
+        this.readOnlyMethods = readOnlyMethods;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> serverCall,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> serverCallHandler) {
+        ServerCall.Listener<ReqT> listener = serverCallHandler.startCall(serverCall, headers);
+        if (readOnlyMethods.contains(serverCall.getMethodDescriptor().getFullMethodName()))
+            return listener;
+
+        // The service method is invoked from onHalfClose, so it is enough to move the
+        // listener callbacks.  The user thread runs them in the order gRPC delivers them.
+        return new ServerCall.Listener<>() {
+            @Override
+            public void onMessage(ReqT message) {
+                execute(serverCall, () -> listener.onMessage(message));
+            }
+
+            @Override
+            public void onHalfClose() {
+                execute(serverCall, listener::onHalfClose);
+            }
+
+            @Override
+            public void onCancel() {
+                execute(serverCall, listener::onCancel);
+            }
+
+            @Override
+            public void onComplete() {
+                execute(serverCall, listener::onComplete);
+            }
+
+            @Override
+            public void onReady() {
+                execute(serverCall, listener::onReady);
+            }
+        };
+    }
+
+    private void execute(ServerCall<?, ?> serverCall, Runnable runnable) {
+        UserThread.execute(() -> {
+            try {
+                runnable.run();
+            } catch (StatusRuntimeException ex) {
+                // The GrpcExceptionHandler already sent the error to the client.
+                log.debug("{} failed: {}", serverCall.getMethodDescriptor().getFullMethodName(), ex.toString());
+            } catch (Throwable t) {
+                log.error("", t);
+                try {
+                    serverCall.close(Status.fromThrowable(t), new Metadata());
+                } catch (IllegalStateException ignore) {
+                    // Call was already closed.
+                }
+            }
+        });
+    }
+}
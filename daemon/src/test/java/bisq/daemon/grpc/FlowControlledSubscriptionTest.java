@@ -0,0 +1,184 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlowControlledSubscriptionTest {
+    private static final int MAX_PENDING_EVENTS = 3;
+
+    private TestObserver observer;
+    private FlowControlledSubscription<String> subscription;
+    private AtomicInteger numClosed;
+
+    @Before
+    public void setUp() {
+        observer = new TestObserver();
+        subscription = new FlowControlledSubscription<>(observer, MAX_PENDING_EVENTS);
+        numClosed = new AtomicInteger();
+        subscription.setCloseHandler(numClosed::incrementAndGet);
+    }
+
+    @Test
+    public void send_whileReady() {
+        subscription.send("a");
+        subscription.send("b");
+
+        assertEquals(List.of("a", "b"), observer.sent);
+    }
+
+    @Test
+    public void send_buffersUntilReady() {
+        observer.ready = false;
+        subscription.send("a");
+        subscription.send("b");
+        assertTrue(observer.sent.isEmpty());
+
+        observer.ready = true;
+        observer.onReadyHandler.run();
+        subscription.send("c");
+
+        assertEquals(List.of("a", "b", "c"), observer.sent);
+        assertEquals(0, numClosed.get());
+    }
+
+    @Test
+    public void send_cancelsSlowClient() {
+        observer.ready = false;
+        for (int i = 0; i <= MAX_PENDING_EVENTS; i++) {
+            subscription.send("event" + i);
+        }
+
+        assertTrue(subscription.isClosed());
+        assertEquals(1, numClosed.get());
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED,
+                ((StatusRuntimeException) observer.error).getStatus().getCode());
+
+        // Neither buffered nor later events get sent
+        observer.ready = true;
+        observer.onReadyHandler.run();
+        subscription.send("late");
+        assertTrue(observer.sent.isEmpty());
+    }
+
+    @Test
+    public void send_closesAfterFailedSend() {
+        observer.failOnNext = true;
+        subscription.send("a");
+
+        assertTrue(subscription.isClosed());
+        assertEquals(1, numClosed.get());
+        assertNull(observer.error);
+    }
+
+    @Test
+    public void cancel_runsCloseHandlerOnce() {
+        observer.onCancelHandler.run();
+        observer.onCancelHandler.run();
+        subscription.send("a");
+
+        assertEquals(1, numClosed.get());
+        assertTrue(observer.sent.isEmpty());
+    }
+
+    @Test
+    public void setCloseHandler_afterCancel_runsImmediately() {
+        TestObserver observer = new TestObserver();
+        FlowControlledSubscription<String> subscription = new FlowControlledSubscription<>(observer, MAX_PENDING_EVENTS);
+        observer.onCancelHandler.run();
+
+        AtomicInteger numClosed = new AtomicInteger();
+        subscription.setCloseHandler(numClosed::incrementAndGet);
+        assertEquals(1, numClosed.get());
+    }
+
+    private static class TestObserver extends ServerCallStreamObserver<String> {
+        private final List<String> sent = new ArrayList<>();
+        private boolean ready = true;
+        private boolean failOnNext;
+        private Runnable onReadyHandler;
+        private Runnable onCancelHandler;
+        private Throwable error;
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void setOnCancelHandler(Runnable onCancelHandler) {
+            this.onCancelHandler = onCancelHandler;
+        }
+
+        @Override
+        public void setCompression(String compression) {
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+            this.onReadyHandler = onReadyHandler;
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+        }
+
+        @Override
+        public void request(int count) {
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+        }
+
+        @Override
+        public void onNext(String value) {
+            if (failOnNext) {
+                throw new IllegalStateException("call already closed");
+            }
+            sent.add(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
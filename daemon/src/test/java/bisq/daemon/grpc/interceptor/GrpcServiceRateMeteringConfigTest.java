@@ -23,8 +23,11 @@ import java.nio.file.Paths;
 
 import java.io.File;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -42,6 +45,7 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
@@ -155,6 +159,44 @@ public class GrpcServiceRateMeteringConfigTest {
         assertFalse(rateMeter.checkAndIncrement());
     }
 
+    @Test
+    public void testPerClientCallRateMeter() {
+        GrpcCallRateMeter rateMeter = new GrpcCallRateMeter(2, MINUTES, 1, true);
+        GrpcCallRateMeter clientRateMeter = rateMeter.forClient("127.0.0.1");
+        assertSame(clientRateMeter, rateMeter.forClient("127.0.0.1"));
+        doMaxIsAllowedChecks(true, 2, clientRateMeter);
+        doMaxIsAllowedChecks(false, 2, clientRateMeter);
+
+        // Another client has its own limit.
+        doMaxIsAllowedChecks(true, 2, rateMeter.forClient("10.0.0.1"));
+
+        GrpcCallRateMeter sharedRateMeter = new GrpcCallRateMeter(2, MINUTES);
+        assertSame(sharedRateMeter, sharedRateMeter.forClient("127.0.0.1"));
+    }
+
+    @Test
+    public void testConcurrentCalls() throws InterruptedException {
+        GrpcCallRateMeter rateMeter = new GrpcCallRateMeter(1000, MINUTES);
+        AtomicInteger allowedCalls = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 500; j++) {
+                    if (rateMeter.checkAndIncrement())
+                        allowedCalls.incrementAndGet();
+                }
+            }));
+        }
+        for (Thread thread : threads)
+            thread.start();
+        for (Thread thread : threads)
+            thread.join();
+
+        assertEquals(rateMeter.getCallsCount(), allowedCalls.get());
+        assertTrue(allowedCalls.get() >= 1000);
+        assertFalse(rateMeter.checkAndIncrement());
+    }
+
     private void doMaxIsAllowedChecks(boolean expectedIsAllowed,
                                       int expectedCallsCount,
                                       GrpcCallRateMeter rateMeter) {
@@ -34,8 +34,6 @@ import bisq.core.util.FormattingUtils;
 import bisq.core.util.coin.BsqFormatter;
 import bisq.core.util.coin.CoinFormatter;
 
-import bisq.network.p2p.NodeAddress;
-
 import bisq.common.config.Config;
 
 import org.bitcoinj.core.Address;
@@ -48,8 +46,6 @@ import javax.inject.Named;
 
 import javafx.collections.ObservableList;
 
-import java.util.stream.Collectors;
-
 class ClosedTradesViewModel extends ActivatableWithDataModel<ClosedTradesDataModel> implements ViewModel {
     private final BtcWalletService btcWalletService;
     private final BsqWalletService bsqWalletService;
@@ -235,18 +231,7 @@ class ClosedTradesViewModel extends ActivatableWithDataModel<ClosedTradesDataMod
     }
 
     int getNumPastTrades(Tradable tradable) {
-        return dataModel.closedTradableManager.getObservableList().stream()
-                .filter(candidate -> {
-                    if (!(candidate instanceof Trade) ||
-                            !(tradable instanceof Trade)) return false;
-                    NodeAddress candidateAddress = ((Trade) candidate).getTradingPeerNodeAddress();
-                    NodeAddress tradableAddress = ((Trade) tradable).getTradingPeerNodeAddress();
-                    return candidateAddress != null &&
-                            tradableAddress != null &&
-                            candidateAddress.getFullAddress().equals(tradableAddress.getFullAddress());
-                })
-                .collect(Collectors.toSet())
-                .size();
+        return tradable instanceof Trade ? dataModel.closedTradableManager.getNumPastTrades((Trade) tradable) : 0;
     }
 
     boolean wasMyOffer(Tradable tradable) {
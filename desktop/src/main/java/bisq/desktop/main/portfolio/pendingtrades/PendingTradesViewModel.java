@@ -57,7 +57,6 @@ import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 
 import java.util.Date;
-import java.util.stream.Collectors;
 
 import lombok.Getter;
 
@@ -333,19 +332,7 @@ public class PendingTradesViewModel extends ActivatableWithDataModel<PendingTrad
     }
 
     public int getNumPastTrades(Trade trade) {
-        return closedTradableManager.getObservableList().stream()
-                .filter(e -> {
-                    if (e instanceof Trade) {
-                        Trade t = (Trade) e;
-                        return t.getTradingPeerNodeAddress() != null &&
-                                trade.getTradingPeerNodeAddress() != null &&
-                                t.getTradingPeerNodeAddress().getFullAddress().equals(trade.getTradingPeerNodeAddress().getFullAddress());
-                    } else
-                        return false;
-
-                })
-                .collect(Collectors.toSet())
-                .size();
+        return closedTradableManager.getNumPastTrades(trade);
     }
 
     @Nullable
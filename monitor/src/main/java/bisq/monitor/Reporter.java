@@ -71,4 +71,10 @@ public abstract class Reporter extends Configurable {
      */
     public abstract void report(String key, String value, String timestamp, String prefix);
 
+    /**
+     * Give pending reports a chance to get out and release resources. Blocks for a
+     * limited time only.
+     */
+    public void shutDown() {
+    }
 }
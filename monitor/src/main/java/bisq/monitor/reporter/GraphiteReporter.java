@@ -28,20 +28,66 @@ import bisq.common.config.BaseCurrencyNetwork;
 import org.berndpruenster.netlayer.tor.TorSocket;
 
 import com.google.common.base.Charsets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import java.net.InetSocketAddress;
 import java.net.Socket;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
 
 /**
  * Reports our findings to a graphite service.
  *
+ * All values of a report are sent as one batch using the plaintext protocol over a connection which is kept open
+ * between reports. Sending happens on a dedicated thread, so the metrics do not wait for the (often slow) Tor
+ * connection. Failed batches are retried with an exponential backoff.
+ *
  * @author Florian Reimair
  */
+@Slf4j
 public class GraphiteReporter extends Reporter {
+    private static final int MAX_QUEUED_BATCHES = 1000;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long INITIAL_RETRY_DELAY_MS = 1000;
+    private static final long MAX_RETRY_DELAY_MS = TimeUnit.MINUTES.toMillis(1);
+    // Idle connections might get dropped silently along the way (e.g. by Tor), which we would only notice after
+    // having lost a batch. So we rather reconnect if we have not sent anything for a while.
+    private static final long MAX_IDLE_MS = TimeUnit.MINUTES.toMillis(2);
+    private static final int CONNECT_TIMEOUT_MS = (int) TimeUnit.SECONDS.toMillis(30);
+    private static final long SHUTDOWN_TIMEOUT_SEC = 10;
+
+    private final ThreadPoolExecutor executor;
+
+    // Only accessed from the executor thread
+    @Nullable
+    private Socket socket;
+    @Nullable
+    private String connectedServiceUrl;
+    private long lastWriteTs;
+
+    public GraphiteReporter() {
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUED_BATCHES),
+                new ThreadFactoryBuilder().setNameFormat("GraphiteReporter").setDaemon(true).build(),
+                (runnable, pool) -> {
+                    if (!pool.isShutdown()) {
+                        log.warn("Too many pending reports. We drop the oldest one.");
+                        pool.getQueue().poll();
+                        pool.execute(runnable);
+                    }
+                });
+    }
 
     @Override
     public void report(long value, String prefix) {
@@ -58,49 +104,122 @@ public class GraphiteReporter extends Reporter {
 
     @Override
     public void report(Map<String, String> values, String prefix) {
-        String timestamp = String.valueOf(System.currentTimeMillis());
-        values.forEach((key, value) -> {
-
-            report(key, value, timestamp, prefix);
-            try {
-                // give Tor some slack
-                // TODO maybe use the pickle protocol?
-                // https://graphite.readthedocs.io/en/latest/feeding-carbon.html
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            }
-        });
+        long timestamp = System.currentTimeMillis() / 1000;
+        StringBuilder batch = new StringBuilder();
+        values.forEach((key, value) -> batch.append(toLine(key, value, timestamp, prefix)));
+        send(batch.toString());
     }
 
     @Override
     public void report(String key, String value, String timeInMilliseconds, String prefix) {
+        send(toLine(key, value, Long.parseLong(timeInMilliseconds) / 1000, prefix));
+    }
+
+    @Override
+    public void report(Map<String, String> values) {
+        report(values, "");
+    }
+
+    @Override
+    public void shutDown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SEC, TimeUnit.SECONDS)) {
+                log.warn("Not all pending reports could be sent before shutdown.");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        closeSocket();
+    }
+
+    private String toLine(String key, String value, long timestampInSec, String prefix) {
         // https://graphite.readthedocs.io/en/latest/feeding-carbon.html
-        String report = "bisq" + (Version.getBaseCurrencyNetwork() != 0 ? "-" + BaseCurrencyNetwork.values()[Version.getBaseCurrencyNetwork()].getNetwork() : "")
+        return "bisq" + (Version.getBaseCurrencyNetwork() != 0 ? "-" + BaseCurrencyNetwork.values()[Version.getBaseCurrencyNetwork()].getNetwork() : "")
                 + (prefix.isEmpty() ? "" : "." + prefix)
                 + (key.isEmpty() ? "" : "." + key)
-                + " " + value + " " + Long.parseLong(timeInMilliseconds) / 1000 + "\n";
+                + " " + value + " " + timestampInSec + "\n";
+    }
 
-        try {
-            NodeAddress nodeAddress = OnionParser.getNodeAddress(configuration.getProperty("serviceUrl"));
-            Socket socket;
-            if (nodeAddress.getFullAddress().contains(".onion"))
-                socket = new TorSocket(nodeAddress.getHostName(), nodeAddress.getPort());
-            else
-                socket = new Socket(nodeAddress.getHostName(), nodeAddress.getPort());
-
-            socket.getOutputStream().write(report.getBytes(Charsets.UTF_8));
-            socket.close();
-        } catch (IOException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
+    private void send(String batch) {
+        if (batch.isEmpty())
+            return;
+
+        if (executor.isShutdown()) {
+            log.warn("Reporter is shut down. We drop the report.");
+            return;
         }
 
+        executor.execute(() -> sendWithRetry(batch.getBytes(Charsets.UTF_8)));
     }
 
-    @Override
-    public void report(Map<String, String> values) {
-        report(values, "");
+    private void sendWithRetry(byte[] batch) {
+        String serviceUrl = configuration.getProperty("serviceUrl");
+        if (serviceUrl == null) {
+            log.error("GraphiteReporter.serviceUrl is not configured. We drop the report.");
+            return;
+        }
+
+        long delay = INITIAL_RETRY_DELAY_MS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(serviceUrl, batch);
+                return;
+            } catch (IOException e) {
+                closeSocket();
+                if (attempt == MAX_ATTEMPTS) {
+                    log.error("Reporting to {} failed {} times. We drop the report.", serviceUrl, attempt, e);
+                    return;
+                }
+
+                log.warn("Reporting to {} failed. We retry in {} ms. {}", serviceUrl, delay, e.toString());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                delay = Math.min(delay * 2, MAX_RETRY_DELAY_MS);
+            }
+        }
+    }
+
+    private void write(String serviceUrl, byte[] batch) throws IOException {
+        long now = System.currentTimeMillis();
+        if (socket != null && (!serviceUrl.equals(connectedServiceUrl) || now - lastWriteTs > MAX_IDLE_MS))
+            closeSocket();
+
+        if (socket == null) {
+            socket = connect(serviceUrl);
+            connectedServiceUrl = serviceUrl;
+        }
+
+        OutputStream outputStream = socket.getOutputStream();
+        outputStream.write(batch);
+        outputStream.flush();
+        lastWriteTs = now;
+    }
+
+    private Socket connect(String serviceUrl) throws IOException {
+        NodeAddress nodeAddress = OnionParser.getNodeAddress(serviceUrl);
+        if (nodeAddress.getFullAddress().contains(".onion"))
+            return new TorSocket(nodeAddress.getHostName(), nodeAddress.getPort());
+
+        Socket socket = new Socket();
+        socket.connect(new InetSocketAddress(nodeAddress.getHostName(), nodeAddress.getPort()), CONNECT_TIMEOUT_MS);
+        return socket;
+    }
+
+    private void closeSocket() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignore) {
+            }
+            socket = null;
+            connectedServiceUrl = null;
+        }
     }
 }
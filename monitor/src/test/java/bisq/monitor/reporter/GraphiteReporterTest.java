@@ -0,0 +1,76 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.monitor.reporter;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import java.nio.charset.StandardCharsets;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the batching and connection handling of the graphite reporter against a local socket.
+ */
+class GraphiteReporterTest {
+
+    @Test
+    void reportsUseOnePersistentConnection() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            serverSocket.setSoTimeout(10_000);
+
+            GraphiteReporter reporter = new GraphiteReporter();
+            Properties properties = new Properties();
+            properties.put("GraphiteReporter.serviceUrl", "127.0.0.1:" + serverSocket.getLocalPort());
+            reporter.configure(properties);
+
+            Map<String, String> values = new TreeMap<>();
+            values.put("a", "1");
+            values.put("b", "2");
+            reporter.report(values, "test");
+            reporter.report(3, "test.c");
+
+            List<String> lines = new ArrayList<>();
+            try (Socket socket = serverSocket.accept()) {
+                socket.setSoTimeout(10_000);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                        StandardCharsets.UTF_8));
+                for (int i = 0; i < 3; i++) {
+                    lines.add(reader.readLine());
+                }
+
+                reporter.shutDown();
+                Assert.assertNull(reader.readLine());
+            }
+
+            Assert.assertTrue(lines.get(0).matches("bisq.*\\.test\\.a 1 \\d+"));
+            Assert.assertTrue(lines.get(1).matches("bisq.*\\.test\\.b 2 \\d+"));
+            Assert.assertTrue(lines.get(2).matches("bisq.*\\.test\\.c 3 \\d+"));
+        }
+    }
+}
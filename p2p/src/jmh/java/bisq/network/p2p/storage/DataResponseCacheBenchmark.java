@@ -0,0 +1,123 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import bisq.network.p2p.network.NetworkNode;
+import bisq.network.p2p.peers.Broadcaster;
+import bisq.network.p2p.storage.mocks.AppendOnlyDataStoreServiceFake;
+import bisq.network.p2p.storage.mocks.DateSortedTruncatablePayloadStub;
+import bisq.network.p2p.storage.mocks.PersistableNetworkPayloadStub;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+import bisq.network.p2p.storage.persistence.ProtectedDataStoreService;
+import bisq.network.p2p.storage.persistence.RemovedPayloadsService;
+import bisq.network.p2p.storage.persistence.ResourceDataStoreService;
+
+import bisq.common.app.Capabilities;
+import bisq.common.persistence.PersistenceManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares the time for filtering the PersistableNetworkPayloads of a GetDataResponse with a fresh view, which is
+ * the work done at each request before we used the DataResponseCache, and with a cached view.
+ * Run with ./gradlew :p2p:jmh.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataResponseCacheBenchmark {
+    private static final int NUM_PAYLOADS = 300_000;
+    private static final int NUM_DATE_SORTED_PAYLOADS = 200_000;
+    // Share of the payloads the requester has already
+    private static final double KNOWN_SHARE = 0.95;
+    private static final int MAX_ENTRIES = 10_000;
+    private static final String REQUESTERS_VERSION = "1.5.0";
+
+    private P2PDataStorage p2PDataStorage;
+    private DataResponseCache dataResponseCache;
+    private final Set<P2PDataStorage.ByteArray> knownHashes = new HashSet<>();
+    private final Capabilities capabilities = new Capabilities();
+
+    @Setup
+    public void setUp() {
+        AppendOnlyDataStoreServiceFake appendOnlyDataStoreService = new AppendOnlyDataStoreServiceFake();
+        //noinspection unchecked
+        p2PDataStorage = new P2PDataStorage(mock(NetworkNode.class),
+                mock(Broadcaster.class),
+                appendOnlyDataStoreService,
+                new ProtectedDataStoreService(),
+                mock(ResourceDataStoreService.class),
+                mock(PersistenceManager.class),
+                mock(RemovedPayloadsService.class),
+                Clock.systemDefaultZone(),
+                1000);
+
+        Random random = new Random(1);
+        for (int i = 0; i < NUM_PAYLOADS + NUM_DATE_SORTED_PAYLOADS; i++) {
+            // Like real payload hashes we use random bytes, as a counter would give many hash code collisions.
+            byte[] hash = new byte[20];
+            random.nextBytes(hash);
+            PersistableNetworkPayload payload = i < NUM_PAYLOADS ?
+                    new PersistableNetworkPayloadStub(hash) :
+                    new DateSortedTruncatablePayloadStub(hash, random.nextInt(Integer.MAX_VALUE), 3000);
+            P2PDataStorage.ByteArray hashAsByteArray = new P2PDataStorage.ByteArray(hash);
+            appendOnlyDataStoreService.put(hashAsByteArray, payload);
+            if (random.nextDouble() < KNOWN_SHARE) {
+                knownHashes.add(hashAsByteArray);
+            }
+        }
+
+        dataResponseCache = new DataResponseCache(p2PDataStorage::getMapForDataResponse);
+    }
+
+    @Benchmark
+    public Set<PersistableNetworkPayload> withoutCache() {
+        return new DataResponseCache(p2PDataStorage::getMapForDataResponse)
+                .getView(REQUESTERS_VERSION, capabilities)
+                .filterKnownHashes(knownHashes::contains, MAX_ENTRIES, new AtomicBoolean());
+    }
+
+    @Benchmark
+    public Set<PersistableNetworkPayload> withCache() {
+        return dataResponseCache
+                .getView(REQUESTERS_VERSION, capabilities)
+                .filterKnownHashes(knownHashes::contains, MAX_ENTRIES, new AtomicBoolean());
+    }
+}
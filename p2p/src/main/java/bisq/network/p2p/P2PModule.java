@@ -21,6 +21,7 @@ import bisq.network.Socks5ProxyProvider;
 import bisq.network.http.HttpClient;
 import bisq.network.http.HttpClientImpl;
 import bisq.network.p2p.network.Connection;
+import bisq.network.p2p.network.NetworkMetricsServer;
 import bisq.network.p2p.network.NetworkNode;
 import bisq.network.p2p.peers.Broadcaster;
 import bisq.network.p2p.peers.PeerManager;
@@ -69,6 +70,7 @@ public class P2PModule extends AppModule {
         bind(Broadcaster.class).in(Singleton.class);
         bind(NetworkNode.class).toProvider(NetworkNodeProvider.class).in(Singleton.class);
         bind(Socks5ProxyProvider.class).in(Singleton.class);
+        bind(NetworkMetricsServer.class).in(Singleton.class);
         bind(HttpClient.class).to(HttpClientImpl.class);
 
         requestStaticInjection(Connection.class);
@@ -93,5 +95,6 @@ public class P2PModule extends AppModule {
         bindConstant().annotatedWith(named(TOR_STREAM_ISOLATION)).to(config.torStreamIsolation);
         bindConstant().annotatedWith(named("MAX_SEQUENCE_NUMBER_MAP_SIZE_BEFORE_PURGE")).to(1000);
         bind(Boolean.class).annotatedWith(named(REPUBLISH_MAILBOX_ENTRIES)).toInstance(config.republishMailboxEntries);
+        bind(int.class).annotatedWith(named(METRICS_PORT)).toInstance(config.metricsPort);
     }
 }
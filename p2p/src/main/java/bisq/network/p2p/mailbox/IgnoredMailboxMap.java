@@ -21,8 +21,8 @@ package bisq.network.p2p.mailbox;
 import bisq.common.proto.persistable.PersistableEnvelope;
 import bisq.common.util.CollectionUtils;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -31,11 +31,12 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @EqualsAndHashCode
 public class IgnoredMailboxMap implements PersistableEnvelope {
+    // Gets accessed from the threads decrypting the mailbox messages
     @Getter
     private final Map<String, Long> dataMap;
 
     public IgnoredMailboxMap() {
-        this.dataMap = new HashMap<>();
+        this.dataMap = new ConcurrentHashMap<>();
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -43,7 +44,7 @@ public class IgnoredMailboxMap implements PersistableEnvelope {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public IgnoredMailboxMap(Map<String, Long> ignored) {
-        this.dataMap = ignored;
+        this.dataMap = new ConcurrentHashMap<>(ignored);
     }
 
     @Override
@@ -54,7 +55,7 @@ public class IgnoredMailboxMap implements PersistableEnvelope {
     }
 
     public static IgnoredMailboxMap fromProto(protobuf.IgnoredMailboxMap proto) {
-        return new IgnoredMailboxMap(CollectionUtils.isEmpty(proto.getDataMap()) ? new HashMap<>() : proto.getDataMap());
+        return new IgnoredMailboxMap(CollectionUtils.isEmpty(proto.getDataMap()) ? Map.of() : proto.getDataMap());
     }
 
     public void putAll(Map<String, Long> map) {
@@ -19,6 +19,7 @@ package bisq.network.p2p.mailbox;
 
 import bisq.network.p2p.storage.payload.MailboxStoragePayload;
 
+import bisq.common.UserThread;
 import bisq.common.persistence.PersistenceManager;
 import bisq.common.proto.persistable.PersistedDataHost;
 
@@ -30,6 +31,8 @@ import javax.inject.Singleton;
  * This improves performance at processing mailbox messages.
  * On a fast 4 core machine 1000 mailbox messages take about 1.5 second. At second start-up using the persisted data
  * it only takes about 30 ms.
+ * Messages which are not addressed to our key get filtered before decryption, so only the rare failed decryption
+ * attempts of messages addressed to us end up here.
  */
 @Singleton
 public class IgnoredMailboxService implements PersistedDataHost {
@@ -66,6 +69,7 @@ public class IgnoredMailboxService implements PersistedDataHost {
 
     public void ignore(String uid, long creationTimeStamp) {
         ignoredMailboxMap.put(uid, creationTimeStamp);
-        persistenceManager.requestPersistence();
+        // We get called from the threads decrypting the mailbox messages
+        UserThread.execute(persistenceManager::requestPersistence);
     }
 }
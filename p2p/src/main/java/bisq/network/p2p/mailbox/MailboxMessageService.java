@@ -55,7 +55,9 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -69,6 +71,7 @@ import java.time.Clock;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
@@ -115,6 +118,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public class MailboxMessageService implements SetupListener, HashMapChangedListener,
         PersistedDataHost {
     private static final long REPUBLISH_DELAY_SEC = TimeUnit.MINUTES.toSeconds(2);
+    // We do not split up small batches as the overhead of the threads would not pay off.
+    private static final int MIN_ENTRIES_PER_CHUNK = 100;
 
     private final NetworkNode networkNode;
     private final PeerManager peerManager;
@@ -132,6 +137,9 @@ public class MailboxMessageService implements SetupListener, HashMapChangedListe
     private final Map<String, MailboxItem> mailboxItemsByUid = new HashMap<>();
 
     private boolean isBootstrapped;
+    // Max. number of threads used for the batch decryption
+    @VisibleForTesting
+    int maxBatchThreads = Runtime.getRuntime().availableProcessors();
 
     @Inject
     public MailboxMessageService(NetworkNode networkNode,
@@ -413,22 +421,31 @@ public class MailboxMessageService implements SetupListener, HashMapChangedListe
         }
     }
 
-    // We run the batch processing of all mailbox messages we have received at startup in a thread to not block the UI.
-    // For about 1000 messages decryption takes about 1 sec.
+    // We run the batch processing of all mailbox messages we have received at startup in threads to not block the UI.
+    // For about 1000 messages decryption takes about 1 sec, so we split the entries into chunks which get processed
+    // in parallel, one per available core.
     private void threadedBatchProcessMailboxEntries(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
-        ListeningExecutorService executor = Utilities.getSingleThreadListeningExecutor("processMailboxEntry-" + new Random().nextInt(1000));
+        int numThreads = Math.max(1, Math.min(maxBatchThreads,
+                protectedMailboxStorageEntries.size() / MIN_ENTRIES_PER_CHUNK));
+        int chunkSize = (protectedMailboxStorageEntries.size() + numThreads - 1) / numThreads;
+        ListeningExecutorService executor = Utilities.getListeningExecutorService(
+                "processMailboxEntry-" + new Random().nextInt(1000) + "-%d", numThreads, numThreads, 10);
         long ts = System.currentTimeMillis();
-        ListenableFuture<Set<MailboxItem>> future = executor.submit(() -> {
-            var mailboxItems = getMailboxItems(protectedMailboxStorageEntries);
-            log.info("Batch processing of {} mailbox entries took {} ms",
-                    protectedMailboxStorageEntries.size(),
-                    System.currentTimeMillis() - ts);
-            return mailboxItems;
-        });
-
-        Futures.addCallback(future, new FutureCallback<>() {
-            public void onSuccess(Set<MailboxItem> decryptedMailboxMessageWithEntries) {
-                UserThread.execute(() -> decryptedMailboxMessageWithEntries.forEach(e -> handleMailboxItem(e)));
+        // We have not more chunks than threads, so no task gets rejected.
+        List<ListenableFuture<Set<MailboxItem>>> futures = Lists.partition(new ArrayList<>(protectedMailboxStorageEntries), chunkSize)
+                .stream()
+                .map(chunk -> executor.submit(() -> getMailboxItems(chunk)))
+                .collect(Collectors.toList());
+        executor.shutdown();
+
+        Futures.addCallback(Futures.allAsList(futures), new FutureCallback<>() {
+            public void onSuccess(List<Set<MailboxItem>> decryptedMailboxMessageWithEntries) {
+                log.info("Batch processing of {} mailbox entries with {} threads took {} ms",
+                        protectedMailboxStorageEntries.size(),
+                        numThreads,
+                        System.currentTimeMillis() - ts);
+                UserThread.execute(() -> decryptedMailboxMessageWithEntries.forEach(mailboxItems ->
+                        mailboxItems.forEach(e -> handleMailboxItem(e))));
             }
 
             public void onFailure(@NotNull Throwable throwable) {
@@ -451,6 +468,12 @@ public class MailboxMessageService implements SetupListener, HashMapChangedListe
                 .getPrefixedSealedAndSignedMessage();
         SealedAndSigned sealedAndSigned = prefixedSealedAndSignedMessage.getSealedAndSigned();
         String uid = prefixedSealedAndSignedMessage.getUid();
+        if (!isAddressedToMe(protectedMailboxStorageEntry)) {
+            // Mailbox messages for us are stored with our signature pubKey as receiversPubKey. We can skip the
+            // expensive decryption of all others. As that check is cheap we do not persist those in the
+            // ignoredMailboxService.
+            return new MailboxItem(protectedMailboxStorageEntry, null);
+        }
         if (ignoredMailboxService.isIgnored(uid)) {
             // We had persisted a past failed decryption attempt on that message so we don't try again and return early
             return new MailboxItem(protectedMailboxStorageEntry, null);
@@ -470,6 +493,11 @@ public class MailboxMessageService implements SetupListener, HashMapChangedListe
         return new MailboxItem(protectedMailboxStorageEntry, null);
     }
 
+    private boolean isAddressedToMe(ProtectedMailboxStorageEntry protectedMailboxStorageEntry) {
+        return Arrays.equals(protectedMailboxStorageEntry.getReceiversPubKeyBytes(),
+                keyRing.getPubKeyRing().getSignaturePubKeyBytes());
+    }
+
     private void handleMailboxItem(MailboxItem mailboxItem) {
         String uid = mailboxItem.getUid();
         if (!mailboxItemsByUid.containsKey(uid)) {
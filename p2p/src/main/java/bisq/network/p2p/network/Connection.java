@@ -64,23 +64,22 @@ import java.io.InvalidClassException;
 import java.io.OptionalDataException;
 import java.io.StreamCorruptedException;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import java.lang.ref.WeakReference;
 
@@ -112,6 +111,11 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     private static final int MAX_PERMITTED_MESSAGE_SIZE = 10 * 1024 * 1024;             // 10 MB (425 offers resulted in about 660 kb, mailbox msg will add more to it) offer has usually 2 kb, mailbox 3kb.
     //TODO decrease limits again after testing
     private static final int SOCKET_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(180);
+    private static final int MAX_BUNDLE_SIZE = (int) (MAX_PERMITTED_MESSAGE_SIZE * 0.9);
+    // After a burst of OUTBOUND_THROTTLE_BURST_SIZE messages we send one message (or bundle) per sendMsgThrottleSleep ms
+    private static final int OUTBOUND_THROTTLE_BURST_SIZE = 10;
+    private static final int INBOUND_THROTTLE_BURST_SIZE = 10;
+    private static final long INBOUND_THROTTLE_INTERVAL_MS = 10;
 
     public static int getPermittedMessageSize() {
         return PERMITTED_MESSAGE_SIZE;
@@ -149,9 +153,12 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
 
     @Getter
     private final ObjectProperty<NodeAddress> peersNodeAddressProperty = new SimpleObjectProperty<>();
-    private final List<Long> messageTimeStamps = new ArrayList<>();
+    // We use the exact sliding window for the rule violation checks. The token buckets are only used for pacing.
+    private final MessageTimeStampWindow messageTimeStamps = new MessageTimeStampWindow(
+            Math.max(getMsgThrottlePerSec(), getMsgThrottlePer10Sec()));
+    private final SendQueue sendQueue = new SendQueue(new TokenBucket(OUTBOUND_THROTTLE_BURST_SIZE, 1,
+            getSendMsgThrottleSleep()));
     private final CopyOnWriteArraySet<MessageListener> messageListeners = new CopyOnWriteArraySet<>();
-    private volatile long lastSendTimeStamp = 0;
     // We use a weak reference here to ensure that no connection causes a memory leak in case it get closed without
     // the shutDown being called.
     private final CopyOnWriteArraySet<WeakReference<SupportedCapabilitiesListener>> capabilitiesListeners = new CopyOnWriteArraySet<>();
@@ -177,12 +184,12 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         this.connectionListener = connectionListener;
         this.networkFilter = networkFilter;
         uid = UUID.randomUUID().toString();
-        statistic = new Statistic();
 
         addMessageListener(messageListener);
 
         this.networkProtoResolver = networkProtoResolver;
         connectionState = new ConnectionState(this);
+        statistic = new Statistic(connectionState::getPeerType);
         connectionStatistics = new ConnectionStatistics(this, connectionState);
         init(peersNodeAddress);
     }
@@ -221,9 +228,8 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         return capabilities;
     }
 
-    private final Object lock = new Object();
-    private final Queue<BundleOfEnvelopes> queueOfBundles = new ConcurrentLinkedQueue<>();
     private final ScheduledExecutorService bundleSender = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicBoolean sendQueueDrainScheduled = new AtomicBoolean();
 
     // Called from various threads
     public void sendMessage(NetworkEnvelope networkEnvelope) {
@@ -246,84 +252,85 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             log.debug("Capability for networkEnvelope is required but not supported");
             return;
         }
-        int networkEnvelopeSize = networkEnvelope.toProtoNetworkEnvelope().getSerializedSize();
         try {
-            // Throttle outbound network_messages
-            long now = System.currentTimeMillis();
-            long elapsed = now - lastSendTimeStamp;
-            if (elapsed < getSendMsgThrottleTrigger()) {
-                log.debug("We got 2 sendMessage requests in less than {} ms. We set the thread to sleep " +
-                                "for {} ms to avoid flooding our peer. lastSendTimeStamp={}, now={}, elapsed={}, networkEnvelope={}",
-                        getSendMsgThrottleTrigger(), getSendMsgThrottleSleep(), lastSendTimeStamp, now, elapsed,
-                        networkEnvelope.getClass().getSimpleName());
-
-                // check if BundleOfEnvelopes is supported
-                if (getCapabilities().containsAll(new Capabilities(Capability.BUNDLE_OF_ENVELOPES))) {
-                    synchronized (lock) {
-                        // check if current envelope fits size
-                        // - no? create new envelope
-
-                        int size = !queueOfBundles.isEmpty() ? queueOfBundles.element().toProtoNetworkEnvelope().getSerializedSize() + networkEnvelopeSize : 0;
-                        if (queueOfBundles.isEmpty() || size > MAX_PERMITTED_MESSAGE_SIZE * 0.9) {
-                            // - no? create a bucket
-                            queueOfBundles.add(new BundleOfEnvelopes());
-
-                            // - and schedule it for sending
-                            lastSendTimeStamp += getSendMsgThrottleSleep();
-
-                            bundleSender.schedule(() -> {
-                                if (!stopped) {
-                                    synchronized (lock) {
-                                        BundleOfEnvelopes bundle = queueOfBundles.poll();
-                                        if (bundle != null && !stopped) {
-                                            NetworkEnvelope envelope;
-                                            int msgSize;
-                                            if (bundle.getEnvelopes().size() == 1) {
-                                                envelope = bundle.getEnvelopes().get(0);
-                                                msgSize = envelope.toProtoNetworkEnvelope().getSerializedSize();
-                                            } else {
-                                                envelope = bundle;
-                                                msgSize = networkEnvelopeSize;
-                                            }
-                                            try {
-                                                protoOutputStream.writeEnvelope(envelope);
-                                                UserThread.execute(() -> messageListeners.forEach(e -> e.onMessageSent(envelope, this)));
-                                                UserThread.execute(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts, msgSize));
-                                            } catch (Throwable t) {
-                                                log.error("Sending envelope of class {} to address {} " +
-                                                                "failed due {}",
-                                                        envelope.getClass().getSimpleName(),
-                                                        this.getPeersNodeAddressOptional(),
-                                                        t.toString());
-                                                log.error("envelope: {}", envelope);
-                                            }
-                                        }
-                                    }
-                                }
-                            }, lastSendTimeStamp - now, TimeUnit.MILLISECONDS);
-                        }
-
-                        // - yes? add to bucket
-                        queueOfBundles.element().add(networkEnvelope);
-                    }
-                    return;
-                }
-
-                Thread.sleep(getSendMsgThrottleSleep());
+            // We serialize only once and use the frame for the size checks, bundling and writing. Broadcast messages
+            // sent to multiple peers are taken from the cache of SerializedEnvelope.
+            SerializedEnvelope serializedEnvelope = SerializedEnvelope.of(networkEnvelope);
+
+            // Throttle outbound network_messages. If we have used up our burst we queue the message instead of
+            // blocking the caller. The queue gets drained in priority order at the rate of the token bucket.
+            MessagePriority priority = MessagePriority.of(networkEnvelope);
+            if (!sendQueue.tryAcquire(priority, ts)) {
+                log.debug("We have to throttle sending of {}. We queue it with priority {}.",
+                        networkEnvelope.getClass().getSimpleName(), priority);
+                sendQueue.add(priority, serializedEnvelope);
+                scheduleSendQueueDrain();
+                return;
             }
 
-            lastSendTimeStamp = now;
-
             if (!stopped) {
-                protoOutputStream.writeEnvelope(networkEnvelope);
-                UserThread.execute(() -> messageListeners.forEach(e -> e.onMessageSent(networkEnvelope, this)));
-                UserThread.execute(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts, networkEnvelopeSize));
+                writeEnvelope(serializedEnvelope, ts);
             }
         } catch (Throwable t) {
             handleException(t);
         }
     }
 
+    private void writeEnvelope(SerializedEnvelope serializedEnvelope, long ts) {
+        NetworkEnvelope envelope = serializedEnvelope.getEnvelope();
+        protoOutputStream.writeEnvelope(serializedEnvelope);
+        UserThread.execute(() -> messageListeners.forEach(e -> e.onMessageSent(envelope, this)));
+        UserThread.execute(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts,
+                serializedEnvelope.getSerializedSize()));
+    }
+
+    private void scheduleSendQueueDrain() {
+        if (!sendQueueDrainScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        long delay = sendQueue.getMillisUntilNextPoll(System.currentTimeMillis());
+        try {
+            bundleSender.schedule(this::drainSendQueue, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // We got shut down in the meantime
+            sendQueueDrainScheduled.set(false);
+        }
+    }
+
+    // Runs on the bundleSender, so never concurrently
+    private void drainSendQueue() {
+        sendQueueDrainScheduled.set(false);
+        if (stopped) {
+            return;
+        }
+
+        // If the peer supports BundleOfEnvelopes we send all queued messages of a priority class which fit into
+        // one message at once
+        boolean bundlingSupported = getCapabilities().containsAll(new Capabilities(Capability.BUNDLE_OF_ENVELOPES));
+        long ts = System.currentTimeMillis();
+        SerializedEnvelope serializedEnvelope;
+        while (!stopped &&
+                (serializedEnvelope = sendQueue.poll(ts, bundlingSupported, MAX_BUNDLE_SIZE)) != null) {
+            try {
+                writeEnvelope(serializedEnvelope, ts);
+            } catch (Throwable t) {
+                NetworkEnvelope envelope = serializedEnvelope.getEnvelope();
+                log.error("Sending envelope of class {} to address {} " +
+                                "failed due {}",
+                        envelope.getClass().getSimpleName(),
+                        this.getPeersNodeAddressOptional(),
+                        t.toString());
+                log.error("envelope: {}", envelope);
+            }
+            ts = System.currentTimeMillis();
+        }
+
+        if (!stopped && !sendQueue.isEmpty()) {
+            scheduleSendQueueDrain();
+        }
+    }
+
     // TODO: If msg is BundleOfEnvelopes we should check each individual message for capability and filter out those
     //  which fail.
     public boolean noCapabilityRequiredOrCapabilityIsSupported(Proto msg) {
@@ -376,50 +383,41 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         capabilitiesListeners.add(new WeakReference<>(listener));
     }
 
+    // Called only from the thread handling the input of that connection
     private boolean violatesThrottleLimit() {
         long now = System.currentTimeMillis();
 
         messageTimeStamps.add(now);
 
-        // clean list
-        while (messageTimeStamps.size() > getMsgThrottlePer10Sec())
-            messageTimeStamps.remove(0);
-
         return violatesThrottleLimit(now, 1, getMsgThrottlePerSec()) ||
                 violatesThrottleLimit(now, 10, getMsgThrottlePer10Sec());
     }
 
-    private int getMsgThrottlePerSec() {
+    private boolean violatesThrottleLimit(long now, int seconds, int messageCountLimit) {
+        // if we received messageCountLimit network_messages in less than seconds sec we received too much
+        if (messageTimeStamps.exceedsLimit(now, messageCountLimit, TimeUnit.SECONDS.toMillis(seconds))) {
+            log.error("violatesThrottleLimit {}/{} second(s)", messageCountLimit, seconds);
+            return true;
+        }
+        return false;
+    }
+
+    private static int getMsgThrottlePerSec() {
         return config != null ? config.msgThrottlePerSec : 200;
     }
 
-    private int getMsgThrottlePer10Sec() {
+    private static int getMsgThrottlePer10Sec() {
         return config != null ? config.msgThrottlePer10Sec : 1000;
     }
 
-    private int getSendMsgThrottleSleep() {
+    private static int getSendMsgThrottleSleep() {
         return config != null ? config.sendMsgThrottleSleep : 50;
     }
 
-    private int getSendMsgThrottleTrigger() {
-        return config != null ? config.sendMsgThrottleTrigger : 20;
-    }
-
-    private boolean violatesThrottleLimit(long now, int seconds, int messageCountLimit) {
-        if (messageTimeStamps.size() >= messageCountLimit) {
-
-            // find the entry in the message timestamp history which determines whether we overshot the limit or not
-            long compareValue = messageTimeStamps.get(messageTimeStamps.size() - messageCountLimit);
-
-            // if duration < seconds sec we received too much network_messages
-            if (now - compareValue < TimeUnit.SECONDS.toMillis(seconds)) {
-                log.error("violatesThrottleLimit {}/{} second(s)", messageCountLimit, seconds);
-
-                return true;
-            }
-        }
-
-        return false;
+    // Short bursts are read without delay, if a peer keeps sending more than one message every
+    // INBOUND_THROTTLE_INTERVAL_MS we slow down reading from its socket.
+    private static TokenBucket createInboundThrottle() {
+        return new TokenBucket(INBOUND_THROTTLE_BURST_SIZE, 1, INBOUND_THROTTLE_INTERVAL_MS);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -566,6 +564,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             protoOutputStream.onConnectionShutdown();
 
             capabilitiesListeners.clear();
+            sendQueue.clear();
 
             try {
                 protoInputStream.close();
@@ -744,7 +743,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     private InputStream protoInputStream;
     private final NetworkProtoResolver networkProtoResolver;
 
-    private long lastReadTimeStamp;
+    private final TokenBucket inboundThrottle = createInboundThrottle();
     private boolean threadNameSet;
 
     @Override
@@ -786,116 +785,136 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                         return;
                     }
 
-                    if (networkFilter != null &&
-                            peersNodeAddressOptional.isPresent() &&
-                            networkFilter.isPeerBanned(peersNodeAddressOptional.get())) {
+                    if (isPeerBanned()) {
                         reportInvalidRequest(RuleViolation.PEER_BANNED);
                         return;
                     }
 
-                    // Throttle inbound network_messages
+                    // Throttle inbound network_messages. We only delay reading from that peer, the wait time
+                    // is the time until the token bucket permits the next message.
                     long now = System.currentTimeMillis();
-                    long elapsed = now - lastReadTimeStamp;
-                    if (elapsed < 10) {
-                        log.debug("We got 2 network_messages received in less than 10 ms. We set the thread to sleep " +
-                                        "for 20 ms to avoid getting flooded by our peer. lastReadTimeStamp={}, now={}, elapsed={}",
-                                lastReadTimeStamp, now, elapsed);
-                        Thread.sleep(20);
+                    if (!inboundThrottle.tryConsume(now)) {
+                        long waitTime = inboundThrottle.getMillisUntilAvailable(now);
+                        log.debug("Our peer exceeded the inbound message rate. We wait {} ms with reading to avoid " +
+                                "getting flooded by our peer.", waitTime);
+                        Thread.sleep(waitTime);
+                        inboundThrottle.tryConsume(System.currentTimeMillis());
                     }
 
                     NetworkEnvelope networkEnvelope = networkProtoResolver.fromProto(proto);
-                    lastReadTimeStamp = now;
-                    log.debug("<< Received networkEnvelope of type: {}", networkEnvelope.getClass().getSimpleName());
-                    int size = proto.getSerializedSize();
-
-                    // We want to track the size of each object even if it is invalid data
-                    statistic.addReceivedBytes(size);
-
-                    // We want to track the network_messages also before the checks, so do it early...
-                    statistic.addReceivedMessage(networkEnvelope);
-
-                    // First we check the size
-                    boolean exceeds;
-                    if (networkEnvelope instanceof ExtendedDataSizePermission) {
-                        exceeds = size > MAX_PERMITTED_MESSAGE_SIZE;
-                    } else {
-                        exceeds = size > PERMITTED_MESSAGE_SIZE;
+                    if (!handleNetworkEnvelope(proto, networkEnvelope, ts)) {
+                        return;
                     }
+                } catch (Throwable t) {
+                    handleInputException(t);
+                }
+            }
+        } catch (Throwable t) {
+            handleException(t);
+        }
+    }
 
-                    if (networkEnvelope instanceof AddPersistableNetworkPayloadMessage &&
-                            !((AddPersistableNetworkPayloadMessage) networkEnvelope).getPersistableNetworkPayload().verifyHashSize()) {
-                        log.warn("PersistableNetworkPayload.verifyHashSize failed. hashSize={}; object={}",
-                                ((AddPersistableNetworkPayloadMessage) networkEnvelope).getPersistableNetworkPayload().getHash().length,
-                                Utilities.toTruncatedString(proto));
-                        if (reportInvalidRequest(RuleViolation.MAX_MSG_SIZE_EXCEEDED))
-                            return;
-                    }
+    private boolean isPeerBanned() {
+        return networkFilter != null &&
+                peersNodeAddressOptional.isPresent() &&
+                networkFilter.isPeerBanned(peersNodeAddressOptional.get());
+    }
 
-                    if (exceeds) {
-                        log.warn("size > MAX_MSG_SIZE. size={}; object={}", size, Utilities.toTruncatedString(proto));
+    // Returns false if we must not process further messages from that connection.
+    private boolean handleNetworkEnvelope(protobuf.NetworkEnvelope proto, NetworkEnvelope networkEnvelope, long ts) {
+        log.debug("<< Received networkEnvelope of type: {}", networkEnvelope.getClass().getSimpleName());
+        int size = proto.getSerializedSize();
 
-                        if (reportInvalidRequest(RuleViolation.MAX_MSG_SIZE_EXCEEDED))
-                            return;
-                    }
+        // We want to track the size of each object even if it is invalid data
+        statistic.addReceivedBytes(size);
 
-                    if (violatesThrottleLimit() && reportInvalidRequest(RuleViolation.THROTTLE_LIMIT_EXCEEDED))
-                        return;
+        // We want to track the network_messages also before the checks, so do it early...
+        statistic.addReceivedMessage(networkEnvelope);
 
-                    // Check P2P network ID
-                    if (proto.getMessageVersion() != Version.getP2PMessageVersion()
-                            && reportInvalidRequest(RuleViolation.WRONG_NETWORK_ID)) {
-                        log.warn("RuleViolation.WRONG_NETWORK_ID. version of message={}, app version={}, " +
-                                        "proto.toTruncatedString={}", proto.getMessageVersion(),
-                                Version.getP2PMessageVersion(),
-                                Utilities.toTruncatedString(proto.toString()));
-                        return;
-                    }
+        // First we check the size
+        boolean exceeds;
+        if (networkEnvelope instanceof ExtendedDataSizePermission) {
+            exceeds = size > MAX_PERMITTED_MESSAGE_SIZE;
+        } else {
+            exceeds = size > PERMITTED_MESSAGE_SIZE;
+        }
 
-                    boolean causedShutDown = maybeHandleSupportedCapabilitiesMessage(networkEnvelope);
-                    if (causedShutDown) {
-                        return;
-                    }
+        if (networkEnvelope instanceof AddPersistableNetworkPayloadMessage &&
+                !((AddPersistableNetworkPayloadMessage) networkEnvelope).getPersistableNetworkPayload().verifyHashSize()) {
+            log.warn("PersistableNetworkPayload.verifyHashSize failed. hashSize={}; object={}",
+                    ((AddPersistableNetworkPayloadMessage) networkEnvelope).getPersistableNetworkPayload().getHash().length,
+                    Utilities.toTruncatedString(proto));
+            if (reportInvalidRequest(RuleViolation.MAX_MSG_SIZE_EXCEEDED))
+                return false;
+        }
 
-                    if (networkEnvelope instanceof CloseConnectionMessage) {
-                        // If we get a CloseConnectionMessage we shut down
-                        log.debug("CloseConnectionMessage received. Reason={}\n\t" +
-                                "connection={}", proto.getCloseConnectionMessage().getReason(), this);
+        if (exceeds) {
+            log.warn("size > MAX_MSG_SIZE. size={}; object={}", size, Utilities.toTruncatedString(proto));
 
-                        if (CloseConnectionReason.PEER_BANNED.name().equals(proto.getCloseConnectionMessage().getReason())) {
-                            log.warn("We got shut down because we are banned by the other peer. " +
-                                    "(InputHandler.run CloseConnectionMessage). Peer: {}", getPeersNodeAddressOptional());
-                        }
-                        shutDown(CloseConnectionReason.CLOSE_REQUESTED_BY_PEER);
-                        return;
-                    } else if (!stopped) {
-                        // We don't want to get the activity ts updated by ping/pong msg
-                        if (!(networkEnvelope instanceof KeepAliveMessage))
-                            statistic.updateLastActivityTimestamp();
-
-                        // If SendersNodeAddressMessage we do some verifications and apply if successful,
-                        // otherwise we return false.
-                        if (networkEnvelope instanceof SendersNodeAddressMessage &&
-                                !processSendersNodeAddressMessage((SendersNodeAddressMessage) networkEnvelope)) {
-                            return;
-                        }
+            if (reportInvalidRequest(RuleViolation.MAX_MSG_SIZE_EXCEEDED))
+                return false;
+        }
 
-                        onMessage(networkEnvelope, this);
-                        UserThread.execute(() -> connectionStatistics.addReceivedMsgMetrics(System.currentTimeMillis() - ts, size));
-                    }
-                } catch (InvalidClassException e) {
-                    log.error(e.getMessage());
-                    e.printStackTrace();
-                    reportInvalidRequest(RuleViolation.INVALID_CLASS);
-                } catch (ProtobufferException | NoClassDefFoundError | InvalidProtocolBufferException e) {
-                    log.error(e.getMessage());
-                    e.printStackTrace();
-                    reportInvalidRequest(RuleViolation.INVALID_DATA_TYPE);
-                } catch (Throwable t) {
-                    handleException(t);
-                }
+        if (violatesThrottleLimit() && reportInvalidRequest(RuleViolation.THROTTLE_LIMIT_EXCEEDED))
+            return false;
+
+        // Check P2P network ID
+        if (proto.getMessageVersion() != Version.getP2PMessageVersion()
+                && reportInvalidRequest(RuleViolation.WRONG_NETWORK_ID)) {
+            log.warn("RuleViolation.WRONG_NETWORK_ID. version of message={}, app version={}, " +
+                            "proto.toTruncatedString={}", proto.getMessageVersion(),
+                    Version.getP2PMessageVersion(),
+                    Utilities.toTruncatedString(proto.toString()));
+            return false;
+        }
+
+        boolean causedShutDown = maybeHandleSupportedCapabilitiesMessage(networkEnvelope);
+        if (causedShutDown) {
+            return false;
+        }
+
+        if (networkEnvelope instanceof CloseConnectionMessage) {
+            // If we get a CloseConnectionMessage we shut down
+            log.debug("CloseConnectionMessage received. Reason={}\n\t" +
+                    "connection={}", proto.getCloseConnectionMessage().getReason(), this);
+
+            if (CloseConnectionReason.PEER_BANNED.name().equals(proto.getCloseConnectionMessage().getReason())) {
+                log.warn("We got shut down because we are banned by the other peer. " +
+                        "(InputHandler.run CloseConnectionMessage). Peer: {}", getPeersNodeAddressOptional());
             }
-        } catch (Throwable t) {
-            handleException(t);
+            shutDown(CloseConnectionReason.CLOSE_REQUESTED_BY_PEER);
+            return false;
+        } else if (!stopped) {
+            // We don't want to get the activity ts updated by ping/pong msg
+            if (!(networkEnvelope instanceof KeepAliveMessage))
+                statistic.updateLastActivityTimestamp();
+
+            // If SendersNodeAddressMessage we do some verifications and apply if successful,
+            // otherwise we return false.
+            if (networkEnvelope instanceof SendersNodeAddressMessage &&
+                    !processSendersNodeAddressMessage((SendersNodeAddressMessage) networkEnvelope)) {
+                return false;
+            }
+
+            onMessage(networkEnvelope, this);
+            UserThread.execute(() -> connectionStatistics.addReceivedMsgMetrics(System.currentTimeMillis() - ts, size));
+        }
+        return true;
+    }
+
+    private void handleInputException(Throwable throwable) {
+        if (throwable instanceof InvalidClassException) {
+            log.error(throwable.getMessage());
+            throwable.printStackTrace();
+            reportInvalidRequest(RuleViolation.INVALID_CLASS);
+        } else if (throwable instanceof ProtobufferException ||
+                throwable instanceof NoClassDefFoundError ||
+                throwable instanceof InvalidProtocolBufferException) {
+            log.error(throwable.getMessage());
+            throwable.printStackTrace();
+            reportInvalidRequest(RuleViolation.INVALID_DATA_TYPE);
+        } else {
+            handleException(throwable);
         }
     }
 
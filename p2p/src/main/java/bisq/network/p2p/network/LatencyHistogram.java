@@ -0,0 +1,84 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed bucket bounds in milliseconds. Recording only touches {@link LongAdder}s, so
+ * it can be called from any thread without contention on a shared lock.
+ */
+public final class LatencyHistogram {
+    private static final long[] DEFAULT_BOUNDS_MS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final long[] bounds;
+    // One adder per bound plus one for values above the highest bound
+    private final LongAdder[] buckets;
+    private final LongAdder sum = new LongAdder();
+
+    public LatencyHistogram() {
+        this(DEFAULT_BOUNDS_MS);
+    }
+
+    LatencyHistogram(long[] bounds) {
+        this.bounds = bounds.clone();
+        buckets = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long valueMs) {
+        int index = 0;
+        while (index < bounds.length && valueMs > bounds[index]) {
+            index++;
+        }
+        buckets[index].increment();
+        sum.add(valueMs);
+    }
+
+    public long[] getBounds() {
+        return bounds.clone();
+    }
+
+    /**
+     * @return The cumulative counts per bound as used by Prometheus histograms. The last element is the total count
+     * and corresponds to the implicit +Inf bound.
+     */
+    public long[] getCumulativeCounts() {
+        long[] counts = new long[buckets.length];
+        long count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            count += buckets[i].sum();
+            counts[i] = count;
+        }
+        return counts;
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.AckMessage;
+import bisq.network.p2p.CloseConnectionMessage;
+import bisq.network.p2p.ExtendedDataSizePermission;
+import bisq.network.p2p.InitialDataRequest;
+import bisq.network.p2p.InitialDataResponse;
+import bisq.network.p2p.peers.keepalive.messages.KeepAliveMessage;
+import bisq.network.p2p.peers.peerexchange.messages.PeerExchangeMessage;
+import bisq.network.p2p.storage.messages.BroadcastMessage;
+
+import bisq.common.proto.network.NetworkEnvelope;
+
+/**
+ * Priority classes of outbound messages, ordered from highest to lowest priority. Control messages are small and
+ * never throttled. The other classes share the send rate of a connection, a higher class is always sent first.
+ */
+enum MessagePriority {
+    CONTROL,
+    // Direct messages like the trade and mailbox messages
+    DIRECT,
+    BROADCAST,
+    // Data sync like the initial data requests, GetDataResponse or DAO blocks
+    BULK;
+
+    static MessagePriority of(NetworkEnvelope networkEnvelope) {
+        if (networkEnvelope instanceof KeepAliveMessage ||
+                networkEnvelope instanceof CloseConnectionMessage ||
+                networkEnvelope instanceof PeerExchangeMessage ||
+                networkEnvelope instanceof AckMessage) {
+            return CONTROL;
+        }
+
+        // BundleOfEnvelopes is a BroadcastMessage as well, so we check that before ExtendedDataSizePermission
+        if (networkEnvelope instanceof BroadcastMessage) {
+            return BROADCAST;
+        }
+
+        if (networkEnvelope instanceof ExtendedDataSizePermission ||
+                networkEnvelope instanceof InitialDataRequest ||
+                networkEnvelope instanceof InitialDataResponse) {
+            return BULK;
+        }
+
+        return DIRECT;
+    }
+}
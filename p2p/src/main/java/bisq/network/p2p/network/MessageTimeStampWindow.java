@@ -0,0 +1,61 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Keeps the time stamps of the last received messages in a ring buffer to check exactly how many messages we received
+ * in a sliding time window. Used for the throttle rule violation checks. Unlike a token bucket it does not allow a
+ * burst on top of the limit. Time is passed in by the caller, so that it can be used with a fixed time in tests.
+ */
+@NotThreadSafe
+class MessageTimeStampWindow {
+    private final long[] timeStamps;
+    // Index where the next time stamp gets written
+    private int next;
+    private int size;
+
+    /**
+     * @param capacity  Max. number of time stamps we keep. Must not be smaller than the largest messageCountLimit
+     *                  used with {@link #exceedsLimit(long, int, long)}.
+     */
+    MessageTimeStampWindow(int capacity) {
+        this.timeStamps = new long[Math.max(1, capacity)];
+    }
+
+    void add(long now) {
+        timeStamps[next] = now;
+        next = (next + 1) % timeStamps.length;
+        size = Math.min(size + 1, timeStamps.length);
+    }
+
+    /**
+     * @return true if the last messageCountLimit messages, including the message added at now, have been received
+     * within windowMillis.
+     */
+    boolean exceedsLimit(long now, int messageCountLimit, long windowMillis) {
+        if (messageCountLimit <= 0 || size < messageCountLimit) {
+            return false;
+        }
+
+        // The time stamp of the messageCountLimit-th newest message
+        int index = Math.floorMod(next - messageCountLimit, timeStamps.length);
+        return now - timeStamps[index] < windowMillis;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.common.config.Config;
+import bisq.common.taskrunner.TaskMetrics;
+import bisq.common.util.Utilities;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import java.nio.charset.StandardCharsets;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Optional HTTP endpoint serving the network and task metrics in the Prometheus text exposition format at /metrics.
+ * It is only started if the metricsPort option is set and only binds to the loopback address, so it has to be
+ * exposed explicitly (e.g. by a reverse proxy) if a remote Prometheus server should scrape it.
+ *
+ * All values are read from the lock-free counters, so scraping does not touch the user thread.
+ */
+@Slf4j
+public class NetworkMetricsServer {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final NetworkNode networkNode;
+    private final int port;
+    @Nullable
+    private HttpServer httpServer;
+    @Nullable
+    private ExecutorService executor;
+
+    @Inject
+    public NetworkMetricsServer(NetworkNode networkNode, @Named(Config.METRICS_PORT) int port) {
+        this.networkNode = networkNode;
+        this.port = port;
+    }
+
+    public void start() {
+        if (port == Config.UNSPECIFIED_PORT || httpServer != null) {
+            return;
+        }
+
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            executor = Utilities.getSingleThreadExecutor("NetworkMetricsServer");
+            httpServer.setExecutor(executor);
+            httpServer.createContext("/metrics", this::handleRequest);
+            httpServer.start();
+            log.info("Metrics server started at http://localhost:{}/metrics", port);
+        } catch (IOException e) {
+            log.error("Could not start metrics server at port {}", port, e);
+            shutDown();
+        }
+    }
+
+    public void shutDown() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void handleRequest(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] response = getMetrics(networkNode.getAllConnections()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(response);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    static String getMetrics(Set<Connection> connections) {
+        StringBuilder sb = new StringBuilder();
+
+        Map<PeerType, Integer> numConnectionsByPeerType = new EnumMap<>(PeerType.class);
+        for (PeerType peerType : PeerType.values()) {
+            numConnectionsByPeerType.put(peerType, 0);
+        }
+        connections.forEach(connection -> numConnectionsByPeerType.merge(connection.getConnectionState().getPeerType(),
+                1, Integer::sum));
+        appendHeader(sb, "bisq_p2p_connections", "gauge", "Number of open connections");
+        numConnectionsByPeerType.forEach((peerType, num) ->
+                appendSample(sb, "bisq_p2p_connections", "peer_type", peerType.name(), num));
+
+        appendHeader(sb, "bisq_p2p_sent_bytes_total", "counter", "Bytes sent to peers");
+        for (PeerType peerType : PeerType.values()) {
+            appendSample(sb, "bisq_p2p_sent_bytes_total", "peer_type", peerType.name(), Statistic.getSentBytes(peerType));
+        }
+        appendHeader(sb, "bisq_p2p_received_bytes_total", "counter", "Bytes received from peers");
+        for (PeerType peerType : PeerType.values()) {
+            appendSample(sb, "bisq_p2p_received_bytes_total", "peer_type", peerType.name(), Statistic.getReceivedBytes(peerType));
+        }
+
+        appendHeader(sb, "bisq_p2p_sent_messages_total", "counter", "Messages sent to peers");
+        Statistic.getTotalSentMessagesByType().forEach((messageType, num) ->
+                appendSample(sb, "bisq_p2p_sent_messages_total", "message_type", messageType, num));
+        appendHeader(sb, "bisq_p2p_received_messages_total", "counter", "Messages received from peers");
+        Statistic.getTotalReceivedMessagesByType().forEach((messageType, num) ->
+                appendSample(sb, "bisq_p2p_received_messages_total", "message_type", messageType, num));
+
+        String rtt = "bisq_p2p_round_trip_time_ms";
+        appendHeader(sb, rtt, "histogram", "Measured round trip time of keep alive messages in milliseconds");
+        for (PeerType peerType : PeerType.values()) {
+            LatencyHistogram histogram = Statistic.getRoundTripTimeHistogram(peerType);
+            long[] bounds = histogram.getBounds();
+            long[] counts = histogram.getCumulativeCounts();
+            String label = "peer_type=\"" + peerType.name() + "\"";
+            for (int i = 0; i < bounds.length; i++) {
+                sb.append(rtt).append("_bucket{").append(label).append(",le=\"").append(bounds[i]).append("\"} ")
+                        .append(counts[i]).append('\n');
+            }
+            sb.append(rtt).append("_bucket{").append(label).append(",le=\"+Inf\"} ")
+                    .append(counts[bounds.length]).append('\n');
+            sb.append(rtt).append("_sum{").append(label).append("} ").append(histogram.getSum()).append('\n');
+            sb.append(rtt).append("_count{").append(label).append("} ").append(counts[bounds.length]).append('\n');
+        }
+
+        Map<String, TaskMetrics> taskMetrics = TaskMetrics.getMetricsByTaskName();
+        appendHeader(sb, "bisq_task_runs_total", "counter", "Task runs including failed ones");
+        taskMetrics.forEach((task, metrics) -> appendSample(sb, "bisq_task_runs_total", "task", task, metrics.getNumRuns()));
+        appendHeader(sb, "bisq_task_failures_total", "counter", "Failed task runs");
+        taskMetrics.forEach((task, metrics) -> appendSample(sb, "bisq_task_failures_total", "task", task, metrics.getNumFailures()));
+        appendHeader(sb, "bisq_task_duration_ms_total", "counter", "Accumulated task run duration in milliseconds");
+        taskMetrics.forEach((task, metrics) -> appendSample(sb, "bisq_task_duration_ms_total", "task", task, metrics.getTotalMillis()));
+        appendHeader(sb, "bisq_task_duration_ms_max", "gauge", "Longest task run duration in milliseconds");
+        taskMetrics.forEach((task, metrics) -> appendSample(sb, "bisq_task_duration_ms_max", "task", task, metrics.getMaxMillis()));
+
+        return sb.toString();
+    }
+
+    private static void appendHeader(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    // Label values are class and enum names, so they never need escaping
+    private static void appendSample(StringBuilder sb, String name, String labelName, String labelValue, long value) {
+        sb.append(name).append('{').append(labelName).append("=\"").append(labelValue).append("\"} ")
+                .append(value).append('\n');
+    }
+}
@@ -41,9 +41,9 @@ class ProtoOutputStream {
         this.statistic = statistic;
     }
 
-    void writeEnvelope(NetworkEnvelope envelope) {
+    void writeEnvelope(SerializedEnvelope serializedEnvelope) {
         try {
-            writeEnvelopeOrThrow(envelope);
+            writeEnvelopeOrThrow(serializedEnvelope);
         } catch (IOException e) {
             log.error("Failed to write envelope", e);
             throw new BisqRuntimeException("Failed to write envelope", e);
@@ -58,12 +58,12 @@ class ProtoOutputStream {
         }
     }
 
-    private void writeEnvelopeOrThrow(NetworkEnvelope envelope) throws IOException {
-        protobuf.NetworkEnvelope proto = envelope.toProtoNetworkEnvelope();
-        proto.writeDelimitedTo(delegate);
+    private void writeEnvelopeOrThrow(SerializedEnvelope serializedEnvelope) throws IOException {
+        serializedEnvelope.writeDelimitedTo(delegate);
         delegate.flush();
 
-        statistic.addSentBytes(proto.getSerializedSize());
+        NetworkEnvelope envelope = serializedEnvelope.getEnvelope();
+        statistic.addSentBytes(serializedEnvelope.getSerializedSize());
         statistic.addSentMessage(envelope);
 
         if (!(envelope instanceof KeepAliveMessage)) {
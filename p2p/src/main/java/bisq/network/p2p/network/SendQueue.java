@@ -0,0 +1,117 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Outbound flow control of a connection. Messages are sent right away as long as the token bucket permits it and
+ * nothing is queued. Otherwise they are queued per priority class and get polled in priority order once a token is
+ * available, so a trade message never waits behind queued bulk data. Control messages are not throttled.
+ */
+@ThreadSafe
+class SendQueue {
+    private final TokenBucket tokenBucket;
+    private final Map<MessagePriority, Queue<SerializedEnvelope>> queues = new EnumMap<>(MessagePriority.class);
+    private int size;
+
+    SendQueue(TokenBucket tokenBucket) {
+        this.tokenBucket = tokenBucket;
+        for (MessagePriority priority : MessagePriority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * @return True if a message of the given priority can be sent right away. We never overtake queued messages.
+     */
+    synchronized boolean tryAcquire(MessagePriority priority, long now) {
+        if (priority == MessagePriority.CONTROL) {
+            return true;
+        }
+        return size == 0 && tokenBucket.tryConsume(now);
+    }
+
+    synchronized void add(MessagePriority priority, SerializedEnvelope serializedEnvelope) {
+        queues.get(priority).add(serializedEnvelope);
+        size++;
+    }
+
+    /**
+     * Polls the queued messages of the highest priority class if we have a token available. If bundling is
+     * supported we send as many messages of that class as fit into maxBundleSize in one BundleOfEnvelopes.
+     *
+     * @return The envelope to send or null if the queue is empty or we have to wait for the next token.
+     */
+    @Nullable
+    synchronized SerializedEnvelope poll(long now, boolean bundlingSupported, int maxBundleSize) {
+        if (size == 0) {
+            return null;
+        }
+
+        Queue<SerializedEnvelope> queue = getQueueWithHighestPriority();
+        if (queue != queues.get(MessagePriority.CONTROL) && !tokenBucket.tryConsume(now)) {
+            return null;
+        }
+
+        if (!bundlingSupported) {
+            size--;
+            return queue.poll();
+        }
+
+        SerializedEnvelope.BundleBuilder bundleBuilder = new SerializedEnvelope.BundleBuilder();
+        do {
+            bundleBuilder.add(queue.poll());
+            size--;
+        } while (!queue.isEmpty() &&
+                bundleBuilder.getSerializedSizeWith(queue.element().getSerializedSize()) <= maxBundleSize);
+        return bundleBuilder.build();
+    }
+
+    synchronized long getMillisUntilNextPoll(long now) {
+        if (size == 0 || !queues.get(MessagePriority.CONTROL).isEmpty()) {
+            return 0;
+        }
+        return tokenBucket.getMillisUntilAvailable(now);
+    }
+
+    synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    synchronized void clear() {
+        queues.values().forEach(Queue::clear);
+        size = 0;
+    }
+
+    private Queue<SerializedEnvelope> getQueueWithHighestPriority() {
+        for (MessagePriority priority : MessagePriority.values()) {
+            Queue<SerializedEnvelope> queue = queues.get(priority);
+            if (!queue.isEmpty()) {
+                return queue;
+            }
+        }
+        throw new IllegalStateException("SendQueue is empty but size is " + size);
+    }
+}
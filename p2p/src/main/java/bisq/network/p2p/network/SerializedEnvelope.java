@@ -0,0 +1,211 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.BundleOfEnvelopes;
+import bisq.network.p2p.storage.messages.BroadcastMessage;
+
+import bisq.common.app.Version;
+import bisq.common.proto.network.NetworkEnvelope;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A network envelope together with its length delimited wire frame. The envelope gets serialized once and the frame is
+ * used for the size checks, for bundling and for writing to the stream.
+ *
+ * Broadcast messages are sent unchanged to many peers, so their frames are kept in a small cache keyed by the
+ * identity of the message. Entries are weakly referenced and get dropped once the message is not used anymore.
+ */
+@Immutable
+public final class SerializedEnvelope {
+    private static final long MAX_CACHED_BYTES = 64 * 1024 * 1024;
+
+    private static final Cache<NetworkEnvelope, SerializedEnvelope> BROADCAST_MESSAGE_CACHE = CacheBuilder.newBuilder()
+            .weakKeys()
+            .expireAfterAccess(1, TimeUnit.MINUTES)
+            .maximumWeight(MAX_CACHED_BYTES)
+            .<NetworkEnvelope, SerializedEnvelope>weigher((envelope, serializedEnvelope) -> serializedEnvelope.frame.length)
+            .build();
+
+    public static SerializedEnvelope of(NetworkEnvelope envelope) {
+        if (envelope instanceof BundleOfEnvelopes) {
+            // Bundles are mutable and built per peer, so we assemble them from the frames of the bundled envelopes
+            BundleBuilder bundleBuilder = new BundleBuilder();
+            ((BundleOfEnvelopes) envelope).getEnvelopes().forEach(e -> bundleBuilder.add(of(e)));
+            return bundleBuilder.build(envelope);
+        }
+
+        if (envelope instanceof BroadcastMessage) {
+            try {
+                return BROADCAST_MESSAGE_CACHE.get(envelope, () -> serialize(envelope));
+            } catch (ExecutionException e) {
+                throw new BisqRuntimeException("Failed to serialize envelope", e.getCause());
+            }
+        }
+
+        return serialize(envelope);
+    }
+
+    private static SerializedEnvelope serialize(NetworkEnvelope envelope) {
+        byte[] bytes = envelope.toProtoNetworkEnvelope().toByteArray();
+        int headerSize = CodedOutputStream.computeUInt32SizeNoTag(bytes.length);
+        byte[] frame = new byte[headerSize + bytes.length];
+        try {
+            CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(frame);
+            codedOutputStream.writeUInt32NoTag(bytes.length);
+            codedOutputStream.writeRawBytes(bytes);
+            codedOutputStream.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new BisqRuntimeException("Failed to serialize envelope", e);
+        }
+        return new SerializedEnvelope(envelope, frame, headerSize);
+    }
+
+    @Getter
+    private final NetworkEnvelope envelope;
+    // Varint length prefix followed by the serialized protobuf.NetworkEnvelope
+    private final byte[] frame;
+    private final int headerSize;
+
+    private SerializedEnvelope(NetworkEnvelope envelope, byte[] frame, int headerSize) {
+        this.envelope = envelope;
+        this.frame = frame;
+        this.headerSize = headerSize;
+    }
+
+    /**
+     * @return The serialized size of the protobuf.NetworkEnvelope without the length prefix.
+     */
+    public int getSerializedSize() {
+        return frame.length - headerSize;
+    }
+
+    void writeDelimitedTo(OutputStream outputStream) throws IOException {
+        outputStream.write(frame);
+    }
+
+    private void writeFrameTo(CodedOutputStream codedOutputStream) throws IOException {
+        codedOutputStream.writeRawBytes(frame, 0, frame.length);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // BundleBuilder
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Collects serialized envelopes into the frame of a {@link BundleOfEnvelopes} without serializing the bundled
+     * envelopes again. The resulting bytes are the same as the ones of BundleOfEnvelopes.toProtoNetworkEnvelope().
+     */
+    @NotThreadSafe
+    static final class BundleBuilder {
+        private static final int ENVELOPE_TAG_SIZE = CodedOutputStream.computeTagSize(
+                protobuf.BundleOfEnvelopes.ENVELOPES_FIELD_NUMBER);
+
+        private final List<SerializedEnvelope> envelopes = new ArrayList<>();
+        // Size of the serialized protobuf.BundleOfEnvelopes
+        private int bundleSize;
+
+        void add(SerializedEnvelope serializedEnvelope) {
+            envelopes.add(serializedEnvelope);
+            // The frame of the envelope is its length prefix followed by its bytes, exactly the repeated field value
+            bundleSize += ENVELOPE_TAG_SIZE + serializedEnvelope.frame.length;
+        }
+
+        boolean isEmpty() {
+            return envelopes.isEmpty();
+        }
+
+        /**
+         * @return The serialized size of the bundle after adding an envelope with the given serialized size.
+         */
+        int getSerializedSizeWith(int serializedSize) {
+            int newBundleSize = bundleSize + ENVELOPE_TAG_SIZE +
+                    CodedOutputStream.computeUInt32SizeNoTag(serializedSize) + serializedSize;
+            return computeEnvelopeSize(newBundleSize, Version.getP2PMessageVersion());
+        }
+
+        /**
+         * @return A single envelope is returned as it is, more envelopes get wrapped into a BundleOfEnvelopes.
+         */
+        SerializedEnvelope build() {
+            if (envelopes.size() == 1) {
+                return envelopes.get(0);
+            }
+
+            List<NetworkEnvelope> bundledEnvelopes = new ArrayList<>(envelopes.size());
+            envelopes.forEach(e -> bundledEnvelopes.add(e.getEnvelope()));
+            return build(new BundleOfEnvelopes(bundledEnvelopes));
+        }
+
+        private SerializedEnvelope build(NetworkEnvelope bundle) {
+            int messageVersion = bundle.getNetworkEnvelopeBuilder().getMessageVersion();
+            int envelopeSize = computeEnvelopeSize(bundleSize, messageVersion);
+            int headerSize = CodedOutputStream.computeUInt32SizeNoTag(envelopeSize);
+            byte[] frame = new byte[headerSize + envelopeSize];
+            try {
+                CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(frame);
+                codedOutputStream.writeUInt32NoTag(envelopeSize);
+                if (messageVersion != 0) {
+                    codedOutputStream.writeInt32(protobuf.NetworkEnvelope.MESSAGE_VERSION_FIELD_NUMBER, messageVersion);
+                }
+                codedOutputStream.writeTag(protobuf.NetworkEnvelope.BUNDLE_OF_ENVELOPES_FIELD_NUMBER,
+                        WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                codedOutputStream.writeUInt32NoTag(bundleSize);
+                for (SerializedEnvelope serializedEnvelope : envelopes) {
+                    codedOutputStream.writeTag(protobuf.BundleOfEnvelopes.ENVELOPES_FIELD_NUMBER,
+                            WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                    serializedEnvelope.writeFrameTo(codedOutputStream);
+                }
+                codedOutputStream.checkNoSpaceLeft();
+            } catch (IOException e) {
+                throw new BisqRuntimeException("Failed to serialize bundle", e);
+            }
+            return new SerializedEnvelope(bundle, frame, headerSize);
+        }
+
+        private static int computeEnvelopeSize(int bundleSize, int messageVersion) {
+            // Like protobuf we omit the message version if it has the default value
+            int messageVersionSize = messageVersion != 0 ?
+                    CodedOutputStream.computeInt32Size(protobuf.NetworkEnvelope.MESSAGE_VERSION_FIELD_NUMBER, messageVersion) :
+                    0;
+            return messageVersionSize +
+                    CodedOutputStream.computeTagSize(protobuf.NetworkEnvelope.BUNDLE_OF_ENVELOPES_FIELD_NUMBER) +
+                    CodedOutputStream.computeUInt32SizeNoTag(bundleSize) +
+                    bundleSize;
+        }
+    }
+}
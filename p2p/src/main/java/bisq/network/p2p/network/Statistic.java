@@ -27,16 +27,28 @@ import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleLongProperty;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Network statistics per connection. As we are also interested in total network statistics
  * we use static properties to get traffic of all connections combined.
+ *
+ * Counters are updated from the connection threads with lock-free adders. The JavaFX properties are only refreshed
+ * once per second on the user thread, so a busy node does not need to post a user thread task for each message.
  */
 @Slf4j
 public class Statistic {
@@ -47,21 +59,36 @@ public class Statistic {
 
 
     private final static long startTime = System.currentTimeMillis();
+    private final static LongAdder totalSentBytesCounter = new LongAdder();
+    private final static LongAdder totalReceivedBytesCounter = new LongAdder();
+    private final static Map<String, LongAdder> totalReceivedMessages = new ConcurrentHashMap<>();
+    private final static Map<String, LongAdder> totalSentMessages = new ConcurrentHashMap<>();
+    // The enum maps are fully populated at class init and never modified afterwards, so concurrent reads are safe
+    private final static Map<PeerType, LongAdder> sentBytesByPeerType = newAdderByPeerTypeMap();
+    private final static Map<PeerType, LongAdder> receivedBytesByPeerType = newAdderByPeerTypeMap();
+    private final static Map<PeerType, LatencyHistogram> roundTripTimeByPeerType = new EnumMap<>(PeerType.class);
+    // Weak set so that statistics of closed connections are not kept alive only for refreshing their properties
+    private final static Set<Statistic> statistics = Collections.newSetFromMap(Collections.synchronizedMap(new WeakHashMap<>()));
+
     private final static LongProperty totalSentBytes = new SimpleLongProperty(0);
     private final static DoubleProperty totalSentBytesPerSec = new SimpleDoubleProperty(0);
     private final static LongProperty totalReceivedBytes = new SimpleLongProperty(0);
     private final static DoubleProperty totalReceivedBytesPerSec = new SimpleDoubleProperty(0);
-    private final static Map<String, Integer> totalReceivedMessages = new ConcurrentHashMap<>();
-    private final static Map<String, Integer> totalSentMessages = new ConcurrentHashMap<>();
     private final static LongProperty numTotalSentMessages = new SimpleLongProperty(0);
     private final static DoubleProperty numTotalSentMessagesPerSec = new SimpleDoubleProperty(0);
     private final static LongProperty numTotalReceivedMessages = new SimpleLongProperty(0);
     private final static DoubleProperty numTotalReceivedMessagesPerSec = new SimpleDoubleProperty(0);
 
     static {
+        for (PeerType peerType : PeerType.values()) {
+            roundTripTimeByPeerType.put(peerType, new LatencyHistogram());
+        }
+
         UserThread.runPeriodically(() -> {
-            numTotalSentMessages.set(totalSentMessages.values().stream().mapToInt(Integer::intValue).sum());
-            numTotalReceivedMessages.set(totalReceivedMessages.values().stream().mapToInt(Integer::intValue).sum());
+            numTotalSentMessages.set(sum(totalSentMessages));
+            numTotalReceivedMessages.set(sum(totalReceivedMessages));
+            totalSentBytes.set(totalSentBytesCounter.sum());
+            totalReceivedBytes.set(totalReceivedBytesCounter.sum());
 
             long passed = (System.currentTimeMillis() - startTime) / 1000;
             numTotalSentMessagesPerSec.set(((double) numTotalSentMessages.get()) / passed);
@@ -69,6 +96,12 @@ public class Statistic {
 
             totalSentBytesPerSec.set(((double) totalSentBytes.get()) / passed);
             totalReceivedBytesPerSec.set(((double) totalReceivedBytes.get()) / passed);
+
+            List<Statistic> liveStatistics;
+            synchronized (statistics) {
+                liveStatistics = new ArrayList<>(statistics);
+            }
+            liveStatistics.forEach(Statistic::refreshProperties);
         }, 1);
 
         // We log statistics every 5 minutes
@@ -122,17 +155,76 @@ public class Statistic {
         return numTotalReceivedMessagesPerSec;
     }
 
+    // Thread safe accessors for exporting the current counter values without going through the user thread
+
+    static long getTotalSentBytes() {
+        return totalSentBytesCounter.sum();
+    }
+
+    static long getTotalReceivedBytes() {
+        return totalReceivedBytesCounter.sum();
+    }
+
+    static Map<String, Long> getTotalSentMessagesByType() {
+        return toSortedSums(totalSentMessages);
+    }
+
+    static Map<String, Long> getTotalReceivedMessagesByType() {
+        return toSortedSums(totalReceivedMessages);
+    }
+
+    static long getSentBytes(PeerType peerType) {
+        return sentBytesByPeerType.get(peerType).sum();
+    }
+
+    static long getReceivedBytes(PeerType peerType) {
+        return receivedBytesByPeerType.get(peerType).sum();
+    }
+
+    static LatencyHistogram getRoundTripTimeHistogram(PeerType peerType) {
+        return roundTripTimeByPeerType.get(peerType);
+    }
+
+    private static Map<PeerType, LongAdder> newAdderByPeerTypeMap() {
+        Map<PeerType, LongAdder> map = new EnumMap<>(PeerType.class);
+        for (PeerType peerType : PeerType.values()) {
+            map.put(peerType, new LongAdder());
+        }
+        return map;
+    }
+
+    private static void increment(Map<String, LongAdder> map, String key) {
+        LongAdder counter = map.get(key);
+        if (counter == null) {
+            counter = map.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    private static long sum(Map<String, LongAdder> map) {
+        return map.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private static Map<String, Long> toSortedSums(Map<String, LongAdder> map) {
+        Map<String, Long> result = new TreeMap<>();
+        map.forEach((key, counter) -> result.put(key, counter.sum()));
+        return result;
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Instance fields
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private final Date creationDate;
-    private long lastActivityTimestamp = System.currentTimeMillis();
+    private final Supplier<PeerType> peerTypeSupplier;
+    private volatile long lastActivityTimestamp = System.currentTimeMillis();
+    private final LongAdder sentBytesCounter = new LongAdder();
+    private final LongAdder receivedBytesCounter = new LongAdder();
     private final LongProperty sentBytes = new SimpleLongProperty(0);
     private final LongProperty receivedBytes = new SimpleLongProperty(0);
-    private final Map<String, Integer> receivedMessages = new ConcurrentHashMap<>();
-    private final Map<String, Integer> sentMessages = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> receivedMessages = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> sentMessages = new ConcurrentHashMap<>();
     private final IntegerProperty roundTripTime = new SimpleIntegerProperty(0);
 
 
@@ -140,8 +232,10 @@ public class Statistic {
     // Constructor
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    Statistic() {
+    Statistic(Supplier<PeerType> peerTypeSupplier) {
+        this.peerTypeSupplier = peerTypeSupplier;
         creationDate = new Date();
+        statistics.add(this);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -149,58 +243,50 @@ public class Statistic {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     void updateLastActivityTimestamp() {
-        UserThread.execute(() -> lastActivityTimestamp = System.currentTimeMillis());
+        lastActivityTimestamp = System.currentTimeMillis();
     }
 
     void addSentBytes(int value) {
-        UserThread.execute(() -> {
-            sentBytes.set(sentBytes.get() + value);
-            totalSentBytes.set(totalSentBytes.get() + value);
-        });
+        sentBytesCounter.add(value);
+        totalSentBytesCounter.add(value);
+        sentBytesByPeerType.get(peerTypeSupplier.get()).add(value);
     }
 
     void addReceivedBytes(int value) {
-        UserThread.execute(() -> {
-            receivedBytes.set(receivedBytes.get() + value);
-            totalReceivedBytes.set(totalReceivedBytes.get() + value);
-        });
+        receivedBytesCounter.add(value);
+        totalReceivedBytesCounter.add(value);
+        receivedBytesByPeerType.get(peerTypeSupplier.get()).add(value);
     }
 
     // TODO would need msg inspection to get useful information...
     void addReceivedMessage(NetworkEnvelope networkEnvelope) {
         String messageClassName = networkEnvelope.getClass().getSimpleName();
-        int counter = 1;
-        if (receivedMessages.containsKey(messageClassName)) {
-            counter = receivedMessages.get(messageClassName) + 1;
-        }
-        receivedMessages.put(messageClassName, counter);
-
-        counter = 1;
-        if (totalReceivedMessages.containsKey(messageClassName)) {
-            counter = totalReceivedMessages.get(messageClassName) + 1;
-        }
-        totalReceivedMessages.put(messageClassName, counter);
+        increment(receivedMessages, messageClassName);
+        increment(totalReceivedMessages, messageClassName);
     }
 
     void addSentMessage(NetworkEnvelope networkEnvelope) {
         String messageClassName = networkEnvelope.getClass().getSimpleName();
-        int counter = 1;
-        if (sentMessages.containsKey(messageClassName)) {
-            counter = sentMessages.get(messageClassName) + 1;
-        }
-        sentMessages.put(messageClassName, counter);
-
-        counter = 1;
-        if (totalSentMessages.containsKey(messageClassName)) {
-            counter = totalSentMessages.get(messageClassName) + 1;
-        }
-        totalSentMessages.put(messageClassName, counter);
+        increment(sentMessages, messageClassName);
+        increment(totalSentMessages, messageClassName);
     }
 
+    // Used for the round trip time reported by the peer. We only display it but do not add it to our histogram.
     public void setRoundTripTime(int roundTripTime) {
         this.roundTripTime.set(roundTripTime);
     }
 
+    // Used for the round trip time we measured ourselves
+    public void recordRoundTripTime(int roundTripTime) {
+        this.roundTripTime.set(roundTripTime);
+        roundTripTimeByPeerType.get(peerTypeSupplier.get()).record(roundTripTime);
+    }
+
+    private void refreshProperties() {
+        sentBytes.set(sentBytesCounter.sum());
+        receivedBytes.set(receivedBytesCounter.sum());
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Getters
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -214,7 +300,7 @@ public class Statistic {
     }
 
     public long getSentBytes() {
-        return sentBytes.get();
+        return sentBytesCounter.sum();
     }
 
     public LongProperty sentBytesProperty() {
@@ -222,7 +308,7 @@ public class Statistic {
     }
 
     public long getReceivedBytes() {
-        return receivedBytes.get();
+        return receivedBytesCounter.sum();
     }
 
     public LongProperty receivedBytesProperty() {
@@ -242,8 +328,8 @@ public class Statistic {
         return "Statistic{" +
                 "\n     creationDate=" + creationDate +
                 ",\n     lastActivityTimestamp=" + lastActivityTimestamp +
-                ",\n     sentBytes=" + sentBytes +
-                ",\n     receivedBytes=" + receivedBytes +
+                ",\n     sentBytes=" + sentBytesCounter +
+                ",\n     receivedBytes=" + receivedBytesCounter +
                 ",\n     receivedMessages=" + receivedMessages +
                 ",\n     sentMessages=" + sentMessages +
                 ",\n     roundTripTime=" + roundTripTime +
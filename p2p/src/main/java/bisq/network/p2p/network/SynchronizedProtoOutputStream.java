@@ -17,8 +17,6 @@
 
 package bisq.network.p2p.network;
 
-import bisq.common.proto.network.NetworkEnvelope;
-
 import java.io.OutputStream;
 
 import java.util.concurrent.ExecutionException;
@@ -43,8 +41,8 @@ class SynchronizedProtoOutputStream extends ProtoOutputStream {
     }
 
     @Override
-    void writeEnvelope(NetworkEnvelope envelope) {
-        Future<?> future = executorService.submit(() -> super.writeEnvelope(envelope));
+    void writeEnvelope(SerializedEnvelope serializedEnvelope) {
+        Future<?> future = executorService.submit(() -> super.writeEnvelope(serializedEnvelope));
         try {
             future.get();
         } catch (InterruptedException e) {
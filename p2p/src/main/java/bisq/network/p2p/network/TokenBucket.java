@@ -0,0 +1,70 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Classic token bucket: Up to capacity tokens can be used in a burst, afterwards tokens are refilled at a constant
+ * rate. Time is passed in by the caller, so that it can be used with the current time or a fixed time in tests.
+ */
+@NotThreadSafe
+class TokenBucket {
+    private final double capacity;
+    private final double tokensPerMilli;
+    private double tokens;
+    private long lastRefillTimeStamp;
+
+    /**
+     * @param capacity          Max. number of tokens which can be used in a burst
+     * @param tokensPerPeriod   Number of tokens refilled per period
+     * @param periodMillis      Length of the period in ms
+     */
+    TokenBucket(int capacity, int tokensPerPeriod, long periodMillis) {
+        this.capacity = capacity;
+        this.tokensPerMilli = (double) tokensPerPeriod / periodMillis;
+        this.tokens = capacity;
+    }
+
+    boolean tryConsume(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            tokens--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return 0 if a token is available, otherwise the time until the next token gets available.
+     */
+    long getMillisUntilAvailable(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerMilli);
+    }
+
+    private void refill(long now) {
+        if (now > lastRefillTimeStamp) {
+            tokens = Math.min(capacity, tokens + (now - lastRefillTimeStamp) * tokensPerMilli);
+            lastRefillTimeStamp = now;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.peers.getdata;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import bisq.common.proto.network.NetworkPayload;
+
+import com.google.protobuf.ByteString;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Invertible Bloom Lookup Table (IBLT) used for set reconciliation of the keys of our data stores.
+ * The requester inserts all its known keys and sends the table instead of the full list of excluded keys. The
+ * responder inserts its own keys into a table of the same size, subtracts the requesters table and decodes the
+ * difference. The size of the table only depends on the expected size of the difference, not on the number of keys.
+ * If the difference is too large the table cannot be decoded and the requester falls back to the excluded keys.
+ *
+ * Keys are the 20 or 32 byte hashes of our payloads. We store the length in the first byte of a cell's key sum,
+ * so keys up to MAX_KEY_LENGTH bytes are supported.
+ */
+@Slf4j
+@EqualsAndHashCode
+public final class InvertibleBloomLookupTable implements NetworkPayload {
+    public static final int MAX_KEY_LENGTH = 32;
+    // Cap to protect against malicious requests as the responder allocates a table of the requested size.
+    public static final int MAX_NUM_CELLS = 30_000;
+    private static final int KEY_SUM_LENGTH = MAX_KEY_LENGTH + 1;
+    // Upper bound of the serialized size of a cell. The count is a zigzag encoded varint and the hash sum a fixed64.
+    private static final int MAX_SERIALIZED_CELL_SIZE = KEY_SUM_LENGTH + 5 + Long.BYTES;
+    // Tag and length prefix of our 3 fields
+    private static final int MAX_SERIALIZED_FIELDS_OVERHEAD = 3 * 6;
+    private static final int NUM_HASH_FUNCTIONS = 3;
+    private static final HashFunction CHECKSUM_FUNCTION = Hashing.murmur3_128();
+    private static final HashFunction[] INDEX_FUNCTIONS = new HashFunction[NUM_HASH_FUNCTIONS];
+
+    static {
+        for (int i = 0; i < NUM_HASH_FUNCTIONS; i++) {
+            INDEX_FUNCTIONS[i] = Hashing.murmur3_32(i + 1);
+        }
+    }
+
+    @Getter
+    private final int numCells;
+    private final int[] counts;
+    private final byte[] keySums;
+    private final long[] hashSums;
+
+    /**
+     * @param minNumCells   Number of cells. Gets rounded up to a multiple of the number of hash functions. With 3 hash
+     *                      functions a table can be decoded with high probability if the size of the difference is
+     *                      below about 80% of the number of cells.
+     */
+    public InvertibleBloomLookupTable(int minNumCells) {
+        this(new int[roundUpNumCells(minNumCells)],
+                new byte[roundUpNumCells(minNumCells) * KEY_SUM_LENGTH],
+                new long[roundUpNumCells(minNumCells)]);
+    }
+
+    private InvertibleBloomLookupTable(int[] counts, byte[] keySums, long[] hashSums) {
+        checkArgument(counts.length > 0 && counts.length <= MAX_NUM_CELLS,
+                "Invalid number of cells. numCells=%s", counts.length);
+        checkArgument(counts.length % NUM_HASH_FUNCTIONS == 0,
+                "Number of cells must be a multiple of %s. numCells=%s", NUM_HASH_FUNCTIONS, counts.length);
+        checkArgument(keySums.length == counts.length * KEY_SUM_LENGTH, "Invalid size of keySums");
+        checkArgument(hashSums.length == counts.length, "Invalid size of hashSums");
+        this.numCells = counts.length;
+        this.counts = counts;
+        this.keySums = keySums;
+        this.hashSums = hashSums;
+    }
+
+    /**
+     * Returns an upper bound of the serialized size in bytes of a table with the given number of cells.
+     */
+    public static long getMaxSerializedSize(int minNumCells) {
+        return (long) roundUpNumCells(minNumCells) * MAX_SERIALIZED_CELL_SIZE + MAX_SERIALIZED_FIELDS_OVERHEAD;
+    }
+
+    private static int roundUpNumCells(int minNumCells) {
+        return Math.max(1, (minNumCells + NUM_HASH_FUNCTIONS - 1) / NUM_HASH_FUNCTIONS) * NUM_HASH_FUNCTIONS;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public protobuf.InvertibleBloomLookupTable toProtoMessage() {
+        return protobuf.InvertibleBloomLookupTable.newBuilder()
+                .addAllCounts(Ints.asList(counts))
+                .setKeySums(ByteString.copyFrom(keySums))
+                .addAllHashSums(Longs.asList(hashSums))
+                .build();
+    }
+
+    public static InvertibleBloomLookupTable fromProto(protobuf.InvertibleBloomLookupTable proto) {
+        return new InvertibleBloomLookupTable(Ints.toArray(proto.getCountsList()),
+                proto.getKeySums().toByteArray(),
+                Longs.toArray(proto.getHashSumsList()));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public void insert(byte[] key) {
+        checkArgument(key.length <= MAX_KEY_LENGTH, "Key must not be longer than %s bytes", MAX_KEY_LENGTH);
+        update(key, 1);
+    }
+
+    public void insertAll(Set<P2PDataStorage.ByteArray> keys) {
+        keys.forEach(key -> insert(key.bytes));
+    }
+
+    /**
+     * Returns a new table which contains the difference of this table and the given table. Keys which are only in
+     * this table have a positive count in the result, keys only in the given table a negative count.
+     */
+    public InvertibleBloomLookupTable subtract(InvertibleBloomLookupTable other) {
+        checkArgument(numCells == other.numCells, "Tables must have the same size. numCells=%s, other.numCells=%s",
+                numCells, other.numCells);
+        int[] resultCounts = new int[numCells];
+        byte[] resultKeySums = new byte[keySums.length];
+        long[] resultHashSums = new long[numCells];
+        for (int i = 0; i < numCells; i++) {
+            resultCounts[i] = counts[i] - other.counts[i];
+            resultHashSums[i] = hashSums[i] ^ other.hashSums[i];
+        }
+        for (int i = 0; i < keySums.length; i++) {
+            resultKeySums[i] = (byte) (keySums[i] ^ other.keySums[i]);
+        }
+        return new InvertibleBloomLookupTable(resultCounts, resultKeySums, resultHashSums);
+    }
+
+    /**
+     * Decodes a table created by {@link #subtract}. The decoding is done on a copy, so this table is not altered.
+     *
+     * @param outPositiveKeys   Receives the keys which were only in the table we subtracted from.
+     * @param outNegativeKeys   Receives the keys which were only in the subtracted table.
+     * @return true if the table could be decoded completely. If false, the result sets are incomplete and must not
+     * be used.
+     */
+    public boolean decode(Set<P2PDataStorage.ByteArray> outPositiveKeys,
+                          Set<P2PDataStorage.ByteArray> outNegativeKeys) {
+        InvertibleBloomLookupTable table = new InvertibleBloomLookupTable(counts.clone(),
+                keySums.clone(),
+                hashSums.clone());
+        Deque<Integer> pureCells = new ArrayDeque<>();
+        for (int i = 0; i < numCells; i++) {
+            if (table.isPure(i)) {
+                pureCells.add(i);
+            }
+        }
+
+        // A table we received from a peer might be crafted so that peeling a key makes another cell of the same key
+        // pure again, which would let us peel it forever. A valid table has each key only once in its difference and
+        // we cannot decode more keys than we have cells, so we stop in both cases.
+        Set<P2PDataStorage.ByteArray> peeledKeys = new HashSet<>();
+        while (!pureCells.isEmpty()) {
+            int index = pureCells.poll();
+            // The cell might not be pure anymore after we removed other keys
+            if (!table.isPure(index)) {
+                continue;
+            }
+
+            byte[] key = table.getKey(index);
+            P2PDataStorage.ByteArray keyAsByteArray = new P2PDataStorage.ByteArray(key);
+            if (!peeledKeys.add(keyAsByteArray) || peeledKeys.size() > numCells) {
+                log.warn("Could not decode InvertibleBloomLookupTable with {} cells as a key was peeled twice or " +
+                        "we peeled more keys than cells. The table is invalid.", numCells);
+                return false;
+            }
+
+            int count = table.counts[index];
+            if (count > 0) {
+                outPositiveKeys.add(keyAsByteArray);
+            } else {
+                outNegativeKeys.add(keyAsByteArray);
+            }
+            table.update(key, -count);
+            for (int cellIndex : getCellIndices(key)) {
+                if (table.isPure(cellIndex)) {
+                    pureCells.add(cellIndex);
+                }
+            }
+        }
+
+        for (int i = 0; i < numCells; i++) {
+            if (table.counts[i] != 0 || table.hashSums[i] != 0) {
+                log.info("Could not decode InvertibleBloomLookupTable with {} cells. We decoded {} keys.",
+                        numCells, outPositiveKeys.size() + outNegativeKeys.size());
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void update(byte[] key, int delta) {
+        long checksum = getChecksum(key);
+        for (int cellIndex : getCellIndices(key)) {
+            counts[cellIndex] += delta;
+            hashSums[cellIndex] ^= checksum;
+            int offset = cellIndex * KEY_SUM_LENGTH;
+            keySums[offset] ^= (byte) key.length;
+            for (int i = 0; i < key.length; i++) {
+                keySums[offset + 1 + i] ^= key[i];
+            }
+        }
+    }
+
+    private boolean isPure(int cellIndex) {
+        int count = counts[cellIndex];
+        if (count != 1 && count != -1) {
+            return false;
+        }
+        byte[] key = getKey(cellIndex);
+        return key != null && hashSums[cellIndex] == getChecksum(key);
+    }
+
+    @Nullable
+    private byte[] getKey(int cellIndex) {
+        int offset = cellIndex * KEY_SUM_LENGTH;
+        int length = keySums[offset] & 0xff;
+        if (length > MAX_KEY_LENGTH) {
+            return null;
+        }
+        return Arrays.copyOfRange(keySums, offset + 1, offset + 1 + length);
+    }
+
+    // We use one hash function per partition of the table, so a key never maps twice to the same cell.
+    private int[] getCellIndices(byte[] key) {
+        int partitionSize = numCells / NUM_HASH_FUNCTIONS;
+        int[] indices = new int[NUM_HASH_FUNCTIONS];
+        for (int i = 0; i < NUM_HASH_FUNCTIONS; i++) {
+            indices[i] = i * partitionSize + Math.floorMod(INDEX_FUNCTIONS[i].hashBytes(key).asInt(), partitionSize);
+        }
+        return indices;
+    }
+
+    private static long getChecksum(byte[] key) {
+        return CHECKSUM_FUNCTION.hashBytes(key).asLong();
+    }
+}
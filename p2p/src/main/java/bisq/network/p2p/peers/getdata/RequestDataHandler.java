@@ -31,6 +31,7 @@ import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
 
 import bisq.common.Timer;
 import bisq.common.UserThread;
+import bisq.common.app.Capability;
 import bisq.common.proto.network.NetworkEnvelope;
 import bisq.common.proto.network.NetworkPayload;
 import bisq.common.util.Tuple2;
@@ -91,6 +92,10 @@ class RequestDataHandler implements MessageListener {
     private Timer timeoutTimer;
     private final int nonce = new Random().nextInt();
     private boolean stopped;
+    private boolean isPreliminaryDataRequest;
+    // We only try set reconciliation once per request. If the peer fails to decode our table we repeat the request
+    // with excluded keys.
+    private boolean reconciliationFailed;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -118,13 +123,17 @@ class RequestDataHandler implements MessageListener {
 
     void requestData(NodeAddress nodeAddress, boolean isPreliminaryDataRequest) {
         peersNodeAddress = nodeAddress;
+        this.isPreliminaryDataRequest = isPreliminaryDataRequest;
         if (!stopped) {
             GetDataRequest getDataRequest;
+            boolean useSetReconciliation = !reconciliationFailed &&
+                    peerManager.peerHasCapability(nodeAddress, Capability.SET_RECONCILIATION);
 
             if (isPreliminaryDataRequest)
-                getDataRequest = dataStorage.buildPreliminaryGetDataRequest(nonce);
+                getDataRequest = dataStorage.buildPreliminaryGetDataRequest(nonce, useSetReconciliation);
             else
-                getDataRequest = dataStorage.buildGetUpdatedDataRequest(networkNode.getNodeAddress(), nonce);
+                getDataRequest = dataStorage.buildGetUpdatedDataRequest(networkNode.getNodeAddress(), nonce,
+                        useSetReconciliation);
 
             if (timeoutTimer == null) {
                 timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
@@ -197,6 +206,15 @@ class RequestDataHandler implements MessageListener {
                             return;
                         }
 
+                        if (getDataResponse.isReconciliationFailed() && !reconciliationFailed) {
+                            log.info("Peer {} could not decode our known keys table. We repeat the request " +
+                                    "with excluded keys.", peersNodeAddress);
+                            reconciliationFailed = true;
+                            dataStorage.onSetReconciliationFailed(isPreliminaryDataRequest);
+                            requestData(peersNodeAddress, isPreliminaryDataRequest);
+                            return;
+                        }
+
                         dataStorage.processGetDataResponse(getDataResponse,
                                 connection.getPeersNodeAddressOptional().get());
 
@@ -19,6 +19,7 @@ package bisq.network.p2p.peers.getdata.messages;
 
 import bisq.network.p2p.ExtendedDataSizePermission;
 import bisq.network.p2p.InitialDataRequest;
+import bisq.network.p2p.peers.getdata.InvertibleBloomLookupTable;
 
 import bisq.common.proto.network.NetworkEnvelope;
 
@@ -44,13 +45,21 @@ public abstract class GetDataRequest extends NetworkEnvelope implements Extended
     @Nullable
     protected final String version;
 
+    // Added at v1.5.6
+    // If the responder supports Capability.SET_RECONCILIATION we send our keys as InvertibleBloomLookupTable instead
+    // of the excludedKeys, which are empty in that case.
+    @Nullable
+    protected final InvertibleBloomLookupTable knownKeysTable;
+
     public GetDataRequest(int messageVersion,
                           int nonce,
                           Set<byte[]> excludedKeys,
-                          @Nullable String version) {
+                          @Nullable String version,
+                          @Nullable InvertibleBloomLookupTable knownKeysTable) {
         super(messageVersion);
         this.nonce = nonce;
         this.excludedKeys = excludedKeys;
         this.version = version;
+        this.knownKeysTable = knownKeysTable;
     }
 }
@@ -19,6 +19,7 @@ package bisq.network.p2p.peers.getdata.messages;
 
 import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.SendersNodeAddressMessage;
+import bisq.network.p2p.peers.getdata.InvertibleBloomLookupTable;
 
 import bisq.common.app.Version;
 import bisq.common.proto.ProtoUtil;
@@ -27,6 +28,7 @@ import protobuf.NetworkEnvelope;
 
 import com.google.protobuf.ByteString;
 
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -50,6 +52,18 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
                 nonce,
                 excludedKeys,
                 Version.VERSION,
+                null,
+                Version.getP2PMessageVersion());
+    }
+
+    public GetUpdatedDataRequest(NodeAddress senderNodeAddress,
+                                 int nonce,
+                                 InvertibleBloomLookupTable knownKeysTable) {
+        this(senderNodeAddress,
+                nonce,
+                new HashSet<>(),
+                Version.VERSION,
+                knownKeysTable,
                 Version.getP2PMessageVersion());
     }
 
@@ -62,11 +76,13 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
                                   int nonce,
                                   Set<byte[]> excludedKeys,
                                   @Nullable String version,
+                                  @Nullable InvertibleBloomLookupTable knownKeysTable,
                                   int messageVersion) {
         super(messageVersion,
                 nonce,
                 excludedKeys,
-                version);
+                version,
+                knownKeysTable);
         this.senderNodeAddress = senderNodeAddress;
     }
 
@@ -79,23 +95,29 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
                         .map(ByteString::copyFrom)
                         .collect(Collectors.toList()));
         Optional.ofNullable(version).ifPresent(builder::setVersion);
+        Optional.ofNullable(knownKeysTable).ifPresent(e -> builder.setKnownKeysTable(e.toProtoMessage()));
         NetworkEnvelope proto = getNetworkEnvelopeBuilder()
                 .setGetUpdatedDataRequest(builder)
                 .build();
-        log.info("Sending a GetUpdatedDataRequest with {} kB and {} excluded key entries. Requesters version={}",
-                proto.getSerializedSize() / 1000d, excludedKeys.size(), version);
+        log.info("Sending a GetUpdatedDataRequest with {} kB, {} excluded key entries and {}. Requesters version={}",
+                proto.getSerializedSize() / 1000d, excludedKeys.size(),
+                knownKeysTable != null ? "a known keys table" : "no known keys table", version);
         return proto;
     }
 
     public static GetUpdatedDataRequest fromProto(protobuf.GetUpdatedDataRequest proto, int messageVersion) {
         Set<byte[]> excludedKeys = ProtoUtil.byteSetFromProtoByteStringList(proto.getExcludedKeysList());
         String requestersVersion = ProtoUtil.stringOrNullFromProto(proto.getVersion());
-        log.info("Received a GetUpdatedDataRequest with {} kB and {} excluded key entries. Requesters version={}",
-                proto.getSerializedSize() / 1000d, excludedKeys.size(), requestersVersion);
+        InvertibleBloomLookupTable knownKeysTable = proto.hasKnownKeysTable() ?
+                InvertibleBloomLookupTable.fromProto(proto.getKnownKeysTable()) : null;
+        log.info("Received a GetUpdatedDataRequest with {} kB, {} excluded key entries and {}. Requesters version={}",
+                proto.getSerializedSize() / 1000d, excludedKeys.size(),
+                knownKeysTable != null ? "a known keys table" : "no known keys table", requestersVersion);
         return new GetUpdatedDataRequest(NodeAddress.fromProto(proto.getSenderNodeAddress()),
                 proto.getNonce(),
                 excludedKeys,
                 requestersVersion,
+                knownKeysTable,
                 messageVersion);
     }
 }
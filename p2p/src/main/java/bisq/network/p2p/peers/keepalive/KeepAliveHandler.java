@@ -148,7 +148,7 @@ class KeepAliveHandler implements MessageListener {
                 Pong pong = (Pong) networkEnvelope;
                 if (pong.getRequestNonce() == nonce) {
                     int roundTripTime = (int) (System.currentTimeMillis() - sendTs);
-                    connection.getStatistic().setRoundTripTime(roundTripTime);
+                    connection.getStatistic().recordRoundTripTime(roundTripTime);
                     cleanup();
                     listener.onComplete();
                 } else {
@@ -0,0 +1,235 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import bisq.network.p2p.storage.payload.DateSortedTruncatablePayload;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import bisq.common.app.Capabilities;
+import bisq.common.app.Version;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Caches the PersistableNetworkPayloads we deliver in a GetDataResponse per requesters version and capabilities.
+ * Seed nodes get many requests with nearly identical inputs, so instead of building the maps of all append-only
+ * services, filtering by capabilities and sorting the DateSortedTruncatablePayloads at each request we keep a
+ * pre-filtered and pre-sorted view of the hashes and only filter out the requesters excluded keys. The payloads are
+ * looked up in the map of the append-only services when we deliver them.
+ *
+ * New payloads are added to all views incrementally. Bulk changes which bypass P2PDataStorage#onAdded need to call
+ * invalidate. Not thread safe, expected to be used from the user thread.
+ */
+@Slf4j
+class DataResponseCache {
+    // Each view holds the hashes of all payloads, so we limit the number of views we keep.
+    private static final int MAX_VIEWS = 10;
+
+    private static final Comparator<DatedHash> DATE_COMPARATOR = Comparator.comparingLong(DatedHash::getDate);
+
+    private final Function<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> mapForDataResponseProvider;
+    private final Map<ViewKey, View> views = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ViewKey, View> eldest) {
+            return size() > MAX_VIEWS;
+        }
+    };
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    DataResponseCache(Function<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> mapForDataResponseProvider) {
+        this.mapForDataResponseProvider = mapForDataResponseProvider;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    View getView(@Nullable String requestersVersion, Capabilities peerCapabilities) {
+        // Requesters with different versions get the same data if the same historical stores are newer than their
+        // version, so we use those versions as key.
+        String historicalStoresKey = requestersVersion == null ? null :
+                Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS.stream()
+                        .filter(version -> Version.isNewVersion(version, requestersVersion))
+                        .collect(Collectors.joining(","));
+        ViewKey viewKey = new ViewKey(historicalStoresKey, new Capabilities(peerCapabilities));
+        View view = views.get(viewKey);
+        if (view == null) {
+            long ts = System.currentTimeMillis();
+            view = new View(mapForDataResponseProvider.apply(requestersVersion), viewKey.getCapabilities());
+            views.put(viewKey, view);
+            log.info("Creating the data response view for version {} took {} ms. We have {} views cached.",
+                    requestersVersion, System.currentTimeMillis() - ts, views.size());
+        }
+        return view;
+    }
+
+    // Must only be called for payloads which have not been in any of the append-only stores before.
+    void onAdded(P2PDataStorage.ByteArray hash, PersistableNetworkPayload payload) {
+        views.values().forEach(view -> view.add(hash, payload));
+    }
+
+    void invalidate() {
+        views.clear();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // View
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Value
+    private static class ViewKey {
+        @Nullable
+        String historicalStoresKey;
+        Capabilities capabilities;
+    }
+
+    static class View {
+        private final Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map;
+        private final Capabilities peerCapabilities;
+        // Sorted by date, oldest first
+        private final List<DatedHash> dateSortedHashes = new ArrayList<>();
+        private final List<P2PDataStorage.ByteArray> otherHashes = new ArrayList<>();
+
+        // We need the payloads to check the capabilities and the dates, but we only keep the hashes. The payloads
+        // get looked up in the map again when we deliver them, so the historical data only gets decoded for
+        // building the view and for the entries of a response.
+        private View(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map, Capabilities peerCapabilities) {
+            this.map = map;
+            this.peerCapabilities = peerCapabilities;
+            map.forEach((hash, payload) -> {
+                if (P2PDataStorage.shouldTransmitPayloadToPeer(peerCapabilities, payload)) {
+                    if (payload instanceof DateSortedTruncatablePayload) {
+                        dateSortedHashes.add(new DatedHash(hash, ((DateSortedTruncatablePayload) payload).getDate().getTime()));
+                    } else {
+                        otherHashes.add(hash);
+                    }
+                }
+            });
+            dateSortedHashes.sort(DATE_COMPARATOR);
+        }
+
+        int size() {
+            return dateSortedHashes.size() + otherHashes.size();
+        }
+
+        void forEachHash(Consumer<P2PDataStorage.ByteArray> consumer) {
+            dateSortedHashes.forEach(datedHash -> consumer.accept(datedHash.getHash()));
+            otherHashes.forEach(consumer);
+        }
+
+        /**
+         * Same result as P2PDataStorage#filterKnownHashes applied to the map the view was created from.
+         */
+        Set<PersistableNetworkPayload> filterKnownHashes(Predicate<P2PDataStorage.ByteArray> isKnownHash,
+                                                         int maxEntries,
+                                                         AtomicBoolean outTruncated) {
+            // We only deliver the newest maxItems of the DateSortedTruncatablePayloads, so we iterate from the end.
+            List<P2PDataStorage.ByteArray> filteredDateSortedHashes = new ArrayList<>();
+            int maxItems = Integer.MAX_VALUE;
+            for (int i = dateSortedHashes.size() - 1; i >= 0 && filteredDateSortedHashes.size() < maxItems; i--) {
+                P2PDataStorage.ByteArray hash = dateSortedHashes.get(i).getHash();
+                if (!isKnownHash.test(hash)) {
+                    if (filteredDateSortedHashes.isEmpty()) {
+                        PersistableNetworkPayload payload = getPayload(hash);
+                        if (payload == null) {
+                            continue;
+                        }
+                        maxItems = ((DateSortedTruncatablePayload) payload).maxItems();
+                    }
+                    filteredDateSortedHashes.add(hash);
+                }
+            }
+            Collections.reverse(filteredDateSortedHashes);
+
+            List<P2PDataStorage.ByteArray> filteredHashes = otherHashes.stream()
+                    .filter(hash -> !isKnownHash.test(hash))
+                    .collect(Collectors.toList());
+
+            // The non-dateSortedTruncatablePayloads have higher prio, so we added dateSortedTruncatablePayloads
+            // after those so in case we need to truncate we first truncate the dateSortedTruncatablePayloads.
+            filteredHashes.addAll(filteredDateSortedHashes);
+
+            if (filteredHashes.size() > maxEntries) {
+                filteredHashes = filteredHashes.subList(0, maxEntries);
+                outTruncated.set(true);
+            }
+
+            // Only now we look up (and decode) the payloads we deliver.
+            Set<PersistableNetworkPayload> result = new HashSet<>();
+            filteredHashes.forEach(hash -> {
+                PersistableNetworkPayload payload = getPayload(hash);
+                if (payload != null) {
+                    result.add(payload);
+                }
+            });
+            return result;
+        }
+
+        // The payload has been added to the append-only stores already, so we only keep the hash and look the payload
+        // up in the map like the others. Payloads the map does not contain would not be delivered without the cache
+        // either.
+        private void add(P2PDataStorage.ByteArray hash, PersistableNetworkPayload payload) {
+            if (!map.containsKey(hash) || !P2PDataStorage.shouldTransmitPayloadToPeer(peerCapabilities, payload)) {
+                return;
+            }
+
+            if (payload instanceof DateSortedTruncatablePayload) {
+                // New payloads are usually the most recent ones, so inserting is cheap.
+                DatedHash datedHash = new DatedHash(hash, ((DateSortedTruncatablePayload) payload).getDate().getTime());
+                int index = Collections.binarySearch(dateSortedHashes, datedHash, DATE_COMPARATOR);
+                dateSortedHashes.add(index < 0 ? -index - 1 : index, datedHash);
+            } else {
+                otherHashes.add(hash);
+            }
+        }
+
+        @Nullable
+        private PersistableNetworkPayload getPayload(P2PDataStorage.ByteArray hash) {
+            return map.get(hash);
+        }
+    }
+
+    @Value
+    private static class DatedHash {
+        P2PDataStorage.ByteArray hash;
+        long date;
+    }
+}
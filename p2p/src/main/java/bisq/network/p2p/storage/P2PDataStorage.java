@@ -25,6 +25,7 @@ import bisq.network.p2p.network.MessageListener;
 import bisq.network.p2p.network.NetworkNode;
 import bisq.network.p2p.peers.BroadcastHandler;
 import bisq.network.p2p.peers.Broadcaster;
+import bisq.network.p2p.peers.getdata.InvertibleBloomLookupTable;
 import bisq.network.p2p.peers.getdata.messages.GetDataRequest;
 import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
 import bisq.network.p2p.peers.getdata.messages.GetUpdatedDataRequest;
@@ -48,6 +49,7 @@ import bisq.network.p2p.storage.payload.ProtectedStoragePayload;
 import bisq.network.p2p.storage.payload.RequiresOwnerIsOnlinePayload;
 import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreListener;
 import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
+import bisq.network.p2p.storage.persistence.CompositeDataStoreMap;
 import bisq.network.p2p.storage.persistence.HistoricalDataStoreService;
 import bisq.network.p2p.storage.persistence.PersistableNetworkPayloadStore;
 import bisq.network.p2p.storage.persistence.ProtectedDataStoreService;
@@ -106,7 +108,9 @@ import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -145,6 +149,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
     private final Set<AppendOnlyDataStoreListener> appendOnlyDataStoreListeners = new CopyOnWriteArraySet<>();
     private final RemovedPayloadsService removedPayloadsService;
+    private final DataResponseCache dataResponseCache = new DataResponseCache(this::getMapForDataResponse);
+    private final SetDifferenceEstimator setDifferenceEstimator = new SetDifferenceEstimator();
     private final Clock clock;
 
     /// The maximum number of items that must exist in the SequenceNumberMap before it is scheduled for a purge
@@ -181,6 +187,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         networkNode.addMessageListener(this);
         networkNode.addConnectionListener(this);
 
+        this.persistenceManager.enableJournal((base, delta) -> base.getMap().putAll(delta.getMap()));
         this.persistenceManager.initialize(sequenceNumberMap, PersistenceManager.Source.PRIVATE_LOW_PRIO);
     }
 
@@ -223,7 +230,10 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             }
         });
 
-        appendOnlyDataStoreService.readFromResources(postFix, () -> appendOnlyDataStoreServiceReady.set(true));
+        appendOnlyDataStoreService.readFromResources(postFix, () -> {
+            dataResponseCache.invalidate();
+            appendOnlyDataStoreServiceReady.set(true);
+        });
         protectedDataStoreService.readFromResources(postFix, () -> {
             map.putAll(protectedDataStoreService.getMap());
             protectedDataStoreServiceReady.set(true);
@@ -235,6 +245,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     @VisibleForTesting
     public void readFromResourcesSync(String postFix) {
         appendOnlyDataStoreService.readFromResourcesSync(postFix);
+        dataResponseCache.invalidate();
         protectedDataStoreService.readFromResourcesSync(postFix);
         resourceDataStoreService.readFromResourcesSync(postFix);
 
@@ -259,14 +270,80 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
      * Returns a PreliminaryGetDataRequest that can be sent to a peer node to request missing Payload data.
      */
     public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce) {
-        return new PreliminaryGetDataRequest(nonce, getKnownPayloadHashes());
+        return buildPreliminaryGetDataRequest(nonce, false);
+    }
+
+    /**
+     * Returns a PreliminaryGetDataRequest that can be sent to a peer node to request missing Payload data.
+     * If useSetReconciliation is true our known keys are sent as InvertibleBloomLookupTable. Only use that if the
+     * peer has the SET_RECONCILIATION capability.
+     */
+    public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce, boolean useSetReconciliation) {
+        InvertibleBloomLookupTable knownKeysTable = useSetReconciliation ? getKnownPayloadKeysTable(true) : null;
+        return knownKeysTable != null ?
+                new PreliminaryGetDataRequest(nonce, knownKeysTable) :
+                new PreliminaryGetDataRequest(nonce, getKnownPayloadHashes());
     }
 
     /**
      * Returns a GetUpdatedDataRequest that can be sent to a peer node to request missing Payload data.
      */
     public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress, int nonce) {
-        return new GetUpdatedDataRequest(senderNodeAddress, nonce, getKnownPayloadHashes());
+        return buildGetUpdatedDataRequest(senderNodeAddress, nonce, false);
+    }
+
+    /**
+     * Returns a GetUpdatedDataRequest that can be sent to a peer node to request missing Payload data.
+     * If useSetReconciliation is true our known keys are sent as InvertibleBloomLookupTable. Only use that if the
+     * peer has the SET_RECONCILIATION capability.
+     */
+    public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress,
+                                                            int nonce,
+                                                            boolean useSetReconciliation) {
+        InvertibleBloomLookupTable knownKeysTable = useSetReconciliation ? getKnownPayloadKeysTable(false) : null;
+        return knownKeysTable != null ?
+                new GetUpdatedDataRequest(senderNodeAddress, nonce, knownKeysTable) :
+                new GetUpdatedDataRequest(senderNodeAddress, nonce, getKnownPayloadHashes());
+    }
+
+    /**
+     * Needs to be called if the peer could not decode the table we sent, so we send a larger table next time.
+     */
+    public void onSetReconciliationFailed(boolean isPreliminaryRequest) {
+        setDifferenceEstimator.onReconciliationFailed(isPreliminaryRequest, getNumKnownKeys());
+    }
+
+    /**
+     * Returns an InvertibleBloomLookupTable containing the same keys as getKnownPayloadHashes. The size of the table
+     * depends on the expected difference to the peers keys. Returns null if the table would be larger than the list
+     * of our keys.
+     */
+    @Nullable
+    private InvertibleBloomLookupTable getKnownPayloadKeysTable(boolean isPreliminaryRequest) {
+        Set<ByteArray> persistableNetworkPayloadKeys = getMapForDataRequest().keySet();
+        Set<ByteArray> protectedStorageEntryKeys = map.keySet();
+        int numKnownKeys = persistableNetworkPayloadKeys.size() + protectedStorageEntryKeys.size();
+        int numCells = setDifferenceEstimator.getNumCells(isPreliminaryRequest, numKnownKeys);
+        long tableSize = InvertibleBloomLookupTable.getMaxSerializedSize(numCells);
+        // Each excluded key has a tag and a length prefix of 1 byte each
+        long excludedKeysSize = Stream.concat(persistableNetworkPayloadKeys.stream(), protectedStorageEntryKeys.stream())
+                .mapToLong(key -> key.bytes.length + 2)
+                .sum();
+        if (tableSize >= excludedKeysSize) {
+            log.info("We send our {} keys as excluded keys as they are smaller than a table with {} cells.",
+                    numKnownKeys, numCells);
+            return null;
+        }
+
+        InvertibleBloomLookupTable table = new InvertibleBloomLookupTable(numCells);
+        table.insertAll(persistableNetworkPayloadKeys);
+        table.insertAll(protectedStorageEntryKeys);
+        log.info("We send our {} keys as table with {} cells.", numKnownKeys, table.getNumCells());
+        return table;
+    }
+
+    private int getNumKnownKeys() {
+        return getMapForDataRequest().size() + map.size();
     }
 
     /**
@@ -303,25 +380,44 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             AtomicBoolean wasProtectedStorageEntriesTruncated,
             Capabilities peerCapabilities) {
 
-        Set<P2PDataStorage.ByteArray> excludedKeysAsByteArray =
-                P2PDataStorage.ByteArray.convertBytesSetToByteArraySet(getDataRequest.getExcludedKeys());
-
         // Pre v 1.4.0 requests do not have set the requesters version field so it is null.
         // The methods in HistoricalDataStoreService will return all historical data in that case.
-        // mapForDataResponse contains the filtered by version data from HistoricalDataStoreService as well as all other
-        // maps of the remaining appendOnlyDataStoreServices.
-        Map<ByteArray, PersistableNetworkPayload> mapForDataResponse = getMapForDataResponse(getDataRequest.getVersion());
+        // The view contains the filtered by version data from HistoricalDataStoreService as well as all other
+        // maps of the remaining appendOnlyDataStoreServices, already filtered by the peers capabilities.
+        DataResponseCache.View dataResponseView = dataResponseCache.getView(getDataRequest.getVersion(), peerCapabilities);
+
+        Predicate<ByteArray> isKnownByPeer;
+        InvertibleBloomLookupTable knownKeysTable = getDataRequest.getKnownKeysTable();
+        if (knownKeysTable != null) {
+            // We build a table from the same keys we filter below. The difference to the peers table contains the
+            // keys only we have (positive) and the keys only the peer has (negative). All other keys are known.
+            InvertibleBloomLookupTable table = new InvertibleBloomLookupTable(knownKeysTable.getNumCells());
+            dataResponseView.forEachHash(hash -> table.insert(hash.bytes));
+            table.insertAll(map.keySet());
+            Set<ByteArray> unknownKeys = new HashSet<>();
+            if (!table.subtract(knownKeysTable).decode(unknownKeys, new HashSet<>())) {
+                log.info("Set reconciliation with a table of {} cells failed. We ask the peer to repeat the " +
+                        "request with excluded keys.", knownKeysTable.getNumCells());
+                return GetDataResponse.forFailedReconciliation(getDataRequest.getNonce(),
+                        getDataRequest instanceof GetUpdatedDataRequest);
+            }
+            log.info("Set reconciliation resulted in {} keys unknown to the peer", unknownKeys.size());
+            isKnownByPeer = key -> !unknownKeys.contains(key);
+        } else {
+            Set<ByteArray> excludedKeysAsByteArray =
+                    ByteArray.convertBytesSetToByteArraySet(getDataRequest.getExcludedKeys());
+            log.info("Num excludedKeys {}", excludedKeysAsByteArray.size());
+            isKnownByPeer = excludedKeysAsByteArray::contains;
+        }
+
         Set<PersistableNetworkPayload> filteredPersistableNetworkPayloads =
-                filterKnownHashes(
-                        mapForDataResponse,
-                        Function.identity(),
-                        excludedKeysAsByteArray,
-                        peerCapabilities,
+                dataResponseView.filterKnownHashes(
+                        isKnownByPeer,
                         maxEntriesPerType,
                         wasPersistableNetworkPayloadsTruncated);
         log.info("{} PersistableNetworkPayload entries remained after filtered by excluded keys. " +
                         "Original map had {} entries.",
-                filteredPersistableNetworkPayloads.size(), mapForDataResponse.size());
+                filteredPersistableNetworkPayloads.size(), dataResponseView.size());
         log.trace("## buildGetDataResponse filteredPersistableNetworkPayloadHashes={}",
                 filteredPersistableNetworkPayloads.stream()
                         .map(e -> Utilities.encodeToHex(e.getHash()))
@@ -331,7 +427,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 filterKnownHashes(
                         map,
                         ProtectedStorageEntry::getProtectedStoragePayload,
-                        excludedKeysAsByteArray,
+                        isKnownByPeer,
                         peerCapabilities,
                         maxEntriesPerType,
                         wasProtectedStorageEntriesTruncated);
@@ -375,8 +471,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         return map;
     }
 
+    // Returns a read-only view so the historical data does not get copied or decoded.
     public Map<ByteArray, PersistableNetworkPayload> getMapForDataResponse(String requestersVersion) {
-        Map<ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+        List<Map<ByteArray, PersistableNetworkPayload>> maps = new ArrayList<>();
         appendOnlyDataStoreService.getServices()
                 .forEach(service -> {
                     Map<ByteArray, PersistableNetworkPayload> serviceMap;
@@ -386,31 +483,29 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                     } else {
                         serviceMap = service.getMap();
                     }
-                    map.putAll(serviceMap);
+                    maps.add(serviceMap);
                     log.info("We added {} entries from {} to be filtered by excluded keys",
                             serviceMap.size(), service.getClass().getSimpleName());
                 });
-        return map;
+        return new CompositeDataStoreMap(maps);
     }
 
     /**
      * Generic function that can be used to filter a Map<ByteArray, ProtectedStorageEntry || PersistableNetworkPayload>
-     * by a given set of keys and peer capabilities.
+     * by a given predicate for the known keys and peer capabilities.
      */
     static private <T extends NetworkPayload> Set<T> filterKnownHashes(
             Map<ByteArray, T> toFilter,
             Function<T, ? extends NetworkPayload> objToPayload,
-            Set<ByteArray> knownHashes,
+            Predicate<ByteArray> isKnownHash,
             Capabilities peerCapabilities,
             int maxEntries,
             AtomicBoolean outTruncated) {
 
-        log.info("Num knownHashes {}", knownHashes.size());
-
         Set<Map.Entry<ByteArray, T>> entries = toFilter.entrySet();
         List<T> dateSortedTruncatablePayloads = entries.stream()
                 .filter(entry -> entry.getValue() instanceof DateSortedTruncatablePayload)
-                .filter(entry -> !knownHashes.contains(entry.getKey()))
+                .filter(entry -> !isKnownHash.test(entry.getKey()))
                 .map(Map.Entry::getValue)
                 .filter(payload -> shouldTransmitPayloadToPeer(peerCapabilities, objToPayload.apply(payload)))
                 .sorted(Comparator.comparing(payload -> ((DateSortedTruncatablePayload) payload).getDate()))
@@ -428,7 +523,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
         List<T> filteredResults = entries.stream()
                 .filter(entry -> !(entry.getValue() instanceof DateSortedTruncatablePayload))
-                .filter(entry -> !knownHashes.contains(entry.getKey()))
+                .filter(entry -> !isKnownHash.test(entry.getKey()))
                 .map(Map.Entry::getValue)
                 .filter(payload -> shouldTransmitPayloadToPeer(peerCapabilities, objToPayload.apply(payload)))
                 .collect(Collectors.toList());
@@ -459,7 +554,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     /**
      * Returns true if a Payload should be transmit to a peer given the peer's supported capabilities.
      */
-    private static boolean shouldTransmitPayloadToPeer(Capabilities peerCapabilities, NetworkPayload payload) {
+    static boolean shouldTransmitPayloadToPeer(Capabilities peerCapabilities, NetworkPayload payload) {
 
         // Sanity check to ensure this isn't used outside P2PDataStorage
         if (!(payload instanceof ProtectedStoragePayload || payload instanceof PersistableNetworkPayload))
@@ -518,6 +613,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         log.info("Processing {} persistableNetworkPayloads took {} ms.",
                 persistableNetworkPayloadSet.size(), this.clock.millis() - ts2);
 
+        setDifferenceEstimator.onResponse(!getDataResponse.isGetUpdatedDataResponse(),
+                dataSet.size() + persistableNetworkPayloadSet.size());
+
         // We only process PersistableNetworkPayloads implementing ProcessOncePersistableNetworkPayload once. It can cause performance
         // issues and since the data is rarely out of sync it is not worth it to apply them from multiple peers during
         // startup.
@@ -676,7 +774,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         }
 
         ByteArray hashAsByteArray = new ByteArray(payload.getHash());
-        boolean payloadHashAlreadyInStore = appendOnlyDataStoreService.getMap().containsKey(hashAsByteArray);
+        boolean payloadHashAlreadyInStore = appendOnlyDataStoreService.containsKey(hashAsByteArray);
 
         // Store already knows about this payload. Ignore it unless the caller specifically requests a republish.
         if (payloadHashAlreadyInStore && !reBroadcast) {
@@ -695,6 +793,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         // Add the payload and publish the state update to the appendOnlyDataStoreListeners
         if (!payloadHashAlreadyInStore) {
             appendOnlyDataStoreService.put(hashAsByteArray, payload);
+            dataResponseCache.onAdded(hashAsByteArray, payload);
             appendOnlyDataStoreListeners.forEach(e -> e.onAdded(payload));
         }
 
@@ -715,6 +814,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         if (payload.verifyHashSize()) {
             ByteArray hashAsByteArray = new ByteArray(hash);
             appendOnlyDataStoreService.put(hashAsByteArray, payload);
+            // We might overwrite existing entries here, so we cannot add it incrementally.
+            dataResponseCache.invalidate();
         } else {
             log.warn("We got a hash exceeding our permitted size");
         }
@@ -792,8 +893,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         hashMapChangedListeners.forEach(e -> e.onAdded(Collections.singletonList(protectedStorageEntry)));
 
         // Record the updated sequence number and persist it. Higher delay so we can batch more items.
-        sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
-        requestPersistence();
+        putSequenceNumber(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
 
         log.trace("## ProtectedStorageEntry added to map. hash={}, map={}", hashOfPayload, printMap());
 
@@ -880,8 +980,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         map.put(hashOfPayload, updatedEntry);
 
         // Record the latest sequence number and persist it
-        sequenceNumberMap.put(hashOfPayload, new MapValue(updatedEntry.getSequenceNumber(), this.clock.millis()));
-        requestPersistence();
+        putSequenceNumber(hashOfPayload, new MapValue(updatedEntry.getSequenceNumber(), this.clock.millis()));
 
         // Always broadcast refreshes
         broadcaster.broadcast(refreshTTLMessage, sender);
@@ -916,8 +1015,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             return false;
 
         // Record the latest sequence number and persist it
-        sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
-        requestPersistence();
+        putSequenceNumber(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
 
         // Update that we have seen this AddOncePayload so the next time it is seen it fails verification
         if (protectedStoragePayload instanceof AddOncePayload) {
@@ -1074,6 +1172,15 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         persistenceManager.requestPersistence();
     }
 
+    // If the journal mode is enabled we only write the changed entry instead of the whole map.
+    private void putSequenceNumber(ByteArray hashOfPayload, MapValue mapValue) {
+        sequenceNumberMap.put(hashOfPayload, mapValue);
+
+        SequenceNumberMap delta = new SequenceNumberMap();
+        delta.put(hashOfPayload, mapValue);
+        persistenceManager.appendToJournal(delta);
+    }
+
     public static ByteArray get32ByteHashAsByteArray(NetworkPayload data) {
         return new ByteArray(P2PDataStorage.get32ByteHash(data));
     }
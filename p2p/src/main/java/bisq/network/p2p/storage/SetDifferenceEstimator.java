@@ -0,0 +1,88 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import bisq.network.p2p.peers.getdata.InvertibleBloomLookupTable;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Estimates the size of the difference between our keys and the keys of the seed node, so that the
+ * InvertibleBloomLookupTable we send with a GetDataRequest scales with the difference and not with our store size.
+ *
+ * Before the first response we assume that a small fraction of our known keys got added while we were offline.
+ * Afterwards we expect twice the number of entries the last response of the same kind delivered, to cover the keys
+ * only we have and the ones added since. If a peer could not decode our table we double the estimate.
+ * Not thread safe, expected to be used from the user thread.
+ */
+@Slf4j
+class SetDifferenceEstimator {
+    // The table can be decoded with high probability if the difference is below about 80% of the number of cells.
+    private static final double CELLS_PER_KEY = 1.5;
+    static final int MIN_EXPECTED_DIFFERENCE = 50;
+    static final double INITIAL_DIFFERENCE_PER_KNOWN_KEY = 0.01;
+
+    private int expectedPreliminaryDifference = -1;
+    private int expectedUpdatedDifference = MIN_EXPECTED_DIFFERENCE;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    int getNumCells(boolean isPreliminaryRequest, int numKnownKeys) {
+        int expectedDifference = isPreliminaryRequest ?
+                getExpectedPreliminaryDifference(numKnownKeys) :
+                expectedUpdatedDifference;
+        return (int) Math.min(InvertibleBloomLookupTable.MAX_NUM_CELLS, Math.ceil(expectedDifference * CELLS_PER_KEY));
+    }
+
+    void onResponse(boolean isPreliminaryRequest, int numReceivedEntries) {
+        int expectedDifference = Math.max(MIN_EXPECTED_DIFFERENCE, 2 * numReceivedEntries);
+        if (isPreliminaryRequest) {
+            expectedPreliminaryDifference = expectedDifference;
+        } else {
+            expectedUpdatedDifference = expectedDifference;
+        }
+    }
+
+    void onReconciliationFailed(boolean isPreliminaryRequest, int numKnownKeys) {
+        int expectedDifference = 2 * (isPreliminaryRequest ?
+                getExpectedPreliminaryDifference(numKnownKeys) :
+                expectedUpdatedDifference);
+        log.info("Peer could not decode our known keys table. We expect a difference of {} keys at the next request.",
+                expectedDifference);
+        if (isPreliminaryRequest) {
+            expectedPreliminaryDifference = expectedDifference;
+        } else {
+            expectedUpdatedDifference = expectedDifference;
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private int getExpectedPreliminaryDifference(int numKnownKeys) {
+        if (expectedPreliminaryDifference >= 0) {
+            return expectedPreliminaryDifference;
+        }
+        return Math.max(MIN_EXPECTED_DIFFERENCE, (int) (numKnownKeys * INITIAL_DIFFERENCE_PER_KNOWN_KEY));
+    }
+}
@@ -76,15 +76,21 @@ public class AppendOnlyDataStoreService {
     }
 
 
+    // Read-only view of the maps of all services. The historical data does not get copied or decoded.
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMap() {
+        return new CompositeDataStoreMap(services.stream()
+                .map(service -> service instanceof HistoricalDataStoreService ?
+                        ((HistoricalDataStoreService<?>) service).getMapOfAllData() :
+                        service.getMap())
+                .collect(Collectors.toList()));
+    }
+
+    // Only uses the indexes of the historical data stores, so no payload gets decoded.
+    public boolean containsKey(P2PDataStorage.ByteArray hash) {
         return services.stream()
-                .flatMap(service -> {
-                    Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = service instanceof HistoricalDataStoreService ?
-                            ((HistoricalDataStoreService) service).getMapOfAllData() :
-                            service.getMap();
-                    return map.entrySet().stream();
-                })
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+                .anyMatch(service -> service instanceof HistoricalDataStoreService ?
+                        ((HistoricalDataStoreService<?>) service).anyMapContainsKey(hash) :
+                        service.getMap().containsKey(hash));
     }
 
     public void put(P2PDataStorage.ByteArray hashAsByteArray, PersistableNetworkPayload payload) {
@@ -0,0 +1,146 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import com.google.common.collect.Iterators;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * Read-only view over the maps of several append-only data stores. Creating the view does not copy any data and key
+ * lookups only ask the underlying maps, so a {@link MappedHistoricalDataStore} does not decode any payload for
+ * those. Only reading a value decodes it.
+ *
+ * If a key is contained in multiple maps we use the entry of the first map. Changes of the underlying maps are
+ * reflected by the view.
+ *
+ * Iterating over the entries or values is expensive: it decodes every historical payload and checks each key against
+ * the maps before it. Use the keys or single lookups where possible.
+ */
+public class CompositeDataStoreMap extends AbstractMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+    private final List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> maps;
+    // The number of distinct keys and the sizes of the maps it was counted at. The underlying maps only get entries
+    // added, so the count is still valid as long as none of their sizes changed.
+    private int size = -1;
+    private final int[] sizesAtCount;
+
+    public CompositeDataStoreMap(List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> maps) {
+        this.maps = List.copyOf(maps);
+        sizesAtCount = new int[this.maps.size()];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOfFirstMapContaining(key, maps.size()) >= 0;
+    }
+
+    @Override
+    @Nullable
+    public PersistableNetworkPayload get(Object key) {
+        int index = indexOfFirstMapContaining(key, maps.size());
+        return index >= 0 ? maps.get(index).get(key) : null;
+    }
+
+    // Counts the distinct keys only if an underlying map changed since the last count. Only uses the keys, so no
+    // payload gets decoded.
+    @Override
+    public int size() {
+        if (maps.size() == 1) {
+            return maps.get(0).size();
+        }
+
+        if (size < 0 || underlyingMapsChanged()) {
+            size = countDistinctKeys();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return maps.stream().allMatch(Map::isEmpty);
+    }
+
+    @Override
+    public Set<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> iterator() {
+                List<Iterator<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>>> iterators = new ArrayList<>();
+                for (int i = 0; i < maps.size(); i++) {
+                    int mapIndex = i;
+                    iterators.add(Iterators.filter(maps.get(i).entrySet().iterator(),
+                            entry -> indexOfFirstMapContaining(entry.getKey(), mapIndex) < 0));
+                }
+                return Iterators.unmodifiableIterator(Iterators.concat(iterators.iterator()));
+            }
+
+            @Override
+            public int size() {
+                return CompositeDataStoreMap.this.size();
+            }
+        };
+    }
+
+    private boolean underlyingMapsChanged() {
+        for (int i = 0; i < maps.size(); i++) {
+            if (maps.get(i).size() != sizesAtCount[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int countDistinctKeys() {
+        int count = 0;
+        for (int i = 0; i < maps.size(); i++) {
+            Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = maps.get(i);
+            sizesAtCount[i] = map.size();
+            if (i == 0) {
+                count += sizesAtCount[i];
+                continue;
+            }
+            for (P2PDataStorage.ByteArray key : map.keySet()) {
+                if (indexOfFirstMapContaining(key, i) < 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // Returns the index of the first of the first numMaps maps which contains the key or -1.
+    private int indexOfFirstMapContaining(Object key, int numMaps) {
+        for (int i = 0; i < numMaps; i++) {
+            if (maps.get(i).containsKey(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
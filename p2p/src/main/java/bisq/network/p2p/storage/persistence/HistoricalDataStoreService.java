@@ -20,20 +20,29 @@ package bisq.network.p2p.storage.persistence;
 import bisq.network.p2p.storage.P2PDataStorage;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 
+import bisq.common.UserThread;
 import bisq.common.app.DevEnv;
 import bisq.common.app.Version;
 import bisq.common.persistence.PersistenceManager;
+import bisq.common.util.Utilities;
 
 import com.google.common.collect.ImmutableMap;
 
+import java.nio.file.Paths;
+
 import java.io.File;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 /**
  * Manages historical data stores tagged with the release versions.
  * New data is added to the default map in the store (live data). Historical data is created from resource files.
@@ -42,9 +51,10 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 public abstract class HistoricalDataStoreService<T extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> extends MapStoreService<T, PersistableNetworkPayload> {
-    private ImmutableMap<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion;
-    // Cache to avoid that we have to recreate the historical data at each request
-    private ImmutableMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads;
+    // The historical data never changes. If the subclass provides a payload decoder we use a memory-mapped
+    // MappedHistoricalDataStore for each version, which decodes the payloads only when accessed. Otherwise we use the
+    // map of the persisted store.
+    private ImmutableMap<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -53,6 +63,9 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
 
     public HistoricalDataStoreService(File storageDir, PersistenceManager<T> persistenceManager) {
         super(storageDir, persistenceManager);
+
+        // The live data only grows by single items, so we support the journal mode for those stores.
+        persistenceManager.enableJournal((base, delta) -> base.getMap().putAll(delta.getMap()));
     }
 
 
@@ -60,11 +73,12 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    // We give back a map of our live map and all historical maps newer than the requested version.
-    // If requestersVersion is null we return all historical data.
+    // We give back a read-only view of our live map and all historical maps newer than the requested version.
+    // If requestersVersion is null we return all historical data. The view does not copy or decode the historical data.
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapSinceVersion(String requestersVersion) {
         // We add all our live data
-        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(store.getMap());
+        List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> maps = new ArrayList<>();
+        maps.add(store.getMap());
 
         // If we have a store with a newer version than the requesters version we will add those as well.
         storesByVersion.entrySet().stream()
@@ -87,22 +101,24 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
                             requestersVersion, storeVersion, details);
                     return newVersion;
                 })
-                .map(e -> e.getValue().getMap())
-                .forEach(result::putAll);
+                .map(Map.Entry::getValue)
+                .forEach(maps::add);
 
-        log.info("We found {} entries since requesters version {}",
-                result.size(), requestersVersion);
-        return result;
+        log.info("We add {} historical stores since requesters version {}",
+                maps.size() - 1, requestersVersion);
+        return new CompositeDataStoreMap(maps);
     }
 
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfLiveData() {
         return store.getMap();
     }
 
+    // Read-only view of the live map and all historical maps.
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfAllData() {
-        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(getMapOfLiveData());
-        result.putAll(allHistoricalPayloads);
-        return result;
+        List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> maps = new ArrayList<>();
+        maps.add(getMapOfLiveData());
+        maps.addAll(storesByVersion.values());
+        return new CompositeDataStoreMap(maps);
     }
 
 
@@ -124,7 +140,7 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         }
 
         getMapOfLiveData().put(hash, payload);
-        requestPersistence();
+        appendToJournal(hash, payload);
     }
 
     @Override
@@ -137,7 +153,7 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         // So it will be always null. We still keep the return type as we override the method from MapStoreService which
         // follow the Map.putIfAbsent signature.
         getMapOfLiveData().put(hash, payload);
-        requestPersistence();
+        appendToJournal(hash, payload);
         return null;
     }
 
@@ -149,54 +165,117 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
                     getFileName(), getMapOfLiveData().size());
 
             // Now we add our historical data stores.
-            Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads = new HashMap<>();
-            Map<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion = new HashMap<>();
+            Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion = new HashMap<>();
             AtomicInteger numFiles = new AtomicInteger(Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS.size());
+            // The memory-mapped stores get indexed one after another off the UserThread. Queued tasks still get
+            // executed after shutdown.
+            ExecutorService mappingExecutor = Utilities.getSingleThreadExecutor("HistoricalDataStoreService-map-" +
+                    getFileName());
             Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS.forEach(version -> readHistoricalStoreFromResources(version,
                     postFix,
-                    allHistoricalPayloads,
                     storesByVersion,
+                    mappingExecutor,
                     () -> {
                         if (numFiles.decrementAndGet() == 0) {
                             // At last iteration we set the immutable map
-                            this.allHistoricalPayloads = ImmutableMap.copyOf(allHistoricalPayloads);
                             this.storesByVersion = ImmutableMap.copyOf(storesByVersion);
                             completeHandler.run();
                         }
                     }));
+            mappingExecutor.shutdown();
         });
     }
 
 
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Protected
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Subclasses which return a decoder get their historical data stores memory-mapped and decoded on demand.
+     */
+    @Nullable
+    protected MappedHistoricalDataStore.PayloadDecoder getPayloadDecoder() {
+        return null;
+    }
+
+    /**
+     * @return The field number of the hash field in the protobuf message of the payload. Only used if
+     * {@link #getPayloadDecoder()} returns a decoder.
+     */
+    protected int getPayloadHashFieldNumber() {
+        return -1;
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private void readHistoricalStoreFromResources(String version,
                                                   String postFix,
-                                                  Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads,
-                                                  Map<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion,
+                                                  Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion,
+                                                  ExecutorService mappingExecutor,
                                                   Runnable completeHandler) {
 
         String fileName = getFileName() + "_" + version;
         boolean wasCreatedFromResources = makeFileFromResourceFile(fileName, postFix);
 
+        MappedHistoricalDataStore.PayloadDecoder payloadDecoder = getPayloadDecoder();
+        File file = new File(Paths.get(absolutePathOfStorageDir, fileName).toString());
+        if (payloadDecoder != null && file.exists()) {
+            mappingExecutor.execute(() -> {
+                try {
+                    long ts = System.currentTimeMillis();
+                    MappedHistoricalDataStore mappedStore = new MappedHistoricalDataStore(file,
+                            getPayloadHashFieldNumber(),
+                            payloadDecoder);
+                    log.info("Indexing {} historical items of memory-mapped {} took {} ms.",
+                            mappedStore.size(), fileName, System.currentTimeMillis() - ts);
+                    UserThread.execute(() -> onHistoricalStoreRead(version, mappedStore, storesByVersion,
+                            completeHandler));
+                } catch (Throwable t) {
+                    log.error("Memory-mapping {} failed. We fall back to reading the whole file. Error: {}",
+                            fileName, t.toString());
+                    UserThread.execute(() -> readHistoricalStore(version, fileName, storesByVersion, completeHandler));
+                }
+            });
+        } else {
+            readHistoricalStore(version, fileName, storesByVersion, completeHandler);
+        }
+    }
+
+    private void readHistoricalStore(String version,
+                                     String fileName,
+                                     Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion,
+                                     Runnable completeHandler) {
         // If resource file does not exist we do not create a new store as it would never get filled.
-        persistenceManager.readPersisted(fileName, persisted -> {
-                    storesByVersion.put(version, persisted);
-                    allHistoricalPayloads.putAll(persisted.getMap());
-                    log.info("We have read from {} {} historical items.", fileName, persisted.getMap().size());
-                    pruneStore(persisted, version);
-                    completeHandler.run();
-                },
+        persistenceManager.readPersisted(fileName,
+                persisted -> onHistoricalStoreRead(version, persisted.getMap(), storesByVersion, completeHandler),
                 completeHandler::run);
     }
 
-    private void pruneStore(PersistableNetworkPayloadStore<? extends PersistableNetworkPayload> historicalStore,
+    private void onHistoricalStoreRead(String version,
+                                       Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> historicalMap,
+                                       Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion,
+                                       Runnable completeHandler) {
+        storesByVersion.put(version, historicalMap);
+        log.info("We have read from {}_{} {} historical items.", getFileName(), version, historicalMap.size());
+        pruneStore(historicalMap, version);
+        completeHandler.run();
+    }
+
+    private void appendToJournal(P2PDataStorage.ByteArray hash, PersistableNetworkPayload payload) {
+        T delta = createStore();
+        delta.getMap().put(hash, payload);
+        persistenceManager.appendToJournal(delta);
+    }
+
+    private void pruneStore(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> historicalMap,
                             String version) {
         Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> mapOfLiveData = getMapOfLiveData();
         int preLive = mapOfLiveData.size();
-        mapOfLiveData.keySet().removeAll(historicalStore.getMap().keySet());
+        mapOfLiveData.keySet().removeAll(historicalMap.keySet());
         int postLive = mapOfLiveData.size();
         if (preLive > postLive) {
             log.info("We pruned data from our live data store which are already contained in the historical data store with version {}. " +
@@ -208,7 +287,9 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         requestPersistence();
     }
 
-    private boolean anyMapContainsKey(P2PDataStorage.ByteArray hash) {
-        return getMapOfLiveData().containsKey(hash) || allHistoricalPayloads.containsKey(hash);
+    // The historical maps answer that from their index without decoding any payload.
+    boolean anyMapContainsKey(P2PDataStorage.ByteArray hash) {
+        return getMapOfLiveData().containsKey(hash) ||
+                storesByVersion.values().stream().anyMatch(map -> map.containsKey(hash));
     }
 }
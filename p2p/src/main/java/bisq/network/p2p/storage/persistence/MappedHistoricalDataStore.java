@@ -0,0 +1,279 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Read-only map view of an immutable historical data store file. The file is memory-mapped and we only keep an index
+ * from the payload hash to the position of the serialized item in the file. A {@link PersistableNetworkPayload} gets
+ * decoded only when its value is accessed, so key lookups and iterations over the keys do not create any payload
+ * objects.
+ *
+ * The file has the format written by PersistenceManager: A delimited protobuf.PersistableEnvelope containing one store
+ * message with a repeated items field. To build the index we walk the protobuf wire format and only read the hash
+ * field of each item.
+ */
+@Slf4j
+public class MappedHistoricalDataStore extends AbstractMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+    // All PersistableNetworkPayloadStore messages use field number 1 for the repeated items field.
+    private static final int ITEMS_FIELD_NUMBER = 1;
+
+    public interface PayloadDecoder {
+        PersistableNetworkPayload decode(ByteBuffer serializedItem) throws IOException;
+    }
+
+    private final MappedByteBuffer buffer;
+    private final PayloadDecoder payloadDecoder;
+    // Position of the length prefix of the serialized item in the file
+    private final Map<P2PDataStorage.ByteArray, Integer> positionByHash;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Maps the file and builds the index. Should not be called on the user thread for large files.
+     *
+     * @param file                  The store file.
+     * @param hashFieldNumber       The field number of the hash field in the item message.
+     * @param payloadDecoder        Decodes a serialized item message.
+     * @throws IOException          If the file cannot be mapped or does not have the expected format.
+     */
+    public MappedHistoricalDataStore(File file, int hashFieldNumber, PayloadDecoder payloadDecoder) throws IOException {
+        this.payloadDecoder = payloadDecoder;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            // The mapping stays valid after the channel is closed.
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        positionByHash = Collections.unmodifiableMap(buildIndex(hashFieldNumber));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Map
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public int size() {
+        return positionByHash.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return positionByHash.containsKey(key);
+    }
+
+    @Override
+    @Nullable
+    public PersistableNetworkPayload get(Object key) {
+        Integer position = positionByHash.get(key);
+        return position != null ? decodeAt(position) : null;
+    }
+
+    @Override
+    public Set<P2PDataStorage.ByteArray> keySet() {
+        return positionByHash.keySet();
+    }
+
+    @Override
+    public Set<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> iterator() {
+                Iterator<Entry<P2PDataStorage.ByteArray, Integer>> iterator = positionByHash.entrySet().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> next() {
+                        return new LazyEntry(iterator.next());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return positionByHash.size();
+            }
+        };
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private Map<P2PDataStorage.ByteArray, Integer> buildIndex(int hashFieldNumber) throws IOException {
+        ByteBuffer readBuffer = buffer.duplicate();
+        CodedInputStream inputStream = CodedInputStream.newInstance(readBuffer);
+        Map<P2PDataStorage.ByteArray, Integer> index = new HashMap<>();
+        if (inputStream.isAtEnd()) {
+            return index;
+        }
+
+        // Length prefix of the delimited PersistableEnvelope
+        int envelopeSize = inputStream.readRawVarint32();
+        int envelopeLimit = inputStream.pushLimit(envelopeSize);
+
+        // The PersistableEnvelope has only the store field of the oneof set
+        int storeTag = inputStream.readTag();
+        if (WireFormat.getTagWireType(storeTag) != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+            throw new IOException("Unexpected wire type of store field. tag=" + storeTag);
+        }
+        int storeSize = inputStream.readRawVarint32();
+        int storeLimit = inputStream.pushLimit(storeSize);
+
+        while (!inputStream.isAtEnd()) {
+            int itemTag = inputStream.readTag();
+            if (WireFormat.getTagFieldNumber(itemTag) != ITEMS_FIELD_NUMBER ||
+                    WireFormat.getTagWireType(itemTag) != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                inputStream.skipField(itemTag);
+                continue;
+            }
+
+            int position = inputStream.getTotalBytesRead();
+            int itemSize = inputStream.readRawVarint32();
+            int itemLimit = inputStream.pushLimit(itemSize);
+            byte[] hash = null;
+            while (!inputStream.isAtEnd()) {
+                int fieldTag = inputStream.readTag();
+                if (WireFormat.getTagFieldNumber(fieldTag) == hashFieldNumber &&
+                        WireFormat.getTagWireType(fieldTag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                    hash = inputStream.readByteArray();
+                } else {
+                    inputStream.skipField(fieldTag);
+                }
+            }
+            inputStream.popLimit(itemLimit);
+
+            if (hash == null || hash.length == 0) {
+                // Items without a persisted hash get the hash created from the data, so we need to decode those.
+                hash = decodeAt(position).getHash();
+            }
+            index.put(new P2PDataStorage.ByteArray(hash), position);
+        }
+
+        inputStream.popLimit(storeLimit);
+        inputStream.popLimit(envelopeLimit);
+        return index;
+    }
+
+    private PersistableNetworkPayload decodeAt(int position) {
+        try {
+            ByteBuffer readBuffer = buffer.duplicate();
+            readBuffer.position(position);
+            CodedInputStream sizeInputStream = CodedInputStream.newInstance(readBuffer.slice());
+            int itemSize = sizeInputStream.readRawVarint32();
+            int itemPosition = position + sizeInputStream.getTotalBytesRead();
+            readBuffer.position(itemPosition);
+            readBuffer.limit(itemPosition + itemSize);
+            return payloadDecoder.decode(readBuffer.slice());
+        } catch (IOException e) {
+            // The index was built from the same immutable data, so that should never happen.
+            throw new RuntimeException(e);
+        }
+    }
+
+    private class LazyEntry implements Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+        private final Entry<P2PDataStorage.ByteArray, Integer> indexEntry;
+
+        LazyEntry(Entry<P2PDataStorage.ByteArray, Integer> indexEntry) {
+            this.indexEntry = indexEntry;
+        }
+
+        @Override
+        public P2PDataStorage.ByteArray getKey() {
+            return indexEntry.getKey();
+        }
+
+        @Override
+        public PersistableNetworkPayload getValue() {
+            return decodeAt(indexEntry.getValue());
+        }
+
+        @Override
+        public PersistableNetworkPayload setValue(PersistableNetworkPayload value) {
+            throw new UnsupportedOperationException();
+        }
+
+        // Entries of the same store are compared by their key and position, so no payload gets decoded. Only the
+        // comparison with a foreign entry requires decoding our value.
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> that = (Entry<?, ?>) o;
+            if (!Objects.equals(getKey(), that.getKey())) {
+                return false;
+            }
+            if (that instanceof MappedHistoricalDataStore.LazyEntry) {
+                MappedHistoricalDataStore.LazyEntry lazyEntry = (MappedHistoricalDataStore.LazyEntry) that;
+                if (lazyEntry.getStore() == getStore()) {
+                    return indexEntry.getValue().equals(lazyEntry.indexEntry.getValue());
+                }
+            }
+            return Objects.equals(getValue(), that.getValue());
+        }
+
+        // The key is the hash of the payload, so it is sufficient for the hashCode. Deviates from the
+        // Map.Entry contract (key ^ value) to avoid decoding the payload, e.g. when entries get added to a HashSet.
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey());
+        }
+
+        private MappedHistoricalDataStore getStore() {
+            return MappedHistoricalDataStore.this;
+        }
+    }
+}
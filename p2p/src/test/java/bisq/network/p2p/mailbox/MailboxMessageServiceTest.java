@@ -0,0 +1,200 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.mailbox;
+
+import bisq.network.crypto.EncryptionService;
+import bisq.network.p2p.DecryptedMessageWithPubKey;
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.PrefixedSealedAndSignedMessage;
+import bisq.network.p2p.messaging.DecryptedMailboxListener;
+import bisq.network.p2p.network.NetworkNode;
+import bisq.network.p2p.peers.PeerManager;
+import bisq.network.p2p.peers.getdata.RequestDataManager;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.MailboxStoragePayload;
+import bisq.network.p2p.storage.payload.ProtectedMailboxStorageEntry;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+
+import bisq.common.crypto.CryptoException;
+import bisq.common.crypto.KeyRing;
+import bisq.common.crypto.PubKeyRing;
+import bisq.common.crypto.SealedAndSigned;
+import bisq.common.persistence.PersistenceManager;
+
+import java.time.Clock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MailboxMessageServiceTest {
+    private static final byte[] MY_PUB_KEY = new byte[]{1};
+    private static final byte[] OTHER_PUB_KEY = new byte[]{2};
+    private static final long CREATION_TIME_STAMP = 1000;
+    private static final int TIMEOUT_MS = 10000;
+
+    private EncryptionService encryptionService;
+    private IgnoredMailboxService ignoredMailboxService;
+    private PersistenceManager<MailboxMessageList> persistenceManager;
+    private DecryptedMailboxListener decryptedMailboxListener;
+    private MailboxMessageService mailboxMessageService;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        NetworkNode networkNode = mock(NetworkNode.class);
+        when(networkNode.getNodeAddress()).thenReturn(new NodeAddress("localhost:1000"));
+        KeyRing keyRing = mock(KeyRing.class);
+        PubKeyRing pubKeyRing = mock(PubKeyRing.class);
+        when(pubKeyRing.getSignaturePubKeyBytes()).thenReturn(MY_PUB_KEY);
+        when(keyRing.getPubKeyRing()).thenReturn(pubKeyRing);
+        encryptionService = mock(EncryptionService.class);
+        ignoredMailboxService = mock(IgnoredMailboxService.class);
+        persistenceManager = mock(PersistenceManager.class);
+
+        mailboxMessageService = new MailboxMessageService(networkNode,
+                mock(PeerManager.class),
+                mock(P2PDataStorage.class),
+                mock(RequestDataManager.class),
+                encryptionService,
+                ignoredMailboxService,
+                persistenceManager,
+                keyRing,
+                Clock.systemDefaultZone(),
+                false);
+        decryptedMailboxListener = mock(DecryptedMailboxListener.class);
+        mailboxMessageService.addDecryptedMailboxListener(decryptedMailboxListener);
+    }
+
+    @Test
+    public void onAdded_foreignEntryIsNotDecrypted() throws Exception {
+        ProtectedMailboxStorageEntry foreignEntry = createEntry("foreign", OTHER_PUB_KEY);
+
+        mailboxMessageService.onAdded(List.of(foreignEntry));
+
+        verify(encryptionService, never()).decryptAndVerify(any());
+        verify(ignoredMailboxService, never()).ignore(any(), anyLong());
+        verify(decryptedMailboxListener, never()).onMailboxMessageAdded(any(), any());
+    }
+
+    @Test
+    public void onAdded_batchDecryptsOnlyOwnEntries() throws Exception {
+        ProtectedMailboxStorageEntry ownEntry = createOwnEntry("own");
+        ProtectedMailboxStorageEntry foreignEntry = createEntry("foreign", OTHER_PUB_KEY);
+
+        mailboxMessageService.onAdded(List.of(ownEntry, foreignEntry));
+
+        verify(persistenceManager, timeout(TIMEOUT_MS).times(2)).requestPersistence();
+        verify(encryptionService).decryptAndVerify(getSealedAndSigned(ownEntry));
+        verify(encryptionService, never()).decryptAndVerify(getSealedAndSigned(foreignEntry));
+        Assert.assertEquals(List.of("own"), getDeliveredUids(1));
+    }
+
+    @Test
+    public void onAdded_failedOwnEntryIsPersistedAsIgnored() throws Exception {
+        ProtectedMailboxStorageEntry failingEntry = createEntry("failing", MY_PUB_KEY);
+        when(encryptionService.decryptAndVerify(getSealedAndSigned(failingEntry)))
+                .thenThrow(new CryptoException("not for us"));
+        ProtectedMailboxStorageEntry ownEntry = createOwnEntry("own");
+
+        mailboxMessageService.onAdded(List.of(failingEntry, ownEntry));
+
+        verify(persistenceManager, timeout(TIMEOUT_MS).times(2)).requestPersistence();
+        verify(ignoredMailboxService).ignore("failing", CREATION_TIME_STAMP);
+        Assert.assertEquals(List.of("own"), getDeliveredUids(1));
+    }
+
+    @Test
+    public void onAdded_multiChunkBatchDeliversEachItemOnce() throws Exception {
+        mailboxMessageService.maxBatchThreads = 4;
+        List<ProtectedStorageEntry> entries = new ArrayList<>();
+        int numOwnEntries = 300;
+        int numForeignEntries = 150;
+        for (int i = 0; i < numOwnEntries; i++) {
+            entries.add(createOwnEntry("own" + i));
+        }
+        for (int i = 0; i < numForeignEntries; i++) {
+            entries.add(createEntry("foreign" + i, OTHER_PUB_KEY));
+        }
+
+        // 450 entries get split into 4 chunks
+        mailboxMessageService.onAdded(entries);
+
+        // Each new item requests persistence once, so we know when all items are handled
+        verify(persistenceManager, timeout(TIMEOUT_MS).times(numOwnEntries + numForeignEntries)).requestPersistence();
+        verify(encryptionService, times(numOwnEntries)).decryptAndVerify(any());
+        List<String> deliveredUids = getDeliveredUids(numOwnEntries);
+        Set<String> distinctUids = Set.copyOf(deliveredUids);
+        Assert.assertEquals(numOwnEntries, distinctUids.size());
+        Assert.assertTrue(distinctUids.stream().allMatch(uid -> uid.startsWith("own")));
+    }
+
+    // Waits until our listener got called the expected number of times and returns the uids it got called with
+    private List<String> getDeliveredUids(int expectedNumDeliveries) {
+        ArgumentCaptor<DecryptedMessageWithPubKey> captor = ArgumentCaptor.forClass(DecryptedMessageWithPubKey.class);
+        verify(decryptedMailboxListener, timeout(TIMEOUT_MS).times(expectedNumDeliveries))
+                .onMailboxMessageAdded(captor.capture(), any());
+        return captor.getAllValues().stream()
+                .map(e -> ((MailboxMessage) e.getNetworkEnvelope()).getUid())
+                .collect(Collectors.toList());
+    }
+
+    private ProtectedMailboxStorageEntry createOwnEntry(String uid) throws Exception {
+        ProtectedMailboxStorageEntry entry = createEntry(uid, MY_PUB_KEY);
+        PrefixedSealedAndSignedMessage mailboxMessage = mock(PrefixedSealedAndSignedMessage.class);
+        when(mailboxMessage.getUid()).thenReturn(uid);
+        DecryptedMessageWithPubKey decryptedMessageWithPubKey = mock(DecryptedMessageWithPubKey.class);
+        when(decryptedMessageWithPubKey.getNetworkEnvelope()).thenReturn(mailboxMessage);
+        when(encryptionService.decryptAndVerify(getSealedAndSigned(entry))).thenReturn(decryptedMessageWithPubKey);
+        return entry;
+    }
+
+    private static ProtectedMailboxStorageEntry createEntry(String uid, byte[] receiversPubKeyBytes) {
+        PrefixedSealedAndSignedMessage prefixedSealedAndSignedMessage = mock(PrefixedSealedAndSignedMessage.class);
+        when(prefixedSealedAndSignedMessage.getUid()).thenReturn(uid);
+        when(prefixedSealedAndSignedMessage.getSealedAndSigned()).thenReturn(mock(SealedAndSigned.class));
+        MailboxStoragePayload mailboxStoragePayload = mock(MailboxStoragePayload.class);
+        when(mailboxStoragePayload.getPrefixedSealedAndSignedMessage()).thenReturn(prefixedSealedAndSignedMessage);
+        when(mailboxStoragePayload.toProtoMessage()).thenReturn(protobuf.StoragePayload.getDefaultInstance());
+        ProtectedMailboxStorageEntry entry = mock(ProtectedMailboxStorageEntry.class);
+        when(entry.getMailboxStoragePayload()).thenReturn(mailboxStoragePayload);
+        when(entry.getProtectedStoragePayload()).thenReturn(mailboxStoragePayload);
+        when(entry.getReceiversPubKeyBytes()).thenReturn(receiversPubKeyBytes);
+        when(entry.getCreationTimeStamp()).thenReturn(CREATION_TIME_STAMP);
+        return entry;
+    }
+
+    private static SealedAndSigned getSealedAndSigned(ProtectedMailboxStorageEntry entry) {
+        return entry.getMailboxStoragePayload().getPrefixedSealedAndSignedMessage().getSealedAndSigned();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MessageTimeStampWindowTest {
+
+    @Test
+    public void exceedsLimit_sameThresholdAsBefore() {
+        // With the default limit of 200 msg/sec the 200th message within a second is a violation
+        MessageTimeStampWindow window = new MessageTimeStampWindow(1000);
+        long now = 1000;
+        for (int i = 0; i < 199; i++) {
+            window.add(now);
+            Assert.assertFalse(window.exceedsLimit(now, 200, 1000));
+        }
+        window.add(now);
+        Assert.assertTrue(window.exceedsLimit(now, 200, 1000));
+    }
+
+    @Test
+    public void exceedsLimit_noBurstOnTopOfLimit() {
+        MessageTimeStampWindow window = new MessageTimeStampWindow(10);
+        long now = 1000;
+        for (int i = 0; i < 10; i++) {
+            window.add(now + i * 100);
+        }
+        // 10 messages within 900 ms
+        Assert.assertTrue(window.exceedsLimit(now + 900, 10, 1000));
+
+        // After a pause the window only counts the messages since 1900
+        window.add(now + 2000);
+        Assert.assertFalse(window.exceedsLimit(now + 2000, 10, 1000));
+        for (int i = 0; i < 8; i++) {
+            window.add(now + 2000);
+        }
+        Assert.assertFalse(window.exceedsLimit(now + 2000, 10, 1000));
+        window.add(now + 2000);
+        Assert.assertTrue(window.exceedsLimit(now + 2000, 10, 1000));
+    }
+
+    @Test
+    public void exceedsLimit_ringBufferWrapsAround() {
+        MessageTimeStampWindow window = new MessageTimeStampWindow(3);
+        window.add(0);
+        window.add(1000);
+        window.add(2000);
+        window.add(2500);
+        window.add(2600);
+
+        // Last 3 messages: 2000, 2500, 2600
+        Assert.assertTrue(window.exceedsLimit(2600, 3, 1000));
+        Assert.assertFalse(window.exceedsLimit(2600, 3, 600));
+        // Last 2 messages: 2500, 2600
+        Assert.assertTrue(window.exceedsLimit(2600, 2, 200));
+        Assert.assertFalse(window.exceedsLimit(2600, 4, 10000));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.BundleOfEnvelopes;
+import bisq.network.p2p.peers.keepalive.messages.Ping;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SendQueueTest {
+    private static final int MAX_BUNDLE_SIZE = 1024 * 1024;
+
+    private SendQueue sendQueue;
+    private long now;
+
+    @Before
+    public void setUp() {
+        sendQueue = new SendQueue(new TokenBucket(1, 1, 50));
+        now = 1000;
+    }
+
+    @Test
+    public void tryAcquire_controlIsNotThrottled() {
+        Assert.assertTrue(sendQueue.tryAcquire(MessagePriority.DIRECT, now));
+        Assert.assertFalse(sendQueue.tryAcquire(MessagePriority.DIRECT, now));
+        Assert.assertTrue(sendQueue.tryAcquire(MessagePriority.CONTROL, now));
+    }
+
+    @Test
+    public void tryAcquire_doesNotOvertakeQueuedMessages() {
+        Assert.assertTrue(sendQueue.tryAcquire(MessagePriority.BULK, now));
+        sendQueue.add(MessagePriority.BULK, SerializedEnvelope.of(new Ping(1, 0)));
+
+        now += 1000;
+        Assert.assertFalse(sendQueue.tryAcquire(MessagePriority.DIRECT, now));
+    }
+
+    @Test
+    public void poll_highestPriorityFirst() {
+        SerializedEnvelope bulk = SerializedEnvelope.of(new Ping(1, 0));
+        SerializedEnvelope broadcast = SerializedEnvelope.of(new Ping(2, 0));
+        SerializedEnvelope direct = SerializedEnvelope.of(new Ping(3, 0));
+        sendQueue.add(MessagePriority.BULK, bulk);
+        sendQueue.add(MessagePriority.BROADCAST, broadcast);
+        sendQueue.add(MessagePriority.DIRECT, direct);
+
+        Assert.assertSame(direct, sendQueue.poll(now, false, MAX_BUNDLE_SIZE));
+        Assert.assertNull(sendQueue.poll(now, false, MAX_BUNDLE_SIZE));
+        Assert.assertEquals(50, sendQueue.getMillisUntilNextPoll(now));
+
+        now += 50;
+        Assert.assertSame(broadcast, sendQueue.poll(now, false, MAX_BUNDLE_SIZE));
+        now += 50;
+        Assert.assertSame(bulk, sendQueue.poll(now, false, MAX_BUNDLE_SIZE));
+        Assert.assertTrue(sendQueue.isEmpty());
+        Assert.assertNull(sendQueue.poll(now + 50, false, MAX_BUNDLE_SIZE));
+    }
+
+    @Test
+    public void poll_bundlesMessagesOfSamePriority() {
+        sendQueue.add(MessagePriority.BROADCAST, SerializedEnvelope.of(new Ping(1, 0)));
+        sendQueue.add(MessagePriority.BROADCAST, SerializedEnvelope.of(new Ping(2, 0)));
+        SerializedEnvelope bulk = SerializedEnvelope.of(new Ping(3, 0));
+        sendQueue.add(MessagePriority.BULK, bulk);
+
+        SerializedEnvelope bundle = sendQueue.poll(now, true, MAX_BUNDLE_SIZE);
+        Assert.assertNotNull(bundle);
+        Assert.assertTrue(bundle.getEnvelope() instanceof BundleOfEnvelopes);
+        Assert.assertEquals(2, ((BundleOfEnvelopes) bundle.getEnvelope()).getEnvelopes().size());
+
+        Assert.assertSame(bulk, sendQueue.poll(now + 50, true, MAX_BUNDLE_SIZE));
+    }
+
+    @Test
+    public void poll_bundleRespectsMaxSize() {
+        SerializedEnvelope first = SerializedEnvelope.of(new Ping(1, 0));
+        sendQueue.add(MessagePriority.BROADCAST, first);
+        sendQueue.add(MessagePriority.BROADCAST, SerializedEnvelope.of(new Ping(2, 0)));
+
+        Assert.assertSame(first, sendQueue.poll(now, true, first.getSerializedSize()));
+        Assert.assertFalse(sendQueue.isEmpty());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.BundleOfEnvelopes;
+import bisq.network.p2p.peers.keepalive.messages.Ping;
+import bisq.network.p2p.storage.messages.RefreshOfferMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SerializedEnvelopeTest {
+
+    @Test
+    public void of_frameIsDelimitedProto() throws IOException {
+        Ping ping = new Ping(1, 2);
+        SerializedEnvelope serializedEnvelope = SerializedEnvelope.of(ping);
+
+        Assert.assertEquals(ping.toProtoNetworkEnvelope().getSerializedSize(), serializedEnvelope.getSerializedSize());
+        Assert.assertArrayEquals(toDelimitedBytes(ping.toProtoNetworkEnvelope()), toBytes(serializedEnvelope));
+    }
+
+    @Test
+    public void of_broadcastMessageIsSerializedOnce() {
+        RefreshOfferMessage message = new RefreshOfferMessage(new byte[]{1}, new byte[]{2}, new byte[]{3}, 4);
+
+        Assert.assertSame(SerializedEnvelope.of(message), SerializedEnvelope.of(message));
+    }
+
+    @Test
+    public void of_bundleMatchesProto() throws IOException {
+        RefreshOfferMessage message1 = new RefreshOfferMessage(new byte[]{1}, new byte[]{2}, new byte[]{3}, 4);
+        RefreshOfferMessage message2 = new RefreshOfferMessage(new byte[200], new byte[46], new byte[32], 5);
+        BundleOfEnvelopes bundle = new BundleOfEnvelopes(Arrays.asList(message1, message2));
+
+        SerializedEnvelope serializedEnvelope = SerializedEnvelope.of(bundle);
+
+        Assert.assertSame(bundle, serializedEnvelope.getEnvelope());
+        Assert.assertEquals(bundle.toProtoNetworkEnvelope().getSerializedSize(), serializedEnvelope.getSerializedSize());
+        Assert.assertArrayEquals(toDelimitedBytes(bundle.toProtoNetworkEnvelope()), toBytes(serializedEnvelope));
+    }
+
+    @Test
+    public void bundleBuilder_predictsSize() throws IOException {
+        Ping ping = new Ping(1, 2);
+        RefreshOfferMessage message = new RefreshOfferMessage(new byte[200], new byte[46], new byte[32], 5);
+        SerializedEnvelope.BundleBuilder bundleBuilder = new SerializedEnvelope.BundleBuilder();
+        bundleBuilder.add(SerializedEnvelope.of(ping));
+
+        int expectedSize = bundleBuilder.getSerializedSizeWith(SerializedEnvelope.of(message).getSerializedSize());
+        bundleBuilder.add(SerializedEnvelope.of(message));
+        SerializedEnvelope bundle = bundleBuilder.build();
+
+        Assert.assertTrue(bundle.getEnvelope() instanceof BundleOfEnvelopes);
+        Assert.assertEquals(expectedSize, bundle.getSerializedSize());
+        Assert.assertArrayEquals(toDelimitedBytes(bundle.getEnvelope().toProtoNetworkEnvelope()), toBytes(bundle));
+    }
+
+    @Test
+    public void bundleBuilder_singleEnvelopeIsNotBundled() {
+        Ping ping = new Ping(1, 2);
+        SerializedEnvelope serializedEnvelope = SerializedEnvelope.of(ping);
+        SerializedEnvelope.BundleBuilder bundleBuilder = new SerializedEnvelope.BundleBuilder();
+        bundleBuilder.add(serializedEnvelope);
+
+        Assert.assertSame(serializedEnvelope, bundleBuilder.build());
+    }
+
+    private static byte[] toBytes(SerializedEnvelope serializedEnvelope) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializedEnvelope.writeDelimitedTo(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] toDelimitedBytes(protobuf.NetworkEnvelope proto) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        proto.writeDelimitedTo(outputStream);
+        return outputStream.toByteArray();
+    }
+}
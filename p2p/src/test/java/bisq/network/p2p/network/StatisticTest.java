@@ -0,0 +1,92 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.peers.keepalive.messages.Ping;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class StatisticTest {
+
+    @Test
+    public void addSentBytes_countsPerConnectionAndPeerType() throws InterruptedException {
+        Statistic statistic = new Statistic(() -> PeerType.DIRECT_MSG_PEER);
+        long sentBytesOfPeerType = Statistic.getSentBytes(PeerType.DIRECT_MSG_PEER);
+        long totalSentBytes = Statistic.getTotalSentBytes();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> statistic.addSentBytes(10));
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Assert.assertEquals(10000, statistic.getSentBytes());
+        Assert.assertEquals(sentBytesOfPeerType + 10000, Statistic.getSentBytes(PeerType.DIRECT_MSG_PEER));
+        Assert.assertEquals(totalSentBytes + 10000, Statistic.getTotalSentBytes());
+    }
+
+    @Test
+    public void addReceivedMessage_countsConcurrentMessagesOfSameType() throws InterruptedException {
+        Statistic statistic = new Statistic(() -> PeerType.PEER);
+        long numPings = Statistic.getTotalReceivedMessagesByType().getOrDefault("Ping", 0L);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> statistic.addReceivedMessage(new Ping(1, 0)));
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Assert.assertEquals(numPings + 1000, (long) Statistic.getTotalReceivedMessagesByType().get("Ping"));
+    }
+
+    @Test
+    public void latencyHistogram_cumulativeCounts() {
+        LatencyHistogram histogram = new LatencyHistogram(new long[]{10, 100});
+        histogram.record(5);
+        histogram.record(10);
+        histogram.record(50);
+        histogram.record(1000);
+
+        Assert.assertArrayEquals(new long[]{2, 3, 4}, histogram.getCumulativeCounts());
+        Assert.assertEquals(4, histogram.getCount());
+        Assert.assertEquals(1065, histogram.getSum());
+    }
+
+    @Test
+    public void getMetrics_exportsPrometheusTextFormat() {
+        Statistic statistic = new Statistic(() -> PeerType.INITIAL_DATA_EXCHANGE);
+        statistic.addSentMessage(new Ping(1, 0));
+        statistic.recordRoundTripTime(42);
+
+        String metrics = NetworkMetricsServer.getMetrics(Collections.emptySet());
+
+        Assert.assertTrue(metrics.contains("# TYPE bisq_p2p_sent_bytes_total counter\n"));
+        Assert.assertTrue(metrics.contains("bisq_p2p_connections{peer_type=\"PEER\"} 0\n"));
+        Assert.assertTrue(metrics.contains("bisq_p2p_sent_messages_total{message_type=\"Ping\"} "));
+        Assert.assertTrue(metrics.contains("# TYPE bisq_p2p_round_trip_time_ms histogram\n"));
+        Assert.assertTrue(metrics.contains("bisq_p2p_round_trip_time_ms_bucket{peer_type=\"INITIAL_DATA_EXCHANGE\",le=\"+Inf\"} "));
+    }
+}
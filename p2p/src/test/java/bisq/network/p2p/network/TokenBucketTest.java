@@ -0,0 +1,62 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TokenBucketTest {
+
+    @Test
+    public void tryConsume_burstThenRate() {
+        TokenBucket tokenBucket = new TokenBucket(3, 1, 10);
+        long now = 1000;
+
+        Assert.assertTrue(tokenBucket.tryConsume(now));
+        Assert.assertTrue(tokenBucket.tryConsume(now));
+        Assert.assertTrue(tokenBucket.tryConsume(now));
+        Assert.assertFalse(tokenBucket.tryConsume(now));
+        Assert.assertEquals(10, tokenBucket.getMillisUntilAvailable(now));
+
+        Assert.assertFalse(tokenBucket.tryConsume(now + 9));
+        Assert.assertEquals(1, tokenBucket.getMillisUntilAvailable(now + 9));
+        Assert.assertTrue(tokenBucket.tryConsume(now + 10));
+        Assert.assertFalse(tokenBucket.tryConsume(now + 10));
+    }
+
+    @Test
+    public void tryConsume_refillIsCappedAtCapacity() {
+        TokenBucket tokenBucket = new TokenBucket(2, 1, 10);
+        long now = 1000;
+        tokenBucket.tryConsume(now);
+        tokenBucket.tryConsume(now);
+
+        now += 1000;
+        Assert.assertEquals(0, tokenBucket.getMillisUntilAvailable(now));
+        Assert.assertTrue(tokenBucket.tryConsume(now));
+        Assert.assertTrue(tokenBucket.tryConsume(now));
+        Assert.assertFalse(tokenBucket.tryConsume(now));
+    }
+
+    @Test
+    public void tryConsume_timeGoingBackwardsDoesNotRefill() {
+        TokenBucket tokenBucket = new TokenBucket(1, 1, 10);
+        Assert.assertTrue(tokenBucket.tryConsume(1000));
+        Assert.assertFalse(tokenBucket.tryConsume(900));
+    }
+}
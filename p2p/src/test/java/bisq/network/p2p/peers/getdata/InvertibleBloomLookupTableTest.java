@@ -0,0 +1,147 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.peers.getdata;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import bisq.common.crypto.Hash;
+
+import com.google.protobuf.ByteString;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InvertibleBloomLookupTableTest {
+
+    @Test
+    public void decode_returnsDifferenceOfBothSets() {
+        Set<P2PDataStorage.ByteArray> sharedKeys = createKeys(0, 5000, 32);
+        Set<P2PDataStorage.ByteArray> onlyAtResponder = createKeys(5000, 100, 32);
+        Set<P2PDataStorage.ByteArray> onlyAtRequester = createKeys(6000, 50, 20);
+
+        InvertibleBloomLookupTable requesterTable = new InvertibleBloomLookupTable(300);
+        requesterTable.insertAll(sharedKeys);
+        requesterTable.insertAll(onlyAtRequester);
+
+        InvertibleBloomLookupTable responderTable = new InvertibleBloomLookupTable(300);
+        responderTable.insertAll(sharedKeys);
+        responderTable.insertAll(onlyAtResponder);
+
+        Set<P2PDataStorage.ByteArray> positiveKeys = new HashSet<>();
+        Set<P2PDataStorage.ByteArray> negativeKeys = new HashSet<>();
+        Assert.assertTrue(responderTable.subtract(requesterTable).decode(positiveKeys, negativeKeys));
+        Assert.assertEquals(onlyAtResponder, positiveKeys);
+        Assert.assertEquals(onlyAtRequester, negativeKeys);
+    }
+
+    @Test
+    public void decode_failsIfDifferenceIsTooLarge() {
+        InvertibleBloomLookupTable requesterTable = new InvertibleBloomLookupTable(30);
+        InvertibleBloomLookupTable responderTable = new InvertibleBloomLookupTable(30);
+        responderTable.insertAll(createKeys(0, 1000, 32));
+
+        Assert.assertFalse(responderTable.subtract(requesterTable).decode(new HashSet<>(), new HashSet<>()));
+    }
+
+    @Test
+    public void decode_emptyDifference() {
+        InvertibleBloomLookupTable requesterTable = new InvertibleBloomLookupTable(30);
+        InvertibleBloomLookupTable responderTable = new InvertibleBloomLookupTable(30);
+        requesterTable.insertAll(createKeys(0, 1000, 32));
+        responderTable.insertAll(createKeys(0, 1000, 32));
+
+        Set<P2PDataStorage.ByteArray> positiveKeys = new HashSet<>();
+        Set<P2PDataStorage.ByteArray> negativeKeys = new HashSet<>();
+        Assert.assertTrue(responderTable.subtract(requesterTable).decode(positiveKeys, negativeKeys));
+        Assert.assertTrue(positiveKeys.isEmpty());
+        Assert.assertTrue(negativeKeys.isEmpty());
+    }
+
+    @Test(timeout = 10000)
+    public void decode_failsIfKeyWouldBePeeledTwice() {
+        InvertibleBloomLookupTable table = new InvertibleBloomLookupTable(30);
+        table.insertAll(createKeys(0, 1, 32));
+
+        // We keep only the first of the 3 cells of the key. Peeling it makes the 2 other cells pure with a count
+        // of -1 and peeling one of those makes the first cell pure again.
+        protobuf.InvertibleBloomLookupTable proto = table.toProtoMessage();
+        List<Integer> counts = new ArrayList<>(proto.getCountsList());
+        List<Long> hashSums = new ArrayList<>(proto.getHashSumsList());
+        byte[] keySums = proto.getKeySums().toByteArray();
+        int keySumLength = keySums.length / counts.size();
+        boolean isFirstCell = true;
+        for (int i = 0; i < counts.size(); i++) {
+            if (counts.get(i) != 0) {
+                if (!isFirstCell) {
+                    counts.set(i, 0);
+                    hashSums.set(i, 0L);
+                    Arrays.fill(keySums, i * keySumLength, (i + 1) * keySumLength, (byte) 0);
+                }
+                isFirstCell = false;
+            }
+        }
+        InvertibleBloomLookupTable craftedTable = InvertibleBloomLookupTable.fromProto(proto.toBuilder()
+                .clearCounts()
+                .addAllCounts(counts)
+                .setKeySums(ByteString.copyFrom(keySums))
+                .clearHashSums()
+                .addAllHashSums(hashSums)
+                .build());
+
+        Assert.assertFalse(craftedTable.decode(new HashSet<>(), new HashSet<>()));
+    }
+
+    @Test
+    public void getMaxSerializedSize_isUpperBoundOfSerializedSize() {
+        InvertibleBloomLookupTable table = new InvertibleBloomLookupTable(300);
+        table.insertAll(createKeys(0, 1000, 32));
+
+        Assert.assertTrue(table.toProtoMessage().getSerializedSize() <=
+                InvertibleBloomLookupTable.getMaxSerializedSize(300));
+    }
+
+    @Test
+    public void protoRoundTrip() {
+        InvertibleBloomLookupTable table = new InvertibleBloomLookupTable(100);
+        table.insertAll(createKeys(0, 50, 32));
+
+        Assert.assertEquals(table, InvertibleBloomLookupTable.fromProto(table.toProtoMessage()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsTooLargeTable() {
+        new InvertibleBloomLookupTable(InvertibleBloomLookupTable.MAX_NUM_CELLS + 3);
+    }
+
+    private static Set<P2PDataStorage.ByteArray> createKeys(int from, int num, int length) {
+        Set<P2PDataStorage.ByteArray> keys = new HashSet<>();
+        for (int i = from; i < from + num; i++) {
+            byte[] hash = Hash.getSha256Hash(String.valueOf(i));
+            byte[] key = new byte[length];
+            System.arraycopy(hash, 0, key, 0, length);
+            keys.add(new P2PDataStorage.ByteArray(key));
+        }
+        return keys;
+    }
+}
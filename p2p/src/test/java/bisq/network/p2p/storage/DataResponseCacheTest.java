@@ -0,0 +1,157 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import bisq.network.p2p.storage.mocks.DateSortedTruncatablePayloadStub;
+import bisq.network.p2p.storage.mocks.PersistableNetworkPayloadStub;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import bisq.common.app.Capabilities;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DataResponseCacheTest {
+    private static final int MAX_ITEMS = 3;
+
+    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map;
+    private DataResponseCache dataResponseCache;
+
+    @Before
+    public void setUp() {
+        map = new HashMap<>();
+        dataResponseCache = new DataResponseCache(version -> map);
+    }
+
+    @Test
+    public void filterKnownHashes_excludesKnownHashes() {
+        PersistableNetworkPayload known = put(new PersistableNetworkPayloadStub(new byte[]{1}));
+        PersistableNetworkPayload unknown = put(new PersistableNetworkPayloadStub(new byte[]{2}));
+
+        Set<PersistableNetworkPayload> result = filter(Set.of(hash(known)), 10, new AtomicBoolean());
+
+        Assert.assertEquals(Set.of(unknown), result);
+    }
+
+    @Test
+    public void filterKnownHashes_keepsNewestDateSortedPayloads() {
+        PersistableNetworkPayload oldest = put(new DateSortedTruncatablePayloadStub(new byte[]{1}, 1, MAX_ITEMS));
+        PersistableNetworkPayload old = put(new DateSortedTruncatablePayloadStub(new byte[]{2}, 2, MAX_ITEMS));
+        PersistableNetworkPayload known = put(new DateSortedTruncatablePayloadStub(new byte[]{3}, 3, MAX_ITEMS));
+        PersistableNetworkPayload newer = put(new DateSortedTruncatablePayloadStub(new byte[]{4}, 4, MAX_ITEMS));
+        PersistableNetworkPayload newest = put(new DateSortedTruncatablePayloadStub(new byte[]{5}, 5, MAX_ITEMS));
+
+        Set<PersistableNetworkPayload> result = filter(Set.of(hash(known)), 10, new AtomicBoolean());
+
+        Assert.assertEquals(Set.of(old, newer, newest), result);
+        Assert.assertFalse(result.contains(oldest));
+    }
+
+    @Test
+    public void filterKnownHashes_truncatesDateSortedPayloadsFirst() {
+        PersistableNetworkPayload payload = put(new PersistableNetworkPayloadStub(new byte[]{1}));
+        put(new DateSortedTruncatablePayloadStub(new byte[]{2}, 1, MAX_ITEMS));
+        AtomicBoolean truncated = new AtomicBoolean();
+
+        Set<PersistableNetworkPayload> result = filter(new HashSet<>(), 1, truncated);
+
+        Assert.assertEquals(Set.of(payload), result);
+        Assert.assertTrue(truncated.get());
+    }
+
+    @Test
+    public void onAdded_addsPayloadToCachedView() {
+        put(new DateSortedTruncatablePayloadStub(new byte[]{1}, 1, MAX_ITEMS));
+        filter(new HashSet<>(), 10, new AtomicBoolean());
+
+        PersistableNetworkPayload added = put(new DateSortedTruncatablePayloadStub(new byte[]{2}, 2, MAX_ITEMS));
+        dataResponseCache.onAdded(hash(added), added);
+
+        Set<PersistableNetworkPayload> result = filter(new HashSet<>(), 10, new AtomicBoolean());
+        Assert.assertTrue(result.contains(added));
+        Assert.assertEquals(2, result.size());
+    }
+
+    @Test
+    public void onAdded_ignoresPayloadNotInMap() {
+        put(new PersistableNetworkPayloadStub(new byte[]{1}));
+        DataResponseCache.View view = dataResponseCache.getView("1.5.0", new Capabilities());
+
+        PersistableNetworkPayload added = new PersistableNetworkPayloadStub(new byte[]{2});
+        dataResponseCache.onAdded(hash(added), added);
+
+        Assert.assertEquals(1, view.size());
+    }
+
+    @Test
+    public void invalidate_rebuildsView() {
+        filter(new HashSet<>(), 10, new AtomicBoolean());
+        PersistableNetworkPayload payload = put(new PersistableNetworkPayloadStub(new byte[]{1}));
+
+        // The view was built before the payload was added to the map directly
+        Assert.assertTrue(filter(new HashSet<>(), 10, new AtomicBoolean()).isEmpty());
+
+        dataResponseCache.invalidate();
+        Assert.assertEquals(Set.of(payload), filter(new HashSet<>(), 10, new AtomicBoolean()));
+    }
+
+    @Test
+    public void filterKnownHashes_looksUpOnlyDeliveredPayloads() {
+        AtomicInteger numLookups = new AtomicInteger();
+        map = new HashMap<>() {
+            @Override
+            public PersistableNetworkPayload get(Object key) {
+                numLookups.incrementAndGet();
+                return super.get(key);
+            }
+        };
+        dataResponseCache = new DataResponseCache(version -> map);
+        PersistableNetworkPayload known = put(new PersistableNetworkPayloadStub(new byte[]{1}));
+        PersistableNetworkPayload unknown = put(new PersistableNetworkPayloadStub(new byte[]{2}));
+        PersistableNetworkPayload knownDateSorted = put(new DateSortedTruncatablePayloadStub(new byte[]{3}, 1, MAX_ITEMS));
+
+        Set<PersistableNetworkPayload> result = filter(Set.of(hash(known), hash(knownDateSorted)), 10, new AtomicBoolean());
+
+        Assert.assertEquals(Set.of(unknown), result);
+        Assert.assertEquals(1, numLookups.get());
+    }
+
+    private Set<PersistableNetworkPayload> filter(Set<P2PDataStorage.ByteArray> knownHashes,
+                                                  int maxEntries,
+                                                  AtomicBoolean truncated) {
+        return dataResponseCache.getView("1.5.0", new Capabilities())
+                .filterKnownHashes(knownHashes::contains, maxEntries, truncated);
+    }
+
+    private PersistableNetworkPayload put(PersistableNetworkPayload payload) {
+        map.put(hash(payload), payload);
+        return payload;
+    }
+
+    private static P2PDataStorage.ByteArray hash(PersistableNetworkPayload payload) {
+        return new P2PDataStorage.ByteArray(payload.getHash());
+    }
+}
@@ -20,6 +20,7 @@ package bisq.network.p2p.storage;
 import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.TestUtils;
 import bisq.network.p2p.network.NetworkNode;
+import bisq.network.p2p.peers.getdata.InvertibleBloomLookupTable;
 import bisq.network.p2p.peers.getdata.messages.GetDataRequest;
 import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
 import bisq.network.p2p.peers.getdata.messages.GetUpdatedDataRequest;
@@ -63,6 +64,8 @@ public class P2PDataStorageBuildGetDataResponseTest {
 
         abstract GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys);
 
+        abstract GetDataRequest buildGetDataRequest(int nonce, InvertibleBloomLookupTable knownKeysTable);
+
         @Mock
         NetworkNode networkNode;
 
@@ -462,6 +465,58 @@ public class P2PDataStorageBuildGetDataResponseTest {
             Assert.assertTrue(getDataResponse.getPersistableNetworkPayloadSet().isEmpty());
             Assert.assertTrue(getDataResponse.getDataSet().contains(onlyLocal));
         }
+
+        // TESTCASE: Given a GetDataRequest w/ known keys table, send back only the PNP unknown to the peer
+        @Test
+        public void buildGetDataResponse_knownKeysTableSendBackUnknownPNP() {
+            PersistableNetworkPayload fromPeerAndLocal = new PersistableNetworkPayloadStub(new byte[]{1});
+            PersistableNetworkPayload onlyLocal = new PersistableNetworkPayloadStub(new byte[]{2});
+
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    fromPeerAndLocal, this.localNodeAddress, false);
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    onlyLocal, this.localNodeAddress, false);
+
+            InvertibleBloomLookupTable knownKeysTable = new InvertibleBloomLookupTable(30);
+            knownKeysTable.insert(fromPeerAndLocal.getHash());
+            knownKeysTable.insert(new byte[]{3});
+            GetDataRequest getDataRequest = this.buildGetDataRequest(1, knownKeysTable);
+
+            AtomicBoolean outPNPTruncated = new AtomicBoolean(false);
+            AtomicBoolean outPSETruncated = new AtomicBoolean(false);
+            Capabilities peerCapabilities = new Capabilities();
+            GetDataResponse getDataResponse = this.testState.mockedStorage.buildGetDataResponse(
+                    getDataRequest, 2, outPNPTruncated, outPSETruncated, peerCapabilities);
+
+            Assert.assertFalse(getDataResponse.isReconciliationFailed());
+            Assert.assertEquals(1, getDataResponse.getRequestNonce());
+            Assert.assertEquals(getDataRequest instanceof GetUpdatedDataRequest, getDataResponse.isGetUpdatedDataResponse());
+            Assert.assertEquals(Collections.singleton(onlyLocal), getDataResponse.getPersistableNetworkPayloadSet());
+            Assert.assertTrue(getDataResponse.getDataSet().isEmpty());
+        }
+
+        // TESTCASE: Given a GetDataRequest w/ a known keys table too small for the difference, signal the failure
+        @Test
+        public void buildGetDataResponse_knownKeysTableTooSmallReconciliationFailed() {
+            for (byte i = 0; i < 50; i++) {
+                this.testState.mockedStorage.addPersistableNetworkPayload(
+                        new PersistableNetworkPayloadStub(new byte[]{i}), this.localNodeAddress, false);
+            }
+
+            GetDataRequest getDataRequest = this.buildGetDataRequest(1, new InvertibleBloomLookupTable(3));
+
+            AtomicBoolean outPNPTruncated = new AtomicBoolean(false);
+            AtomicBoolean outPSETruncated = new AtomicBoolean(false);
+            Capabilities peerCapabilities = new Capabilities();
+            GetDataResponse getDataResponse = this.testState.mockedStorage.buildGetDataResponse(
+                    getDataRequest, 100, outPNPTruncated, outPSETruncated, peerCapabilities);
+
+            Assert.assertTrue(getDataResponse.isReconciliationFailed());
+            Assert.assertEquals(1, getDataResponse.getRequestNonce());
+            Assert.assertEquals(getDataRequest instanceof GetUpdatedDataRequest, getDataResponse.isGetUpdatedDataResponse());
+            Assert.assertTrue(getDataResponse.getPersistableNetworkPayloadSet().isEmpty());
+            Assert.assertTrue(getDataResponse.getDataSet().isEmpty());
+        }
     }
 
     public static class P2PDataStorageBuildGetDataResponseTestPreliminary extends P2PDataStorageBuildGetDataResponseTestBase {
@@ -470,6 +525,11 @@ public class P2PDataStorageBuildGetDataResponseTest {
         GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys) {
             return new PreliminaryGetDataRequest(nonce, knownKeys);
         }
+
+        @Override
+        GetDataRequest buildGetDataRequest(int nonce, InvertibleBloomLookupTable knownKeysTable) {
+            return new PreliminaryGetDataRequest(nonce, knownKeysTable);
+        }
     }
 
     public static class P2PDataStorageBuildGetDataResponseTestUpdated extends P2PDataStorageBuildGetDataResponseTestBase {
@@ -478,5 +538,10 @@ public class P2PDataStorageBuildGetDataResponseTest {
         GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys) {
             return new GetUpdatedDataRequest(new NodeAddress("peer", 10), nonce, knownKeys);
         }
+
+        @Override
+        GetDataRequest buildGetDataRequest(int nonce, InvertibleBloomLookupTable knownKeysTable) {
+            return new GetUpdatedDataRequest(new NodeAddress("peer", 10), nonce, knownKeysTable);
+        }
     }
 }
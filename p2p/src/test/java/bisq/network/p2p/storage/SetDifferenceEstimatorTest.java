@@ -0,0 +1,79 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import bisq.network.p2p.peers.getdata.InvertibleBloomLookupTable;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SetDifferenceEstimatorTest {
+
+    @Test
+    public void getNumCells_scalesWithKnownKeysBeforeFirstResponse() {
+        SetDifferenceEstimator estimator = new SetDifferenceEstimator();
+
+        int smallStoreNumCells = estimator.getNumCells(true, 1_000);
+        int largeStoreNumCells = estimator.getNumCells(true, 500_000);
+
+        Assert.assertTrue(smallStoreNumCells < largeStoreNumCells);
+        Assert.assertTrue(largeStoreNumCells >= 500_000 * SetDifferenceEstimator.INITIAL_DIFFERENCE_PER_KNOWN_KEY);
+    }
+
+    @Test
+    public void getNumCells_followsReceivedEntries() {
+        SetDifferenceEstimator estimator = new SetDifferenceEstimator();
+
+        estimator.onResponse(true, 2_000);
+        int numCellsAfterLargeResponse = estimator.getNumCells(true, 500_000);
+        estimator.onResponse(true, 10);
+        int numCellsAfterSmallResponse = estimator.getNumCells(true, 500_000);
+
+        Assert.assertTrue(numCellsAfterLargeResponse > 2 * 2_000);
+        Assert.assertTrue(numCellsAfterSmallResponse >= SetDifferenceEstimator.MIN_EXPECTED_DIFFERENCE);
+        Assert.assertTrue(numCellsAfterSmallResponse < numCellsAfterLargeResponse);
+    }
+
+    @Test
+    public void getNumCells_isIndependentPerRequestType() {
+        SetDifferenceEstimator estimator = new SetDifferenceEstimator();
+
+        estimator.onResponse(true, 2_000);
+
+        Assert.assertTrue(estimator.getNumCells(false, 500_000) < estimator.getNumCells(true, 500_000));
+    }
+
+    @Test
+    public void onReconciliationFailed_doublesTableSize() {
+        SetDifferenceEstimator estimator = new SetDifferenceEstimator();
+        int numCells = estimator.getNumCells(false, 500_000);
+
+        estimator.onReconciliationFailed(false, 500_000);
+
+        Assert.assertEquals(2 * numCells, estimator.getNumCells(false, 500_000));
+    }
+
+    @Test
+    public void getNumCells_isCappedAtMaxNumCells() {
+        SetDifferenceEstimator estimator = new SetDifferenceEstimator();
+
+        estimator.onResponse(false, InvertibleBloomLookupTable.MAX_NUM_CELLS);
+
+        Assert.assertEquals(InvertibleBloomLookupTable.MAX_NUM_CELLS, estimator.getNumCells(false, 500_000));
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.mocks;
+
+import bisq.network.p2p.storage.payload.DateSortedTruncatablePayload;
+
+import java.util.Date;
+
+/**
+ * Stub implementation of a PersistableNetworkPayload implementing the DateSortedTruncatablePayload interface
+ * that can be used in tests to provide canned answers to calls.
+ *
+ * @see <a href="https://martinfowler.com/articles/mocksArentStubs.html#TheDifferenceBetweenMocksAndStubs">Reference</a>
+ */
+public class DateSortedTruncatablePayloadStub extends PersistableNetworkPayloadStub implements DateSortedTruncatablePayload {
+    private final Date date;
+    private final int maxItems;
+
+    public DateSortedTruncatablePayloadStub(byte[] hash, long date, int maxItems) {
+        super(hash);
+        this.date = new Date(date);
+        this.maxItems = maxItems;
+    }
+
+    @Override
+    public Date getDate() {
+        return date;
+    }
+
+    @Override
+    public int maxItems() {
+        return maxItems;
+    }
+}
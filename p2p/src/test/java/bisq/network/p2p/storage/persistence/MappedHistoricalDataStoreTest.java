@@ -0,0 +1,170 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.mocks.PersistableNetworkPayloadStub;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import com.google.protobuf.ByteString;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedHistoricalDataStoreTest {
+    private static final int NUM_ITEMS = 100;
+
+    private File storeFile;
+
+    @Before
+    public void setUp() throws IOException {
+        storeFile = File.createTempFile("MappedHistoricalDataStoreTest", null);
+        protobuf.AccountAgeWitnessStore.Builder storeBuilder = protobuf.AccountAgeWitnessStore.newBuilder();
+        for (int i = 0; i < NUM_ITEMS; i++) {
+            storeBuilder.addItems(protobuf.AccountAgeWitness.newBuilder()
+                    .setHash(ByteString.copyFrom(getHash(i)))
+                    .setDate(i));
+        }
+        try (FileOutputStream fileOutputStream = new FileOutputStream(storeFile)) {
+            protobuf.PersistableEnvelope.newBuilder()
+                    .setAccountAgeWitnessStore(storeBuilder)
+                    .build()
+                    .writeDelimitedTo(fileOutputStream);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        storeFile.delete();
+    }
+
+    @Test
+    public void index_containsAllHashes() throws IOException {
+        MappedHistoricalDataStore store = createStore();
+
+        Assert.assertEquals(NUM_ITEMS, store.size());
+        for (int i = 0; i < NUM_ITEMS; i++) {
+            Assert.assertTrue(store.containsKey(new P2PDataStorage.ByteArray(getHash(i))));
+        }
+        Assert.assertFalse(store.containsKey(new P2PDataStorage.ByteArray(getHash(NUM_ITEMS))));
+    }
+
+    @Test
+    public void get_decodesPayload() throws IOException {
+        MappedHistoricalDataStore store = createStore();
+
+        PersistableNetworkPayload payload = store.get(new P2PDataStorage.ByteArray(getHash(42)));
+        Assert.assertNotNull(payload);
+        Assert.assertArrayEquals(getHash(42), payload.getHash());
+        Assert.assertNull(store.get(new P2PDataStorage.ByteArray(getHash(NUM_ITEMS))));
+    }
+
+    @Test
+    public void entrySet_decodesAllPayloads() throws IOException {
+        MappedHistoricalDataStore store = createStore();
+
+        Set<P2PDataStorage.ByteArray> decodedHashes = new HashSet<>();
+        for (Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> entry : store.entrySet()) {
+            Assert.assertArrayEquals(entry.getKey().bytes, entry.getValue().getHash());
+            decodedHashes.add(entry.getKey());
+        }
+        Assert.assertEquals(store.keySet(), decodedHashes);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void put_isNotSupported() throws IOException {
+        MappedHistoricalDataStore store = createStore();
+
+        store.put(new P2PDataStorage.ByteArray(getHash(NUM_ITEMS)), new PersistableNetworkPayloadStub(true));
+    }
+
+    @Test
+    public void entryEqualsAndHashCode_doNotDecode() throws IOException {
+        AtomicInteger numDecoded = new AtomicInteger();
+        MappedHistoricalDataStore store = createStore(numDecoded);
+
+        Set<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> entries = new HashSet<>(store.entrySet());
+        Assert.assertEquals(NUM_ITEMS, entries.size());
+        Assert.assertTrue(entries.containsAll(store.entrySet()));
+        Assert.assertEquals(0, numDecoded.get());
+    }
+
+    @Test
+    public void compositeDataStoreMap_keyLookupsDoNotDecode() throws IOException {
+        AtomicInteger numDecoded = new AtomicInteger();
+        MappedHistoricalDataStore store = createStore(numDecoded);
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> liveMap = new HashMap<>();
+        P2PDataStorage.ByteArray newHash = new P2PDataStorage.ByteArray(getHash(NUM_ITEMS));
+        liveMap.put(newHash, new PersistableNetworkPayloadStub(newHash.bytes));
+        P2PDataStorage.ByteArray historicalHash = new P2PDataStorage.ByteArray(getHash(7));
+        liveMap.put(historicalHash, new PersistableNetworkPayloadStub(historicalHash.bytes));
+
+        CompositeDataStoreMap map = new CompositeDataStoreMap(List.of(liveMap, store));
+
+        Assert.assertEquals(NUM_ITEMS + 1, map.size());
+        Assert.assertTrue(map.containsKey(newHash));
+        Assert.assertTrue(map.containsKey(new P2PDataStorage.ByteArray(getHash(42))));
+        Assert.assertEquals(NUM_ITEMS + 1, map.keySet().size());
+        Assert.assertEquals(0, numDecoded.get());
+
+        // The counted size gets updated when an underlying map changed.
+        P2PDataStorage.ByteArray addedHash = new P2PDataStorage.ByteArray(getHash(NUM_ITEMS + 1));
+        liveMap.put(addedHash, new PersistableNetworkPayloadStub(addedHash.bytes));
+        Assert.assertEquals(NUM_ITEMS + 2, map.size());
+
+        Assert.assertNotNull(map.get(new P2PDataStorage.ByteArray(getHash(42))));
+        Assert.assertEquals(1, numDecoded.get());
+        // The live map comes first, so the historical payload does not get decoded.
+        Assert.assertSame(liveMap.get(historicalHash), map.get(historicalHash));
+        Assert.assertEquals(1, numDecoded.get());
+    }
+
+    private MappedHistoricalDataStore createStore() throws IOException {
+        return createStore(new AtomicInteger());
+    }
+
+    private MappedHistoricalDataStore createStore(AtomicInteger numDecoded) throws IOException {
+        return new MappedHistoricalDataStore(storeFile,
+                protobuf.AccountAgeWitness.HASH_FIELD_NUMBER,
+                serializedItem -> {
+                    numDecoded.incrementAndGet();
+                    return new PersistableNetworkPayloadStub(
+                            protobuf.AccountAgeWitness.parseFrom(serializedItem).getHash().toByteArray());
+                });
+    }
+
+    private static byte[] getHash(int i) {
+        byte[] hash = new byte[20];
+        hash[0] = (byte) i;
+        hash[1] = (byte) (i >> 8);
+        return hash;
+    }
+}
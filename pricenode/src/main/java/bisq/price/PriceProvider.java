@@ -21,8 +21,10 @@ import org.springframework.context.SmartLifecycle;
 
 import java.time.Duration;
 
+import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Supplier;
 
 import org.slf4j.Logger;
@@ -38,6 +40,8 @@ public abstract class PriceProvider<T> implements SmartLifecycle, Supplier<T> {
 
     private T cachedResult;
 
+    private final List<Runnable> refreshListeners = new CopyOnWriteArrayList<>();
+
     public PriceProvider(Duration refreshInterval) {
         this.refreshInterval = refreshInterval;
         log.info("will refresh every {}", refreshInterval);
@@ -80,6 +84,7 @@ public abstract class PriceProvider<T> implements SmartLifecycle, Supplier<T> {
         log.info("refresh took {} ms.", (System.currentTimeMillis() - ts));
 
         onRefresh();
+        refreshListeners.forEach(Runnable::run);
     }
 
     protected abstract T doGet();
@@ -87,6 +92,13 @@ public abstract class PriceProvider<T> implements SmartLifecycle, Supplier<T> {
     protected void onRefresh() {
     }
 
+    /**
+     * @param listener called after each refresh, from the refreshing thread
+     */
+    public void addRefreshListener(Runnable listener) {
+        refreshListeners.add(listener);
+    }
+
     @Override
     public void stop() {
         timer.cancel();
@@ -19,22 +19,104 @@ package bisq.price.spot;
 
 import bisq.price.PriceController;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import java.util.Arrays;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 class ExchangeRateController extends PriceController {
 
     private final ExchangeRateService exchangeRateService;
+    private final ObjectMapper objectMapper;
+
+    // The serialized response of the market prices we got last from the exchangeRateService
+    private volatile SerializedMarketPrices serializedMarketPrices;
 
-    public ExchangeRateController(ExchangeRateService exchangeRateService) {
+    public ExchangeRateController(ExchangeRateService exchangeRateService, ObjectMapper objectMapper) {
         this.exchangeRateService = exchangeRateService;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * The exchangeRateService delivers the same map instance until the providers got
+     * refreshed, so we only serialize and compress once per refresh. Clients which send
+     * the ETag of the current data in the If-None-Match header get a 304 response.
+     */
     @GetMapping(path = "/getAllMarketPrices")
-    public Map<String, Object> getAllMarketPrices() {
-        return exchangeRateService.getAllMarketPrices();
+    public ResponseEntity<byte[]> getAllMarketPrices(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding)
+            throws IOException {
+        SerializedMarketPrices marketPrices = getSerializedMarketPrices();
+        if (marketPrices.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(marketPrices.eTag)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(marketPrices.eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(marketPrices.gzippedJson);
+        }
+        return builder.body(marketPrices.json);
+    }
+
+    private SerializedMarketPrices getSerializedMarketPrices() throws IOException {
+        Map<String, Object> allMarketPrices = exchangeRateService.getAllMarketPrices();
+        SerializedMarketPrices marketPrices = serializedMarketPrices;
+        if (marketPrices == null || marketPrices.source != allMarketPrices) {
+            marketPrices = new SerializedMarketPrices(allMarketPrices,
+                    objectMapper.writeValueAsBytes(allMarketPrices));
+            serializedMarketPrices = marketPrices;
+        }
+        return marketPrices;
+    }
+
+    private static class SerializedMarketPrices {
+        private final Map<String, Object> source;
+        private final byte[] json;
+        private final byte[] gzippedJson;
+        private final String eTag;
+
+        SerializedMarketPrices(Map<String, Object> source, byte[] json) throws IOException {
+            this.source = source;
+            this.json = json;
+            this.gzippedJson = gzip(json);
+            this.eTag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+        }
+
+        boolean matches(String ifNoneMatch) {
+            return ifNoneMatch != null &&
+                    Arrays.stream(ifNoneMatch.split(","))
+                            .map(String::trim)
+                            .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                            .anyMatch(tag -> tag.equals("*") || tag.equals(eTag));
+        }
+
+        private static byte[] gzip(byte[] data) throws IOException {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length / 4);
+            try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+                gzipOutputStream.write(data);
+            }
+            return outputStream.toByteArray();
+        }
     }
 }
@@ -22,6 +22,7 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
@@ -30,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.OptionalDouble;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +47,10 @@ class ExchangeRateService {
 
     private final List<ExchangeRateProvider> providers;
 
+    // Incremented at each refresh of any provider
+    private final AtomicLong refreshCounter = new AtomicLong();
+    private volatile AllMarketPrices cachedAllMarketPrices;
+
     /**
      * Construct an {@link ExchangeRateService} with a list of all
      * {@link ExchangeRateProvider} implementations discovered via classpath scanning.
@@ -54,9 +60,32 @@ class ExchangeRateService {
      */
     public ExchangeRateService(List<ExchangeRateProvider> providers) {
         this.providers = providers;
+        providers.forEach(provider -> provider.addRefreshListener(refreshCounter::incrementAndGet));
     }
 
+    /**
+     * The result is computed only once after each refresh of the providers, so all callers
+     * between two refreshes get the same unmodifiable map instance.
+     */
     public Map<String, Object> getAllMarketPrices() {
+        AllMarketPrices allMarketPrices = cachedAllMarketPrices;
+        if (allMarketPrices == null || allMarketPrices.refreshCount != refreshCounter.get()) {
+            synchronized (this) {
+                allMarketPrices = cachedAllMarketPrices;
+                long refreshCount = refreshCounter.get();
+                if (allMarketPrices == null || allMarketPrices.refreshCount != refreshCount) {
+                    // If a provider refreshes while we compute, the refresh count does not match
+                    // anymore and the next call computes it again
+                    allMarketPrices = new AllMarketPrices(refreshCount,
+                            Collections.unmodifiableMap(computeAllMarketPrices()));
+                    cachedAllMarketPrices = allMarketPrices;
+                }
+            }
+        }
+        return allMarketPrices.marketPrices;
+    }
+
+    private Map<String, Object> computeAllMarketPrices() {
         Map<String, Object> metadata = new LinkedHashMap<>();
         Map<String, ExchangeRate> aggregateExchangeRates = getAggregateExchangeRates();
 
@@ -76,7 +105,7 @@ class ExchangeRateService {
         // different price nodes easier
         List<ExchangeRate> values = new ArrayList<>(aggregateExchangeRates.values());
         values.sort(Comparator.comparing(ExchangeRate::getCurrency));
-        result.put("data", values);
+        result.put("data", Collections.unmodifiableList(values));
 
         return result;
     }
@@ -180,4 +209,14 @@ class ExchangeRateService {
             .orElseThrow(() -> new IllegalStateException("No exchange rate data found for " + provider.getName()))
             .getTimestamp();
     }
+
+    private static class AllMarketPrices {
+        private final long refreshCount;
+        private final Map<String, Object> marketPrices;
+
+        AllMarketPrices(long refreshCount, Map<String, Object> marketPrices) {
+            this.refreshCount = refreshCount;
+            this.marketPrices = marketPrices;
+        }
+    }
 }
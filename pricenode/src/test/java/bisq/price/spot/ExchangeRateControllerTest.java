@@ -0,0 +1,101 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.price.spot;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ExchangeRateControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Map<String, Object> allMarketPrices;
+    private ExchangeRateController controller;
+
+    @BeforeEach
+    void setUp() {
+        allMarketPrices = createMarketPrices(1);
+        ExchangeRateService exchangeRateService = new ExchangeRateService(Collections.emptyList()) {
+            @Override
+            public Map<String, Object> getAllMarketPrices() {
+                return allMarketPrices;
+            }
+        };
+        controller = new ExchangeRateController(exchangeRateService, objectMapper);
+    }
+
+    @Test
+    public void getAllMarketPrices_returnsSerializedJson() throws IOException {
+        ResponseEntity<byte[]> response = controller.getAllMarketPrices(null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(objectMapper.writeValueAsBytes(allMarketPrices), response.getBody());
+        assertNull(response.getHeaders().getFirst("Content-Encoding"));
+        assertSame(response.getBody(), controller.getAllMarketPrices(null, null).getBody());
+    }
+
+    @Test
+    public void getAllMarketPrices_withGzip_returnsCompressedJson() throws IOException {
+        ResponseEntity<byte[]> response = controller.getAllMarketPrices(null, "gzip, deflate");
+
+        assertEquals("gzip", response.getHeaders().getFirst("Content-Encoding"));
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            assertArrayEquals(objectMapper.writeValueAsBytes(allMarketPrices), inputStream.readAllBytes());
+        }
+    }
+
+    @Test
+    public void getAllMarketPrices_withMatchingETag_returnsNotModified() throws IOException {
+        String eTag = controller.getAllMarketPrices(null, null).getHeaders().getETag();
+
+        ResponseEntity<byte[]> response = controller.getAllMarketPrices(eTag, null);
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+
+        // After a refresh we get a new map instance and the ETag does not match anymore
+        allMarketPrices = createMarketPrices(2);
+        response = controller.getAllMarketPrices(eTag, null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotEquals(eTag, response.getHeaders().getETag());
+    }
+
+    private static Map<String, Object> createMarketPrices(long timestamp) {
+        Map<String, Object> marketPrices = new LinkedHashMap<>();
+        marketPrices.put("btcAverageTs", timestamp);
+        marketPrices.put("data", Collections.singletonList(new ExchangeRate("EUR", 10000, timestamp, "Test")));
+        return marketPrices;
+    }
+}
@@ -27,6 +27,7 @@ import bisq.core.user.User;
 
 import bisq.network.p2p.P2PService;
 import bisq.network.p2p.P2PServiceListener;
+import bisq.network.p2p.network.NetworkMetricsServer;
 import bisq.network.p2p.peers.PeerManager;
 
 import bisq.common.Timer;
@@ -126,6 +127,7 @@ public class SeedNodeMain extends ExecutableForAppWithP2p {
         });
 
         seedNode.startApplication();
+        injector.getInstance(NetworkMetricsServer.class).start();
 
         injector.getInstance(P2PService.class).addP2PServiceListener(new P2PServiceListener() {
             @Override
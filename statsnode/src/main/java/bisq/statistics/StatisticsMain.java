@@ -20,6 +20,8 @@ package bisq.statistics;
 import bisq.core.app.misc.ExecutableForAppWithP2p;
 import bisq.core.app.misc.ModuleForAppWithP2p;
 
+import bisq.network.p2p.network.NetworkMetricsServer;
+
 import bisq.common.UserThread;
 import bisq.common.app.AppModule;
 
@@ -89,5 +91,6 @@ public class StatisticsMain extends ExecutableForAppWithP2p {
     @Override
     protected void startApplication() {
         statistics.startApplication();
+        injector.getInstance(NetworkMetricsServer.class).start();
     }
 }